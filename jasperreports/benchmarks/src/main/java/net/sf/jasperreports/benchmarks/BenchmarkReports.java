@@ -0,0 +1,181 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.fill.JRFileVirtualizer;
+import net.sf.jasperreports.engine.fill.JRGzipVirtualizer;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+
+/**
+ * Access to the report designs used by the benchmarks and common fill helpers.
+ */
+public final class BenchmarkReports
+{
+	public static final String TABULAR = "Tabular";
+	public static final String CROSSTAB = "Crosstab";
+	public static final String MASTER = "Master";
+	public static final String SUBREPORT = "Subreport";
+	public static final String TEXT_HEAVY = "TextHeavy";
+	public static final String EXPRESSIONS = "Expressions";
+
+	public static final String VIRTUALIZER_NONE = "none";
+	public static final String VIRTUALIZER_SWAP = "swap";
+	public static final String VIRTUALIZER_FILE = "file";
+	public static final String VIRTUALIZER_GZIP = "gzip";
+
+	/**
+	 * Maximum number of pages kept in memory by the virtualizers.
+	 */
+	public static final int VIRTUALIZER_MAX_SIZE = 20;
+
+	private static final String RESOURCE_PATH = "net/sf/jasperreports/benchmarks/";
+
+	private BenchmarkReports()
+	{
+	}
+
+	/**
+	 * Returns the JRXML source of a benchmark report.
+	 */
+	public static byte[] loadSource(String name)
+	{
+		try
+		{
+			return JRLoader.loadBytesFromResource(RESOURCE_PATH + name + ".jrxml");
+		}
+		catch (JRException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+	}
+
+	public static JasperDesign loadDesign(byte[] source) throws JRException
+	{
+		InputStream input = new ByteArrayInputStream(source);
+		return JRXmlLoader.load(DefaultJasperReportsContext.getInstance(), input);
+	}
+
+	public static JasperReport compile(String name) throws JRException
+	{
+		return JasperCompileManager.compileReport(loadDesign(loadSource(name)));
+	}
+
+	/**
+	 * Fills a report with a {@link SyntheticDataSource} of the given size.
+	 */
+	public static JasperPrint fill(JasperReport report, Map<String, Object> parameters, int records) throws JRException
+	{
+		return JasperFillManager.fillReport(report, parameters, new SyntheticDataSource(records));
+	}
+
+	public static JasperPrint fillTabular(int records) throws JRException
+	{
+		return fill(compile(TABULAR), new HashMap<>(), records);
+	}
+
+	/**
+	 * Creates a virtualizer of the given type, or <code>null</code> for {@link #VIRTUALIZER_NONE}.
+	 */
+	public static JRVirtualizer createVirtualizer(String type, File directory)
+	{
+		switch (type)
+		{
+			case VIRTUALIZER_NONE:
+				return null;
+			case VIRTUALIZER_SWAP:
+				JRSwapFile swapFile = new JRSwapFile(directory.getAbsolutePath(), 4096, 64);
+				return new JRSwapFileVirtualizer(VIRTUALIZER_MAX_SIZE, swapFile, true);
+			case VIRTUALIZER_FILE:
+				return new JRFileVirtualizer(VIRTUALIZER_MAX_SIZE, directory.getAbsolutePath());
+			case VIRTUALIZER_GZIP:
+				return new JRGzipVirtualizer(VIRTUALIZER_MAX_SIZE);
+			default:
+				throw new JRRuntimeException("Unknown virtualizer type " + type);
+		}
+	}
+
+	public static void setVirtualizer(Map<String, Object> parameters, JRVirtualizer virtualizer)
+	{
+		if (virtualizer == null)
+		{
+			parameters.remove(JRParameter.REPORT_VIRTUALIZER);
+		}
+		else
+		{
+			parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+		}
+	}
+
+	public static File createTempDirectory(String prefix)
+	{
+		try
+		{
+			File directory = File.createTempFile(prefix, "");
+			if (!directory.delete() || !directory.mkdir())
+			{
+				throw new JRRuntimeException("Could not create directory " + directory);
+			}
+			directory.deleteOnExit();
+			return directory;
+		}
+		catch (IOException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+	}
+
+	public static void deleteDirectory(File directory)
+	{
+		File[] files = directory.listFiles();
+		if (files != null)
+		{
+			for (File file : files)
+			{
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+}
@@ -0,0 +1,213 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.benchmarks;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Runs the benchmarks and optionally compares the results with a saved baseline.
+ * <p>
+ * Besides the regular JMH command line options, the following options are accepted:
+ * <ul>
+ * <li><code>-save-baseline &lt;file&gt;</code> saves the scores of the run to a properties file;</li>
+ * <li><code>-baseline &lt;file&gt;</code> compares the scores of the run with a previously saved baseline
+ * and exits with status 1 if any benchmark regressed beyond the threshold;</li>
+ * <li><code>-threshold &lt;fraction&gt;</code> sets the tolerated relative regression, 0.1 (10%) by default.</li>
+ * </ul>
+ * Example, comparing the fill benchmarks with a baseline produced by an earlier build:
+ * <pre>
+ * java -jar target/benchmarks.jar FillBenchmark -baseline fill-baseline.properties -threshold 0.05
+ * </pre>
+ * Throughput scores are expected not to decrease, while scores of other modes (e.g. average time)
+ * are expected not to increase. The baseline needs to be produced with the same time units
+ * and on comparable hardware.
+ */
+public class BenchmarkRunner
+{
+	public static final double DEFAULT_THRESHOLD = 0.1;
+
+	public static void main(String[] args) throws RunnerException, IOException
+	{
+		String baselineFile = null;
+		String saveBaselineFile = null;
+		double threshold = DEFAULT_THRESHOLD;
+		List<String> jmhArgs = new ArrayList<>();
+		for (int i = 0; i < args.length; i++)
+		{
+			String arg = args[i];
+			if ("-baseline".equals(arg) && i + 1 < args.length)
+			{
+				baselineFile = args[++i];
+			}
+			else if ("-save-baseline".equals(arg) && i + 1 < args.length)
+			{
+				saveBaselineFile = args[++i];
+			}
+			else if ("-threshold".equals(arg) && i + 1 < args.length)
+			{
+				threshold = Double.parseDouble(args[++i]);
+			}
+			else
+			{
+				jmhArgs.add(arg);
+			}
+		}
+
+		CommandLineOptions commandLineOptions;
+		try
+		{
+			commandLineOptions = new CommandLineOptions(jmhArgs.toArray(new String[jmhArgs.size()]));
+		}
+		catch (CommandLineOptionException e)
+		{
+			System.err.println("Error parsing command line: " + e.getMessage());
+			System.exit(2);
+			return;
+		}
+
+		Options options = new OptionsBuilder().parent(commandLineOptions).build();
+		Collection<RunResult> results = new Runner(options).run();
+
+		if (saveBaselineFile != null)
+		{
+			saveBaseline(results, saveBaselineFile);
+		}
+
+		if (baselineFile != null)
+		{
+			List<String> regressions = compare(results, loadBaseline(baselineFile), threshold);
+			if (!regressions.isEmpty())
+			{
+				System.err.println("Benchmarks regressed by more than " + (threshold * 100) + "%:");
+				for (String regression : regressions)
+				{
+					System.err.println("  " + regression);
+				}
+				System.exit(1);
+			}
+			System.out.println("No benchmark regressed by more than " + (threshold * 100) + "%.");
+		}
+	}
+
+	/**
+	 * Creates a key identifying a benchmark and its parameter values.
+	 */
+	public static String resultKey(BenchmarkParams params)
+	{
+		StringBuilder key = new StringBuilder(params.getBenchmark());
+		Collection<String> paramKeys = new TreeSet<>(params.getParamsKeys());
+		if (!paramKeys.isEmpty())
+		{
+			key.append('{');
+			boolean first = true;
+			for (String paramKey : paramKeys)
+			{
+				if (!first)
+				{
+					key.append(',');
+				}
+				key.append(paramKey).append(':').append(params.getParam(paramKey));
+				first = false;
+			}
+			key.append('}');
+		}
+		return key.toString();
+	}
+
+	protected static void saveBaseline(Collection<RunResult> results, String file) throws IOException
+	{
+		Properties baseline = new Properties();
+		for (RunResult result : results)
+		{
+			baseline.setProperty(resultKey(result.getParams()), 
+					String.valueOf(result.getPrimaryResult().getScore()));
+		}
+
+		try (OutputStream out = new FileOutputStream(file))
+		{
+			baseline.store(out, "JasperReports benchmark baseline");
+		}
+	}
+
+	protected static Properties loadBaseline(String file) throws IOException
+	{
+		Properties baseline = new Properties();
+		try (InputStream in = new FileInputStream(file))
+		{
+			baseline.load(in);
+		}
+		return baseline;
+	}
+
+	/**
+	 * Compares the results with the baseline and returns descriptions of the regressions.
+	 * Benchmarks not present in the baseline are ignored.
+	 */
+	public static List<String> compare(Collection<RunResult> results, Properties baseline, double threshold)
+	{
+		List<String> regressions = new ArrayList<>();
+		for (RunResult result : results)
+		{
+			String key = resultKey(result.getParams());
+			String baselineValue = baseline.getProperty(key);
+			if (baselineValue == null)
+			{
+				continue;
+			}
+
+			double baselineScore = Double.parseDouble(baselineValue);
+			double score = result.getPrimaryResult().getScore();
+			boolean higherIsBetter = result.getParams().getMode() == Mode.Throughput;
+			double change = baselineScore == 0 ? 0 : (score - baselineScore) / baselineScore;
+			boolean regressed = higherIsBetter ? change < -threshold : change > threshold;
+			if (regressed)
+			{
+				regressions.add(String.format(Locale.US, "%s: %.3f -> %.3f %s (%+.1f%%)", 
+						key, baselineScore, score, result.getPrimaryResult().getScoreUnit(), change * 100));
+			}
+		}
+		return regressions;
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.design.JasperDesign;
+
+
+/**
+ * JRXML parsing and report compilation benchmarks.
+ * <p>
+ * <code>loadJrxml</code> measures the XML digester path (including digester reuse),
+ * while <code>compile</code> measures verification and expression class generation
+ * for an already parsed design.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class CompileBenchmark
+{
+	@Param({BenchmarkReports.TABULAR, BenchmarkReports.CROSSTAB, BenchmarkReports.MASTER, BenchmarkReports.TEXT_HEAVY})
+	public String report;
+
+	private byte[] source;
+	private JasperDesign design;
+
+	@Setup
+	public void load() throws JRException
+	{
+		source = BenchmarkReports.loadSource(report);
+		design = BenchmarkReports.loadDesign(source);
+	}
+
+	@Benchmark
+	public JasperDesign loadJrxml() throws JRException
+	{
+		return BenchmarkReports.loadDesign(source);
+	}
+
+	@Benchmark
+	public JasperReport compile() throws JRException
+	{
+		return JasperCompileManager.compileReport(design);
+	}
+}
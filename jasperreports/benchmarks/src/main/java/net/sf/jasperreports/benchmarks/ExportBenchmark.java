@@ -0,0 +1,153 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.benchmarks;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.export.HtmlExporter;
+import net.sf.jasperreports.engine.export.JRCsvExporter;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimpleWriterExporterOutput;
+import net.sf.jasperreports.export.SimpleXlsxExporterConfiguration;
+
+
+/**
+ * Export benchmarks for a tabular report filled once per trial.
+ * <p>
+ * The exported documents are written to a discarding stream, and the number of
+ * written bytes is returned so that the output cannot be optimized away.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Fork(1)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class ExportBenchmark
+{
+	@Param({"1000", "10000"})
+	public int records;
+
+	private JasperPrint print;
+
+	@Setup
+	public void fill() throws JRException
+	{
+		print = BenchmarkReports.fillTabular(records);
+	}
+
+	@Benchmark
+	public long pdf() throws JRException
+	{
+		CountingOutputStream output = new CountingOutputStream();
+		JRPdfExporter exporter = new JRPdfExporter();
+		exporter.setExporterInput(new SimpleExporterInput(print));
+		exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(output));
+		exporter.exportReport();
+		return output.count;
+	}
+
+	@Benchmark
+	public long xlsx() throws JRException
+	{
+		return exportXlsx(false);
+	}
+
+	@Benchmark
+	public long xlsxStreaming() throws JRException
+	{
+		return exportXlsx(true);
+	}
+
+	protected long exportXlsx(boolean streamingSheets) throws JRException
+	{
+		CountingOutputStream output = new CountingOutputStream();
+		JRXlsxExporter exporter = new JRXlsxExporter();
+		exporter.setExporterInput(new SimpleExporterInput(print));
+		exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(output));
+		SimpleXlsxExporterConfiguration configuration = new SimpleXlsxExporterConfiguration();
+		configuration.setStreamingSheets(streamingSheets);
+		exporter.setConfiguration(configuration);
+		exporter.exportReport();
+		return output.count;
+	}
+
+	@Benchmark
+	public long html() throws JRException
+	{
+		CountingOutputStream output = new CountingOutputStream();
+		HtmlExporter exporter = new HtmlExporter();
+		exporter.setExporterInput(new SimpleExporterInput(print));
+		exporter.setExporterOutput(new SimpleHtmlExporterOutput(output));
+		exporter.exportReport();
+		return output.count;
+	}
+
+	@Benchmark
+	public long csv() throws JRException
+	{
+		CountingOutputStream output = new CountingOutputStream();
+		JRCsvExporter exporter = new JRCsvExporter();
+		exporter.setExporterInput(new SimpleExporterInput(print));
+		exporter.setExporterOutput(new SimpleWriterExporterOutput(output));
+		exporter.exportReport();
+		return output.count;
+	}
+
+	protected static class CountingOutputStream extends OutputStream
+	{
+		long count;
+
+		@Override
+		public void write(int b)
+		{
+			++count;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len)
+		{
+			count += len;
+		}
+	}
+}
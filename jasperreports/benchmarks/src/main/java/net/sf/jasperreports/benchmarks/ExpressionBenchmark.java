@@ -0,0 +1,134 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.benchmarks;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.jasperreports.compilers.JavaScriptClassCompiler;
+import net.sf.jasperreports.compilers.JavaScriptCompiler;
+import net.sf.jasperreports.compilers.JavaScriptEvaluator;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.design.JasperDesign;
+
+
+/**
+ * Expression evaluation benchmarks comparing the Java and JavaScript expression languages.
+ * <p>
+ * The same report is compiled with the Java compiler, with the JavaScript compiler that compiles
+ * expressions at fill time and with the JavaScript compiler that generates bytecode at report compile time.
+ * <code>row</code> reports the average cost of filling one record, which is dominated by expression
+ * evaluation, while <code>fill</code> reports the cost of a single record fill, which includes
+ * the evaluator initialization done for each fill.
+ * The <code>shared</code> parameter toggles the JavaScript compiled script cache and shared standard objects scope,
+ * it has no effect on Java.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class ExpressionBenchmark
+{
+	public static final String COMPILER_JAVA = "java";
+	public static final String COMPILER_JAVASCRIPT = "javascript";
+	public static final String COMPILER_JAVASCRIPT_CLASS = "javascriptClass";
+
+	public static final int ROW_RECORDS = 5000;
+
+	private static final String LANGUAGE_JAVASCRIPT = "javascript";
+
+	@Param({COMPILER_JAVA, COMPILER_JAVASCRIPT, COMPILER_JAVASCRIPT_CLASS})
+	public String compiler;
+
+	@Param({"true", "false"})
+	public boolean shared;
+
+	private SimpleJasperReportsContext context;
+	private JasperReport report;
+
+	@Setup
+	public void compile() throws JRException
+	{
+		context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		context.setProperty(JavaScriptEvaluator.PROPERTY_SHARED_SCRIPTS, String.valueOf(shared));
+		context.setProperty(JavaScriptEvaluator.PROPERTY_SHARED_STANDARD_OBJECTS, String.valueOf(shared));
+
+		JasperDesign design = BenchmarkReports.loadDesign(BenchmarkReports.loadSource(BenchmarkReports.EXPRESSIONS));
+		switch (compiler)
+		{
+			case COMPILER_JAVA:
+				report = JasperCompileManager.getInstance(context).compile(design);
+				break;
+			case COMPILER_JAVASCRIPT:
+				design.setLanguage(LANGUAGE_JAVASCRIPT);
+				report = new JavaScriptCompiler(context).compileReport(design);
+				break;
+			case COMPILER_JAVASCRIPT_CLASS:
+				design.setLanguage(LANGUAGE_JAVASCRIPT);
+				report = new JavaScriptClassCompiler(context).compileReport(design);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown compiler " + compiler);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROW_RECORDS)
+	public JasperPrint row() throws JRException
+	{
+		return fill(ROW_RECORDS);
+	}
+
+	@Benchmark
+	public JasperPrint fill() throws JRException
+	{
+		return fill(1);
+	}
+
+	protected JasperPrint fill(int records) throws JRException
+	{
+		return JasperFillManager.getInstance(context).fill(report, new HashMap<>(), new SyntheticDataSource(records));
+	}
+}
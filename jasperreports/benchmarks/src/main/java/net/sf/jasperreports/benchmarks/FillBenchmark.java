@@ -0,0 +1,201 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRSortField;
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.design.JRDesignSortField;
+import net.sf.jasperreports.engine.type.SortFieldTypeEnum;
+import net.sf.jasperreports.engine.type.SortOrderEnum;
+
+
+/**
+ * Report fill benchmarks over {@link SyntheticDataSource} records.
+ * <p>
+ * Each report shape has its own state so that only the parameters relevant to it
+ * are combined: the tabular report is filled with and without virtualization and
+ * in-memory sorting, the master/subreport pair with and without virtualization,
+ * and the crosstab report only by record count.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Fork(1)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class FillBenchmark
+{
+	@State(Scope.Benchmark)
+	public static class TabularState extends VirtualizerState
+	{
+		@Param({"1000", "10000"})
+		public int records;
+
+		@Param({"false", "true"})
+		public boolean sorted;
+
+		JasperReport report;
+
+		@Setup(Level.Trial)
+		public void compile() throws JRException
+		{
+			report = BenchmarkReports.compile(BenchmarkReports.TABULAR);
+		}
+
+		Map<String, Object> parameters()
+		{
+			Map<String, Object> parameters = new HashMap<>();
+			if (sorted)
+			{
+				List<JRSortField> sortFields = new ArrayList<>();
+				sortFields.add(new JRDesignSortField("category", SortFieldTypeEnum.FIELD, SortOrderEnum.ASCENDING));
+				sortFields.add(new JRDesignSortField("amount", SortFieldTypeEnum.FIELD, SortOrderEnum.DESCENDING));
+				parameters.put(JRParameter.SORT_FIELDS, sortFields);
+			}
+			return parameters;
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class CrosstabState
+	{
+		@Param({"1000", "10000"})
+		public int records;
+
+		JasperReport report;
+
+		@Setup(Level.Trial)
+		public void compile() throws JRException
+		{
+			report = BenchmarkReports.compile(BenchmarkReports.CROSSTAB);
+		}
+	}
+
+	@State(Scope.Benchmark)
+	public static class SubreportState extends VirtualizerState
+	{
+		/**
+		 * Number of master records, each of them filling a subreport.
+		 */
+		@Param({"100", "1000"})
+		public int records;
+
+		JasperReport master;
+		JasperReport subreport;
+
+		@Setup(Level.Trial)
+		public void compile() throws JRException
+		{
+			master = BenchmarkReports.compile(BenchmarkReports.MASTER);
+			subreport = BenchmarkReports.compile(BenchmarkReports.SUBREPORT);
+		}
+	}
+
+	public abstract static class VirtualizerState
+	{
+		@Param({BenchmarkReports.VIRTUALIZER_NONE, BenchmarkReports.VIRTUALIZER_SWAP, BenchmarkReports.VIRTUALIZER_FILE})
+		public String virtualizer;
+
+		File directory;
+
+		@Setup(Level.Trial)
+		public void createDirectory()
+		{
+			directory = BenchmarkReports.createTempDirectory("jrbench");
+		}
+
+		@TearDown(Level.Trial)
+		public void deleteDirectory()
+		{
+			BenchmarkReports.deleteDirectory(directory);
+		}
+
+		JRVirtualizer createVirtualizer()
+		{
+			return BenchmarkReports.createVirtualizer(virtualizer, directory);
+		}
+	}
+
+	@Benchmark
+	public JasperPrint tabular(TabularState state) throws JRException
+	{
+		Map<String, Object> parameters = state.parameters();
+		return fill(state.report, parameters, state.records, state.createVirtualizer());
+	}
+
+	@Benchmark
+	public JasperPrint crosstab(CrosstabState state) throws JRException
+	{
+		return BenchmarkReports.fill(state.report, new HashMap<>(), state.records);
+	}
+
+	@Benchmark
+	public JasperPrint subreport(SubreportState state) throws JRException
+	{
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("Subreport", state.subreport);
+		return fill(state.master, parameters, state.records, state.createVirtualizer());
+	}
+
+	protected JasperPrint fill(JasperReport report, Map<String, Object> parameters, int records,
+			JRVirtualizer virtualizer) throws JRException
+	{
+		BenchmarkReports.setVirtualizer(parameters, virtualizer);
+		try
+		{
+			return BenchmarkReports.fill(report, parameters, records);
+		}
+		finally
+		{
+			if (virtualizer != null)
+			{
+				virtualizer.cleanup();
+			}
+		}
+	}
+}
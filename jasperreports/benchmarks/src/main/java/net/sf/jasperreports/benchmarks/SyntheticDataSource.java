@@ -0,0 +1,134 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.benchmarks;
+
+import java.util.Date;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRRewindableDataSource;
+import net.sf.jasperreports.engine.JRRuntimeException;
+
+
+/**
+ * In-memory data source producing a configurable number of deterministic records.
+ * <p>
+ * Field values are computed from the record index, so that the same record count
+ * always produces the same report and no memory is needed for the data itself.
+ * The following fields are available:
+ * <ul>
+ * <li><code>id</code> - <code>java.lang.Integer</code></li>
+ * <li><code>name</code> - <code>java.lang.String</code>, 1000 distinct values</li>
+ * <li><code>category</code> - <code>java.lang.String</code>, 20 distinct values</li>
+ * <li><code>region</code> - <code>java.lang.String</code>, 8 distinct values</li>
+ * <li><code>quantity</code> - <code>java.lang.Integer</code></li>
+ * <li><code>amount</code> - <code>java.lang.Double</code></li>
+ * <li><code>date</code> - <code>java.util.Date</code></li>
+ * <li><code>description</code> - <code>java.lang.String</code>, a paragraph of variable length</li>
+ * </ul>
+ */
+public class SyntheticDataSource implements JRRewindableDataSource
+{
+	private static final String[] REGIONS = {"North", "South", "East", "West", "Central", "Coastal", "Mountain", "Islands"};
+
+	private static final String[] WORDS = {
+		"lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit", 
+		"sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", 
+		"magna", "aliqua", "enim", "ad", "minim", "veniam", "quis", "nostrud", "exercitation"
+		};
+
+	private static final long START_DATE = 1577836800000L;//2020-01-01
+	private static final long DAY = 24L * 60 * 60 * 1000;
+
+	private final int size;
+	private int index;
+
+	/**
+	 * Creates a data source with the given number of records.
+	 */
+	public SyntheticDataSource(int size)
+	{
+		this.size = size;
+		this.index = -1;
+	}
+
+	@Override
+	public boolean next()
+	{
+		if (index < size)
+		{
+			++index;
+		}
+		return index < size;
+	}
+
+	@Override
+	public Object getFieldValue(JRField field) throws JRException
+	{
+		String name = field.getName();
+		switch (name)
+		{
+			case "id":
+				return index;
+			case "name":
+				return "Customer " + (index * 7919L % 1000);
+			case "category":
+				return "Category " + (char) ('A' + index % 20);
+			case "region":
+				return REGIONS[index * 31 % REGIONS.length];
+			case "quantity":
+				return 1 + index * 17 % 50;
+			case "amount":
+				return (index * 104729L % 100000) / 100d;
+			case "date":
+				return new Date(START_DATE + (index % 1000) * DAY);
+			case "description":
+				return description(index);
+			default:
+				throw new JRRuntimeException("Unknown field " + name);
+		}
+	}
+
+	@Override
+	public void moveFirst()
+	{
+		index = -1;
+	}
+
+	protected static String description(int index)
+	{
+		int wordCount = 5 + index * 13 % 60;
+		StringBuilder text = new StringBuilder(wordCount * 8);
+		for (int i = 0; i < wordCount; i++)
+		{
+			if (i > 0)
+			{
+				text.append(i % 12 == 0 ? ". " : " ");
+			}
+			text.append(WORDS[(index + i * 7) % WORDS.length]);
+		}
+		text.append('.');
+		return text.toString();
+	}
+}
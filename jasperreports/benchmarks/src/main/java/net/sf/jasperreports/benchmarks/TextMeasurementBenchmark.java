@@ -0,0 +1,85 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.benchmarks;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.fill.TextMeasurer;
+
+
+/**
+ * Fills a report made of stretching plain, justified and styled text fields,
+ * so that the fill time is dominated by text measurement.
+ * <p>
+ * The <code>simpleText</code> parameter toggles the {@link TextMeasurer#PROPERTY_MEASURE_SIMPLE_TEXTS}
+ * report property, comparing the simple line wrapper to the <code>LineBreakMeasurer</code> based one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Fork(1)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+public class TextMeasurementBenchmark
+{
+	@Param({"1000", "5000"})
+	public int records;
+
+	@Param({"true", "false"})
+	public boolean simpleText;
+
+	private JasperReport report;
+
+	@Setup
+	public void compile() throws JRException
+	{
+		JasperDesign design = BenchmarkReports.loadDesign(BenchmarkReports.loadSource(BenchmarkReports.TEXT_HEAVY));
+		design.setProperty(TextMeasurer.PROPERTY_MEASURE_SIMPLE_TEXTS, String.valueOf(simpleText));
+		report = JasperCompileManager.compileReport(design);
+	}
+
+	@Benchmark
+	public JasperPrint fill() throws JRException
+	{
+		return BenchmarkReports.fill(report, new HashMap<>(), records);
+	}
+}
@@ -36,6 +36,7 @@ import org.jfree.data.time.TimeSeriesCollection;
 import net.sf.jasperreports.charts.JRTimeSeries;
 import net.sf.jasperreports.charts.JRTimeSeriesDataset;
 import net.sf.jasperreports.charts.type.TimePeriodEnum;
+import net.sf.jasperreports.charts.util.SeriesDownsampler;
 import net.sf.jasperreports.charts.util.TimeSeriesLabelGenerator;
 import net.sf.jasperreports.engine.JRChartDataset;
 import net.sf.jasperreports.engine.JRExpressionCollector;
@@ -191,7 +192,7 @@ public class JRFillTimeSeriesDataset extends JRFillChartDataset implements JRTim
 			for(int i = 0; i < seriesNames.size(); i++)
 			{
 				Comparable<?> seriesName = seriesNames.get(i);
-				dataset.addSeries(seriesMap.get(seriesName));
+				dataset.addSeries(SeriesDownsampler.downsample(seriesMap.get(seriesName), getDownsamplingThreshold()));
 			}
 		}
 		return dataset;
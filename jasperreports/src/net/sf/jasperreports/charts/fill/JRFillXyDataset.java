@@ -30,6 +30,7 @@ import java.util.Map;
 
 import net.sf.jasperreports.charts.JRXyDataset;
 import net.sf.jasperreports.charts.JRXySeries;
+import net.sf.jasperreports.charts.util.SeriesDownsampler;
 import net.sf.jasperreports.charts.util.XYDatasetLabelGenerator;
 import net.sf.jasperreports.engine.JRChartDataset;
 import net.sf.jasperreports.engine.JRExpressionCollector;
@@ -186,7 +187,7 @@ public class JRFillXyDataset extends JRFillChartDataset implements JRXyDataset
 			for(int i = 0; i < seriesNames.size(); i++)
 			{
 				Comparable<?> seriesName = seriesNames.get(i);
-				dataset.addSeries(seriesMap.get(seriesName));
+				dataset.addSeries(SeriesDownsampler.downsample(seriesMap.get(seriesName), getDownsamplingThreshold()));
 			}
 		}
 		return dataset;
@@ -0,0 +1,54 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.charts.util;
+
+import java.util.concurrent.Future;
+
+import net.sf.jasperreports.engine.JRChart;
+import net.sf.jasperreports.renderers.Renderable;
+
+
+/**
+ * Chart renderable factory whose renderables can be produced on a separate thread.
+ * <p>
+ * Such factories produce renderables that do not depend on the exporter, and which can
+ * therefore be created in advance and used in the filled report through a placeholder
+ * that waits for the actual renderable only when it is needed.
+ * </p>
+ * 
+ * @see JRChart#PROPERTY_CHART_RENDER_THREADS
+ */
+public interface AsyncChartRenderableFactory extends ChartRenderableFactory
+{
+
+	/**
+	 * Returns a renderable that delegates to a renderable that is being produced by this factory.
+	 * 
+	 * @param renderable the renderable produced by {@link #getRenderable(net.sf.jasperreports.engine.JasperReportsContext, org.jfree.chart.JFreeChart, ChartHyperlinkProvider, java.awt.geom.Rectangle2D)}
+	 * on a separate thread
+	 * @return a renderable to be used in place of the future renderable
+	 */
+	public Renderable getFutureRenderable(Future<Renderable> renderable);
+	
+}
@@ -27,6 +27,7 @@ import java.awt.Graphics2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import org.jfree.chart.JFreeChart;
 
@@ -37,6 +38,7 @@ import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.type.ImageTypeEnum;
 import net.sf.jasperreports.engine.util.JRImageLoader;
+import net.sf.jasperreports.renderers.FutureDataRenderer;
 import net.sf.jasperreports.renderers.Renderable;
 import net.sf.jasperreports.renderers.SimpleDataRenderer;
 
@@ -44,7 +46,7 @@ import net.sf.jasperreports.renderers.SimpleDataRenderer;
 /**
  * @author Teodor Danciu (teodord@users.sourceforge.net)
  */
-public class ImageChartRendererFactory extends AbstractChartRenderableFactory
+public class ImageChartRendererFactory extends AbstractChartRenderableFactory implements AsyncChartRenderableFactory
 {
 	
 	@Override
@@ -96,4 +98,10 @@ public class ImageChartRendererFactory extends AbstractChartRenderableFactory
 		}
 	}
 
+	@Override
+	public Renderable getFutureRenderable(Future<Renderable> renderable)
+	{
+		return new FutureDataRenderer(renderable);
+	}
+
 }
@@ -0,0 +1,261 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.charts.util;
+
+import java.util.Arrays;
+
+import org.jfree.data.time.TimeSeries;
+import org.jfree.data.time.TimeSeriesDataItem;
+import org.jfree.data.xy.XYDataItem;
+import org.jfree.data.xy.XYSeries;
+
+import net.sf.jasperreports.engine.JRChart;
+
+/**
+ * Reduces the number of points in chart series while preserving their visual shape.
+ * 
+ * <p>
+ * Points are selected using the Largest-Triangle-Three-Buckets algorithm: the series is split
+ * into as many buckets as points to keep, and from each bucket the point that forms the largest
+ * triangle with the previously selected point and the average of the next bucket is kept.
+ * The first and last points are always kept, as are points with <code>null</code> values
+ * so that gaps in the series are still rendered.
+ * </p>
+ * 
+ * @see JRChart#PROPERTY_CHART_DOWNSAMPLING
+ */
+public final class SeriesDownsampler
+{
+	
+	/**
+	 * The smallest number of points to which a series is reduced.
+	 */
+	public static final int MIN_THRESHOLD = 3;
+	
+	private SeriesDownsampler()
+	{
+	}
+	
+	/**
+	 * Returns a time series that contains at most the given number of non <code>null</code> points
+	 * of the original series.
+	 * 
+	 * @param series the series to reduce
+	 * @param threshold the number of points to keep
+	 * @return the reduced series, or the original series if it does not have more points than the threshold
+	 */
+	public static TimeSeries downsample(TimeSeries series, int threshold)
+	{
+		int count = series.getItemCount();
+		if (threshold < MIN_THRESHOLD || count <= threshold)
+		{
+			return series;
+		}
+		
+		double[] x = new double[count];
+		double[] y = new double[count];
+		for (int i = 0; i < count; i++)
+		{
+			TimeSeriesDataItem item = series.getDataItem(i);
+			x[i] = item.getPeriod().getMiddleMillisecond();
+			y[i] = yValue(item.getValue());
+		}
+		
+		int[] indexes = selectIndexes(x, y, threshold);
+		if (indexes.length == count)
+		{
+			return series;
+		}
+		
+		TimeSeries downsampled = new TimeSeries(series.getKey(), 
+				series.getDomainDescription(), series.getRangeDescription());
+		downsampled.setDescription(series.getDescription());
+		for (int index : indexes)
+		{
+			downsampled.add((TimeSeriesDataItem) series.getDataItem(index).clone(), false);
+		}
+		return downsampled;
+	}
+	
+	/**
+	 * Returns an XY series that contains at most the given number of non <code>null</code> points
+	 * of the original series.
+	 * 
+	 * <p>
+	 * Series that are not automatically sorted are returned as they are, since their points
+	 * are not necessarily ordered on the X axis.
+	 * </p>
+	 * 
+	 * @param series the series to reduce
+	 * @param threshold the number of points to keep
+	 * @return the reduced series, or the original series if it is not reduced
+	 */
+	public static XYSeries downsample(XYSeries series, int threshold)
+	{
+		int count = series.getItemCount();
+		if (threshold < MIN_THRESHOLD || count <= threshold || !series.getAutoSort())
+		{
+			return series;
+		}
+		
+		double[] x = new double[count];
+		double[] y = new double[count];
+		for (int i = 0; i < count; i++)
+		{
+			XYDataItem item = series.getDataItem(i);
+			x[i] = item.getXValue();
+			y[i] = yValue(item.getY());
+		}
+		
+		int[] indexes = selectIndexes(x, y, threshold);
+		if (indexes.length == count)
+		{
+			return series;
+		}
+		
+		XYSeries downsampled = new XYSeries(series.getKey(), true, series.getAllowDuplicateXValues());
+		downsampled.setDescription(series.getDescription());
+		for (int index : indexes)
+		{
+			downsampled.add((XYDataItem) series.getDataItem(index).clone(), false);
+		}
+		return downsampled;
+	}
+	
+	private static double yValue(Number value)
+	{
+		return value == null ? Double.NaN : value.doubleValue();
+	}
+	
+	/**
+	 * Selects the indexes of the points to keep from a series.
+	 * 
+	 * @param x the X values of the points, in ascending order
+	 * @param y the Y values of the points, <code>NaN</code> for <code>null</code> values
+	 * @param threshold the number of non <code>NaN</code> points to keep
+	 * @return the ascending indexes of the kept points, including all <code>NaN</code> points
+	 */
+	public static int[] selectIndexes(double[] x, double[] y, int threshold)
+	{
+		int count = y.length;
+		int[] valueIndexes = new int[count];
+		int valueCount = 0;
+		for (int i = 0; i < count; i++)
+		{
+			if (!Double.isNaN(y[i]))
+			{
+				valueIndexes[valueCount++] = i;
+			}
+		}
+		
+		if (threshold < MIN_THRESHOLD || valueCount <= threshold)
+		{
+			int[] indexes = new int[count];
+			for (int i = 0; i < count; i++)
+			{
+				indexes[i] = i;
+			}
+			return indexes;
+		}
+		
+		int[] selected = largestTriangleThreeBuckets(x, y, valueIndexes, valueCount, threshold);
+		if (valueCount == count)
+		{
+			return selected;
+		}
+		
+		// merging back the null points, which mark gaps in the series
+		int[] indexes = new int[selected.length + count - valueCount];
+		int selectedIdx = 0;
+		int idx = 0;
+		for (int i = 0; i < count; i++)
+		{
+			if (Double.isNaN(y[i]))
+			{
+				indexes[idx++] = i;
+			}
+			else if (selectedIdx < selected.length && selected[selectedIdx] == i)
+			{
+				indexes[idx++] = i;
+				++selectedIdx;
+			}
+		}
+		return idx == indexes.length ? indexes : Arrays.copyOf(indexes, idx);
+	}
+	
+	private static int[] largestTriangleThreeBuckets(double[] x, double[] y, 
+			int[] valueIndexes, int valueCount, int threshold)
+	{
+		int[] selected = new int[threshold];
+		int selectedCount = 0;
+		
+		// the first and last points are always kept, the rest are distributed in buckets
+		double bucketSize = (double) (valueCount - 2) / (threshold - 2);
+		int previous = valueIndexes[0];
+		selected[selectedCount++] = previous;
+		
+		for (int bucket = 0; bucket < threshold - 2; bucket++)
+		{
+			// the average of the next bucket, or the last point for the last bucket
+			int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+			int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, valueCount);
+			double averageX = 0;
+			double averageY = 0;
+			for (int i = nextStart; i < nextEnd; i++)
+			{
+				averageX += x[valueIndexes[i]];
+				averageY += y[valueIndexes[i]];
+			}
+			int nextCount = nextEnd - nextStart;
+			averageX /= nextCount;
+			averageY /= nextCount;
+			
+			int start = (int) Math.floor(bucket * bucketSize) + 1;
+			int end = nextStart;
+			double previousX = x[previous];
+			double previousY = y[previous];
+			double maxArea = -1;
+			int maxIndex = valueIndexes[start];
+			for (int i = start; i < end; i++)
+			{
+				int index = valueIndexes[i];
+				// twice the area of the triangle, which is enough for comparing
+				double area = Math.abs((previousX - averageX) * (y[index] - previousY)
+						- (previousX - x[index]) * (averageY - previousY));
+				if (area > maxArea)
+				{
+					maxArea = area;
+					maxIndex = index;
+				}
+			}
+			
+			selected[selectedCount++] = maxIndex;
+			previous = maxIndex;
+		}
+		
+		selected[selectedCount++] = valueIndexes[valueCount - 1];
+		return selected;
+	}
+	
+}
@@ -27,6 +27,7 @@ import java.awt.geom.Rectangle2D;
 import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import org.apache.batik.dom.GenericDOMImplementation;
 import org.apache.batik.svggen.SVGGraphics2D;
@@ -38,6 +39,7 @@ import org.w3c.dom.Document;
 import net.sf.jasperreports.engine.JRPrintImageAreaHyperlink;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.renderers.FutureRenderToImageAwareDataRenderer;
 import net.sf.jasperreports.renderers.Renderable;
 import net.sf.jasperreports.renderers.SimpleRenderToImageAwareDataRenderer;
 
@@ -45,7 +47,7 @@ import net.sf.jasperreports.renderers.SimpleRenderToImageAwareDataRenderer;
 /**
  * @author Teodor Danciu (teodord@users.sourceforge.net)
  */
-public class SvgChartRendererFactory extends AbstractChartRenderableFactory
+public class SvgChartRendererFactory extends AbstractChartRenderableFactory implements AsyncChartRenderableFactory
 {
 	
 	@Override
@@ -89,4 +91,10 @@ public class SvgChartRendererFactory extends AbstractChartRenderableFactory
 		}
 	}
 
+	@Override
+	public Renderable getFutureRenderable(Future<Renderable> renderable)
+	{
+		return new FutureRenderToImageAwareDataRenderer(renderable);
+	}
+
 }
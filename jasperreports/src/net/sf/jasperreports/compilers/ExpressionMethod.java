@@ -0,0 +1,157 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.compilers;
+
+/**
+ * Methods that can be called in expressions evaluated by {@link ExpressionTreeParser} trees.
+ * <p>
+ * The methods are restricted to a few side effect free methods of <code>java.lang</code>
+ * types, so that interpreted expressions cannot access anything the compiled expressions
+ * would have needed to be allowed by the report class filter.
+ */
+public enum ExpressionMethod
+{
+	EQUALS(Object.class, "equals", Object.class, ArgumentType.OBJECT),
+	TO_STRING(Object.class, "toString", String.class),
+	
+	LENGTH(String.class, "length", int.class),
+	IS_EMPTY(String.class, "isEmpty", boolean.class),
+	TRIM(String.class, "trim", String.class),
+	TO_UPPER_CASE(String.class, "toUpperCase", String.class),
+	TO_LOWER_CASE(String.class, "toLowerCase", String.class),
+	SUBSTRING(String.class, "substring", String.class, ArgumentType.INT),
+	SUBSTRING_RANGE(String.class, "substring", String.class, ArgumentType.INT, ArgumentType.INT),
+	STARTS_WITH(String.class, "startsWith", boolean.class, ArgumentType.STRING),
+	ENDS_WITH(String.class, "endsWith", boolean.class, ArgumentType.STRING),
+	CONTAINS(String.class, "contains", boolean.class, ArgumentType.STRING),
+	INDEX_OF(String.class, "indexOf", int.class, ArgumentType.STRING),
+	EQUALS_IGNORE_CASE(String.class, "equalsIgnoreCase", boolean.class, ArgumentType.STRING),
+	CONCAT(String.class, "concat", String.class, ArgumentType.STRING),
+	
+	INT_VALUE(Number.class, "intValue", int.class),
+	LONG_VALUE(Number.class, "longValue", long.class),
+	DOUBLE_VALUE(Number.class, "doubleValue", double.class);
+	
+	public enum ArgumentType
+	{
+		OBJECT,
+		STRING,
+		INT
+	}
+	
+	private final Class<?> targetType;
+	private final String name;
+	private final Class<?> resultType;
+	private final ArgumentType[] argumentTypes;
+
+	private ExpressionMethod(Class<?> targetType, String name, Class<?> resultType, ArgumentType... argumentTypes)
+	{
+		this.targetType = targetType;
+		this.name = name;
+		this.resultType = resultType;
+		this.argumentTypes = argumentTypes;
+	}
+
+	/**
+	 * Returns the method with a given name and number of arguments callable on a type.
+	 * 
+	 * @param type the static type of the target
+	 * @param name the method name
+	 * @param argumentCount the number of arguments
+	 * @return the method, or <code>null</code> if not supported
+	 */
+	public static ExpressionMethod find(Class<?> type, String name, int argumentCount)
+	{
+		for (ExpressionMethod method : values())
+		{
+			if (method.name.equals(name) && method.argumentTypes.length == argumentCount
+					&& method.targetType.isAssignableFrom(type))
+			{
+				return method;
+			}
+		}
+		return null;
+	}
+	
+	public Class<?> getResultType()
+	{
+		return resultType;
+	}
+
+	public ArgumentType[] getArgumentTypes()
+	{
+		return argumentTypes;
+	}
+
+	public Object invoke(Object target, Object[] arguments)
+	{
+		switch (this)
+		{
+		case EQUALS:
+			return target.equals(arguments[0]);
+		case TO_STRING:
+			return target.toString();
+		case LENGTH:
+			return ((String) target).length();
+		case IS_EMPTY:
+			return ((String) target).isEmpty();
+		case TRIM:
+			return ((String) target).trim();
+		case TO_UPPER_CASE:
+			return ((String) target).toUpperCase();
+		case TO_LOWER_CASE:
+			return ((String) target).toLowerCase();
+		case SUBSTRING:
+			return ((String) target).substring(intArgument(arguments[0]));
+		case SUBSTRING_RANGE:
+			return ((String) target).substring(intArgument(arguments[0]), intArgument(arguments[1]));
+		case STARTS_WITH:
+			return ((String) target).startsWith((String) arguments[0]);
+		case ENDS_WITH:
+			return ((String) target).endsWith((String) arguments[0]);
+		case CONTAINS:
+			return ((String) target).contains((String) arguments[0]);
+		case INDEX_OF:
+			return ((String) target).indexOf((String) arguments[0]);
+		case EQUALS_IGNORE_CASE:
+			return ((String) target).equalsIgnoreCase((String) arguments[0]);
+		case CONCAT:
+			return ((String) target).concat((String) arguments[0]);
+		case INT_VALUE:
+			return ((Number) target).intValue();
+		case LONG_VALUE:
+			return ((Number) target).longValue();
+		case DOUBLE_VALUE:
+			return ((Number) target).doubleValue();
+		default:
+			throw new IllegalStateException();
+		}
+	}
+	
+	protected static int intArgument(Object value)
+	{
+		//unboxing, throws NullPointerException for null values as Java code would
+		return ((Number) value).intValue();
+	}
+}
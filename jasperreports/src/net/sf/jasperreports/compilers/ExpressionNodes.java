@@ -0,0 +1,609 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.compilers;
+
+import java.util.List;
+
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.fill.ExpressionValues;
+
+/**
+ * Expression tree nodes produced by {@link ExpressionTreeParser}.
+ * <p>
+ * The nodes reproduce the runtime semantics of the Java (or Groovy) code that would otherwise
+ * be generated for the expression, including unboxing <code>NullPointerException</code>s and
+ * integer division by zero errors.
+ */
+public final class ExpressionNodes
+{
+
+	private ExpressionNodes()
+	{
+	}
+
+	/**
+	 * Primitive types to which values are converted by numeric and boolean operations.
+	 */
+	public enum PrimitiveType
+	{
+		BOOLEAN,
+		INT,
+		LONG,
+		FLOAT,
+		DOUBLE;
+		
+		public Object convert(Object value)
+		{
+			if (value == null)
+			{
+				//unboxing a null value
+				throw new NullPointerException();
+			}
+			
+			switch (this)
+			{
+			case BOOLEAN:
+				return (Boolean) value;
+			case INT:
+				return value instanceof Integer ? value : ((Number) value).intValue();
+			case LONG:
+				return value instanceof Long ? value : ((Number) value).longValue();
+			case FLOAT:
+				return value instanceof Float ? value : ((Number) value).floatValue();
+			case DOUBLE:
+				return value instanceof Double ? value : ((Number) value).doubleValue();
+			default:
+				throw new IllegalStateException();
+			}
+		}
+		
+		public boolean isNumeric()
+		{
+			return this != BOOLEAN;
+		}
+	}
+	
+	protected static boolean booleanValue(Object value, boolean groovy)
+	{
+		if (value == null)
+		{
+			if (groovy)
+			{
+				//Groovy truth
+				return false;
+			}
+			
+			throw new NullPointerException();
+		}
+		return (Boolean) value;
+	}
+	
+	public static class Constant extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final Object value;
+		
+		public Constant(Object value)
+		{
+			this.value = value;
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			return value;
+		}
+		
+		public Object getValue()
+		{
+			return value;
+		}
+	}
+	
+	public static class ParameterReference extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final String name;
+		
+		public ParameterReference(String name)
+		{
+			this.name = name;
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			return values.getParameterValue(name);
+		}
+	}
+	
+	public static class FieldReference extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final String name;
+		
+		public FieldReference(String name)
+		{
+			this.name = name;
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			return values.getFieldValue(name);
+		}
+	}
+	
+	public static class VariableReference extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final String name;
+		
+		public VariableReference(String name)
+		{
+			this.name = name;
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			return values.getVariableValue(name);
+		}
+	}
+	
+	public static class ResourceReference extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final String key;
+		
+		public ResourceReference(String key)
+		{
+			this.key = key;
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			return values.getMessage(key);
+		}
+	}
+	
+	public static class Concatenation extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final ExpressionNode[] parts;
+		
+		public Concatenation(List<ExpressionNode> parts)
+		{
+			this.parts = parts.toArray(new ExpressionNode[parts.size()]);
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			StringBuilder sb = new StringBuilder();
+			for (ExpressionNode part : parts)
+			{
+				sb.append(String.valueOf(part.evaluate(values)));
+			}
+			return sb.toString();
+		}
+	}
+	
+	public static class Arithmetic extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final char operator;
+		private final PrimitiveType type;
+		private final ExpressionNode left;
+		private final ExpressionNode right;
+		
+		public Arithmetic(char operator, PrimitiveType type, ExpressionNode left, ExpressionNode right)
+		{
+			this.operator = operator;
+			this.type = type;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			Object leftValue = type.convert(left.evaluate(values));
+			Object rightValue = type.convert(right.evaluate(values));
+			switch (type)
+			{
+			case INT:
+				return intOperation((Integer) leftValue, (Integer) rightValue);
+			case LONG:
+				return longOperation((Long) leftValue, (Long) rightValue);
+			case FLOAT:
+				return floatOperation((Float) leftValue, (Float) rightValue);
+			case DOUBLE:
+				return doubleOperation((Double) leftValue, (Double) rightValue);
+			default:
+				throw new IllegalStateException();
+			}
+		}
+		
+		protected int intOperation(int leftValue, int rightValue)
+		{
+			switch (operator)
+			{
+			case '+':
+				return leftValue + rightValue;
+			case '-':
+				return leftValue - rightValue;
+			case '*':
+				return leftValue * rightValue;
+			case '/':
+				return leftValue / rightValue;
+			case '%':
+				return leftValue % rightValue;
+			default:
+				throw new IllegalStateException();
+			}
+		}
+		
+		protected long longOperation(long leftValue, long rightValue)
+		{
+			switch (operator)
+			{
+			case '+':
+				return leftValue + rightValue;
+			case '-':
+				return leftValue - rightValue;
+			case '*':
+				return leftValue * rightValue;
+			case '/':
+				return leftValue / rightValue;
+			case '%':
+				return leftValue % rightValue;
+			default:
+				throw new IllegalStateException();
+			}
+		}
+		
+		protected float floatOperation(float leftValue, float rightValue)
+		{
+			switch (operator)
+			{
+			case '+':
+				return leftValue + rightValue;
+			case '-':
+				return leftValue - rightValue;
+			case '*':
+				return leftValue * rightValue;
+			case '/':
+				return leftValue / rightValue;
+			case '%':
+				return leftValue % rightValue;
+			default:
+				throw new IllegalStateException();
+			}
+		}
+		
+		protected double doubleOperation(double leftValue, double rightValue)
+		{
+			switch (operator)
+			{
+			case '+':
+				return leftValue + rightValue;
+			case '-':
+				return leftValue - rightValue;
+			case '*':
+				return leftValue * rightValue;
+			case '/':
+				return leftValue / rightValue;
+			case '%':
+				return leftValue % rightValue;
+			default:
+				throw new IllegalStateException();
+			}
+		}
+	}
+	
+	public static class Negation extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final PrimitiveType type;
+		private final ExpressionNode operand;
+		
+		public Negation(PrimitiveType type, ExpressionNode operand)
+		{
+			this.type = type;
+			this.operand = operand;
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			Object value = type.convert(operand.evaluate(values));
+			switch (type)
+			{
+			case INT:
+				return -(Integer) value;
+			case LONG:
+				return -(Long) value;
+			case FLOAT:
+				return -(Float) value;
+			case DOUBLE:
+				return -(Double) value;
+			default:
+				throw new IllegalStateException();
+			}
+		}
+	}
+	
+	/**
+	 * Relational and equality comparison of numeric or boolean primitive values.
+	 */
+	public static class PrimitiveComparison extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final String operator;
+		private final PrimitiveType type;
+		private final ExpressionNode left;
+		private final ExpressionNode right;
+		
+		public PrimitiveComparison(String operator, PrimitiveType type, ExpressionNode left, ExpressionNode right)
+		{
+			this.operator = operator;
+			this.type = type;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			Object leftValue = type.convert(left.evaluate(values));
+			Object rightValue = type.convert(right.evaluate(values));
+			switch (type)
+			{
+			case BOOLEAN:
+				boolean equal = ((Boolean) leftValue).booleanValue() == ((Boolean) rightValue).booleanValue();
+				return "==".equals(operator) ? equal : !equal;
+			case INT:
+				return compare((Integer) leftValue, (Integer) rightValue);
+			case LONG:
+				return compare((Long) leftValue, (Long) rightValue);
+			case FLOAT:
+				return compare((Float) leftValue, (Float) rightValue);
+			case DOUBLE:
+				return compare((Double) leftValue, (Double) rightValue);
+			default:
+				throw new IllegalStateException();
+			}
+		}
+		
+		protected boolean compare(long leftValue, long rightValue)
+		{
+			switch (operator)
+			{
+			case "==":
+				return leftValue == rightValue;
+			case "!=":
+				return leftValue != rightValue;
+			case "<":
+				return leftValue < rightValue;
+			case "<=":
+				return leftValue <= rightValue;
+			case ">":
+				return leftValue > rightValue;
+			case ">=":
+				return leftValue >= rightValue;
+			default:
+				throw new IllegalStateException();
+			}
+		}
+		
+		protected boolean compare(double leftValue, double rightValue)
+		{
+			switch (operator)
+			{
+			case "==":
+				return leftValue == rightValue;
+			case "!=":
+				return leftValue != rightValue;
+			case "<":
+				return leftValue < rightValue;
+			case "<=":
+				return leftValue <= rightValue;
+			case ">":
+				return leftValue > rightValue;
+			case ">=":
+				return leftValue >= rightValue;
+			default:
+				throw new IllegalStateException();
+			}
+		}
+	}
+	
+	/**
+	 * Reference (identity) comparison, as performed by <code>==</code> on objects in Java.
+	 */
+	public static class IdentityComparison extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final boolean negated;
+		private final ExpressionNode left;
+		private final ExpressionNode right;
+		
+		public IdentityComparison(boolean negated, ExpressionNode left, ExpressionNode right)
+		{
+			this.negated = negated;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			boolean identical = left.evaluate(values) == right.evaluate(values);
+			return negated ? !identical : identical;
+		}
+	}
+	
+	public static class Logical extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final boolean and;
+		private final boolean groovy;
+		private final ExpressionNode left;
+		private final ExpressionNode right;
+		
+		public Logical(boolean and, boolean groovy, ExpressionNode left, ExpressionNode right)
+		{
+			this.and = and;
+			this.groovy = groovy;
+			this.left = left;
+			this.right = right;
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			boolean leftValue = booleanValue(left.evaluate(values), groovy);
+			if (and ? !leftValue : leftValue)
+			{
+				return leftValue;
+			}
+			return booleanValue(right.evaluate(values), groovy);
+		}
+	}
+	
+	public static class Not extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final boolean groovy;
+		private final ExpressionNode operand;
+		
+		public Not(boolean groovy, ExpressionNode operand)
+		{
+			this.groovy = groovy;
+			this.operand = operand;
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			return !booleanValue(operand.evaluate(values), groovy);
+		}
+	}
+	
+	public static class Conditional extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final boolean groovy;
+		private final ExpressionNode condition;
+		private final ExpressionNode whenTrue;
+		private final ExpressionNode whenFalse;
+		private final PrimitiveType resultType;
+		
+		/**
+		 * @param resultType the primitive type to which the result is converted, 
+		 * <code>null</code> if the result is a reference
+		 */
+		public Conditional(boolean groovy, ExpressionNode condition, 
+				ExpressionNode whenTrue, ExpressionNode whenFalse, PrimitiveType resultType)
+		{
+			this.groovy = groovy;
+			this.condition = condition;
+			this.whenTrue = whenTrue;
+			this.whenFalse = whenFalse;
+			this.resultType = resultType;
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			boolean conditionValue = booleanValue(condition.evaluate(values), groovy);
+			Object value = conditionValue ? whenTrue.evaluate(values) : whenFalse.evaluate(values);
+			return resultType == null ? value : resultType.convert(value);
+		}
+	}
+	
+	public static class MethodCall extends ExpressionNode
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final ExpressionMethod method;
+		private final boolean groovy;
+		private final ExpressionNode target;
+		private final ExpressionNode[] arguments;
+		
+		public MethodCall(ExpressionMethod method, boolean groovy, ExpressionNode target, List<ExpressionNode> arguments)
+		{
+			this.method = method;
+			this.groovy = groovy;
+			this.target = target;
+			this.arguments = arguments.toArray(new ExpressionNode[arguments.size()]);
+		}
+
+		@Override
+		public Object evaluate(ExpressionValues values)
+		{
+			Object targetValue = target.evaluate(values);
+			Object[] argumentValues = new Object[arguments.length];
+			for (int i = 0; i < arguments.length; i++)
+			{
+				argumentValues[i] = arguments[i].evaluate(values);
+			}
+			
+			if (targetValue == null)
+			{
+				if (groovy)
+				{
+					//methods of Groovy's NullObject
+					switch (method)
+					{
+					case EQUALS:
+						return argumentValues[0] == null;
+					case TO_STRING:
+						return "null";
+					default:
+						break;
+					}
+				}
+				throw new NullPointerException();
+			}
+			return method.invoke(targetValue, argumentValues);
+		}
+	}
+	
+}
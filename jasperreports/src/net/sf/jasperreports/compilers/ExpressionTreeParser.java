@@ -0,0 +1,1237 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.compilers;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.jasperreports.compilers.ExpressionNodes.PrimitiveType;
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRExpression;
+import net.sf.jasperreports.engine.JRExpressionChunk;
+
+/**
+ * Parses report expressions written in a common subset of the Java and Groovy syntax into
+ * trees that are evaluated without generating and compiling expression classes.
+ * <p>
+ * The supported subset consists of:
+ * <ul>
+ * <li>parameter, field, variable and resource message references;</li>
+ * <li>string, integer, long and floating point literals, <code>true</code>, <code>false</code>,
+ * <code>null</code>, <code>Boolean.TRUE</code> and <code>Boolean.FALSE</code>;</li>
+ * <li>string concatenation and arithmetic (<code>+ - * / %</code>, unary <code>-</code>)
+ * on numeric values;</li>
+ * <li>comparisons (<code>== != &lt; &lt;= &gt; &gt;=</code>), logical operators (<code>&amp;&amp; || !</code>)
+ * and the conditional operator;</li>
+ * <li>calls of the methods in {@link ExpressionMethod}.</li>
+ * </ul>
+ * The static types of the operands are derived from the declared classes of the referenced
+ * parameters, fields and variables and the parser only accepts expressions for which the
+ * tree reproduces the behavior of the compiled code.
+ * Operations whose semantics differ between Java and Groovy (such as integer division,
+ * decimal literals or object equality) are only accepted for the Java dialect.
+ * Any other expression results in an {@link UnsupportedExpressionException} and is compiled as usual.
+ */
+public class ExpressionTreeParser
+{
+
+	public enum Dialect
+	{
+		JAVA,
+		GROOVY
+	}
+	
+	/**
+	 * Thrown for expressions that cannot be interpreted, the message describing the reason.
+	 */
+	public static class UnsupportedExpressionException extends Exception
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+		public UnsupportedExpressionException(String message)
+		{
+			super(message);
+		}
+	}
+	
+	private static final Map<String, Class<?>> KNOWN_TYPES;
+	static
+	{
+		KNOWN_TYPES = new HashMap<>();
+		for (Class<?> type : Arrays.asList(String.class, Boolean.class, Integer.class, Long.class, 
+				Short.class, Byte.class, Float.class, Double.class, Number.class, Object.class,
+				BigDecimal.class, BigInteger.class, java.util.Date.class, 
+				java.sql.Date.class, java.sql.Time.class, java.sql.Timestamp.class))
+		{
+			KNOWN_TYPES.put(type.getName(), type);
+		}
+	}
+	
+	/**
+	 * Types for which Groovy does not alter the <code>equals</code>, <code>toString</code> and 
+	 * string concatenation behavior.
+	 */
+	private static final Set<Class<?>> GROOVY_PLAIN_TYPES = Collections.unmodifiableSet(new HashSet<>(
+			Arrays.asList(String.class, Boolean.class, Integer.class, Long.class, Short.class, Byte.class, 
+					Double.class, BigDecimal.class, BigInteger.class, java.util.Date.class)));
+	
+	private enum TokenKind
+	{
+		IDENTIFIER,
+		LITERAL,
+		OPERATOR,
+		REFERENCE,
+		END
+	}
+	
+	private static class Token
+	{
+		final TokenKind kind;
+		final String text;
+		final Object value;
+		final Class<?> type;
+		final byte referenceType;
+		
+		Token(TokenKind kind, String text, Object value, Class<?> type, byte referenceType)
+		{
+			this.kind = kind;
+			this.text = text;
+			this.value = value;
+			this.type = type;
+			this.referenceType = referenceType;
+		}
+		
+		boolean isOperator(String operator)
+		{
+			return kind == TokenKind.OPERATOR && text.equals(operator);
+		}
+	}
+	
+	/**
+	 * A parsed node and its static type.
+	 * The type is <code>null</code> for the <code>null</code> literal and a primitive class
+	 * for primitive Java values.
+	 */
+	private static class Operand
+	{
+		final ExpressionNode node;
+		final Class<?> type;
+		final List<ExpressionNode> concatenationParts;
+		
+		Operand(ExpressionNode node, Class<?> type)
+		{
+			this(node, type, null);
+		}
+		
+		Operand(ExpressionNode node, Class<?> type, List<ExpressionNode> concatenationParts)
+		{
+			this.node = node;
+			this.type = type;
+			this.concatenationParts = concatenationParts;
+		}
+		
+		boolean isNull()
+		{
+			return type == null;
+		}
+		
+		boolean isPrimitive()
+		{
+			return type != null && type.isPrimitive();
+		}
+	}
+	
+	private final Dialect dialect;
+	private final boolean groovy;
+	private final Map<String, String> parameterTypes;
+	private final Map<String, String> fieldTypes;
+	private final Map<String, String> variableTypes;
+	
+	private List<Token> tokens;
+	private int position;
+
+	/**
+	 * @param dialect the language dialect
+	 * @param parameterTypes the declared classes of the parameters, by name
+	 * @param fieldTypes the declared classes of the fields, by name
+	 * @param variableTypes the declared classes of the variables, by name
+	 */
+	public ExpressionTreeParser(Dialect dialect, Map<String, String> parameterTypes,
+			Map<String, String> fieldTypes, Map<String, String> variableTypes)
+	{
+		this.dialect = dialect;
+		this.groovy = dialect == Dialect.GROOVY;
+		this.parameterTypes = parameterTypes == null ? Collections.emptyMap() : parameterTypes;
+		this.fieldTypes = fieldTypes == null ? Collections.emptyMap() : fieldTypes;
+		this.variableTypes = variableTypes == null ? Collections.emptyMap() : variableTypes;
+	}
+	
+	public Dialect getDialect()
+	{
+		return dialect;
+	}
+
+	/**
+	 * Parses an expression.
+	 * 
+	 * @param expression the expression
+	 * @return the evaluation of the expression
+	 * @throws UnsupportedExpressionException if the expression is not in the supported subset
+	 */
+	public DirectExpressionEvaluation parse(JRExpression expression) throws UnsupportedExpressionException
+	{
+		JRExpressionChunk[] chunks = expression.getChunks();
+		if (chunks == null || chunks.length == 0)
+		{
+			return ConstantExpressionEvaluation.nullEvaluation();
+		}
+		
+		tokens = tokenize(chunks);
+		position = 0;
+		try
+		{
+			Operand operand = parseExpression();
+			Token token = peek();
+			if (token.kind != TokenKind.END)
+			{
+				throw new UnsupportedExpressionException("Unexpected token " + token.text);
+			}
+			
+			Operand result = finish(operand);
+			if (result.node instanceof ExpressionNodes.Constant)
+			{
+				return new ConstantExpressionEvaluation(((ExpressionNodes.Constant) result.node).getValue());
+			}
+			return new ExpressionTreeEvaluation(result.node);
+		}
+		finally
+		{
+			tokens = null;
+		}
+	}
+	
+	private List<Token> tokenize(JRExpressionChunk[] chunks) throws UnsupportedExpressionException
+	{
+		List<Token> tokenList = new ArrayList<>();
+		for (JRExpressionChunk chunk : chunks)
+		{
+			String text = chunk.getText();
+			switch (chunk.getType())
+			{
+			case JRExpressionChunk.TYPE_TEXT:
+				if (text != null)
+				{
+					tokenizeText(text, tokenList);
+				}
+				break;
+			case JRExpressionChunk.TYPE_PARAMETER:
+			case JRExpressionChunk.TYPE_FIELD:
+			case JRExpressionChunk.TYPE_VARIABLE:
+			case JRExpressionChunk.TYPE_RESOURCE:
+				tokenList.add(new Token(TokenKind.REFERENCE, text, null, null, chunk.getType()));
+				break;
+			default:
+				throw new UnsupportedExpressionException("Unsupported expression chunk type " + chunk.getType());
+			}
+		}
+		tokenList.add(new Token(TokenKind.END, "end of expression", null, null, (byte) 0));
+		return tokenList;
+	}
+	
+	private void tokenizeText(String text, List<Token> tokenList) throws UnsupportedExpressionException
+	{
+		int length = text.length();
+		int index = 0;
+		while (index < length)
+		{
+			char c = text.charAt(index);
+			if (Character.isWhitespace(c))
+			{
+				++index;
+			}
+			else if (Character.isLetter(c) || c == '_')
+			{
+				int start = index;
+				while (index < length && (Character.isLetterOrDigit(text.charAt(index)) || text.charAt(index) == '_'))
+				{
+					++index;
+				}
+				if (index < length && text.charAt(index) == '$')
+				{
+					throw new UnsupportedExpressionException("Unsupported identifier " + text.substring(start, index + 1));
+				}
+				String identifier = text.substring(start, index);
+				tokenList.add(new Token(TokenKind.IDENTIFIER, identifier, null, null, (byte) 0));
+			}
+			else if (c >= '0' && c <= '9')
+			{
+				index = tokenizeNumber(text, index, tokenList);
+			}
+			else if (c == '"')
+			{
+				index = tokenizeString(text, index, tokenList);
+			}
+			else
+			{
+				String operator = operator(text, index);
+				tokenList.add(new Token(TokenKind.OPERATOR, operator, null, null, (byte) 0));
+				index += operator.length();
+			}
+		}
+	}
+	
+	private String operator(String text, int index) throws UnsupportedExpressionException
+	{
+		if (index + 1 < text.length())
+		{
+			String twoChars = text.substring(index, index + 2);
+			switch (twoChars)
+			{
+			case "==":
+			case "!=":
+			case "<=":
+			case ">=":
+			case "&&":
+			case "||":
+				return twoChars;
+			case "//":
+			case "/*":
+				throw new UnsupportedExpressionException("Comments are not supported");
+			default:
+				break;
+			}
+		}
+		
+		char c = text.charAt(index);
+		switch (c)
+		{
+		case '+':
+		case '-':
+		case '*':
+		case '/':
+		case '%':
+		case '(':
+		case ')':
+		case '?':
+		case ':':
+		case '!':
+		case '<':
+		case '>':
+		case '.':
+		case ',':
+			return String.valueOf(c);
+		default:
+			throw new UnsupportedExpressionException("Unsupported character " + c);
+		}
+	}
+	
+	private int tokenizeNumber(String text, int start, List<Token> tokenList) throws UnsupportedExpressionException
+	{
+		int length = text.length();
+		int index = start;
+		while (index < length && isDigit(text.charAt(index)))
+		{
+			++index;
+		}
+		if (text.charAt(start) == '0' && index - start > 1)
+		{
+			throw new UnsupportedExpressionException("Octal literals are not supported");
+		}
+		
+		boolean decimal = false;
+		if (index + 1 < length && text.charAt(index) == '.' && isDigit(text.charAt(index + 1)))
+		{
+			decimal = true;
+			index += 2;
+			while (index < length && isDigit(text.charAt(index)))
+			{
+				++index;
+			}
+		}
+		if (index < length && (text.charAt(index) == 'e' || text.charAt(index) == 'E'))
+		{
+			decimal = true;
+			++index;
+			if (index < length && (text.charAt(index) == '+' || text.charAt(index) == '-'))
+			{
+				++index;
+			}
+			int exponentStart = index;
+			while (index < length && isDigit(text.charAt(index)))
+			{
+				++index;
+			}
+			if (index == exponentStart)
+			{
+				throw new UnsupportedExpressionException("Invalid number " + text.substring(start, index));
+			}
+		}
+		
+		String number = text.substring(start, index);
+		char suffix = index < length ? Character.toLowerCase(text.charAt(index)) : 0;
+		Object value;
+		Class<?> type;
+		try
+		{
+			if (suffix == 'l' && !decimal)
+			{
+				++index;
+				value = Long.parseLong(number);
+				type = long.class;
+			}
+			else if (suffix == 'd')
+			{
+				++index;
+				value = Double.parseDouble(number);
+				type = double.class;
+			}
+			else if (suffix == 'f' && !groovy)
+			{
+				++index;
+				value = Float.parseFloat(number);
+				type = float.class;
+			}
+			else if (decimal && !groovy)
+			{
+				value = Double.parseDouble(number);
+				type = double.class;
+			}
+			else if (!decimal)
+			{
+				value = Integer.parseInt(number);
+				type = int.class;
+			}
+			else
+			{
+				//BigDecimal in Groovy
+				throw new UnsupportedExpressionException("Unsupported decimal literal " + number);
+			}
+		}
+		catch (NumberFormatException e)
+		{
+			throw new UnsupportedExpressionException("Unsupported number " + number);
+		}
+		
+		if (index < length && (Character.isLetterOrDigit(text.charAt(index)) || text.charAt(index) == '_'))
+		{
+			throw new UnsupportedExpressionException("Unsupported number " + text.substring(start, index + 1));
+		}
+		
+		tokenList.add(new Token(TokenKind.LITERAL, number, value, type, (byte) 0));
+		return index;
+	}
+	
+	private static boolean isDigit(char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+	
+	private int tokenizeString(String text, int start, List<Token> tokenList) throws UnsupportedExpressionException
+	{
+		int length = text.length();
+		int index = start + 1;
+		StringBuilder value = new StringBuilder();
+		while (true)
+		{
+			if (index >= length)
+			{
+				throw new UnsupportedExpressionException("Unterminated string literal");
+			}
+			
+			char c = text.charAt(index++);
+			if (c == '"')
+			{
+				break;
+			}
+			
+			switch (c)
+			{
+			case '\\':
+				if (index >= length)
+				{
+					throw new UnsupportedExpressionException("Unterminated string literal");
+				}
+				value.append(escapedChar(text.charAt(index++)));
+				break;
+			case '\n':
+			case '\r':
+				throw new UnsupportedExpressionException("Unsupported multiline string literal");
+			case '$':
+				if (groovy)
+				{
+					throw new UnsupportedExpressionException("Groovy string templates are not supported");
+				}
+				value.append(c);
+				break;
+			default:
+				value.append(c);
+				break;
+			}
+		}
+		
+		if (index == start + 2 && index < length && text.charAt(index) == '"')
+		{
+			throw new UnsupportedExpressionException("Unsupported multiline string literal");
+		}
+		
+		String string = value.toString();
+		tokenList.add(new Token(TokenKind.LITERAL, text.substring(start, index), string, String.class, (byte) 0));
+		return index;
+	}
+	
+	private char escapedChar(char c) throws UnsupportedExpressionException
+	{
+		switch (c)
+		{
+		case 'b':
+			return '\b';
+		case 't':
+			return '\t';
+		case 'n':
+			return '\n';
+		case 'f':
+			return '\f';
+		case 'r':
+			return '\r';
+		case '"':
+		case '\'':
+		case '\\':
+			return c;
+		case '$':
+			if (groovy)
+			{
+				return c;
+			}
+			throw new UnsupportedExpressionException("Unsupported escape sequence \\" + c);
+		default:
+			throw new UnsupportedExpressionException("Unsupported escape sequence \\" + c);
+		}
+	}
+	
+	private Token peek()
+	{
+		return tokens.get(position);
+	}
+	
+	private Token next()
+	{
+		Token token = tokens.get(position);
+		if (token.kind != TokenKind.END)
+		{
+			++position;
+		}
+		return token;
+	}
+	
+	private boolean consumeOperator(String operator)
+	{
+		if (peek().isOperator(operator))
+		{
+			++position;
+			return true;
+		}
+		return false;
+	}
+	
+	private void expectOperator(String operator) throws UnsupportedExpressionException
+	{
+		if (!consumeOperator(operator))
+		{
+			throw new UnsupportedExpressionException("Expected " + operator + " instead of " + peek().text);
+		}
+	}
+	
+	private Operand parseExpression() throws UnsupportedExpressionException
+	{
+		return parseConditional();
+	}
+	
+	private Operand parseConditional() throws UnsupportedExpressionException
+	{
+		Operand condition = parseOr();
+		if (!consumeOperator("?"))
+		{
+			return condition;
+		}
+		
+		Operand whenTrue = finish(parseConditional());
+		expectOperator(":");
+		Operand whenFalse = finish(parseConditional());
+		return conditional(finish(condition), whenTrue, whenFalse);
+	}
+	
+	private Operand parseOr() throws UnsupportedExpressionException
+	{
+		Operand left = parseAnd();
+		while (consumeOperator("||"))
+		{
+			Operand right = parseAnd();
+			left = logical(false, finish(left), finish(right));
+		}
+		return left;
+	}
+	
+	private Operand parseAnd() throws UnsupportedExpressionException
+	{
+		Operand left = parseEquality();
+		while (consumeOperator("&&"))
+		{
+			Operand right = parseEquality();
+			left = logical(true, finish(left), finish(right));
+		}
+		return left;
+	}
+	
+	private Operand parseEquality() throws UnsupportedExpressionException
+	{
+		Operand left = parseRelational();
+		while (true)
+		{
+			Token token = peek();
+			if (token.isOperator("==") || token.isOperator("!="))
+			{
+				next();
+				Operand right = parseRelational();
+				left = equality(token.text, finish(left), finish(right));
+			}
+			else
+			{
+				return left;
+			}
+		}
+	}
+	
+	private Operand parseRelational() throws UnsupportedExpressionException
+	{
+		Operand left = parseAdditive();
+		while (true)
+		{
+			Token token = peek();
+			if (token.isOperator("<") || token.isOperator("<=") || token.isOperator(">") || token.isOperator(">="))
+			{
+				next();
+				Operand right = parseAdditive();
+				left = relational(token.text, finish(left), finish(right));
+			}
+			else
+			{
+				return left;
+			}
+		}
+	}
+	
+	private Operand parseAdditive() throws UnsupportedExpressionException
+	{
+		Operand left = parseMultiplicative();
+		while (true)
+		{
+			Token token = peek();
+			if (token.isOperator("+"))
+			{
+				next();
+				Operand right = finish(parseMultiplicative());
+				left = plus(left, right);
+			}
+			else if (token.isOperator("-"))
+			{
+				next();
+				Operand right = parseMultiplicative();
+				left = arithmetic('-', finish(left), finish(right));
+			}
+			else
+			{
+				return left;
+			}
+		}
+	}
+	
+	private Operand parseMultiplicative() throws UnsupportedExpressionException
+	{
+		Operand left = parseUnary();
+		while (true)
+		{
+			Token token = peek();
+			if (token.isOperator("*") || token.isOperator("/") || token.isOperator("%"))
+			{
+				next();
+				Operand right = parseUnary();
+				left = arithmetic(token.text.charAt(0), finish(left), finish(right));
+			}
+			else
+			{
+				return left;
+			}
+		}
+	}
+	
+	private Operand parseUnary() throws UnsupportedExpressionException
+	{
+		if (consumeOperator("!"))
+		{
+			Operand operand = finish(parseUnary());
+			checkBoolean(operand, "!");
+			return new Operand(new ExpressionNodes.Not(groovy, operand.node), resultType(boolean.class));
+		}
+		
+		if (consumeOperator("-"))
+		{
+			Operand operand = finish(parseUnary());
+			PrimitiveType type = numericType(operand);
+			if (type == null)
+			{
+				throw new UnsupportedExpressionException("Unsupported operand for unary -");
+			}
+			ExpressionNode node;
+			if (operand.node instanceof ExpressionNodes.Constant)
+			{
+				node = new ExpressionNodes.Constant(new ExpressionNodes.Negation(type, operand.node).evaluate(null));
+			}
+			else
+			{
+				node = new ExpressionNodes.Negation(type, operand.node);
+			}
+			return new Operand(node, resultType(primitiveClass(type)));
+		}
+		
+		return parsePostfix();
+	}
+	
+	private Operand parsePostfix() throws UnsupportedExpressionException
+	{
+		Operand operand = parsePrimary();
+		while (consumeOperator("."))
+		{
+			Token name = next();
+			if (name.kind != TokenKind.IDENTIFIER)
+			{
+				throw new UnsupportedExpressionException("Unexpected token " + name.text);
+			}
+			if (!peek().isOperator("("))
+			{
+				throw new UnsupportedExpressionException("Unsupported member " + name.text);
+			}
+			next();
+			
+			List<Operand> arguments = new ArrayList<>();
+			if (!consumeOperator(")"))
+			{
+				do
+				{
+					arguments.add(finish(parseExpression()));
+				}
+				while (consumeOperator(","));
+				expectOperator(")");
+			}
+			
+			operand = methodCall(finish(operand), name.text, arguments);
+		}
+		return operand;
+	}
+	
+	private Operand parsePrimary() throws UnsupportedExpressionException
+	{
+		Token token = next();
+		switch (token.kind)
+		{
+		case LITERAL:
+			return new Operand(new ExpressionNodes.Constant(token.value), resultType(token.type));
+		case REFERENCE:
+			return reference(token);
+		case IDENTIFIER:
+			return identifier(token);
+		case OPERATOR:
+			if (token.text.equals("("))
+			{
+				Operand operand = finish(parseExpression());
+				expectOperator(")");
+				return operand;
+			}
+			throw new UnsupportedExpressionException("Unexpected token " + token.text);
+		default:
+			throw new UnsupportedExpressionException("Unexpected " + token.text);
+		}
+	}
+	
+	private Operand identifier(Token token) throws UnsupportedExpressionException
+	{
+		switch (token.text)
+		{
+		case "true":
+			return new Operand(new ExpressionNodes.Constant(Boolean.TRUE), resultType(boolean.class));
+		case "false":
+			return new Operand(new ExpressionNodes.Constant(Boolean.FALSE), resultType(boolean.class));
+		case "null":
+			return new Operand(new ExpressionNodes.Constant(null), null);
+		case "Boolean":
+			if (position + 1 < tokens.size() && peek().isOperator(".")
+					&& tokens.get(position + 1).kind == TokenKind.IDENTIFIER)
+			{
+				String constant = tokens.get(position + 1).text;
+				if (constant.equals("TRUE") || constant.equals("FALSE"))
+				{
+					position += 2;
+					return new Operand(new ExpressionNodes.Constant(Boolean.valueOf(constant.equals("TRUE"))), 
+							Boolean.class);
+				}
+			}
+			break;
+		default:
+			break;
+		}
+		throw new UnsupportedExpressionException("Unsupported identifier " + token.text);
+	}
+	
+	private Operand reference(Token token) throws UnsupportedExpressionException
+	{
+		String name = token.text;
+		switch (token.referenceType)
+		{
+		case JRExpressionChunk.TYPE_PARAMETER:
+			return new Operand(new ExpressionNodes.ParameterReference(name), 
+					declaredType(parameterTypes, "parameter", name));
+		case JRExpressionChunk.TYPE_FIELD:
+			return new Operand(new ExpressionNodes.FieldReference(name), 
+					declaredType(fieldTypes, "field", name));
+		case JRExpressionChunk.TYPE_VARIABLE:
+			return new Operand(new ExpressionNodes.VariableReference(name), 
+					declaredType(variableTypes, "variable", name));
+		case JRExpressionChunk.TYPE_RESOURCE:
+			return new Operand(new ExpressionNodes.ResourceReference(name), String.class);
+		default:
+			throw new UnsupportedExpressionException("Unsupported reference " + name);
+		}
+	}
+	
+	private Class<?> declaredType(Map<String, String> types, String kind, String name) throws UnsupportedExpressionException
+	{
+		if (!types.containsKey(name))
+		{
+			throw new UnsupportedExpressionException("Unknown " + kind + " " + name);
+		}
+		
+		String className = types.get(name);
+		Class<?> type = className == null ? null : KNOWN_TYPES.get(className);
+		//values of other types can only be used as objects
+		return type == null ? Object.class : type;
+	}
+	
+	/**
+	 * Creates the node of a pending string concatenation.
+	 */
+	private Operand finish(Operand operand)
+	{
+		if (operand.concatenationParts == null)
+		{
+			return operand;
+		}
+		
+		List<ExpressionNode> parts = operand.concatenationParts;
+		if (parts.size() == 1 && parts.get(0) instanceof ExpressionNodes.Constant)
+		{
+			return new Operand(parts.get(0), String.class);
+		}
+		return new Operand(new ExpressionNodes.Concatenation(parts), String.class);
+	}
+	
+	private Operand plus(Operand left, Operand right) throws UnsupportedExpressionException
+	{
+		boolean concatenation;
+		if (groovy)
+		{
+			concatenation = left.type == String.class;
+			if (concatenation && !(right.isNull() || GROOVY_PLAIN_TYPES.contains(right.type)))
+			{
+				throw new UnsupportedExpressionException("Unsupported string concatenation operand");
+			}
+		}
+		else
+		{
+			concatenation = left.type == String.class || right.type == String.class;
+		}
+		
+		if (!concatenation)
+		{
+			return arithmetic('+', finish(left), right);
+		}
+		
+		List<ExpressionNode> parts = new ArrayList<>();
+		if (left.concatenationParts == null)
+		{
+			parts.add(left.node);
+		}
+		else
+		{
+			parts.addAll(left.concatenationParts);
+		}
+		
+		int lastIndex = parts.size() - 1;
+		ExpressionNode last = parts.get(lastIndex);
+		if (last instanceof ExpressionNodes.Constant && right.node instanceof ExpressionNodes.Constant)
+		{
+			//merging constants
+			String merged = String.valueOf(((ExpressionNodes.Constant) last).getValue())
+					+ String.valueOf(((ExpressionNodes.Constant) right.node).getValue());
+			parts.set(lastIndex, new ExpressionNodes.Constant(merged));
+		}
+		else
+		{
+			parts.add(right.node);
+		}
+		return new Operand(null, String.class, parts);
+	}
+	
+	private Operand arithmetic(char operator, Operand left, Operand right) throws UnsupportedExpressionException
+	{
+		if (groovy && operator == '/')
+		{
+			//division results in BigDecimal values in Groovy
+			throw new UnsupportedExpressionException("Unsupported operator /");
+		}
+		
+		PrimitiveType type = promotedType(left, right);
+		if (type == null)
+		{
+			throw new UnsupportedExpressionException("Unsupported operands for " + operator);
+		}
+		return new Operand(new ExpressionNodes.Arithmetic(operator, type, left.node, right.node), 
+				resultType(primitiveClass(type)));
+	}
+	
+	private Operand relational(String operator, Operand left, Operand right) throws UnsupportedExpressionException
+	{
+		if (groovy)
+		{
+			//Groovy compares null values instead of throwing NullPointerException
+			throw new UnsupportedExpressionException("Unsupported operator " + operator);
+		}
+		
+		PrimitiveType type = promotedType(left, right);
+		if (type == null)
+		{
+			throw new UnsupportedExpressionException("Unsupported operands for " + operator);
+		}
+		return new Operand(new ExpressionNodes.PrimitiveComparison(operator, type, left.node, right.node), 
+				boolean.class);
+	}
+	
+	private Operand equality(String operator, Operand left, Operand right) throws UnsupportedExpressionException
+	{
+		boolean negated = operator.equals("!=");
+		if (left.isNull() || right.isNull())
+		{
+			if (left.isPrimitive() || right.isPrimitive())
+			{
+				throw new UnsupportedExpressionException("Unsupported comparison of primitive value with null");
+			}
+			return new Operand(new ExpressionNodes.IdentityComparison(negated, left.node, right.node), 
+					resultType(boolean.class));
+		}
+		
+		if (groovy)
+		{
+			//Groovy == is based on equals/compareTo
+			throw new UnsupportedExpressionException("Unsupported operator " + operator);
+		}
+		
+		if (left.isPrimitive() || right.isPrimitive())
+		{
+			PrimitiveType leftType = primitiveType(left.type);
+			PrimitiveType rightType = primitiveType(right.type);
+			PrimitiveType type;
+			if (leftType == PrimitiveType.BOOLEAN && rightType == PrimitiveType.BOOLEAN)
+			{
+				type = PrimitiveType.BOOLEAN;
+			}
+			else
+			{
+				type = promotedType(left, right);
+			}
+			
+			if (type == null)
+			{
+				throw new UnsupportedExpressionException("Unsupported operands for " + operator);
+			}
+			return new Operand(new ExpressionNodes.PrimitiveComparison(operator, type, left.node, right.node), 
+					boolean.class);
+		}
+		
+		if (left.type == right.type || left.type == Object.class || right.type == Object.class)
+		{
+			//reference comparison, as in Java
+			return new Operand(new ExpressionNodes.IdentityComparison(negated, left.node, right.node), 
+					boolean.class);
+		}
+		
+		throw new UnsupportedExpressionException("Unsupported operands for " + operator);
+	}
+	
+	private Operand logical(boolean and, Operand left, Operand right) throws UnsupportedExpressionException
+	{
+		String operator = and ? "&&" : "||";
+		checkBoolean(left, operator);
+		checkBoolean(right, operator);
+		return new Operand(new ExpressionNodes.Logical(and, groovy, left.node, right.node), 
+				resultType(boolean.class));
+	}
+	
+	private Operand conditional(Operand condition, Operand whenTrue, Operand whenFalse) throws UnsupportedExpressionException
+	{
+		checkBoolean(condition, "?");
+		
+		Class<?> type;
+		PrimitiveType conversion = null;
+		if (whenTrue.type == whenFalse.type)
+		{
+			type = whenTrue.type;
+		}
+		else if (whenTrue.isNull() || whenFalse.isNull())
+		{
+			Class<?> otherType = whenTrue.isNull() ? whenFalse.type : whenTrue.type;
+			type = boxedType(otherType);
+		}
+		else if (groovy)
+		{
+			//no conversions in Groovy
+			type = Object.class;
+		}
+		else
+		{
+			PrimitiveType trueType = primitiveType(whenTrue.type);
+			PrimitiveType falseType = primitiveType(whenFalse.type);
+			if (trueType == PrimitiveType.BOOLEAN && falseType == PrimitiveType.BOOLEAN)
+			{
+				conversion = PrimitiveType.BOOLEAN;
+				type = boolean.class;
+			}
+			else if (trueType != null && falseType != null && trueType.isNumeric() && falseType.isNumeric())
+			{
+				if (isShortOrByte(whenTrue.type) || isShortOrByte(whenFalse.type))
+				{
+					throw new UnsupportedExpressionException("Unsupported conditional operand types");
+				}
+				conversion = promotedType(whenTrue, whenFalse);
+				type = primitiveClass(conversion);
+			}
+			else
+			{
+				//primitive values are boxed
+				type = Object.class;
+			}
+		}
+		
+		ExpressionNodes.Conditional node = new ExpressionNodes.Conditional(groovy, condition.node, 
+				whenTrue.node, whenFalse.node, conversion);
+		return new Operand(node, type);
+	}
+	
+	private Operand methodCall(Operand target, String name, List<Operand> arguments) throws UnsupportedExpressionException
+	{
+		if (target.isNull() || (target.isPrimitive() && !groovy))
+		{
+			throw new UnsupportedExpressionException("Unsupported call of " + name + " on primitive value");
+		}
+		
+		Class<?> targetType = boxedType(target.type);
+		ExpressionMethod method = ExpressionMethod.find(targetType, name, arguments.size());
+		if (method == null)
+		{
+			throw new UnsupportedExpressionException("Unsupported method " + name);
+		}
+		if (groovy && (method == ExpressionMethod.EQUALS || method == ExpressionMethod.TO_STRING)
+				&& !GROOVY_PLAIN_TYPES.contains(targetType))
+		{
+			throw new UnsupportedExpressionException("Unsupported method " + name + " in Groovy");
+		}
+		
+		ExpressionMethod.ArgumentType[] argumentTypes = method.getArgumentTypes();
+		List<ExpressionNode> argumentNodes = new ArrayList<>(arguments.size());
+		for (int i = 0; i < argumentTypes.length; i++)
+		{
+			Operand argument = arguments.get(i);
+			boolean valid;
+			switch (argumentTypes[i])
+			{
+			case STRING:
+				valid = argument.isNull() || argument.type == String.class;
+				break;
+			case INT:
+				valid = primitiveType(argument.type) == PrimitiveType.INT;
+				break;
+			case OBJECT:
+			default:
+				valid = true;
+				break;
+			}
+			if (!valid)
+			{
+				throw new UnsupportedExpressionException("Unsupported argument for method " + name);
+			}
+			argumentNodes.add(argument.node);
+		}
+		
+		return new Operand(new ExpressionNodes.MethodCall(method, groovy, target.node, argumentNodes), 
+				resultType(method.getResultType()));
+	}
+	
+	private void checkBoolean(Operand operand, String operator) throws UnsupportedExpressionException
+	{
+		if (primitiveType(operand.type) != PrimitiveType.BOOLEAN)
+		{
+			throw new UnsupportedExpressionException("Unsupported operand for " + operator);
+		}
+	}
+	
+	/**
+	 * Returns the type of an operation result, taking into account that Groovy does not
+	 * have primitive values.
+	 */
+	private Class<?> resultType(Class<?> type)
+	{
+		return groovy ? boxedType(type) : type;
+	}
+	
+	private PrimitiveType numericType(Operand operand)
+	{
+		if (groovy && !(operand.type == Integer.class || operand.type == Long.class || operand.type == Double.class))
+		{
+			//Groovy applies different conversions to the other number types
+			return null;
+		}
+		
+		PrimitiveType type = primitiveType(operand.type);
+		return type != null && type.isNumeric() ? type : null;
+	}
+	
+	private PrimitiveType promotedType(Operand left, Operand right)
+	{
+		PrimitiveType leftType = numericType(left);
+		PrimitiveType rightType = numericType(right);
+		if (leftType == null || rightType == null)
+		{
+			return null;
+		}
+		return leftType.ordinal() >= rightType.ordinal() ? leftType : rightType;
+	}
+	
+	private static PrimitiveType primitiveType(Class<?> type)
+	{
+		if (type == null)
+		{
+			return null;
+		}
+		if (type == boolean.class || type == Boolean.class)
+		{
+			return PrimitiveType.BOOLEAN;
+		}
+		if (type == int.class || type == Integer.class 
+				|| type == short.class || type == Short.class
+				|| type == byte.class || type == Byte.class)
+		{
+			return PrimitiveType.INT;
+		}
+		if (type == long.class || type == Long.class)
+		{
+			return PrimitiveType.LONG;
+		}
+		if (type == float.class || type == Float.class)
+		{
+			return PrimitiveType.FLOAT;
+		}
+		if (type == double.class || type == Double.class)
+		{
+			return PrimitiveType.DOUBLE;
+		}
+		return null;
+	}
+	
+	private static Class<?> primitiveClass(PrimitiveType type)
+	{
+		switch (type)
+		{
+		case BOOLEAN:
+			return boolean.class;
+		case INT:
+			return int.class;
+		case LONG:
+			return long.class;
+		case FLOAT:
+			return float.class;
+		case DOUBLE:
+			return double.class;
+		default:
+			throw new IllegalStateException();
+		}
+	}
+	
+	private static Class<?> boxedType(Class<?> type)
+	{
+		if (type == null || !type.isPrimitive())
+		{
+			return type;
+		}
+		if (type == boolean.class)
+		{
+			return Boolean.class;
+		}
+		if (type == int.class)
+		{
+			return Integer.class;
+		}
+		if (type == long.class)
+		{
+			return Long.class;
+		}
+		if (type == float.class)
+		{
+			return Float.class;
+		}
+		if (type == double.class)
+		{
+			return Double.class;
+		}
+		if (type == short.class)
+		{
+			return Short.class;
+		}
+		if (type == byte.class)
+		{
+			return Byte.class;
+		}
+		return Object.class;
+	}
+	
+	private static boolean isShortOrByte(Class<?> type)
+	{
+		return type == short.class || type == Short.class || type == byte.class || type == Byte.class;
+	}
+	
+}
@@ -85,6 +85,13 @@ public class JRGroovyCompiler extends JRAbstractJavaCompiler
 	{
 		return GroovyDirectExpressionValueFilter.instance();
 	}
+
+	@Override
+	protected ExpressionTreeParser.Dialect expressionTreeDialect()
+	{
+		//used for reports in Java as well, the expressions are evaluated as Groovy code
+		return ExpressionTreeParser.Dialect.GROOVY;
+	}
 	
 
 	@Override
@@ -60,7 +60,48 @@ public class JavaScriptEvaluator extends JREvaluator implements JasperReportsCon
 			)
 	public static final String PROPERTY_OPTIMIZATION_LEVEL = JRPropertiesUtil.PROPERTY_PREFIX 
 			+ "javascript.evaluator.optimization.level";
-	
+
+	/**
+	 * Property that determines whether scripts compiled from expression texts are kept in a process wide cache
+	 * and reused by subsequent fills, instead of being compiled again for each evaluator.
+	 *
+	 * <p>
+	 * Compiled scripts do not hold any state of their own and are executed against the scope of the evaluator,
+	 * which makes them safe to share between concurrent fills.
+	 * The cache is keyed by the expression text and the optimization level and holds soft references to the scripts.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			defaultValue = PropertyConstants.BOOLEAN_TRUE,
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_SHARED_SCRIPTS = JRPropertiesUtil.PROPERTY_PREFIX
+			+ "javascript.evaluator.shared.scripts";
+
+	/**
+	 * Property that determines whether JavaScript evaluators use a sealed scope with the standard objects
+	 * that is shared by all evaluators, instead of initializing the standard objects for each evaluator.
+	 *
+	 * <p>
+	 * This applies both to expressions compiled at fill time and to expressions compiled by
+	 * {@link JavaScriptClassCompiler}.
+	 * Since the shared scope is sealed, expressions can no longer alter the standard objects
+	 * (for instance by adding properties to <code>Math</code> or to the <code>String</code> prototype).
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			defaultValue = PropertyConstants.BOOLEAN_TRUE,
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_SHARED_STANDARD_OBJECTS = JRPropertiesUtil.PROPERTY_PREFIX
+			+ "javascript.evaluator.shared.standard.objects";
+
 	public static final String EXCEPTION_MESSAGE_KEY_EVALUATOR_LOAD_ERROR = "compilers.javascript.evaluator.load.error";
 	
 	private final JasperReportsContext jrContext;
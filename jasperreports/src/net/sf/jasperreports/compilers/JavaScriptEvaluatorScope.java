@@ -41,12 +41,18 @@ import net.sf.jasperreports.engine.util.JRClassLoader;
 import net.sf.jasperreports.engine.util.ProtectionDomainFactory;
 import net.sf.jasperreports.functions.FunctionsUtil;
 
+import org.apache.commons.collections4.map.ReferenceMap;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.mozilla.javascript.ClassCache;
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.Context.ClassShutterSetter;
 import org.mozilla.javascript.ContextFactory;
 import org.mozilla.javascript.EvaluatorException;
+import org.mozilla.javascript.ImporterTopLevel;
+import org.mozilla.javascript.JavaAdapter;
+import org.mozilla.javascript.NativeJavaTopPackage;
+import org.mozilla.javascript.NativeObject;
 import org.mozilla.javascript.Script;
 import org.mozilla.javascript.ScriptableObject;
 import org.mozilla.javascript.optimizer.Codegen;
@@ -153,11 +159,31 @@ public class JavaScriptEvaluatorScope
 	
 	//TODO find a way to tell whether a Context is our own by only looking at it
 	private static Map<Context, Void> ownContexts = Collections.synchronizedMap(new WeakHashMap<>());
+	
+	/**
+	 * Sealed scopes with the standard objects, per application class loader.
+	 * <p>
+	 * The scopes do not include the Java access objects (such as <code>Packages</code> and <code>java</code>)
+	 * and the Java class cache, because these cache class lookups that are subject to the class shutter 
+	 * of the context that performs them.
+	 * They are created for each evaluator by {@link #createJavaObjects(Context, ScriptableObject)}.
+	 */
+	private static final ReferenceMap<ClassLoader, ScriptableObject> sharedStandardObjects = 
+		new ReferenceMap<>(
+			ReferenceMap.ReferenceStrength.WEAK, ReferenceMap.ReferenceStrength.SOFT
+			);
+	
+	private static final ReferenceMap<CompiledExpressionKey, Script> sharedCompiledExpressions = 
+		new ReferenceMap<>(
+			ReferenceMap.ReferenceStrength.HARD, ReferenceMap.ReferenceStrength.SOFT
+			);
 
 	private ReportClassShutter classShutter;
 	private Context context;
 	private ScriptableObject scope;
 	private volatile ProtectionDomain protectionDomain;
+	private final int optimizationLevel;
+	private final boolean sharedScripts;
 	private Map<String, Script> compiledExpressions = new HashMap<>();
 
 	public JavaScriptEvaluatorScope(JasperReportsContext jrContext, JREvaluator evaluator, FunctionsUtil functionsUtil)
@@ -166,7 +192,9 @@ public class JavaScriptEvaluatorScope
 		context = enter(null);
 		ownContexts.put(context, null);
 		
-		int optimizationLevel = JRPropertiesUtil.getInstance(jrContext).getIntegerProperty(JavaScriptEvaluator.PROPERTY_OPTIMIZATION_LEVEL);
+		JRPropertiesUtil propertiesUtil = JRPropertiesUtil.getInstance(jrContext);
+		optimizationLevel = propertiesUtil.getIntegerProperty(JavaScriptEvaluator.PROPERTY_OPTIMIZATION_LEVEL);
+		sharedScripts = propertiesUtil.getBooleanProperty(JavaScriptEvaluator.PROPERTY_SHARED_SCRIPTS);
 		if (log.isDebugEnabled())
 		{
 			log.debug("optimization level " + optimizationLevel);
@@ -179,9 +207,18 @@ public class JavaScriptEvaluatorScope
 		context.setSecurityController(new JavaPolicySecurity());
 		
 		JavaScriptFunctionsObject functionsObject = new JavaScriptFunctionsObject(context, functionsUtil, evaluator);
-		this.scope = context.initStandardObjects();
-		// is this OK?  the original prototype set by initStandardObjects is lost, and functionsObject has no prototype.
-		// seems to be fine for now, if not we could try setting the Object prototype to functionsObject.
+		if (propertiesUtil.getBooleanProperty(JavaScriptEvaluator.PROPERTY_SHARED_STANDARD_OBJECTS))
+		{
+			// the standard objects are looked up via the prototype chain, functionsObject gives them precedence
+			functionsObject.setPrototype(createJavaObjects(context, getSharedStandardObjects(context)));
+			this.scope = new NativeObject();
+		}
+		else
+		{
+			this.scope = context.initStandardObjects();
+			// is this OK?  the original prototype set by initStandardObjects is lost, and functionsObject has no prototype.
+			// seems to be fine for now, if not we could try setting the Object prototype to functionsObject.
+		}
 		this.scope.setPrototype(functionsObject);
 		
 		this.scope.put(EVALUATOR_VAR, this.scope, evaluator);
@@ -190,6 +227,52 @@ public class JavaScriptEvaluatorScope
 		Context.exit();
 	}
 	
+	protected static ScriptableObject getSharedStandardObjects(Context context)
+	{
+		ClassLoader classLoader = context.getApplicationClassLoader();
+		ScriptableObject standardObjects;
+		synchronized (sharedStandardObjects)
+		{
+			standardObjects = sharedStandardObjects.get(classLoader);
+			if (standardObjects == null)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("creating shared standard objects for " + classLoader);
+				}
+				
+				standardObjects = context.initSafeStandardObjects(null, true);
+				sharedStandardObjects.put(classLoader, standardObjects);
+			}
+		}
+		return standardObjects;
+	}
+	
+	/**
+	 * Creates the objects that provide access to Java classes, for an evaluator whose scope uses shared standard objects.
+	 * <p>
+	 * The objects and the class cache in which the Java class members are kept are created for each evaluator,
+	 * so that the classes are only accessed as allowed by the class shutter of the evaluator.
+	 * 
+	 * @param context the evaluator context
+	 * @param standardObjects the shared standard objects, set as prototype of the created scope
+	 * @return a scope with the Java access objects
+	 */
+	protected static ScriptableObject createJavaObjects(Context context, ScriptableObject standardObjects)
+	{
+		ScriptableObject javaObjects = new NativeObject();
+		javaObjects.setPrototype(standardObjects);
+		
+		// found via the prototype chain for the evaluator scope, before the class cache of the standard objects
+		new ClassCache().associate(javaObjects);
+		
+		// same as the objects added by initStandardObjects on top of initSafeStandardObjects
+		NativeJavaTopPackage.init(context, javaObjects, false);
+		JavaAdapter.init(context, javaObjects, false);
+		ImporterTopLevel.init(context, javaObjects, false);
+		return javaObjects;
+	}
+	
 	public void init(Map<String, JRFillParameter> parametersMap, 
 			Map<String, JRFillField> fieldsMap,
 			Map<String, JRFillVariable> variablesMap)
@@ -275,19 +358,53 @@ public class JavaScriptEvaluatorScope
 		Script compiledExpression = compiledExpressions.get(expression);
 		if (compiledExpression == null)
 		{
-			if (log.isTraceEnabled())
+			compiledExpression = sharedScripts ? getSharedCompiledExpression(expression) : compileExpression(expression);
+			compiledExpressions.put(expression, compiledExpression);
+		}
+		return compiledExpression;
+	}
+	
+	protected Script getSharedCompiledExpression(String expression)
+	{
+		CompiledExpressionKey key = new CompiledExpressionKey(optimizationLevel, expression);
+		Script compiledExpression;
+		synchronized (sharedCompiledExpressions)
+		{
+			compiledExpression = sharedCompiledExpressions.get(key);
+		}
+		
+		if (compiledExpression == null)
+		{
+			// compiling outside the lock, concurrent fills might compile the same expression but that's harmless
+			compiledExpression = compileExpression(expression);
+			synchronized (sharedCompiledExpressions)
 			{
-				log.trace("compiling expression " + expression);
+				Script existingExpression = sharedCompiledExpressions.get(key);
+				if (existingExpression == null)
+				{
+					sharedCompiledExpressions.put(key, compiledExpression);
+				}
+				else
+				{
+					compiledExpression = existingExpression;
+				}
 			}
-			
-			ensureContext();
-			
-			compiledExpression = context.compileString(expression, "expression", 0, getProtectionDomain());
-			compiledExpressions.put(expression, compiledExpression);
 		}
 		return compiledExpression;
 	}
 	
+	protected Script compileExpression(String expression)
+	{
+		if (log.isTraceEnabled())
+		{
+			log.trace("compiling expression " + expression);
+		}
+		
+		ensureContext();
+		
+		return context.compileString(expression, "expression", 0, getProtectionDomain());
+	}
+	
 	protected ProtectionDomain getProtectionDomain()
 	{
 		ProtectionDomain domain = protectionDomain;
@@ -337,4 +454,37 @@ public class JavaScriptEvaluatorScope
 		
 		return newContext;
 	}
+	
+	private static final class CompiledExpressionKey
+	{
+		private final int optimizationLevel;
+		private final String expression;
+		
+		CompiledExpressionKey(int optimizationLevel, String expression)
+		{
+			this.optimizationLevel = optimizationLevel;
+			this.expression = expression;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return 31 * optimizationLevel + expression.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj == this)
+			{
+				return true;
+			}
+			if (!(obj instanceof CompiledExpressionKey))
+			{
+				return false;
+			}
+			CompiledExpressionKey key = (CompiledExpressionKey) obj;
+			return optimizationLevel == key.optimizationLevel && expression.equals(key.expression);
+		}
+	}
 }
@@ -36,6 +36,7 @@ import org.apache.commons.logging.LogFactory;
 import org.mozilla.javascript.Callable;
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
 
 /**
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
@@ -85,7 +86,10 @@ public class JavaScriptFunctionsObject implements Scriptable
 		// remembering not found functions as well so that we don't look them up several times
 		function = NOT_FOUND;
 		
-		Method method = functionsUtil.getMethod4Function(name);
+		// names defined by the prototype (the shared standard objects) take precedence over functions,
+		// same as when the standard objects were in the evaluator scope itself
+		Method method = prototype != null && ScriptableObject.hasProperty(prototype, name)
+				? null : functionsUtil.getMethod4Function(name);
 		if (method != null)
 		{
 			Class<?> functionClass = method.getDeclaringClass();
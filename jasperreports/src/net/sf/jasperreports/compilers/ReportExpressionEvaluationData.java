@@ -24,6 +24,7 @@
 package net.sf.jasperreports.compilers;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.Map;
 
 import net.sf.jasperreports.engine.JRConstants;
@@ -40,6 +41,8 @@ public class ReportExpressionEvaluationData implements Serializable
 	private Serializable compileData;
 	
 	private Map<Integer, DirectExpressionEvaluation> directEvaluations;
+	
+	private Map<Integer, String> interpreterFallbacks;
 
 	public String getCompileName()
 	{
@@ -70,5 +73,24 @@ public class ReportExpressionEvaluationData implements Serializable
 	{
 		this.directEvaluations = directEvaluations;
 	}
+
+	/**
+	 * Returns the expressions that could not be interpreted and were compiled,
+	 * indexed by expression ID, together with the reasons.
+	 * 
+	 * @return the IDs of the expressions not supported by the expression interpreter, 
+	 * mapped to the reasons
+	 * @see ReportExpressionsCompilation#getInterpreterFallbacks()
+	 * @see net.sf.jasperreports.engine.JRExpression#getId()
+	 */
+	public Map<Integer, String> getInterpreterFallbacks()
+	{
+		return interpreterFallbacks == null ? Collections.emptyMap() : interpreterFallbacks;
+	}
+
+	public void setInterpreterFallbacks(Map<Integer, String> interpreterFallbacks)
+	{
+		this.interpreterFallbacks = interpreterFallbacks;
+	}
 	
 }
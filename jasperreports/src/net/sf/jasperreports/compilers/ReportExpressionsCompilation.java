@@ -23,6 +23,7 @@
  */
 package net.sf.jasperreports.compilers;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -36,12 +37,22 @@ public class ReportExpressionsCompilation
 	
 	private final List<JRExpression> sourceExpressions;
 	private final Map<Integer, DirectExpressionEvaluation> directEvaluations;
+	private final Map<JRExpression, String> interpreterFallbacks;
 	
 	public ReportExpressionsCompilation(List<JRExpression> sourceExpressions,
 			Map<Integer, DirectExpressionEvaluation> directEvaluations)
+	{
+		this(sourceExpressions, directEvaluations, null);
+	}
+	
+	public ReportExpressionsCompilation(List<JRExpression> sourceExpressions,
+			Map<Integer, DirectExpressionEvaluation> directEvaluations,
+			Map<JRExpression, String> interpreterFallbacks)
 	{
 		this.sourceExpressions = sourceExpressions;
 		this.directEvaluations = directEvaluations;
+		this.interpreterFallbacks = interpreterFallbacks == null 
+				? Collections.emptyMap() : interpreterFallbacks;
 	}
 
 	public List<JRExpression> getSourceExpressions()
@@ -54,4 +65,16 @@ public class ReportExpressionsCompilation
 		return directEvaluations;
 	}
 
+	/**
+	 * Returns the expressions that could not be interpreted and need to be compiled,
+	 * together with the reasons.
+	 * 
+	 * @return the expressions not supported by the expression interpreter
+	 * @see ExpressionTreeParser
+	 */
+	public Map<JRExpression, String> getInterpreterFallbacks()
+	{
+		return interpreterFallbacks;
+	}
+
 }
@@ -26,9 +26,13 @@ package net.sf.jasperreports.compilers;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
 import net.sf.jasperreports.engine.JRExpression;
 import net.sf.jasperreports.engine.JRExpressionChunk;
 import net.sf.jasperreports.engine.JRExpressionCollector;
@@ -40,6 +44,8 @@ import net.sf.jasperreports.engine.type.ExpressionTypeEnum;
 public class ReportExpressionsCompiler
 {
 	
+	private static final Log log = LogFactory.getLog(ReportExpressionsCompiler.class);
+	
 	private static final ReportExpressionsCompiler INSTANCE = new ReportExpressionsCompiler();
 	
 	public static ReportExpressionsCompiler instance()
@@ -70,8 +76,23 @@ public class ReportExpressionsCompiler
 	}
 	
 	public ReportExpressionsCompilation getExpressionsCompilation(JRExpressionCollector expressionCollector)
+	{
+		return getExpressionsCompilation(expressionCollector, null);
+	}
+	
+	/**
+	 * Determines the expressions that need to be compiled, using an expression tree parser
+	 * to interpret the expressions that do not have a direct evaluation.
+	 * 
+	 * @param expressionCollector the expressions collector
+	 * @param treeParser the expression tree parser, if <code>null</code> no expressions are interpreted
+	 * @return the expressions compilation
+	 */
+	public ReportExpressionsCompilation getExpressionsCompilation(JRExpressionCollector expressionCollector,
+			ExpressionTreeParser treeParser)
 	{
 		List<JRExpression> sourceExpressions = new ArrayList<>();
+		Map<JRExpression, String> interpreterFallbacks = treeParser == null ? null : new LinkedHashMap<>();
 		
 		Map<Integer, DirectExpressionEvaluation> directEvaluations = new HashMap<>();
 		List<JRExpression> expressions = expressionCollector.getExpressions();
@@ -79,6 +100,18 @@ public class ReportExpressionsCompiler
 		{
 			JRExpression expression = it.next();
 			DirectExpressionEvaluation directEvaluation = directEvaluation(expression);
+			if (directEvaluation == null && treeParser != null)
+			{
+				try
+				{
+					directEvaluation = treeParser.parse(expression);
+				}
+				catch (ExpressionTreeParser.UnsupportedExpressionException e)
+				{
+					interpreterFallbacks.put(expression, e.getMessage());
+				}
+			}
+			
 			if (directEvaluation == null)
 			{
 				sourceExpressions.add(expression);
@@ -89,8 +122,19 @@ public class ReportExpressionsCompiler
 				directEvaluations.put(expressionId, directEvaluation);
 			}
 		}
+		
+		if (interpreterFallbacks != null && log.isDebugEnabled())
+		{
+			log.debug("interpreting " + (expressions.size() - sourceExpressions.size()) 
+					+ " expressions, compiling " + sourceExpressions.size());
+			for (Map.Entry<JRExpression, String> entry : interpreterFallbacks.entrySet())
+			{
+				log.debug("compiling expression " + entry.getKey().getText() + ": " + entry.getValue());
+			}
+		}
+		
 		return new ReportExpressionsCompilation(sourceExpressions,
-				directEvaluations);
+				directEvaluations, interpreterFallbacks);
 	}
 
 	protected DirectExpressionEvaluation directEvaluation(JRExpression expression)
@@ -134,6 +134,9 @@ public class StandardExpressionEvaluators implements DirectExpressionEvaluators
 		case SIMPLE_TEXT:
 			evaluator = new SimpleTextEvaluator(((SimpleTextEvaluation) evaluation).getChunks());
 			break;
+		case EXPRESSION_TREE:
+			evaluator = new ExpressionTreeEvaluator(((ExpressionTreeEvaluation) evaluation).getRoot());
+			break;
 		case PARAMETER:
 			String parameterName = ((ParameterEvaluation) evaluation).getName();
 			JRFillParameter parameter = parametersMap.get(parameterName);
@@ -204,4 +207,79 @@ public class StandardExpressionEvaluators implements DirectExpressionEvaluators
 		}	
 	}
 
+	protected class ExpressionTreeEvaluator implements DirectExpressionEvaluator
+	{
+		private ExpressionNode root;
+		private ExpressionValues filteredDefaultValues;
+		private ExpressionValues filteredOldValues;
+		private ExpressionValues filteredEstimatedValues;
+		
+		public ExpressionTreeEvaluator(ExpressionNode root)
+		{
+			this.root = root;
+			this.filteredDefaultValues = new FilteredExpressionValues(defaultValues);
+			this.filteredOldValues = new FilteredExpressionValues(oldValues);
+			this.filteredEstimatedValues = new FilteredExpressionValues(estimatedValues);
+		}
+
+		@Override
+		public Object evaluate()
+		{
+			return valueFilter.filterValue(root.evaluate(filteredDefaultValues), null);
+		}
+
+		@Override
+		public Object evaluateOld()
+		{
+			return valueFilter.filterValue(root.evaluate(filteredOldValues), null);
+		}
+
+		@Override
+		public Object evaluateEstimated()
+		{
+			return valueFilter.filterValue(root.evaluate(filteredEstimatedValues), null);
+		}	
+	}
+	
+	/**
+	 * Applies the value filter to parameter, field and variable values, 
+	 * as done for values read by compiled expressions.
+	 */
+	protected class FilteredExpressionValues implements ExpressionValues
+	{
+		private ExpressionValues values;
+		
+		public FilteredExpressionValues(ExpressionValues values)
+		{
+			this.values = values;
+		}
+
+		@Override
+		public Object getParameterValue(String parameterName)
+		{
+			Object value = values.getParameterValue(parameterName);
+			return valueFilter.filterValue(value, parametersMap.get(parameterName).getValueClass());
+		}
+
+		@Override
+		public Object getFieldValue(String fieldName)
+		{
+			Object value = values.getFieldValue(fieldName);
+			return valueFilter.filterValue(value, fieldsMap.get(fieldName).getValueClass());
+		}
+
+		@Override
+		public Object getVariableValue(String variableName)
+		{
+			Object value = values.getVariableValue(variableName);
+			return valueFilter.filterValue(value, variablesMap.get(variableName).getValueClass());
+		}
+
+		@Override
+		public String getMessage(String messageKey)
+		{
+			return values.getMessage(messageKey);
+		}
+	}
+
 }
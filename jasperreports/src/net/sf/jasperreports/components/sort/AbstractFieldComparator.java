@@ -75,6 +75,14 @@ public abstract class AbstractFieldComparator<T> {
 		return formatFactory;
 	}
 	
+	public T getCompareStart() {
+		return compareStart;
+	}
+	
+	public T getCompareEnd() {
+		return compareEnd;
+	}
+	
 	public boolean isValid() {
 		try {
 			initValues();
@@ -94,7 +94,7 @@ public class FieldFilter implements DatasetFilter {
 		}
 	}
 
-	protected Locale getFilterLocale()
+	public Locale getFilterLocale()
 	{
 		Locale locale;
 		if (localeCode != null)
@@ -151,6 +151,13 @@ public class FieldFilter implements DatasetFilter {
 		return fieldComparator.compare(filterTypeOperator);
 	}
 
+	/**
+	 * Returns the comparator that parses the filter values, available after the filter has been initialized.
+	 */
+	public AbstractFieldComparator<?> getFieldComparator() {
+		return fieldComparator;
+	}
+
 	public String getField() {
 		return this.field;
 	}
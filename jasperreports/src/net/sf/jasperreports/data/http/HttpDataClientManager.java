@@ -0,0 +1,326 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.data.http;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * Holds the HTTP connection pool and the response cache shared by the HTTP data adapters
+ * that use the same {@link JasperReportsContext}.
+ * <p>
+ * A manager belongs to the context that sets the properties it is created from.
+ * Child contexts that do not set any of these properties themselves, such as the contexts created for report fills,
+ * use the manager of their parent.
+ * The manager of a context is to be {@link #dispose(JasperReportsContext) disposed} when the context is no longer used,
+ * otherwise its cache files are only deleted when the JVM exits.
+ * </p>
+ * 
+ * @see HttpDataService
+ */
+public class HttpDataClientManager
+{
+	
+	private static final Log log = LogFactory.getLog(HttpDataClientManager.class);
+	
+	private static final String CONTEXT_KEY = "net.sf.jasperreports.data.http.client.manager";
+	
+	/**
+	 * Property that determines whether HTTP data adapters reuse connections from a pool shared
+	 * at {@link JasperReportsContext} level, as opposed to opening a new connection for each request.
+	 * Connection pooling is disabled by default.
+	 */
+	@Property (
+			category = PropertyConstants.CATEGORY_DATA_SOURCE,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+	)
+	public static final String PROPERTY_CONNECTION_POOL_ENABLED = JRPropertiesUtil.PROPERTY_PREFIX + "http.data.connection.pool.enabled";
+	
+	/**
+	 * Property that specifies the maximum number of connections in the HTTP data adapters connection pool.
+	 */
+	@Property (
+			category = PropertyConstants.CATEGORY_DATA_SOURCE,
+			defaultValue = "20",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Integer.class
+	)
+	public static final String PROPERTY_CONNECTION_POOL_MAX_TOTAL = JRPropertiesUtil.PROPERTY_PREFIX + "http.data.connection.pool.max.total";
+	
+	/**
+	 * Property that specifies the maximum number of pooled connections to a single host used by the HTTP data adapters.
+	 */
+	@Property (
+			category = PropertyConstants.CATEGORY_DATA_SOURCE,
+			defaultValue = "5",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Integer.class
+	)
+	public static final String PROPERTY_CONNECTION_POOL_MAX_PER_ROUTE = JRPropertiesUtil.PROPERTY_PREFIX + "http.data.connection.pool.max.per.route";
+	
+	/**
+	 * Property that specifies the maximum total size in bytes of the HTTP responses cached by the HTTP data adapters.
+	 * A zero value disables the cache.
+	 */
+	@Property (
+			category = PropertyConstants.CATEGORY_DATA_SOURCE,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Long.class
+	)
+	public static final String PROPERTY_CACHE_MAX_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "http.data.cache.max.size";
+	
+	/**
+	 * Property that specifies the directory in which cached HTTP responses are stored.
+	 * If not set, a temporary directory is created, and deleted when the manager is disposed.
+	 */
+	@Property (
+			category = PropertyConstants.CATEGORY_DATA_SOURCE,
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3
+	)
+	public static final String PROPERTY_CACHE_DIRECTORY = JRPropertiesUtil.PROPERTY_PREFIX + "http.data.cache.directory";
+	
+	private static final String[] CLIENT_PROPERTIES = new String[]{
+			PROPERTY_CONNECTION_POOL_ENABLED,
+			PROPERTY_CONNECTION_POOL_MAX_TOTAL,
+			PROPERTY_CONNECTION_POOL_MAX_PER_ROUTE,
+			PROPERTY_CACHE_MAX_SIZE,
+			PROPERTY_CACHE_DIRECTORY,
+			};
+	
+	/**
+	 * Returns the manager that belongs to the context, or to the closest parent context that sets the manager properties.
+	 */
+	public static HttpDataClientManager getInstance(JasperReportsContext jasperReportsContext)
+	{
+		JasperReportsContext ownerContext = getOwnerContext(jasperReportsContext);
+		synchronized (HttpDataClientManager.class)
+		{
+			HttpDataClientManager manager = (HttpDataClientManager) ownerContext.getOwnValue(CONTEXT_KEY);
+			if (manager == null || manager.disposed)
+			{
+				manager = new HttpDataClientManager(ownerContext);
+				ownerContext.setValue(CONTEXT_KEY, manager);
+			}
+			return manager;
+		}
+	}
+	
+	/**
+	 * Disposes the manager that belongs to the context, if one was created.
+	 * A new manager is created if the context is used again afterwards.
+	 * 
+	 * @see #getInstance(JasperReportsContext)
+	 */
+	public static void dispose(JasperReportsContext jasperReportsContext)
+	{
+		JasperReportsContext ownerContext = getOwnerContext(jasperReportsContext);
+		HttpDataClientManager manager;
+		synchronized (HttpDataClientManager.class)
+		{
+			manager = (HttpDataClientManager) ownerContext.getOwnValue(CONTEXT_KEY);
+			if (manager == null || manager.disposed)
+			{
+				return;
+			}
+			manager.disposed = true;
+		}
+		manager.dispose();
+	}
+	
+	protected static JasperReportsContext getOwnerContext(JasperReportsContext jasperReportsContext)
+	{
+		JasperReportsContext context = jasperReportsContext;
+		while (context instanceof SimpleJasperReportsContext 
+				&& ((SimpleJasperReportsContext) context).getParent() != null
+				&& !hasOwnClientProperties(context))
+		{
+			context = ((SimpleJasperReportsContext) context).getParent();
+		}
+		return context;
+	}
+	
+	protected static boolean hasOwnClientProperties(JasperReportsContext context)
+	{
+		for (String property : CLIENT_PROPERTIES)
+		{
+			if (context.getOwnProperty(property) != null)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private final PoolingHttpClientConnectionManager connectionManager;
+	private final HttpResponseCache responseCache;
+	private File temporaryCacheDirectory;
+	private Thread cacheCleanupHook;
+	private boolean disposed;
+	
+	protected HttpDataClientManager(JasperReportsContext jasperReportsContext)
+	{
+		JRPropertiesUtil properties = JRPropertiesUtil.getInstance(jasperReportsContext);
+		this.connectionManager = createConnectionManager(properties);
+		this.responseCache = createResponseCache(properties);
+		
+		if (responseCache != null && temporaryCacheDirectory != null)
+		{
+			// deleting the files if the manager is not disposed
+			cacheCleanupHook = new Thread(this::deleteResponseCache, "JasperReports HTTP cache cleanup");
+			Runtime.getRuntime().addShutdownHook(cacheCleanupHook);
+		}
+	}
+	
+	protected PoolingHttpClientConnectionManager createConnectionManager(JRPropertiesUtil properties)
+	{
+		if (!properties.getBooleanProperty(PROPERTY_CONNECTION_POOL_ENABLED, false))
+		{
+			return null;
+		}
+		
+		PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+		connectionManager.setMaxTotal(properties.getIntegerProperty(PROPERTY_CONNECTION_POOL_MAX_TOTAL, 20));
+		connectionManager.setDefaultMaxPerRoute(properties.getIntegerProperty(PROPERTY_CONNECTION_POOL_MAX_PER_ROUTE, 5));
+		return connectionManager;
+	}
+	
+	protected HttpResponseCache createResponseCache(JRPropertiesUtil properties)
+	{
+		long maxSize = properties.getLongProperty(PROPERTY_CACHE_MAX_SIZE, 0);
+		if (maxSize <= 0)
+		{
+			return null;
+		}
+		
+		File directory;
+		String directoryName = properties.getProperty(PROPERTY_CACHE_DIRECTORY);
+		try
+		{
+			if (directoryName == null || directoryName.trim().isEmpty())
+			{
+				directory = Files.createTempDirectory("jasperreports-http").toFile();
+				temporaryCacheDirectory = directory;
+			}
+			else
+			{
+				directory = Files.createDirectories(new File(directoryName).toPath()).toFile();
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to create the HTTP cache directory, responses will not be cached", e);
+			return null;
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("caching HTTP responses in " + directory);
+		}
+		
+		return new HttpResponseCache(directory, maxSize);
+	}
+
+	/**
+	 * Returns the shared connection manager, or <code>null</code> if connection pooling is disabled.
+	 * 
+	 * @see #PROPERTY_CONNECTION_POOL_ENABLED
+	 */
+	public PoolingHttpClientConnectionManager getConnectionManager()
+	{
+		return connectionManager;
+	}
+
+	/**
+	 * Returns the response cache, or <code>null</code> if response caching is disabled.
+	 * 
+	 * @see #PROPERTY_CACHE_MAX_SIZE
+	 */
+	public HttpResponseCache getResponseCache()
+	{
+		return responseCache;
+	}
+	
+	/**
+	 * Closes the pooled connections and deletes the response cache files.
+	 * 
+	 * @see #dispose(JasperReportsContext)
+	 */
+	protected void dispose()
+	{
+		if (connectionManager != null)
+		{
+			connectionManager.shutdown();
+		}
+		
+		if (cacheCleanupHook != null)
+		{
+			try
+			{
+				Runtime.getRuntime().removeShutdownHook(cacheCleanupHook);
+			}
+			catch (IllegalStateException e)
+			{
+				// the JVM is shutting down, the hook deletes the files
+				return;
+			}
+			cacheCleanupHook = null;
+		}
+		deleteResponseCache();
+	}
+	
+	protected void deleteResponseCache()
+	{
+		if (responseCache != null)
+		{
+			responseCache.clear();
+		}
+		
+		if (temporaryCacheDirectory != null && !temporaryCacheDirectory.delete() && log.isDebugEnabled())
+		{
+			log.debug("Unable to delete the HTTP cache directory " + temporaryCacheDirectory);
+		}
+	}
+	
+}
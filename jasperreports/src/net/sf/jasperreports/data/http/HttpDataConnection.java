@@ -28,7 +28,10 @@ import java.io.InputStream;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
 import org.apache.http.StatusLine;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
@@ -50,12 +53,26 @@ public class HttpDataConnection implements DataFileConnection
 
 	private final CloseableHttpClient httpClient;
 	private final HttpRequestBase request;
+	private final HttpResponseCache responseCache;
+	private final String cacheKey;
 	private CloseableHttpResponse response;
+	private InputStream content;
 	
 	public HttpDataConnection(CloseableHttpClient httpClient, HttpRequestBase request)
+	{
+		this(httpClient, request, null, null);
+	}
+	
+	/**
+	 * Creates a connection that revalidates and stores the response in a cache.
+	 */
+	public HttpDataConnection(CloseableHttpClient httpClient, HttpRequestBase request, 
+			HttpResponseCache responseCache, String cacheKey)
 	{
 		this.httpClient = httpClient;
 		this.request = request;
+		this.responseCache = responseCache;
+		this.cacheKey = cacheKey;
 	}
 
 	@Override
@@ -63,6 +80,12 @@ public class HttpDataConnection implements DataFileConnection
 	{
 		try
 		{
+			HttpResponseCache.CachedResponse cachedResponse = responseCache == null ? null : responseCache.get(cacheKey);
+			if (cachedResponse != null)
+			{
+				cachedResponse.setConditionalHeaders(request);
+			}
+			
 			response = httpClient.execute(request);
 			StatusLine status = response.getStatusLine();
 			if (log.isDebugEnabled())
@@ -70,6 +93,28 @@ public class HttpDataConnection implements DataFileConnection
 				log.debug("HTTP response status " + status);
 			}
 			
+			if (cachedResponse != null && status.getStatusCode() == HttpStatus.SC_NOT_MODIFIED)
+			{
+				EntityUtils.consumeQuietly(response.getEntity());
+				InputStream cachedContent = responseCache.openCached(cacheKey, cachedResponse);
+				if (cachedContent != null)
+				{
+					if (log.isDebugEnabled())
+					{
+						log.debug("using cached HTTP response");
+					}
+					content = cachedContent;
+					return content;
+				}
+				
+				// evicted in the meantime, repeat the request without conditions
+				response.close();
+				request.removeHeaders(HttpHeaders.IF_NONE_MATCH);
+				request.removeHeaders(HttpHeaders.IF_MODIFIED_SINCE);
+				response = httpClient.execute(request);
+				status = response.getStatusLine();
+			}
+			
 			HttpEntity entity = response.getEntity();
 			if (entity == null)
 			{
@@ -89,7 +134,19 @@ public class HttpDataConnection implements DataFileConnection
 						new Object[]{status});
 			}
 			
-			return entity.getContent();
+			content = entity.getContent();
+			if (responseCache != null && status.getStatusCode() == HttpStatus.SC_OK)
+			{
+				Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+				Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+				if (etag != null || lastModified != null)
+				{
+					content = responseCache.caching(cacheKey, content, 
+							etag == null ? null : etag.getValue(), 
+							lastModified == null ? null : lastModified.getValue());
+				}
+			}
+			return content;
 		}
 		catch (IOException e)
 		{
@@ -100,8 +157,27 @@ public class HttpDataConnection implements DataFileConnection
 	@Override
 	public void dispose()
 	{
+		if (content != null)
+		{
+			// closing the stream also completes the cached response
+			try
+			{
+				content.close();
+			}
+			catch (IOException e)
+			{
+				if (log.isWarnEnabled())
+				{
+					log.warn("Error closing HTTP response content", e);
+				}
+			}
+		}
+		
 		if (response != null)
 		{
+			// reading the rest of the response allows the connection to be reused
+			EntityUtils.consumeQuietly(response.getEntity());
+			
 			try
 			{
 				response.close();
@@ -34,6 +34,7 @@ import java.util.Map.Entry;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.NameValuePair;
 import org.apache.http.auth.AuthScope;
@@ -52,6 +53,7 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.BasicHttpClientConnectionManager;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.message.BasicNameValuePair;
 
 import net.sf.jasperreports.annotations.properties.Property;
@@ -218,16 +220,37 @@ public class HttpDataService implements DataFileService
 	{
 		CloseableHttpClient httpClient = createHttpClient(parameters);
 		HttpRequestBase request = createRequest(parameters);
+		
+		HttpResponseCache responseCache = getClientManager().getResponseCache();
+		if (responseCache != null && HttpGet.METHOD_NAME.equals(request.getMethod()))
+		{
+			return new HttpDataConnection(httpClient, request, responseCache, getCacheKey(request, parameters));
+		}
 		return new HttpDataConnection(httpClient, request);
 	}
 
+	protected HttpDataClientManager getClientManager()
+	{
+		return HttpDataClientManager.getInstance(context.getJasperReportsContext());
+	}
+
 	protected CloseableHttpClient createHttpClient(Map<String, Object> parameters)
 	{
 		HttpClientBuilder clientBuilder = HttpClients.custom();
 		
-		// single connection
-		BasicHttpClientConnectionManager connManager = new BasicHttpClientConnectionManager();
-		clientBuilder.setConnectionManager(connManager);
+		PoolingHttpClientConnectionManager pooledConnManager = getClientManager().getConnectionManager();
+		if (pooledConnManager == null)
+		{
+			// single connection
+			BasicHttpClientConnectionManager connManager = new BasicHttpClientConnectionManager();
+			clientBuilder.setConnectionManager(connManager);
+		}
+		else
+		{
+			// the client is created per request, the pool outlives it
+			clientBuilder.setConnectionManager(pooledConnManager);
+			clientBuilder.setConnectionManagerShared(true);
+		}
 		
 		// ignore cookies for now
 		RequestConfig requestConfig = RequestConfig.custom().setCookieSpec(CookieSpecs.IGNORE_COOKIES).build();
@@ -255,6 +278,23 @@ public class HttpDataService implements DataFileService
 		}
 	}
 
+	/**
+	 * Returns the key under which the response to a request is cached.
+	 * 
+	 * The key includes the user name and the request headers, as they might change the response content.
+	 */
+	protected String getCacheKey(HttpRequestBase request, Map<String, Object> parameters)
+	{
+		StringBuilder key = new StringBuilder();
+		key.append(request.getURI());
+		key.append('\n').append(getUsername(parameters));
+		for (Header header : request.getAllHeaders())
+		{
+			key.append('\n').append(header.getName()).append(": ").append(header.getValue());
+		}
+		return key.toString();
+	}
+
 	protected String getUsername(Map<String, Object> parameters)
 	{
 		String username = getPropertyOrParameterValue(PROPERTY_USERNAME, PARAMETER_USERNAME, parameters);
@@ -0,0 +1,428 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.data.http;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Disk backed cache of HTTP response bodies that are revalidated by conditional requests.
+ * <p>
+ * Responses carrying an <code>ETag</code> or a <code>Last-Modified</code> header are stored in files
+ * as they are read by the data source. When the same resource is requested again, the validators are sent
+ * in <code>If-None-Match</code>/<code>If-Modified-Since</code> request headers and the cached body is used
+ * if the server answers with <code>304 Not Modified</code>.
+ * Cached responses are never used without a round trip to the server, so that the server still gets to
+ * authorize each request.
+ * </p>
+ * <p>
+ * The total size of the cached bodies is bounded, the least recently used entries being evicted first.
+ * </p>
+ * 
+ * @see HttpDataClientManager#PROPERTY_CACHE_MAX_SIZE
+ */
+public class HttpResponseCache
+{
+	
+	private static final Log log = LogFactory.getLog(HttpResponseCache.class);
+	
+	protected static final String FILE_PREFIX = "jr-http-";
+	protected static final String FILE_SUFFIX = ".cache";
+	
+	private final File directory;
+	private final long maxSize;
+	
+	private final LinkedHashMap<String, CachedResponse> entries;
+	private long size;
+	
+	public HttpResponseCache(File directory, long maxSize)
+	{
+		this.directory = directory;
+		this.maxSize = maxSize;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+		
+		deleteStaleFiles();
+	}
+
+	protected void deleteStaleFiles()
+	{
+		File[] staleFiles = directory.listFiles((dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+		if (staleFiles != null)
+		{
+			for (File file : staleFiles)
+			{
+				deleteFile(file);
+			}
+		}
+	}
+	
+	public File getDirectory()
+	{
+		return directory;
+	}
+	
+	public long getMaxSize()
+	{
+		return maxSize;
+	}
+
+	/**
+	 * Returns the cached response for a key, or <code>null</code> if the key is not in the cache.
+	 */
+	public synchronized CachedResponse get(String key)
+	{
+		return entries.get(key);
+	}
+
+	/**
+	 * Opens the body of a cached response.
+	 * 
+	 * @return the cached body, or <code>null</code> if the response has been evicted in the meantime
+	 */
+	public synchronized InputStream openCached(String key, CachedResponse response)
+	{
+		if (entries.get(key) != response)
+		{
+			return null;
+		}
+		
+		try
+		{
+			return new FileInputStream(response.file);
+		}
+		catch (FileNotFoundException e)
+		{
+			log.warn("Cached HTTP response file " + response.file + " not found");
+			remove(key);
+			return null;
+		}
+	}
+
+	/**
+	 * Wraps a response body so that its content is stored in the cache while being read.
+	 * 
+	 * The response is cached when the returned stream is closed, provided that its size did not exceed the cache size.
+	 */
+	public InputStream caching(String key, InputStream content, String etag, String lastModified)
+	{
+		File file;
+		OutputStream out;
+		try
+		{
+			file = File.createTempFile(FILE_PREFIX, FILE_SUFFIX, directory);
+			out = new FileOutputStream(file);
+		}
+		catch (IOException e)
+		{
+			log.warn("Unable to create HTTP cache file in " + directory, e);
+			return content;
+		}
+		
+		return new CachingInputStream(key, content, new CachedResponse(file, etag, lastModified), out);
+	}
+	
+	protected synchronized void put(String key, CachedResponse response)
+	{
+		CachedResponse previous = entries.put(key, response);
+		if (previous != null)
+		{
+			size -= previous.size;
+			deleteFile(previous.file);
+		}
+		size += response.size;
+		
+		for (Iterator<Map.Entry<String, CachedResponse>> it = entries.entrySet().iterator(); 
+				size > maxSize && it.hasNext();)
+		{
+			CachedResponse eldest = it.next().getValue();
+			if (eldest != response)
+			{
+				it.remove();
+				size -= eldest.size;
+				deleteFile(eldest.file);
+			}
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("cached HTTP response of " + response.size + " bytes, cache size " + size);
+		}
+	}
+	
+	public synchronized void remove(String key)
+	{
+		CachedResponse response = entries.remove(key);
+		if (response != null)
+		{
+			size -= response.size;
+			deleteFile(response.file);
+		}
+	}
+	
+	public synchronized void clear()
+	{
+		for (CachedResponse response : entries.values())
+		{
+			deleteFile(response.file);
+		}
+		entries.clear();
+		size = 0;
+	}
+	
+	protected void deleteFile(File file)
+	{
+		if (!file.delete() && file.exists())
+		{
+			// might still be open for reading
+			file.deleteOnExit();
+		}
+	}
+	
+	/**
+	 * Validators and body file of a cached response.
+	 */
+	public static class CachedResponse
+	{
+		private final File file;
+		private final String etag;
+		private final String lastModified;
+		private long size;
+		
+		protected CachedResponse(File file, String etag, String lastModified)
+		{
+			this.file = file;
+			this.etag = etag;
+			this.lastModified = lastModified;
+		}
+		
+		public String getEtag()
+		{
+			return etag;
+		}
+
+		public String getLastModified()
+		{
+			return lastModified;
+		}
+
+		public long getSize()
+		{
+			return size;
+		}
+
+		/**
+		 * Adds the conditional headers that revalidate this response to a request.
+		 */
+		public void setConditionalHeaders(HttpRequestBase request)
+		{
+			if (etag != null)
+			{
+				request.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+			}
+			if (lastModified != null)
+			{
+				request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+			}
+		}
+	}
+	
+	protected class CachingInputStream extends FilterInputStream
+	{
+		private final String key;
+		private final CachedResponse response;
+		private OutputStream out;
+		private boolean complete;
+		private boolean closed;
+		
+		protected CachingInputStream(String key, InputStream in, CachedResponse response, OutputStream out)
+		{
+			super(in);
+			this.key = key;
+			this.response = response;
+			this.out = out;
+		}
+
+		@Override
+		public int read() throws IOException
+		{
+			int b = super.read();
+			if (b < 0)
+			{
+				complete = true;
+			}
+			else if (out != null)
+			{
+				write(new byte[]{(byte) b}, 0, 1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException
+		{
+			int read = super.read(b, off, len);
+			if (read < 0)
+			{
+				complete = true;
+			}
+			else if (out != null)
+			{
+				write(b, off, read);
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException
+		{
+			// skipped bytes need to end up in the cache file
+			byte[] buffer = new byte[(int) Math.min(n, 8192)];
+			long skipped = 0;
+			while (skipped < n)
+			{
+				int read = read(buffer, 0, (int) Math.min(n - skipped, buffer.length));
+				if (read < 0)
+				{
+					break;
+				}
+				skipped += read;
+			}
+			return skipped;
+		}
+
+		@Override
+		public boolean markSupported()
+		{
+			return false;
+		}
+
+		protected void write(byte[] b, int off, int len)
+		{
+			if (response.size + len > maxSize)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("HTTP response exceeds the cache size, not caching");
+				}
+				abandon();
+				return;
+			}
+			
+			try
+			{
+				out.write(b, off, len);
+				response.size += len;
+			}
+			catch (IOException e)
+			{
+				log.warn("Error writing HTTP cache file " + response.file, e);
+				abandon();
+			}
+		}
+		
+		protected void abandon()
+		{
+			closeOut();
+			deleteFile(response.file);
+		}
+		
+		protected boolean closeOut()
+		{
+			boolean closed = true;
+			if (out != null)
+			{
+				try
+				{
+					out.close();
+				}
+				catch (IOException e)
+				{
+					log.warn("Error closing HTTP cache file " + response.file, e);
+					closed = false;
+				}
+				out = null;
+			}
+			return closed;
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			if (closed)
+			{
+				return;
+			}
+			closed = true;
+			
+			try
+			{
+				if (out != null && !complete)
+				{
+					// the consumer stopped before the end of the response, read the rest into the cache file
+					byte[] buffer = new byte[8192];
+					while (out != null && read(buffer, 0, buffer.length) >= 0)
+					{
+						//NOP
+					}
+				}
+			}
+			catch (IOException e)
+			{
+				log.warn("Error reading HTTP response", e);
+				abandon();
+			}
+			finally
+			{
+				super.close();
+			}
+			
+			if (out != null)
+			{
+				if (closeOut() && complete)
+				{
+					put(key, response);
+				}
+				else
+				{
+					deleteFile(response.file);
+				}
+			}
+		}
+	}
+	
+}
@@ -69,6 +69,8 @@ import net.sf.jasperreports.export.ExporterOutput;
 import net.sf.jasperreports.export.PropertiesDefaultsConfigurationFactory;
 import net.sf.jasperreports.export.PropertiesNoDefaultsConfigurationFactory;
 import net.sf.jasperreports.export.ReportExportConfiguration;
+import net.sf.jasperreports.metrics.EngineMetrics;
+import net.sf.jasperreports.metrics.MetricsRegistry;
 import net.sf.jasperreports.properties.PropertyConstants;
 import net.sf.jasperreports.renderers.util.RendererUtil;
 import net.sf.jasperreports.repo.RepositoryResourceContext;
@@ -278,6 +280,9 @@ public abstract class JRAbstractExporter<RC extends ReportExportConfiguration, C
 	 */
 	private ReportContext reportContext;
 	protected E exporterContext;
+	
+	private MetricsRegistry metrics;
+	private long exportStartTime;
 
 
 	/**
@@ -591,6 +596,46 @@ public abstract class JRAbstractExporter<RC extends ReportExportConfiguration, C
 	 */
 	protected void resetExportContext()
 	{
+		recordExportMetrics();
+	}
+	
+	private void recordExportMetrics()
+	{
+		if (metrics != null)
+		{
+			long exportTime = System.nanoTime() - exportStartTime;
+			metrics.recordDuration(EngineMetrics.EXPORT_TIME, exportTime);
+			
+			String exporterKey = getExporterKey();
+			if (exporterKey != null)
+			{
+				if (exporterKey.startsWith(JRPropertiesUtil.PROPERTY_PREFIX))
+				{
+					exporterKey = exporterKey.substring(JRPropertiesUtil.PROPERTY_PREFIX.length());
+				}
+				metrics.recordDuration(EngineMetrics.EXPORT_TIME_PREFIX + exporterKey, exportTime);
+			}
+			
+			metrics = null;
+		}
+	}
+	
+	private int countExportedPages()
+	{
+		int pageCount = jasperPrint.getPages() == null ? 0 : jasperPrint.getPages().size();
+		ReportExportConfiguration configuration = getCurrentItemConfiguration();
+		
+		Integer pageIndex = configuration.getPageIndex();
+		if (pageIndex != null)
+		{
+			return pageIndex >= 0 && pageIndex < pageCount ? 1 : 0;
+		}
+		
+		Integer start = configuration.getStartPageIndex();
+		Integer end = configuration.getEndPageIndex();
+		int startIndex = start == null ? 0 : Math.max(start, 0);
+		int endIndex = end == null ? pageCount - 1 : Math.min(end, pageCount - 1);
+		return Math.max(endIndex - startIndex + 1, 0);
 	}
 
 	
@@ -624,6 +669,11 @@ public abstract class JRAbstractExporter<RC extends ReportExportConfiguration, C
 		crtCompositeItemConfiguration = null;
 		
 		initReport();
+		
+		if (metrics != null)
+		{
+			metrics.increment(EngineMetrics.EXPORT_PAGES, countExportedPages());
+		}
 	}
 
 
@@ -756,6 +806,10 @@ public abstract class JRAbstractExporter<RC extends ReportExportConfiguration, C
 	protected void initExport()
 	{
 		crtCompositeConfiguration = null;
+		
+		MetricsRegistry registry = EngineMetrics.getRegistry(jasperReportsContext);
+		metrics = registry.isEnabled() ? registry : null;
+		exportStartTime = System.nanoTime();
 	}
 	
 
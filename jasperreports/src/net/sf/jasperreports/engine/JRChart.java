@@ -66,6 +66,65 @@ public interface JRChart extends JRElement, JREvaluation, JRAnchor, JRHyperlink,
 			)
 	public static final String PROPERTY_CHART_THEME = JRPropertiesUtil.PROPERTY_PREFIX + "chart.theme";
 
+	/**
+	 * Property that determines whether the series of time series and XY charts are reduced before rendering
+	 * to a number of points derived from the chart width.
+	 * 
+	 * <p>
+	 * The reduction uses the Largest-Triangle-Three-Buckets algorithm, which keeps the points that contribute
+	 * most to the shape of the series, including peaks and valleys.
+	 * Only series that have more points than the target count are reduced, and the kept points are points of
+	 * the original series so that item labels and hyperlinks still apply to them.
+	 * XY series that are not automatically sorted are never reduced.
+	 * </p>
+	 * 
+	 * @see #PROPERTY_CHART_DOWNSAMPLING_FACTOR
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT, PropertyScope.ELEMENT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_CHART_DOWNSAMPLING = JRPropertiesUtil.PROPERTY_PREFIX + "chart.downsampling";
+
+	/**
+	 * Property that specifies the number of points kept for each unit of chart width when series are reduced
+	 * as per {@link #PROPERTY_CHART_DOWNSAMPLING}.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "2",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT, PropertyScope.ELEMENT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Float.class
+			)
+	public static final String PROPERTY_CHART_DOWNSAMPLING_FACTOR = JRPropertiesUtil.PROPERTY_PREFIX + "chart.downsampling.factor";
+
+	/**
+	 * Property that specifies the number of threads used to render charts while the report is being filled.
+	 * 
+	 * <p>
+	 * When set to a positive value, charts that use the <code>image</code> or <code>svg</code> render types 
+	 * (or other render types whose factories implement 
+	 * {@link net.sf.jasperreports.charts.util.AsyncChartRenderableFactory AsyncChartRenderableFactory}) 
+	 * are rendered on a pool of threads, and the filled report contains placeholders that wait for the
+	 * chart images only when their data is needed, for instance by an exporter.
+	 * Only charts whose data can no longer change are rendered this way, that is charts that have their own 
+	 * dataset run and charts that are evaluated at report level; the rest are rendered by the filling thread.
+	 * By default, all charts are rendered by the filling thread.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_CHART_RENDER_THREADS = JRPropertiesUtil.PROPERTY_PREFIX + "chart.render.threads";
+
 
 	/**
 	 *
@@ -28,11 +28,23 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.sf.jasperreports.crosstabs.JRCrosstab;
 import net.sf.jasperreports.engine.design.JRCompiler;
 import net.sf.jasperreports.engine.design.JRJavacCompiler;
+import net.sf.jasperreports.engine.design.JRJavaxToolsCompiler;
 import net.sf.jasperreports.engine.design.JRJdk13Compiler;
 import net.sf.jasperreports.engine.design.JRJdtCompiler;
 import net.sf.jasperreports.engine.design.JRValidationFault;
@@ -88,7 +100,11 @@ import net.sf.jasperreports.engine.xml.JRXmlWriter;
  * Eclipse Foundation is available in the application's classpath. If it is, the
  * {@link net.sf.jasperreports.engine.design.JRJdtCompiler} implementation is used.
  * </p><p>
- * If the JDT compiler is not available, the compilation facade then tries to locate the JDK
+ * If the JDT compiler is not available, the facade checks whether the running JVM provides a system
+ * Java compiler through the <code>javax.tools</code> API, in which case the
+ * {@link net.sf.jasperreports.engine.design.JRJavaxToolsCompiler} implementation is used.
+ * </p><p>
+ * Otherwise the compilation facade tries to locate the JDK
  * 1.3-compatible Java compiler from Sun Microsystems. This is normally found in the
  * <code>tools.jar</code> file that comes with the JDK installation.
  * </p><p>
@@ -180,6 +196,10 @@ public final class JasperCompileManager
 	public static final String EXCEPTION_MESSAGE_KEY_INSTANTIATE_REPORT_COMPILER_FAILURE = "engine.instantiate.report.compiler.failure";
 	public static final String EXCEPTION_MESSAGE_KEY_REPORT_COMPILER_CLASS_NOT_FOUND = "engine.report.compiler.class.not.found";
 	public static final String EXCEPTION_MESSAGE_KEY_REPORT_COMPILER_NOT_SET = "engine.report.compiler.not.set";
+	public static final String EXCEPTION_MESSAGE_KEY_REPORT_SOURCE_DIRECTORY_NOT_FOUND = "engine.report.source.directory.not.found";
+	
+	private static final String JRXML_EXTENSION = ".jrxml";
+	private static final String JASPER_EXTENSION = ".jasper";
 	
 	private JasperReportsContext jasperReportsContext;
 
@@ -359,6 +379,139 @@ public final class JasperCompileManager
 	}
 
 
+	/**
+	 * Compiles the JRXML files found in a directory and its subdirectories, using as many threads 
+	 * as available processors.
+	 * 
+	 * @see #compileToFiles(String, String, int)
+	 */
+	public Map<String, JRException> compileToFiles(
+		String sourceDirName,
+		String destDirName
+		) throws JRException
+	{
+		return compileToFiles(sourceDirName, destDirName, Runtime.getRuntime().availableProcessors());
+	}
+
+
+	/**
+	 * Compiles the JRXML files found in a directory and its subdirectories, using multiple threads.
+	 * The compiled reports are saved in the destination directory under the same relative paths 
+	 * as the source files, with the <code>*.jasper</code> extension.
+	 * <p>
+	 * A report that fails to compile does not stop the compilation of the other reports, 
+	 * the errors are collected and returned.
+	 * 
+	 * @param sourceDirName the directory containing the JRXML files
+	 * @param destDirName the directory in which to place the compiled reports
+	 * @param threads the number of threads used to compile the reports
+	 * @return the compilation errors by source file name, empty if all the reports have been compiled
+	 */
+	public Map<String, JRException> compileToFiles(
+		String sourceDirName,
+		String destDirName,
+		int threads
+		) throws JRException
+	{
+		File sourceDir = new File(sourceDirName);
+		if (!sourceDir.isDirectory())
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_REPORT_SOURCE_DIRECTORY_NOT_FOUND,
+					new Object[]{sourceDirName});
+		}
+		
+		List<File> sourceFiles = new ArrayList<>();
+		collectSourceFiles(sourceDir, sourceFiles);
+		
+		Map<String, JRException> errors = new LinkedHashMap<>();
+		if (sourceFiles.isEmpty())
+		{
+			return errors;
+		}
+		
+		Path sourcePath = sourceDir.toPath();
+		Path destPath = new File(destDirName).toPath();
+		
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, sourceFiles.size())), 
+				runnable ->
+				{
+					Thread thread = new Thread(runnable, "JasperReports batch compiler #" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		try
+		{
+			List<Future<?>> results = new ArrayList<>(sourceFiles.size());
+			for (File sourceFile : sourceFiles)
+			{
+				String relativeName = sourcePath.relativize(sourceFile.toPath()).toString();
+				File destFile = destPath.resolve(
+						relativeName.substring(0, relativeName.length() - JRXML_EXTENSION.length()) + JASPER_EXTENSION).toFile();
+				results.add(executor.submit(() ->
+				{
+					destFile.getParentFile().mkdirs();
+					compileToFile(sourceFile.getPath(), destFile.getPath());
+					return null;
+				}));
+			}
+			
+			for (int i = 0; i < sourceFiles.size(); i++)
+			{
+				try
+				{
+					results.get(i).get();
+				}
+				catch (ExecutionException e)
+				{
+					Throwable cause = e.getCause();
+					if (cause instanceof Error)
+					{
+						throw (Error) cause;
+					}
+					errors.put(sourceFiles.get(i).getPath(), 
+							cause instanceof JRException ? (JRException) cause : new JRException(cause));
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new JRException(e);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		return errors;
+	}
+	
+	
+	private static void collectSourceFiles(File dir, List<File> sourceFiles)
+	{
+		File[] files = dir.listFiles();
+		if (files == null)
+		{
+			return;
+		}
+		
+		Arrays.sort(files);
+		for (File file : files)
+		{
+			if (file.isDirectory())
+			{
+				collectSourceFiles(file, sourceFiles);
+			}
+			else if (file.getName().endsWith(JRXML_EXTENSION))
+			{
+				sourceFiles.add(file);
+			}
+		}
+	}
+
+
 	/**
 	 * Verifies the validity and consistency of the report design object.
 	 * Returns a collection of {@link JRValidationFault errors}, if problems are found in the report design.
@@ -619,6 +772,18 @@ public final class JasperCompileManager
 	}
 
 
+	/**
+	 * @see #compileToFiles(String, String)
+	 */
+	public static Map<String, JRException> compileReportsToFiles(
+		String sourceDirName,
+		String destDirName
+		) throws JRException
+	{
+		return getDefaultInstance().compileToFiles(sourceDirName, destDirName);
+	}
+
+
 	/**
 	 * @see #verify(JasperDesign)
 	 */
@@ -742,6 +907,11 @@ public final class JasperCompileManager
 		{
 		}
 
+		if (compiler == null && JRJavaxToolsCompiler.isAvailable())
+		{
+			compiler = new JRJavaxToolsCompiler(jasperReportsContext);
+		}
+
 		if (compiler == null)
 		{
 			try 
@@ -146,6 +146,19 @@ public class JRBaseLineBox implements JRLineBox, Serializable, Cloneable, JRChan
 		return boxContainer;
 	}
 
+	/**
+	 * Discards the attributes cached by the style that contains this box, if any.
+	 * 
+	 * @see JRBaseStyle#getFlattenedStyle()
+	 */
+	protected void resetContainerStyle()
+	{
+		if (boxContainer instanceof JRBaseStyle)
+		{
+			((JRBaseStyle) boxContainer).setFlattenedStyle(null);
+		}
+	}
+
 	@Override
 	public Float getDefaultLineWidth()
 	{
@@ -239,6 +252,7 @@ public class JRBaseLineBox implements JRLineBox, Serializable, Cloneable, JRChan
 	{
 		Object old = this.padding;
 		this.padding = padding;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_PADDING, old, this.padding);
 	}
 
@@ -259,6 +273,7 @@ public class JRBaseLineBox implements JRLineBox, Serializable, Cloneable, JRChan
 	{
 		Object old = this.topPadding;
 		this.topPadding = topPadding;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_TOP_PADDING, old, this.topPadding);
 	}
 
@@ -279,6 +294,7 @@ public class JRBaseLineBox implements JRLineBox, Serializable, Cloneable, JRChan
 	{
 		Object old = this.leftPadding;
 		this.leftPadding = leftPadding;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_LEFT_PADDING, old, this.leftPadding);
 	}
 
@@ -299,6 +315,7 @@ public class JRBaseLineBox implements JRLineBox, Serializable, Cloneable, JRChan
 	{
 		Object old = this.bottomPadding;
 		this.bottomPadding = bottomPadding;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_BOTTOM_PADDING, old, this.bottomPadding);
 	}
 
@@ -319,6 +336,7 @@ public class JRBaseLineBox implements JRLineBox, Serializable, Cloneable, JRChan
 	{
 		Object old = this.rightPadding;
 		this.rightPadding = rightPadding;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_RIGHT_PADDING, old, this.rightPadding);
 	}
 
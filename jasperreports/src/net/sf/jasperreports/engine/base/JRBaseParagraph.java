@@ -140,6 +140,19 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 		return paragraphContainer;
 	}
 
+	/**
+	 * Discards the attributes cached by the style that contains this paragraph, if any.
+	 * 
+	 * @see JRBaseStyle#getFlattenedStyle()
+	 */
+	protected void resetContainerStyle()
+	{
+		if (paragraphContainer instanceof JRBaseStyle)
+		{
+			((JRBaseStyle) paragraphContainer).setFlattenedStyle(null);
+		}
+	}
+
 	@Override
 	public LineSpacingEnum getLineSpacing()
 	{
@@ -157,6 +170,7 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 	{
 		Object old = this.lineSpacing;
 		this.lineSpacing = lineSpacing;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_LINE_SPACING, old, this.lineSpacing);
 	}
 
@@ -177,6 +191,7 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 	{
 		Object old = this.lineSpacingSize;
 		this.lineSpacingSize = lineSpacingSize;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_LINE_SPACING_SIZE, old, this.lineSpacingSize);
 	}
 
@@ -197,6 +212,7 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 	{
 		Object old = this.firstLineIndent;
 		this.firstLineIndent = firstLineIndent;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_FIRST_LINE_INDENT, old, this.firstLineIndent);
 	}
 
@@ -217,6 +233,7 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 	{
 		Object old = this.leftIndent;
 		this.leftIndent = leftIndent;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_LEFT_INDENT, old, this.leftIndent);
 	}
 
@@ -237,6 +254,7 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 	{
 		Object old = this.rightIndent;
 		this.rightIndent = rightIndent;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_RIGHT_INDENT, old, this.rightIndent);
 	}
 
@@ -257,6 +275,7 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 	{
 		Object old = this.spacingBefore;
 		this.spacingBefore = spacingBefore;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_SPACING_BEFORE, old, this.spacingBefore);
 	}
 
@@ -277,6 +296,7 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 	{
 		Object old = this.spacingAfter;
 		this.spacingAfter = spacingAfter;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_SPACING_AFTER, old, this.spacingAfter);
 	}
 
@@ -297,6 +317,7 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 	{
 		Object old = this.tabStopWidth;
 		this.tabStopWidth = tabStopWidth;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_TAB_STOP_WIDTH, old, this.tabStopWidth);
 	}
 	
@@ -328,6 +349,7 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 		
 		tabStops.add(tabStop);
 		
+		resetContainerStyle();
 		getEventSupport().fireCollectionElementAddedEvent(PROPERTY_TAB_STOPS, tabStop, tabStops.size() - 1);
 	}
 	
@@ -341,6 +363,7 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 		
 		tabStops.add(index, tabStop);
 		
+		resetContainerStyle();
 		getEventSupport().fireCollectionElementAddedEvent(PROPERTY_TAB_STOPS, tabStop, index);
 	}
 	
@@ -353,6 +376,7 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 			if (index >= 0)
 			{
 				tabStops.remove(index);
+				resetContainerStyle();
 				getEventSupport().fireCollectionElementRemovedEvent(PROPERTY_TAB_STOPS, tabStop, index);
 			}
 		}
@@ -366,6 +390,7 @@ public class JRBaseParagraph implements JRParagraph, Serializable, Cloneable, JR
 			if (index >= 0 && index < tabStops.size())
 			{
 				TabStop tabStop = tabStops.remove(index);
+				resetContainerStyle();
 				getEventSupport().fireCollectionElementRemovedEvent(PROPERTY_TAB_STOPS, tabStop, index);
 			}
 		}
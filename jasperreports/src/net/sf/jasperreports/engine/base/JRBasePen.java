@@ -88,6 +88,19 @@ public class JRBasePen implements JRPen, Serializable, Cloneable, JRChangeEvents
 		return penContainer;
 	}
 
+	/**
+	 * Discards the attributes cached by the style that contains this pen, if any.
+	 * 
+	 * @see JRBaseStyle#getFlattenedStyle()
+	 */
+	protected void resetContainerStyle()
+	{
+		if (penContainer instanceof JRBaseStyle)
+		{
+			((JRBaseStyle) penContainer).setFlattenedStyle(null);
+		}
+	}
+
 	/**
 	 *
 	 */
@@ -117,6 +130,7 @@ public class JRBasePen implements JRPen, Serializable, Cloneable, JRChangeEvents
 	{
 		Object old = this.lineWidth;
 		this.lineWidth = lineWidth;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_LINE_WIDTH, old, this.lineWidth);
 	}
 
@@ -137,6 +151,7 @@ public class JRBasePen implements JRPen, Serializable, Cloneable, JRChangeEvents
 	{
 		Object old = this.lineStyleValue;
 		this.lineStyleValue = lineStyleValue;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_LINE_STYLE, old, this.lineStyleValue);
 	}
 
@@ -157,6 +172,7 @@ public class JRBasePen implements JRPen, Serializable, Cloneable, JRChangeEvents
 	{
 		Object old = this.lineColor;
 		this.lineColor = lineColor;
+		resetContainerStyle();
 		getEventSupport().firePropertyChange(PROPERTY_LINE_COLOR, old, this.lineColor);
 	}
 
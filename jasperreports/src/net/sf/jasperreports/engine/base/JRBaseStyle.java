@@ -51,6 +51,7 @@ import net.sf.jasperreports.engine.type.RotationEnum;
 import net.sf.jasperreports.engine.type.ScaleImageEnum;
 import net.sf.jasperreports.engine.type.VerticalImageAlignEnum;
 import net.sf.jasperreports.engine.type.VerticalTextAlignEnum;
+import net.sf.jasperreports.engine.util.FlattenedStyle;
 import net.sf.jasperreports.engine.util.JRCloneUtils;
 import net.sf.jasperreports.engine.util.ObjectUtils;
 import net.sf.jasperreports.engine.util.StyleResolver;
@@ -180,6 +181,8 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	protected Boolean isBlankWhenNull;
 
 	protected JRConditionalStyle[] conditionalStyles;
+	
+	private transient volatile FlattenedStyle flattenedStyle;
 
 
 	/**
@@ -296,6 +299,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		this.parentStyle = parentStyle;
 		checkCircularParent();
+		this.flattenedStyle = null;
 	}
 	
 	protected void checkCircularParent()
@@ -506,6 +510,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.rotationValue;
 		this.rotationValue = rotationValue;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_ROTATION, old, this.rotationValue);
 	}
 
@@ -671,6 +676,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.forecolor;
 		this.forecolor = forecolor;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_FORECOLOR, old, this.forecolor);
 	}
 
@@ -679,6 +685,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.backcolor;
 		this.backcolor = backcolor;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_BACKCOLOR, old, this.backcolor);
 	}
 
@@ -687,6 +694,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.modeValue;
 		this.modeValue = modeValue;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(JRBaseStyle.PROPERTY_MODE, old, this.modeValue);
 	}
 
@@ -695,6 +703,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.fillValue;
 		this.fillValue = fillValue;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_FILL, old, this.fillValue);
 	}
 
@@ -703,6 +712,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.radius;
 		this.radius = radius;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_RADIUS, old, this.radius);
 	}
 
@@ -711,6 +721,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.scaleImageValue;
 		this.scaleImageValue = scaleImageValue;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_SCALE_IMAGE, old, this.scaleImageValue);
 	}
 
@@ -719,6 +730,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		HorizontalImageAlignEnum old = this.horizontalImageAlign;
 		this.horizontalImageAlign = horizontalImageAlign;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_HORIZONTAL_IMAGE_ALIGNMENT, old, this.horizontalImageAlign);
 	}
 
@@ -727,6 +739,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		VerticalImageAlignEnum old = this.verticalImageAlign;
 		this.verticalImageAlign = verticalImageAlign;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_VERTICAL_IMAGE_ALIGNMENT, old, this.verticalImageAlign);
 	}
 
@@ -735,6 +748,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		HorizontalTextAlignEnum old = this.horizontalTextAlign;
 		this.horizontalTextAlign = horizontalTextAlign;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_HORIZONTAL_TEXT_ALIGNMENT, old, this.horizontalTextAlign);
 	}
 
@@ -743,6 +757,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		VerticalTextAlignEnum old = this.verticalTextAlign;
 		this.verticalTextAlign = verticalTextAlign;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_VERTICAL_TEXT_ALIGNMENT, old, this.verticalTextAlign);
 	}
 
@@ -751,6 +766,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.fontName;
 		this.fontName = fontName;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_FONT_NAME, old, this.fontName);
 	}
 
@@ -759,6 +775,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.isBold;
 		this.isBold = bold;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_BOLD, old, this.isBold);
 	}
 
@@ -767,6 +784,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.isItalic;
 		this.isItalic = italic;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_ITALIC, old, this.isItalic);
 	}
 
@@ -775,6 +793,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.isPdfEmbedded;
 		this.isPdfEmbedded = pdfEmbedded;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_PDF_EMBEDDED, old, this.isPdfEmbedded);
 	}
 
@@ -783,6 +802,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.isStrikeThrough;
 		this.isStrikeThrough = strikeThrough;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_STRIKE_THROUGH, old, this.isStrikeThrough);
 	}
 
@@ -791,6 +811,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.markup;
 		this.markup = markup;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_MARKUP, old, this.markup);
 	}
 
@@ -799,6 +820,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.isBlankWhenNull;
 		this.isBlankWhenNull = isBlankWhenNull;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_BLANK_WHEN_NULL, old, this.isBlankWhenNull);
 	}
 
@@ -807,6 +829,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.isUnderline;
 		this.isUnderline = underline;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_UNDERLINE, old, this.isUnderline);
 	}
 
@@ -815,6 +838,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.pattern;
 		this.pattern = pattern;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_PATTERN, old, this.pattern);
 	}
 
@@ -823,6 +847,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.pdfEncoding;
 		this.pdfEncoding = pdfEncoding;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_PDF_ENCODING, old, this.pdfEncoding);
 	}
 
@@ -831,6 +856,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.pdfFontName;
 		this.pdfFontName = pdfFontName;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_PDF_FONT_NAME, old, this.pdfFontName);
 	}
 
@@ -839,6 +865,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	{
 		Object old = this.fontsize;
 		this.fontsize = fontSize;
+		flattenedStyle = null;
 		getEventSupport().firePropertyChange(PROPERTY_FONT_SIZE, old, this.fontsize);
 	}
 
@@ -867,6 +894,28 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 	}
 
 	
+	/**
+	 * Returns the attributes of this style as resolved and cached by {@link StyleResolver}.
+	 * 
+	 * @return the cached attributes, <code>null</code> if not yet resolved
+	 * @see StyleResolver#getFlattenedStyle(JRStyle)
+	 */
+	public FlattenedStyle getFlattenedStyle()
+	{
+		return flattenedStyle;
+	}
+
+	/**
+	 * Caches the resolved attributes of this style.
+	 * 
+	 * @param flattenedStyle the resolved attributes
+	 */
+	public void setFlattenedStyle(FlattenedStyle flattenedStyle)
+	{
+		this.flattenedStyle = flattenedStyle;
+	}
+
+	
 	private transient JRPropertyChangeSupport eventSupport;
 	
 	@Override
@@ -1012,6 +1061,7 @@ public class JRBaseStyle implements JRStyle, Serializable, JRChangeEventsSupport
 		clone.paragraph = paragraph == null ? null : paragraph.clone(clone);
 		clone.conditionalStyles = JRCloneUtils.cloneArray(conditionalStyles);
 		clone.eventSupport = null;
+		clone.flattenedStyle = null;
 
 		return clone;
 	}
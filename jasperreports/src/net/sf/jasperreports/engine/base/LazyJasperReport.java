@@ -0,0 +1,633 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.base;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRBand;
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDataset;
+import net.sf.jasperreports.engine.JRExpressionCollector;
+import net.sf.jasperreports.engine.JRGroup;
+import net.sf.jasperreports.engine.JRReport;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRSection;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.JRStyleContainer;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.design.JRVerifier;
+import net.sf.jasperreports.engine.util.ContextClassLoaderObjectInputStream;
+
+
+/**
+ * Compiled report that keeps its bands, its detail section and its subdatasets 
+ * in serialized form until they are first accessed.
+ * <p>
+ * The report attributes, styles and main dataset are deserialized together with the
+ * report object, while the report bands (with their elements and component
+ * internals), the detail section and each of the subdatasets are stored as separate 
+ * byte arrays which are only deserialized by the first call of a method that returns them. 
+ * This reduces the cost of loading reports that are only inspected 
+ * (e.g. for parameters) or that are loaded but not filled.
+ * </p>
+ * <p>
+ * Report fillers create the detail section only when the first record is read
+ * and look up subdatasets by name via {@link #getDataset(String)} when they are
+ * used by a dataset run, so fills that produce no rows (e.g. empty subreports) do
+ * not deserialize the detail section or the subdatasets that they do not use.
+ * </p>
+ * <p>
+ * Loaded reports are not modified by the engine, so a single instance can be shared
+ * by concurrent fills. The deferred parts are deserialized once, under a lock, 
+ * and then released.
+ * </p>
+ * 
+ * @see net.sf.jasperreports.engine.design.JRCompiler#COMPILER_LAZY_REPORT_PARTS
+ */
+public class LazyJasperReport extends JasperReport
+{
+
+	private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+	
+	public static final String EXCEPTION_MESSAGE_KEY_PART_LOADING_ERROR = "base.lazy.report.part.loading.error";
+	public static final String EXCEPTION_MESSAGE_KEY_PART_SAVING_ERROR = "base.lazy.report.part.saving.error";
+	
+	private static final int BAND_COUNT = 9;
+	
+	private transient JasperReportsContext jasperReportsContext;
+	
+	private volatile byte[] bandsData;
+	private volatile byte[] detailData;
+	private String[] detailStyleNames;
+	private int[] detailBreakHeights;
+	
+	private String[] datasetNames;
+	private byte[][] datasetsData;
+	private JRDataset[] loadedDatasets;
+	private volatile boolean datasetsDeferred;
+
+	/**
+	 * Creates a report with deferred parts from a report design.
+	 * 
+	 * @param jasperReportsContext the context used to deserialize the deferred parts
+	 * @see JasperReport#JasperReport(JRReport, String, Serializable, JRExpressionCollector, String)
+	 */
+	public LazyJasperReport(
+		JasperReportsContext jasperReportsContext,
+		JRReport report,
+		String compilerClass, 
+		Serializable compileData,
+		JRExpressionCollector expressionCollector,
+		String compileNameSuffix
+		)
+	{
+		super(report, compilerClass, compileData, expressionCollector, compileNameSuffix);
+		
+		this.jasperReportsContext = jasperReportsContext;
+		
+		deferParts();
+	}
+
+	/**
+	 * Creates a report with deferred parts from an already compiled report.
+	 * 
+	 * @param jasperReportsContext the context used to deserialize the deferred parts
+	 * @param report the compiled report
+	 */
+	public LazyJasperReport(JasperReportsContext jasperReportsContext, JasperReport report)
+	{
+		this(jasperReportsContext, report, report.getCompilerClass(), report.getCompileData(), 
+				(JRExpressionCollector) null, report.getCompileNameSuffix());
+	}
+	
+	private void deferParts()
+	{
+		// the bands and the detail section can reference subdataset groups
+		Map<Object, SharedObjectReference> shared = sharedObjects(true);
+		
+		bandsData = writePart(new Object[]{background, title, pageHeader, columnHeader, 
+				columnFooter, pageFooter, lastPageFooter, summary, noData}, shared, null);
+		background = null;
+		title = null;
+		pageHeader = null;
+		columnHeader = null;
+		columnFooter = null;
+		pageFooter = null;
+		lastPageFooter = null;
+		summary = null;
+		noData = null;
+		
+		Set<String> styleNames = new LinkedHashSet<>();
+		detailData = writePart(detailSection, shared, styleNames);
+		detailStyleNames = styleNames.toArray(new String[styleNames.size()]);
+		detailBreakHeights = JRVerifier.getBreakHeights(detailSection);
+		detailSection = null;
+		
+		if (datasets != null)
+		{
+			Map<Object, SharedObjectReference> datasetShared = sharedObjects(false);
+			datasetNames = new String[datasets.length];
+			datasetsData = new byte[datasets.length][];
+			for (int i = 0; i < datasets.length; i++)
+			{
+				datasetNames[i] = datasets[i].getName();
+				datasetsData[i] = writePart(datasets[i], datasetShared, null);
+			}
+			loadedDatasets = new JRDataset[datasets.length];
+			datasets = null;
+			datasetsDeferred = true;
+		}
+	}
+
+	/**
+	 * Determines whether the bands other than the detail bands have not yet been deserialized.
+	 */
+	public boolean isBandsDeferred()
+	{
+		return bandsData != null;
+	}
+
+	/**
+	 * Determines whether the detail section has not yet been deserialized.
+	 */
+	public boolean isDetailDeferred()
+	{
+		return detailData != null;
+	}
+
+	/**
+	 * Returns the names of the styles referenced by the elements of the detail section.
+	 * <p>
+	 * The names are collected when the detail section is deferred, so that fillers can 
+	 * load the styles used by the detail section before creating it.
+	 * </p>
+	 */
+	public String[] getDetailStyleNames()
+	{
+		return detailStyleNames;
+	}
+
+	/**
+	 * Returns the heights at which the detail bands can break, 
+	 * used to verify subreport band heights without loading the detail section.
+	 * 
+	 * @see JRVerifier#getBreakHeights(JRSection)
+	 */
+	public int[] getDetailBreakHeights()
+	{
+		return detailBreakHeights;
+	}
+
+	/**
+	 * Determines whether some of the subdatasets have not yet been deserialized.
+	 */
+	public boolean isDatasetsDeferred()
+	{
+		return datasetsDeferred;
+	}
+
+	/**
+	 * Determines whether a subdataset has not yet been deserialized.
+	 * 
+	 * @param name the subdataset name
+	 */
+	public synchronized boolean isDatasetDeferred(String name)
+	{
+		int index = datasetIndex(name);
+		return index >= 0 && datasetsDeferred && loadedDatasets[index] == null;
+	}
+	
+	protected void ensureBands()
+	{
+		if (bandsData != null)
+		{
+			loadBands();
+		}
+	}
+	
+	private synchronized void loadBands()
+	{
+		byte[] data = bandsData;
+		if (data != null)
+		{
+			Object[] bands = (Object[]) readPart(data);
+			if (bands.length != BAND_COUNT)
+			{
+				throw new JRRuntimeException(EXCEPTION_MESSAGE_KEY_PART_LOADING_ERROR, (Object[]) null);
+			}
+			
+			int idx = 0;
+			background = (JRBand) bands[idx++];
+			title = (JRBand) bands[idx++];
+			pageHeader = (JRBand) bands[idx++];
+			columnHeader = (JRBand) bands[idx++];
+			columnFooter = (JRBand) bands[idx++];
+			pageFooter = (JRBand) bands[idx++];
+			lastPageFooter = (JRBand) bands[idx++];
+			summary = (JRBand) bands[idx++];
+			noData = (JRBand) bands[idx++];
+			
+			// publishes the fields set above
+			bandsData = null;
+		}
+	}
+	
+	protected void ensureDetail()
+	{
+		if (detailData != null)
+		{
+			loadDetail();
+		}
+	}
+	
+	private synchronized void loadDetail()
+	{
+		byte[] data = detailData;
+		if (data != null)
+		{
+			detailSection = (JRSection) readPart(data);
+			
+			// publishes the field set above
+			detailData = null;
+		}
+	}
+	
+	protected void ensureDatasets()
+	{
+		if (datasetsDeferred)
+		{
+			loadDatasets();
+		}
+	}
+	
+	private synchronized void loadDatasets()
+	{
+		if (datasetsDeferred)
+		{
+			for (int i = 0; i < datasetsData.length; i++)
+			{
+				loadDataset(i);
+			}
+			
+			datasets = loadedDatasets;
+			loadedDatasets = null;
+			datasetsData = null;
+			
+			// publishes the field set above
+			datasetsDeferred = false;
+		}
+	}
+	
+	private synchronized JRDataset loadDataset(int index)
+	{
+		if (!datasetsDeferred)
+		{
+			return datasets[index];
+		}
+		
+		JRDataset dataset = loadedDatasets[index];
+		if (dataset == null)
+		{
+			dataset = (JRDataset) readPart(datasetsData[index]);
+			loadedDatasets[index] = dataset;
+			datasetsData[index] = null;
+		}
+		return dataset;
+	}
+	
+	private int datasetIndex(String name)
+	{
+		if (datasetNames != null)
+		{
+			for (int i = 0; i < datasetNames.length; i++)
+			{
+				if (datasetNames[i].equals(name))
+				{
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public JRBand getBackground()
+	{
+		ensureBands();
+		return super.getBackground();
+	}
+
+	@Override
+	public JRBand getTitle()
+	{
+		ensureBands();
+		return super.getTitle();
+	}
+
+	@Override
+	public JRBand getPageHeader()
+	{
+		ensureBands();
+		return super.getPageHeader();
+	}
+
+	@Override
+	public JRBand getColumnHeader()
+	{
+		ensureBands();
+		return super.getColumnHeader();
+	}
+
+	@Override
+	public JRSection getDetailSection()
+	{
+		ensureDetail();
+		return super.getDetailSection();
+	}
+
+	@Override
+	public JRBand getColumnFooter()
+	{
+		ensureBands();
+		return super.getColumnFooter();
+	}
+
+	@Override
+	public JRBand getPageFooter()
+	{
+		ensureBands();
+		return super.getPageFooter();
+	}
+
+	@Override
+	public JRBand getLastPageFooter()
+	{
+		ensureBands();
+		return super.getLastPageFooter();
+	}
+
+	@Override
+	public JRBand getSummary()
+	{
+		ensureBands();
+		return super.getSummary();
+	}
+
+	@Override
+	public JRBand getNoData()
+	{
+		ensureBands();
+		return super.getNoData();
+	}
+
+	@Override
+	public JRBand[] getAllBands()
+	{
+		ensureBands();
+		ensureDetail();
+		return super.getAllBands();
+	}
+
+	@Override
+	public JRDataset[] getDatasets()
+	{
+		ensureDatasets();
+		return super.getDatasets();
+	}
+
+	/**
+	 * Returns a subdataset, deserializing only that subdataset if it was deferred.
+	 * 
+	 * @param name the subdataset name
+	 * @return the subdataset, or <code>null</code> if the report has no subdataset with the name
+	 */
+	public JRDataset getDataset(String name)
+	{
+		int index = datasetIndex(name);
+		return index < 0 ? null : loadDataset(index);
+	}
+	
+	protected byte[] writePart(Object part, Map<Object, SharedObjectReference> shared, Set<String> styleNames)
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new PartOutputStream(bytes, shared, styleNames))
+		{
+			out.writeObject(part);
+		}
+		catch (IOException e)
+		{
+			throw new JRRuntimeException(EXCEPTION_MESSAGE_KEY_PART_SAVING_ERROR, (Object[]) null, e);
+		}
+		return bytes.toByteArray();
+	}
+	
+	protected Object readPart(byte[] data)
+	{
+		try (ObjectInputStream in = new PartInputStream(new ByteArrayInputStream(data)))
+		{
+			return in.readObject();
+		}
+		catch (IOException | ClassNotFoundException e)
+		{
+			throw new JRRuntimeException(EXCEPTION_MESSAGE_KEY_PART_LOADING_ERROR, (Object[]) null, e);
+		}
+	}
+	
+	/**
+	 * Collects the objects that are deserialized separately from a deferred part 
+	 * and can be referenced from it.
+	 */
+	private Map<Object, SharedObjectReference> sharedObjects(boolean includeDatasetGroups)
+	{
+		Map<Object, SharedObjectReference> shared = new IdentityHashMap<>();
+		shared.put(this, new SharedObjectReference(SharedObjectReference.TYPE_REPORT, 0, 0));
+		shared.put(mainDataset, new SharedObjectReference(SharedObjectReference.TYPE_MAIN_DATASET, 0, 0));
+		if (defaultStyle != null)
+		{
+			shared.put(defaultStyle, new SharedObjectReference(SharedObjectReference.TYPE_DEFAULT_STYLE, 0, 0));
+		}
+		if (styles != null)
+		{
+			for (int i = 0; i < styles.length; i++)
+			{
+				shared.putIfAbsent(styles[i], new SharedObjectReference(SharedObjectReference.TYPE_STYLE, 0, i));
+			}
+		}
+		JRGroup[] groups = mainDataset.getGroups();
+		if (groups != null)
+		{
+			for (int i = 0; i < groups.length; i++)
+			{
+				shared.put(groups[i], new SharedObjectReference(SharedObjectReference.TYPE_GROUP, 0, i));
+			}
+		}
+		if (includeDatasetGroups && datasets != null)
+		{
+			for (int i = 0; i < datasets.length; i++)
+			{
+				JRGroup[] datasetGroups = datasets[i].getGroups();
+				if (datasetGroups != null)
+				{
+					for (int j = 0; j < datasetGroups.length; j++)
+					{
+						shared.put(datasetGroups[j], 
+								new SharedObjectReference(SharedObjectReference.TYPE_DATASET_GROUP, i, j));
+					}
+				}
+			}
+		}
+		return shared;
+	}
+	
+	protected Object resolveSharedObject(SharedObjectReference reference)
+	{
+		switch (reference.type)
+		{
+			case SharedObjectReference.TYPE_REPORT:
+				return this;
+			case SharedObjectReference.TYPE_MAIN_DATASET:
+				return mainDataset;
+			case SharedObjectReference.TYPE_DEFAULT_STYLE:
+				return defaultStyle;
+			case SharedObjectReference.TYPE_STYLE:
+				return styles[reference.index];
+			case SharedObjectReference.TYPE_GROUP:
+				return mainDataset.getGroups()[reference.index];
+			case SharedObjectReference.TYPE_DATASET_GROUP:
+				return loadDataset(reference.datasetIndex).getGroups()[reference.index];
+			default:
+				throw new JRRuntimeException(EXCEPTION_MESSAGE_KEY_PART_LOADING_ERROR, (Object[]) null);
+		}
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+	{
+		in.defaultReadObject();
+		
+		@SuppressWarnings("resource")
+		ContextClassLoaderObjectInputStream cclois = 
+			in instanceof ContextClassLoaderObjectInputStream ? (ContextClassLoaderObjectInputStream) in : null;
+		if (cclois == null)
+		{
+			jasperReportsContext = DefaultJasperReportsContext.getInstance();
+		}
+		else
+		{
+			jasperReportsContext = cclois.getJasperReportsContext();
+		}
+	}
+	
+	protected static class PartOutputStream extends ObjectOutputStream
+	{
+		private final Map<Object, SharedObjectReference> shared;
+		private final Set<String> styleNames;
+
+		protected PartOutputStream(OutputStream out, 
+				Map<Object, SharedObjectReference> shared, Set<String> styleNames) throws IOException
+		{
+			super(out);
+			
+			this.shared = shared;
+			this.styleNames = styleNames;
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) throws IOException
+		{
+			if (styleNames != null && obj instanceof JRStyleContainer && !(obj instanceof JRStyle))
+			{
+				collectStyleName((JRStyleContainer) obj);
+			}
+			
+			SharedObjectReference reference = shared.get(obj);
+			return reference == null ? obj : reference;
+		}
+		
+		private void collectStyleName(JRStyleContainer styleContainer)
+		{
+			JRStyle style = styleContainer.getStyle();
+			String name = style == null ? styleContainer.getStyleNameReference() : style.getName();
+			if (name != null)
+			{
+				styleNames.add(name);
+			}
+		}
+	}
+	
+	protected class PartInputStream extends ContextClassLoaderObjectInputStream
+	{
+		protected PartInputStream(InputStream in) throws IOException
+		{
+			super(jasperReportsContext, in);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) throws IOException
+		{
+			if (obj instanceof SharedObjectReference)
+			{
+				return resolveSharedObject((SharedObjectReference) obj);
+			}
+			return super.resolveObject(obj);
+		}
+	}
+	
+	protected static class SharedObjectReference implements Serializable
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		static final byte TYPE_REPORT = 1;
+		static final byte TYPE_MAIN_DATASET = 2;
+		static final byte TYPE_DEFAULT_STYLE = 3;
+		static final byte TYPE_STYLE = 4;
+		static final byte TYPE_GROUP = 5;
+		static final byte TYPE_DATASET_GROUP = 6;
+		
+		private final byte type;
+		private final int datasetIndex;
+		private final int index;
+		
+		SharedObjectReference(byte type, int datasetIndex, int index)
+		{
+			this.type = type;
+			this.datasetIndex = datasetIndex;
+			this.index = index;
+		}
+	}
+
+}
@@ -25,12 +25,19 @@ package net.sf.jasperreports.engine.design;
 
 import java.io.File;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -39,6 +46,7 @@ import net.sf.jasperreports.compilers.DirectEvaluator;
 import net.sf.jasperreports.compilers.DirectExpressionEvaluators;
 import net.sf.jasperreports.compilers.DirectExpressionValueFilter;
 import net.sf.jasperreports.compilers.DirectValueClassFilterDecorator;
+import net.sf.jasperreports.compilers.ExpressionTreeParser;
 import net.sf.jasperreports.compilers.IdentityExpressionValueFilter;
 import net.sf.jasperreports.compilers.InterpretedExpressionEvaluators;
 import net.sf.jasperreports.compilers.ReportClassFilter;
@@ -53,14 +61,17 @@ import net.sf.jasperreports.crosstabs.JRCrosstabParameter;
 import net.sf.jasperreports.crosstabs.design.JRDesignCrosstab;
 import net.sf.jasperreports.engine.JRDataset;
 import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRExpression;
 import net.sf.jasperreports.engine.JRExpressionCollector;
 import net.sf.jasperreports.engine.JRField;
 import net.sf.jasperreports.engine.JRParameter;
 import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRReport;
 import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRVariable;
 import net.sf.jasperreports.engine.JasperReport;
 import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.base.LazyJasperReport;
 import net.sf.jasperreports.engine.fill.JREvaluator;
 import net.sf.jasperreports.engine.util.JRSaver;
 import net.sf.jasperreports.engine.util.JRStringUtil;
@@ -228,7 +239,7 @@ public abstract class JRAbstractCompiler implements JRCompiler
 		{
 			if (sourceUnits.length > 0)
 			{
-				String compileErrors = compileUnits(sourceUnits, classpath, tempDirFile);
+				String compileErrors = compileSourceUnits(jasperDesign, sourceUnits, classpath, tempDirFile);
 				if (compileErrors != null)
 				{
 					throw 
@@ -256,14 +267,30 @@ public abstract class JRAbstractCompiler implements JRCompiler
 			}
 
 			// creating the report
-			JasperReport jasperReport = 
-				new JasperReport(
-					jasperDesign,
-					getCompilerClass(),
-					reportCompileData,
-					expressionCollector,
-					nameSuffix
-					);
+			JasperReport jasperReport;
+			if (JRPropertiesUtil.getInstance(jasperReportsContext).getBooleanProperty(jasperDesign, JRCompiler.COMPILER_LAZY_REPORT_PARTS, false))
+			{
+				jasperReport = 
+					new LazyJasperReport(
+						jasperReportsContext,
+						jasperDesign,
+						getCompilerClass(),
+						reportCompileData,
+						expressionCollector,
+						nameSuffix
+						);
+			}
+			else
+			{
+				jasperReport = 
+					new JasperReport(
+						jasperDesign,
+						getCompilerClass(),
+						reportCompileData,
+						expressionCollector,
+						nameSuffix
+						);
+			}
 			
 			return jasperReport;
 		}
@@ -288,14 +315,111 @@ public abstract class JRAbstractCompiler implements JRCompiler
 		}
 	}
 	
+	private String compileSourceUnits(JasperDesign jasperDesign, JRCompilationUnit[] sourceUnits, 
+			String classpath, File tempDirFile) throws JRException
+	{
+		int threads = sourceUnits.length > 1 && isParallelUnitCompilationSupported()
+				? JRPropertiesUtil.getInstance(jasperReportsContext).getIntegerProperty(jasperDesign, JRCompiler.COMPILER_UNIT_THREADS, 0)
+				: 0;
+		if (threads <= 1)
+		{
+			return compileUnits(sourceUnits, classpath, tempDirFile);
+		}
+		
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, sourceUnits.length), 
+				runnable ->
+				{
+					Thread thread = new Thread(runnable, "JasperReports compiler #" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		try
+		{
+			JRCompilationUnit[][] unitArrays = new JRCompilationUnit[sourceUnits.length][];
+			List<Future<String>> results = new ArrayList<>(sourceUnits.length);
+			for (int i = 0; i < sourceUnits.length; i++)
+			{
+				JRCompilationUnit[] units = new JRCompilationUnit[]{sourceUnits[i]};
+				unitArrays[i] = units;
+				results.add(executor.submit(() -> compileUnits(units, classpath, tempDirFile)));
+			}
+			
+			StringBuilder errors = new StringBuilder();
+			for (int i = 0; i < sourceUnits.length; i++)
+			{
+				String unitErrors = results.get(i).get();
+				if (unitErrors != null)
+				{
+					errors.append(unitErrors);
+				}
+				//the compiler can replace the unit
+				sourceUnits[i] = unitArrays[i][0];
+			}
+			return errors.length() > 0 ? errors.toString() : null;
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new JRException(e);
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof JRException)
+			{
+				throw (JRException) cause;
+			}
+			if (cause instanceof RuntimeException)
+			{
+				throw (RuntimeException) cause;
+			}
+			throw new JRException(cause);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Determines whether the compilation units of a report can be compiled concurrently
+	 * by calling {@link #compileUnits(JRCompilationUnit[], String, File)} for each unit from separate threads.
+	 * 
+	 * @return whether the compiler supports concurrent compilation of units
+	 * @see JRCompiler#COMPILER_UNIT_THREADS
+	 */
+	protected boolean isParallelUnitCompilationSupported()
+	{
+		return false;
+	}
+	
 	protected ReportExpressionEvaluationData createCompileData(JRCompilationUnit unit)
 	{
 		ReportExpressionEvaluationData data = new ReportExpressionEvaluationData();
 		data.setCompileName(unit.getCompileName());
 		data.setCompileData(unit.getCompileData());
 		data.setDirectEvaluations(unit.getDirectEvaluations());
+		data.setInterpreterFallbacks(unit.getInterpreterFallbacks());
 		return data;
 	}
+	
+	private Map<Integer, String> getInterpreterFallbacks(JRExpressionCollector collector, 
+			ReportExpressionsCompilation expressions)
+	{
+		Map<JRExpression, String> interpreterFallbacks = expressions.getInterpreterFallbacks();
+		if (interpreterFallbacks.isEmpty())
+		{
+			return null;
+		}
+		
+		Map<Integer, String> expressionFallbacks = new LinkedHashMap<>();
+		for (Map.Entry<JRExpression, String> entry : interpreterFallbacks.entrySet())
+		{
+			expressionFallbacks.put(collector.getExpressionId(entry.getKey()), entry.getValue());
+		}
+		return expressionFallbacks;
+	}
 
 
 	private static String createNameSuffix()
@@ -325,10 +449,13 @@ public abstract class JRAbstractCompiler implements JRCompiler
 		String unitName = JRAbstractCompiler.getUnitName(jasperDesign, dataset, nameSuffix);
 		
 		JRExpressionCollector datasetCollector = expressionCollector.getCollector(dataset);
-		ReportExpressionsCompilation expressions = expressionsCompiler.getExpressionsCompilation(datasetCollector);
+		ExpressionTreeParser treeParser = createExpressionTreeParser(jasperDesign, 
+				dataset.getParametersList(), dataset.getFieldsList(), dataset.getVariables());
+		ReportExpressionsCompilation expressions = expressionsCompiler.getExpressionsCompilation(datasetCollector, treeParser);
 		
 		JRCompilationUnit compilationUnit = new JRCompilationUnit(unitName);
 		compilationUnit.setDirectEvaluations(expressions.getDirectEvaluations());
+		compilationUnit.setInterpreterFallbacks(getInterpreterFallbacks(datasetCollector, expressions));
 		
 		ReportSourceCompilation<JRParameter> sourceCompilation = new ReportSourceCompilation<>(
 				jasperReportsContext, jasperDesign, expressions, 
@@ -352,10 +479,13 @@ public abstract class JRAbstractCompiler implements JRCompiler
 		String unitName = JRAbstractCompiler.getUnitName(jasperDesign, crosstab, expressionCollector, nameSuffix);
 		
 		JRExpressionCollector crosstabCollector = expressionCollector.getCollector(crosstab);
-		ReportExpressionsCompilation expressions = expressionsCompiler.getExpressionsCompilation(crosstabCollector);
+		ExpressionTreeParser treeParser = createExpressionTreeParser(jasperDesign, 
+				crosstab.getParametersList(), null, crosstab.getVariables());
+		ReportExpressionsCompilation expressions = expressionsCompiler.getExpressionsCompilation(crosstabCollector, treeParser);
 		
 		JRCompilationUnit compilationUnit = new JRCompilationUnit(unitName);
 		compilationUnit.setDirectEvaluations(expressions.getDirectEvaluations());
+		compilationUnit.setInterpreterFallbacks(getInterpreterFallbacks(crosstabCollector, expressions));
 		
 		ReportSourceCompilation<JRCrosstabParameter> sourceCompilation = new ReportSourceCompilation<>(
 				jasperReportsContext, jasperDesign, expressions, 
@@ -373,6 +503,46 @@ public abstract class JRAbstractCompiler implements JRCompiler
 		return compilationUnit;
 	}
 
+	private ExpressionTreeParser createExpressionTreeParser(JasperDesign jasperDesign, 
+			List<? extends JRParameter> parameters, List<JRField> fields, JRVariable[] variables)
+	{
+		ExpressionTreeParser.Dialect dialect = expressionTreeDialect();
+		if (dialect == null || !JRPropertiesUtil.getInstance(jasperReportsContext).getBooleanProperty(
+				jasperDesign, JRCompiler.COMPILER_EXPRESSION_INTERPRETER, true))
+		{
+			return null;
+		}
+		
+		Map<String, String> parameterTypes = new HashMap<>();
+		if (parameters != null)
+		{
+			for (JRParameter parameter : parameters)
+			{
+				parameterTypes.put(parameter.getName(), parameter.getValueClassName());
+			}
+		}
+		
+		Map<String, String> fieldTypes = new HashMap<>();
+		if (fields != null)
+		{
+			for (JRField field : fields)
+			{
+				fieldTypes.put(field.getName(), field.getValueClassName());
+			}
+		}
+		
+		Map<String, String> variableTypes = new HashMap<>();
+		if (variables != null)
+		{
+			for (JRVariable variable : variables)
+			{
+				variableTypes.put(variable.getName(), variable.getValueClassName());
+			}
+		}
+		
+		return new ExpressionTreeParser(dialect, parameterTypes, fieldTypes, variableTypes);
+	}
+
 	private static <T> Map<String, T> listToMap(List<T> list, Function<T, String> key)
 	{
 		if (list == null)
@@ -497,6 +667,17 @@ public abstract class JRAbstractCompiler implements JRCompiler
 		return IdentityExpressionValueFilter.instance();
 	}
 	
+	/**
+	 * Returns the dialect in which expressions are interpreted without being compiled.
+	 * 
+	 * @return the expressions dialect, or <code>null</code> if the compiler does not support interpreted expressions
+	 * @see JRCompiler#COMPILER_EXPRESSION_INTERPRETER
+	 */
+	protected ExpressionTreeParser.Dialect expressionTreeDialect()
+	{
+		return null;
+	}
+	
 	/**
 	 * Creates an expression evaluator instance from data saved when the report was compiled.
 	 * 
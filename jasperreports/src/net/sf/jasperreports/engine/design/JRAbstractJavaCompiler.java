@@ -28,15 +28,19 @@
  */
 package net.sf.jasperreports.engine.design;
 
+import java.io.File;
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.collections4.map.ReferenceMap;
 
 import net.sf.jasperreports.annotations.properties.Property;
 import net.sf.jasperreports.annotations.properties.PropertyScope;
 import net.sf.jasperreports.compilers.DirectExpressionValueFilter;
+import net.sf.jasperreports.compilers.ExpressionTreeParser;
 import net.sf.jasperreports.compilers.JavaDirectExpressionValueFilter;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRPropertiesUtil;
@@ -103,6 +107,45 @@ public abstract class JRAbstractJavaCompiler extends JRAbstractCompiler
 		return JavaDirectExpressionValueFilter.instance();
 	}
 
+	@Override
+	protected ExpressionTreeParser.Dialect expressionTreeDialect()
+	{
+		return ExpressionTreeParser.Dialect.JAVA;
+	}
+
+	@Override
+	protected boolean isParallelUnitCompilationSupported()
+	{
+		//the units are compiled into independent classes
+		return true;
+	}
+
+	/**
+	 * Regenerates the source code of a compilation unit, adding the methods 
+	 * for the report functions that were not found when compiling the unit.
+	 * 
+	 * @param compilationUnit the compilation unit
+	 * @param missingMethods the methods that implement the missing functions
+	 * @return the new compilation unit
+	 */
+	protected JRCompilationUnit recreateCompileUnit(JRCompilationUnit compilationUnit, Set<Method> missingMethods)
+	{		
+		String unitName = compilationUnit.getName();
+		
+		JRSourceCompileTask sourceTask = compilationUnit.getCompileTask();
+		JRCompilationSourceCode sourceCode = JRClassGenerator.modifySource(sourceTask, missingMethods, compilationUnit.getSourceCode());
+		
+		File sourceFile = compilationUnit.getSourceFile();
+		File saveSourceDir = sourceFile == null ? null : sourceFile.getParentFile();
+		sourceFile = getSourceFile(saveSourceDir, compilationUnit.getCompileName(), sourceCode);
+
+		JRCompilationUnit newUnit = new JRCompilationUnit(unitName);
+		newUnit.setDirectEvaluations(compilationUnit.getDirectEvaluations());
+		newUnit.setInterpreterFallbacks(compilationUnit.getInterpreterFallbacks());
+		newUnit.setSource(sourceCode, sourceFile, sourceTask);
+		return newUnit;
+	}
+
 	@Override
 	protected JREvaluator loadEvaluator(Serializable compileData, String className) throws JRException
 	{
@@ -61,6 +61,8 @@ public class JRCompilationUnit
 	
 	private Map<Integer, DirectExpressionEvaluation> directEvaluations;
 	
+	private Map<Integer, String> interpreterFallbacks;
+	
 	/**
 	 * Creates a compilation unit.
 	 */
@@ -167,4 +169,14 @@ public class JRCompilationUnit
 	{
 		this.directEvaluations = directEvaluations;
 	}
+
+	public Map<Integer, String> getInterpreterFallbacks()
+	{
+		return interpreterFallbacks;
+	}
+
+	public void setInterpreterFallbacks(Map<Integer, String> interpreterFallbacks)
+	{
+		this.interpreterFallbacks = interpreterFallbacks;
+	}
 }
@@ -143,6 +143,69 @@ public interface JRCompiler
 			valueType = Boolean.class
 			)
 	public static final String COMPILER_KEEP_JAVA_FILE = JRPropertiesUtil.PROPERTY_PREFIX + "compiler.keep.java.file";
+
+	/**
+	 * Whether compiled reports should keep their bands and subdatasets in serialized form
+	 * until they are first accessed.
+	 * This helps reports that are loaded or cached without being filled, and fills that 
+	 * produce no rows, which do not deserialize the detail section and the subdatasets they do not use.
+	 * <p>
+	 * Defaults to <code>false</code>.
+	 * 
+	 * @see net.sf.jasperreports.engine.base.LazyJasperReport
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+			)
+	public static final String COMPILER_LAZY_REPORT_PARTS = JRPropertiesUtil.PROPERTY_PREFIX + "compiler.lazy.report.parts";
+	
+	/**
+	 * Whether report expressions written in a common subset of the language are interpreted
+	 * instead of being included in the generated expression classes.
+	 * <p>
+	 * Expressions consisting of references, literals, string concatenation, arithmetic, comparisons, 
+	 * logical and conditional operators and a set of <code>String</code> and <code>Number</code> methods
+	 * are interpreted by the Java and Groovy compilers.
+	 * When all the expressions of a dataset are interpreted, no class is generated for the dataset.
+	 * The expressions that are still compiled are logged at debug level along with the reasons,
+	 * and are listed by the dataset compile data of the compiled report
+	 * (see {@link net.sf.jasperreports.compilers.ReportExpressionEvaluationData#getInterpreterFallbacks()}).
+	 * <p>
+	 * Defaults to <code>true</code>.
+	 * 
+	 * @see net.sf.jasperreports.compilers.ExpressionTreeParser
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			defaultValue = PropertyConstants.BOOLEAN_TRUE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+			)
+	public static final String COMPILER_EXPRESSION_INTERPRETER = JRPropertiesUtil.PROPERTY_PREFIX + "compiler.expression.interpreter";
+	
+	/**
+	 * The number of threads used to compile the expression units of a report 
+	 * (the main dataset, subdatasets and crosstabs) concurrently.
+	 * <p>
+	 * When set to a value greater than 1, the units that need to be compiled are compiled separately, 
+	 * using up to the specified number of threads.
+	 * The property applies to the Java and Groovy compilers.
+	 * <p>
+	 * Defaults to <code>0</code>, meaning that all the units are compiled in a single pass on the calling thread.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_COMPILE,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Integer.class
+			)
+	public static final String COMPILER_UNIT_THREADS = JRPropertiesUtil.PROPERTY_PREFIX + "compiler.unit.threads";
 	
 	/**
 	 * The temporary directory used by the report compiler. 
@@ -0,0 +1,363 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.design;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.functions.FunctionsUtil;
+
+/**
+ * Java report compiler that uses the <code>javax.tools</code> compiler API of the JDK.
+ * <p>
+ * The generated sources and the resulting class files are kept in memory,
+ * no temporary files are written to the {@link JRCompiler#COMPILER_TEMP_DIR compiler temporary directory}.
+ * The compiled reports are loaded as reports compiled with {@link JRJavacCompiler}, 
+ * which means that the JDK is only required for compiling the reports.
+ */
+public class JRJavaxToolsCompiler extends JRAbstractJavaCompiler
+{
+	public static final String EXCEPTION_MESSAGE_KEY_JAVA_COMPILER_NOT_AVAILABLE = "compilers.java.compiler.not.available";
+	public static final String EXCEPTION_MESSAGE_KEY_JAVA_CLASS_NOT_GENERATED = "compilers.java.class.not.generated";
+	
+	private static final String DIAGNOSTIC_CODE_CANT_RESOLVE = "compiler.err.cant.resolve";
+	
+	/**
+	 * Checks whether a system Java compiler is available.
+	 * 
+	 * @return whether the compiler can be used
+	 */
+	public static boolean isAvailable()
+	{
+		return ToolProvider.getSystemJavaCompiler() != null;
+	}
+
+	public JRJavaxToolsCompiler(JasperReportsContext jasperReportsContext)
+	{
+		super(jasperReportsContext, false);
+	}
+
+	@Override
+	protected String compileUnits(JRCompilationUnit[] units, String classpath, File tempDirFile) throws JRException
+	{
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_JAVA_COMPILER_NOT_AVAILABLE,
+					(Object[]) null);
+		}
+		
+		List<String> options = new ArrayList<>();
+		options.add("-proc:none");
+		if (classpath != null)
+		{
+			options.add("-classpath");
+			options.add(classpath);
+		}
+		
+		StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+		try (MemoryFileManager fileManager = new MemoryFileManager(standardFileManager))
+		{
+			Map<String, Set<Method>> resolvedMethods = new HashMap<>();
+			while (true)
+			{
+				List<JavaFileObject> sources = new ArrayList<>(units.length);
+				for (JRCompilationUnit unit : units)
+				{
+					sources.add(new SourceObject(unit.getCompileName(), unit.getSourceCode()));
+				}
+				
+				DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+				boolean success = compiler.getTask(null, fileManager, diagnostics, options, null, sources).call();
+				if (success)
+				{
+					break;
+				}
+				
+				//resolving report functions the same way as JRJdtCompiler
+				if (!recreateUnitsWithFunctions(units, diagnostics.getDiagnostics(), resolvedMethods))
+				{
+					return formatErrors(diagnostics.getDiagnostics());
+				}
+			}
+			
+			for (JRCompilationUnit unit : units)
+			{
+				byte[] classBytes = fileManager.getClassBytes(unit.getCompileName());
+				if (classBytes == null)
+				{
+					throw 
+						new JRException(
+							EXCEPTION_MESSAGE_KEY_JAVA_CLASS_NOT_GENERATED,
+							new Object[]{unit.getCompileName()});
+				}
+				unit.setCompileData(classBytes);
+			}
+			return null;
+		}
+		catch (IOException e)
+		{
+			throw new JRException(e);
+		}
+	}
+	
+	protected boolean recreateUnitsWithFunctions(JRCompilationUnit[] units, 
+			List<Diagnostic<? extends JavaFileObject>> diagnostics, Map<String, Set<Method>> resolvedMethods)
+	{
+		Map<String, Set<Method>> missingMethods = new HashMap<>();
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics)
+		{
+			if (diagnostic.getKind() != Diagnostic.Kind.ERROR)
+			{
+				continue;
+			}
+			
+			String code = diagnostic.getCode();
+			if (code == null || !code.startsWith(DIAGNOSTIC_CODE_CANT_RESOLVE) || !code.endsWith(".args")
+					|| !(diagnostic.getSource() instanceof SourceObject))
+			{
+				//only errors caused by unresolved methods can be fixed
+				return false;
+			}
+			
+			SourceObject source = (SourceObject) diagnostic.getSource();
+			String methodName = identifierAt(source.sourceCode, diagnostic.getPosition());
+			Method method = methodName == null ? null 
+					: FunctionsUtil.getInstance(jasperReportsContext).getMethod4Function(methodName);
+			if (method == null)
+			{
+				return false;
+			}
+			
+			Set<Method> unitResolvedMethods = resolvedMethods.computeIfAbsent(source.className, name -> new HashSet<>());
+			if (unitResolvedMethods.contains(method))
+			{
+				//already added, the error is caused by something else
+				return false;
+			}
+			missingMethods.computeIfAbsent(source.className, name -> new LinkedHashSet<>()).add(method);
+		}
+		
+		if (missingMethods.isEmpty())
+		{
+			return false;
+		}
+		
+		for (int i = 0; i < units.length; i++)
+		{
+			Set<Method> unitMissingMethods = missingMethods.get(units[i].getCompileName());
+			if (unitMissingMethods != null)
+			{
+				units[i] = recreateCompileUnit(units[i], unitMissingMethods);
+				resolvedMethods.get(units[i].getCompileName()).addAll(unitMissingMethods);
+			}
+		}
+		return true;
+	}
+	
+	protected static String identifierAt(String sourceCode, long position)
+	{
+		if (position < 0 || position >= sourceCode.length())
+		{
+			return null;
+		}
+		
+		int start = (int) position;
+		int end = start;
+		while (end < sourceCode.length() && Character.isJavaIdentifierPart(sourceCode.charAt(end)))
+		{
+			++end;
+		}
+		return end > start ? sourceCode.substring(start, end) : null;
+	}
+	
+	protected String formatErrors(List<Diagnostic<? extends JavaFileObject>> diagnostics)
+	{
+		StringBuilder errors = new StringBuilder();
+		int errorCount = 0;
+		for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics)
+		{
+			if (diagnostic.getKind() != Diagnostic.Kind.ERROR)
+			{
+				continue;
+			}
+			
+			++errorCount;
+			errors.append(errorCount);
+			errors.append(". ");
+			errors.append(diagnostic.getMessage(Locale.getDefault()));
+			errors.append('\n');
+			
+			if (diagnostic.getSource() instanceof SourceObject && diagnostic.getStartPosition() >= 0)
+			{
+				String sourceCode = ((SourceObject) diagnostic.getSource()).sourceCode;
+				int position = (int) diagnostic.getStartPosition();
+				int lineStart = sourceCode.lastIndexOf('\n', position) + 1;
+				int lineEnd = sourceCode.indexOf('\n', position);
+				if (lineEnd < 0)
+				{
+					lineEnd = sourceCode.length();
+				}
+				errors.append(sourceCode, lineStart, lineEnd);
+				errors.append('\n');
+			}
+		}
+		errors.append(errorCount);
+		errors.append(" errors\n");
+		return errors.toString();
+	}
+
+	@Override
+	protected void checkLanguage(String language) throws JRException
+	{
+		if (!JRReport.LANGUAGE_JAVA.equals(language))
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_EXPECTED_JAVA_LANGUAGE,
+					new Object[]{language, JRReport.LANGUAGE_JAVA});
+		}
+	}
+
+	@Override
+	protected JRCompilationSourceCode generateSourceCode(JRSourceCompileTask sourceTask) throws JRException
+	{
+		return JRClassGenerator.generateClass(sourceTask);
+	}
+
+	@Override
+	protected String getSourceFileName(String unitName)
+	{
+		return unitName + ".java";
+	}
+
+	@Override
+	protected String getCompilerClass()
+	{
+		return JRJavacCompiler.class.getName();
+	}
+	
+	protected static class SourceObject extends SimpleJavaFileObject
+	{
+		private final String className;
+		private final String sourceCode;
+		
+		public SourceObject(String className, String sourceCode)
+		{
+			super(URI.create("string:///" + className.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+			this.className = className;
+			this.sourceCode = sourceCode;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors)
+		{
+			return sourceCode;
+		}
+	}
+	
+	protected static class ClassObject extends SimpleJavaFileObject
+	{
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		
+		public ClassObject(String className)
+		{
+			super(URI.create("bytes:///" + className.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+		}
+
+		@Override
+		public OutputStream openOutputStream()
+		{
+			return bytes;
+		}
+		
+		public byte[] getBytes()
+		{
+			return bytes.toByteArray();
+		}
+	}
+	
+	/**
+	 * File manager that keeps the class files produced by the compiler in memory.
+	 */
+	protected static class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager>
+	{
+		private final Map<String, ClassObject> classes = new HashMap<>();
+		
+		public MemoryFileManager(JavaFileManager fileManager)
+		{
+			super(fileManager);
+		}
+
+		@Override
+		public JavaFileObject getJavaFileForOutput(Location location, String className, 
+				JavaFileObject.Kind kind, FileObject sibling) throws IOException
+		{
+			if (kind != JavaFileObject.Kind.CLASS)
+			{
+				return super.getJavaFileForOutput(location, className, kind, sibling);
+			}
+			
+			ClassObject classObject = new ClassObject(className);
+			classes.put(className, classObject);
+			return classObject;
+		}
+		
+		public byte[] getClassBytes(String className)
+		{
+			ClassObject classObject = classes.get(className);
+			return classObject == null ? null : classObject.getBytes();
+		}
+	}
+	
+}
@@ -475,24 +475,6 @@ public class JRJdtCompiler extends JRAbstractJavaCompiler
 	}
 
 	
-	protected JRCompilationUnit recreateCompileUnit(JRCompilationUnit compilationUnit, Set<Method> missingMethods)
-	{		
-		String unitName = compilationUnit.getName();
-		
-		JRSourceCompileTask sourceTask = compilationUnit.getCompileTask();
-		JRCompilationSourceCode sourceCode = JRClassGenerator.modifySource(sourceTask, missingMethods, compilationUnit.getSourceCode());
-		
-		File sourceFile = compilationUnit.getSourceFile();
-		File saveSourceDir = sourceFile == null ? null : sourceFile.getParentFile();
-		sourceFile = getSourceFile(saveSourceDir, compilationUnit.getCompileName(), sourceCode);
-
-		JRCompilationUnit newUnit = new JRCompilationUnit(unitName);
-		newUnit.setDirectEvaluations(compilationUnit.getDirectEvaluations());
-		newUnit.setSource(sourceCode, sourceFile, sourceTask);
-		return newUnit;
-	}
-
-	
 	@Override
 	protected JRCompilationSourceCode generateSourceCode(JRSourceCompileTask sourceTask) throws JRException
 	{
@@ -119,6 +119,7 @@ import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.ReturnValue;
 import net.sf.jasperreports.engine.VariableReturnValue;
 import net.sf.jasperreports.engine.analytics.dataset.MultiAxisData;
+import net.sf.jasperreports.engine.base.LazyJasperReport;
 import net.sf.jasperreports.engine.component.Component;
 import net.sf.jasperreports.engine.component.ComponentCompiler;
 import net.sf.jasperreports.engine.component.ComponentKey;
@@ -646,31 +647,23 @@ public class JRVerifier
 					report);
 		}
 
-		JRSection detailSection = report.getDetailSection();
-		if (detailSection != null)
+		int[] detailBreakHeights = getDetailBreakHeights(report);
+		for (int i = 0; i < detailBreakHeights.length; i++)
 		{
-			JRBand[] detailBands = detailSection.getBands();
-			if (detailBands != null && detailBands.length > 0)
+			if (
+				topMargin +
+				(report.getPageHeader() != null ? report.getPageHeader().getHeight() : 0) +
+				(report.getColumnHeader() != null ? report.getColumnHeader().getHeight() : 0) +
+				detailBreakHeights[i] +
+				(report.getColumnFooter() != null ? report.getColumnFooter().getHeight() : 0) +
+				(report.getPageFooter() != null ? report.getPageFooter().getHeight() : 0) +
+				bottomMargin >
+				pageHeight
+				)
 			{
-				for(int i = 0; i< detailBands.length; i++)
-				{
-					JRBand detailBand = detailBands[i];
-					if (
-						topMargin +
-						(report.getPageHeader() != null ? report.getPageHeader().getHeight() : 0) +
-						(report.getColumnHeader() != null ? report.getColumnHeader().getHeight() : 0) +
-						getBreakHeight(detailBand) +
-						(report.getColumnFooter() != null ? report.getColumnFooter().getHeight() : 0) +
-						(report.getPageFooter() != null ? report.getPageFooter().getHeight() : 0) +
-						bottomMargin >
-						pageHeight
-						)
-					{
-						addBrokenRule(brokenRules,
-								"The detail section, the page and column headers and footers and the margins do not fit the page height.", 
-								report);
-					}
-				}
+				addBrokenRule(brokenRules,
+						"The detail section, the page and column headers and footers and the margins do not fit the page height.", 
+						report);
 			}
 		}
 
@@ -2726,6 +2719,38 @@ public class JRVerifier
 		}
 	}
 
+	private static int[] getDetailBreakHeights(JRReport report)
+	{
+		if (report instanceof LazyJasperReport)
+		{
+			// not loading the detail section of reports with deferred parts
+			return ((LazyJasperReport) report).getDetailBreakHeights();
+		}
+		return getBreakHeights(report.getDetailSection());
+	}
+
+	/**
+	 * Returns the heights at which the bands of a section can break.
+	 * 
+	 * @param section the section, possibly <code>null</code>
+	 * @return the break heights of the section bands
+	 */
+	public static int[] getBreakHeights(JRSection section)
+	{
+		JRBand[] bands = section == null ? null : section.getBands();
+		if (bands == null)
+		{
+			return new int[0];
+		}
+		
+		int[] breakHeights = new int[bands.length];
+		for (int i = 0; i < bands.length; i++)
+		{
+			breakHeights[i] = getBreakHeight(bands[i]);
+		}
+		return breakHeights;
+	}
+
 	private static int getBreakHeight(JRBand band)
 	{
 		int breakHeight = 0;
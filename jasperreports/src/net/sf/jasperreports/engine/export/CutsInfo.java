@@ -41,13 +41,14 @@ import net.sf.jasperreports.engine.util.SortedIntList;
  */
 public class CutsInfo
 {
-	private final SortedIntList cutOffsets = new SortedIntList();
+	private final SortedIntList cutOffsets;
 	private Cut[] cuts;
 	
 	private Map<String, Object> propertiesMap;
 	
 	public CutsInfo()
 	{
+		cutOffsets = new SortedIntList();
 		propertiesMap = new HashMap<>();
 		addCutOffset(0);
 	}
@@ -58,6 +59,16 @@ public class CutsInfo
 		addCutOffset(lastCutOffset);
 	}
 	
+	/**
+	 * Creates an object that has the same cut offsets as an existing one.
+	 * Cut usages and properties are not copied.
+	 */
+	public CutsInfo(CutsInfo cutsInfo)
+	{
+		cutOffsets = new SortedIntList(cutsInfo.cutOffsets);
+		propertiesMap = new HashMap<>();
+	}
+	
 	public int size()
 	{
 		return cutOffsets.size();
@@ -451,6 +451,11 @@ public abstract class ExcelAbstractExporter<RC extends XlsReportConfiguration, C
 	protected int sheetsBeforeCurrentReport;
 	protected Map<Integer, Integer> sheetsBeforeCurrentReportMap = new HashMap<>();
 	protected RenderersCache renderersCache;
+	
+	/**
+	 * Grid cells shared by the layouts of the pages exported on the same sheets.
+	 */
+	protected GridLayoutCache gridLayoutCache;
 
 	/**
 	 *
@@ -79,6 +79,19 @@ public class Grid
 		cells[row * columnCount + column] = cell;
 	}
 	
+	/**
+	 * Sets all the cells of a row by copying them from an array.
+	 */
+	public void setRow(int row, JRExporterGridCell[] rowCells)
+	{
+		rowBoundsCheck(row);
+		if (rowCells.length != columnCount)
+		{
+			throw new IndexOutOfBoundsException("row size " + rowCells.length + " does not match column count " + columnCount);
+		}
+		System.arraycopy(rowCells, 0, cells, row * columnCount, columnCount);
+	}
+	
 	public JRExporterGridCell get(int row, int column)
 	{
 		rowBoundsCheck(row);
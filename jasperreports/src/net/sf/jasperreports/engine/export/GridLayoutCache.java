@@ -0,0 +1,313 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRLineBox;
+import net.sf.jasperreports.engine.util.Pair;
+
+/**
+ * Grid cell objects shared by the {@link JRGridLayout layouts} of several pages.
+ * <p>
+ * Cell sizes, cell styles and empty cells are immutable and can be reused by all the
+ * layouts created by an exporter. When the pages are exported using precomputed X cuts
+ * (see {@link JRGridLayout#calculateXCuts(ExporterNature, net.sf.jasperreports.engine.JasperPrint, int, int, int)}),
+ * the cuts can be registered with {@link #setColumnCuts(CutsInfo)} so that the layouts
+ * reuse rows of empty cells and map elements to columns without searching the cuts.
+ * <p>
+ * For pages that are laid out on the registered X cuts, the cache also keeps the row cuts
+ * and the element positions of the most recently used page geometries, so that pages 
+ * having the same element geometry as a previous page (as is usually the case with the
+ * detail pages of long reports) can skip the cuts and overlap computations.
+ */
+public class GridLayoutCache
+{
+	private static final Log log = LogFactory.getLog(GridLayoutCache.class);
+	
+	protected static final int MAX_EMPTY_ROWS = 256;
+	protected static final int MAX_COLUMN_INDEX_LENGTH = 1 << 16;
+	protected static final int MAX_PAGE_LAYOUTS = 16;
+	
+	private final Map<GridCellSize, GridCellSize> cellSizes;
+	private final Map<GridCellStyle, GridCellStyle> cellStyles;
+	private final Map<Pair<GridCellSize, GridCellStyle>, EmptyGridCell> emptyCells;
+	
+	private CutsInfo columnCuts;
+	private int columnCount;
+	private int[] columnIndexes;
+	private int columnIndexesOffset;
+	private Map<Integer, JRExporterGridCell[]> emptyRows;
+	private Map<PageGeometry, PageLayout> pageLayouts;
+	
+	public GridLayoutCache()
+	{
+		cellSizes = new HashMap<>();
+		cellStyles = new HashMap<>();
+		emptyCells = new HashMap<>();
+	}
+	
+	/**
+	 * Registers the X cuts shared by the page layouts that use this cache.
+	 * 
+	 * @param xCuts the X cuts, which are not to be modified after this call
+	 */
+	public void setColumnCuts(CutsInfo xCuts)
+	{
+		columnCuts = xCuts;
+		columnCount = Math.max(xCuts.size() - 1, 0);
+		emptyRows = new HashMap<>();
+		pageLayouts = new LinkedHashMap<PageGeometry, PageLayout>(MAX_PAGE_LAYOUTS, 0.75f, true)
+		{
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<PageGeometry, PageLayout> eldest)
+			{
+				return size() > MAX_PAGE_LAYOUTS;
+			}
+		};
+		
+		columnIndexes = null;
+		if (xCuts.hasCuts())
+		{
+			int first = xCuts.getFirstCutOffset();
+			int length = xCuts.getLastCutOffset() - first + 1;
+			if (length <= MAX_COLUMN_INDEX_LENGTH)
+			{
+				columnIndexesOffset = first;
+				columnIndexes = new int[length];
+				Arrays.fill(columnIndexes, -1);
+				for (int i = 0; i < xCuts.size(); i++)
+				{
+					columnIndexes[xCuts.getCutOffset(i) - first] = i;
+				}
+			}
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug(this + " using " + columnCount + " shared columns");
+		}
+	}
+	
+	/**
+	 * Determines whether some X cuts are the ones registered via {@link #setColumnCuts(CutsInfo)}.
+	 */
+	public boolean hasColumnCuts(CutsInfo xCuts)
+	{
+		return xCuts != null && xCuts == columnCuts
+				&& columnIndexes != null
+				&& columnCount == Math.max(xCuts.size() - 1, 0);
+	}
+	
+	/**
+	 * Returns the index of a registered X cut.
+	 * 
+	 * @param offset the cut offset
+	 * @return the cut index, or <code>-1</code> if there is no cut at the offset
+	 */
+	public int getColumnIndex(int offset)
+	{
+		int index = offset - columnIndexesOffset;
+		return index < 0 || index >= columnIndexes.length ? -1 : columnIndexes[index];
+	}
+	
+	/**
+	 * Returns a row of empty cells of the specified height for the registered X cuts.
+	 * <p>
+	 * The returned array is shared and should not be modified. 
+	 */
+	public JRExporterGridCell[] getEmptyRow(int rowHeight)
+	{
+		JRExporterGridCell[] row = emptyRows.get(rowHeight);
+		if (row == null)
+		{
+			row = new JRExporterGridCell[columnCount];
+			for (int col = 0; col < columnCount; col++)
+			{
+				GridCellSize size = cellSize(
+						columnCuts.getCutOffset(col + 1) - columnCuts.getCutOffset(col),
+						rowHeight, 1, 1);
+				row[col] = emptyCell(size, null);
+			}
+			
+			if (emptyRows.size() < MAX_EMPTY_ROWS)
+			{
+				emptyRows.put(rowHeight, row);
+			}
+		}
+		return row;
+	}
+	
+	protected PageLayout getPageLayout(PageGeometry geometry)
+	{
+		PageLayout layout = pageLayouts.get(geometry);
+		if (log.isTraceEnabled())
+		{
+			log.trace(this + (layout == null ? " no layout" : " found layout") + " for page geometry " + geometry.hashCode());
+		}
+		return layout;
+	}
+	
+	protected void putPageLayout(PageGeometry geometry, PageLayout layout)
+	{
+		pageLayouts.put(geometry, layout);
+	}
+	
+	public GridCellSize cellSize(int width, int height, int colSpan, int rowSpan)
+	{
+		GridCellSize key = new GridCellSize(width, height, colSpan, rowSpan);
+		GridCellSize size = cellSizes.get(key);
+		if (size == null)
+		{
+			size = key;
+			cellSizes.put(key, size);
+			
+			if (log.isTraceEnabled())
+			{
+				log.trace(this + " added cell size " + size);
+			}
+		}
+		return size;
+	}
+	
+	public GridCellStyle cellStyle(Color backcolor, Color forecolor, JRLineBox box)
+	{
+		if (backcolor == null && forecolor == null && box == null)
+		{
+			return null;
+		}
+
+		GridCellStyle key = new GridCellStyle(backcolor, forecolor, box);
+		GridCellStyle style = cellStyles.get(key);
+		if (style == null)
+		{
+			style = key;
+			cellStyles.put(key, style);
+			
+			if (log.isTraceEnabled())
+			{
+				log.trace(this + " added cell style " + style);
+			}
+		}
+		return style;
+	}
+
+	public EmptyGridCell emptyCell(GridCellSize size, GridCellStyle style)
+	{
+		Pair<GridCellSize, GridCellStyle> key = new Pair<>(size, style);
+		EmptyGridCell cell = emptyCells.get(key);
+		if (cell == null)
+		{
+			cell = new EmptyGridCell(size, style);
+			emptyCells.put(key, cell);
+			
+			if (log.isDebugEnabled())
+			{
+				log.debug(this + " created empty cell for " + size + " and " + style);
+			}
+		}
+		return cell;
+	}
+	
+	/**
+	 * The positions and sizes of the exported elements of a page, 
+	 * along with the page size and element offsets.
+	 */
+	protected static class PageGeometry
+	{
+		private final int[] values;
+		private final int hash;
+		
+		public PageGeometry(int[] values)
+		{
+			this.values = values;
+			this.hash = Arrays.hashCode(values);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj == this)
+			{
+				return true;
+			}
+			
+			if (!(obj instanceof PageGeometry))
+			{
+				return false;
+			}
+			
+			PageGeometry geometry = (PageGeometry) obj;
+			return hash == geometry.hash && Arrays.equals(values, geometry.values);
+		}
+	}
+	
+	/**
+	 * The row cuts and element cell positions computed for a page geometry.
+	 */
+	protected static class PageLayout
+	{
+		private final CutsInfo yCuts;
+		private final int[] placements;
+		
+		/**
+		 * @param yCuts the row cuts, of which only the offsets are used
+		 * @param placements the placed elements, as groups of element index, 
+		 * start row, start column, end row and end column
+		 */
+		public PageLayout(CutsInfo yCuts, int[] placements)
+		{
+			this.yCuts = yCuts;
+			this.placements = placements;
+		}
+
+		/**
+		 * Returns a new copy of the row cuts.
+		 */
+		public CutsInfo createYCuts()
+		{
+			return new CutsInfo(yCuts);
+		}
+
+		public int[] getPlacements()
+		{
+			return placements;
+		}
+	}
+}
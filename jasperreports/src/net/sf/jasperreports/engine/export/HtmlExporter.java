@@ -30,6 +30,7 @@ import java.awt.font.TextAttribute;
 import java.awt.geom.Dimension2D;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.CharArrayWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.text.AttributedCharacterIterator;
@@ -37,12 +38,14 @@ import java.text.AttributedCharacterIterator.Attribute;
 import java.text.AttributedString;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.StringTokenizer;
 
@@ -106,6 +109,7 @@ import net.sf.jasperreports.engine.type.RotationEnum;
 import net.sf.jasperreports.engine.type.RunDirectionEnum;
 import net.sf.jasperreports.engine.type.ScaleImageEnum;
 import net.sf.jasperreports.engine.type.VerticalImageAlignEnum;
+import net.sf.jasperreports.engine.util.DigestUtils;
 import net.sf.jasperreports.engine.util.ExifOrientationEnum;
 import net.sf.jasperreports.engine.util.HyperlinkData;
 import net.sf.jasperreports.engine.util.ImageUtil;
@@ -182,6 +186,14 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 			sinceVersion = PropertyConstants.VERSION_3_7_0
 			)
 	public static final String PROPERTY_HTML_ID = HTML_EXPORTER_PROPERTIES_PREFIX + "id";
+	
+	protected static final String CELL_STYLE_CLASS_PREFIX = "jrc";
+	
+	/**
+	 * The number of rows after which the start of a page is written to the output when 
+	 * cell style classes are used and no flush row count is set.
+	 */
+	protected static final int DEFAULT_CELL_STYLE_CLASSES_ROW_COUNT = 100;
 
 	protected JRHyperlinkTargetProducerFactory targetProducerFactory;		
 	
@@ -203,6 +215,19 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 	
 	private boolean defaultIndentFirstLine;
 	private boolean defaultJustifyLastLine;
+	
+	protected int flushRowCount;
+	protected int chunkRowCount;
+	protected Map<String,String> cellStyleClasses;
+	protected Set<String> cellStyleClassNames;
+	protected StringBuilder pendingCellStyleRules;
+	private boolean cellClassWritten;
+	
+	/**
+	 * The writer that receives the page content, while {@link #writer} is the buffer of the first page chunk.
+	 */
+	private Writer chunksWriter;
+	private CharArrayWriter chunkBuffer;
 
 	public HtmlExporter()
 	{
@@ -303,6 +328,26 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 	protected void initExport()
 	{
 		super.initExport();
+		
+		HtmlExporterConfiguration configuration = getCurrentConfiguration();
+		
+		Integer flushRows = configuration.getFlushRowCount();
+		flushRowCount = flushRows == null ? 0 : Math.max(flushRows, 0);
+		
+		if (configuration.isCellStyleClasses())
+		{
+			cellStyleClasses = new HashMap<>();
+			cellStyleClassNames = new HashSet<>();
+			pendingCellStyleRules = new StringBuilder();
+		}
+		else
+		{
+			cellStyleClasses = null;
+			cellStyleClassNames = null;
+			pendingCellStyleRules = null;
+		}
+		
+		chunkRowCount = flushRowCount > 0 || cellStyleClasses == null ? flushRowCount : DEFAULT_CELL_STYLE_CLASSES_ROW_COUNT;
 	}
 
 
@@ -484,32 +529,42 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 	{
 		HtmlReportConfiguration configuration = getCurrentItemConfiguration();
 
-		Tabulator tabulator = new Tabulator(tableFilter, page.getElements(), configuration.isAccessibleHtml());
-		tabulator.tabulate(getOffsetX(), getOffsetY());
-		
-		boolean isIgnorePageMargins = configuration.isIgnorePageMargins();
-		if (!isIgnorePageMargins)
-		{
-			PrintPageFormat pageFormat = jasperPrint.getPageFormat(pageIndex);
-			tabulator.addMargins(pageFormat.getPageWidth(), pageFormat.getPageHeight());
-		}
-		
-		Table table = tabulator.getTable();
-		
-		boolean isWhitePageBackground = configuration.isWhitePageBackground();
-		if (isWhitePageBackground)
+		startPageChunks();
+		try
 		{
-			setBackcolor(Color.white);
+			Tabulator tabulator = new Tabulator(tableFilter, page.getElements(), configuration.isAccessibleHtml());
+			tabulator.tabulate(getOffsetX(), getOffsetY());
+			
+			boolean isIgnorePageMargins = configuration.isIgnorePageMargins();
+			if (!isIgnorePageMargins)
+			{
+				PrintPageFormat pageFormat = jasperPrint.getPageFormat(pageIndex);
+				tabulator.addMargins(pageFormat.getPageWidth(), pageFormat.getPageHeight());
+			}
+			
+			Table table = tabulator.getTable();
+			
+			boolean isWhitePageBackground = configuration.isWhitePageBackground();
+			if (isWhitePageBackground)
+			{
+				setBackcolor(Color.white);
+			}
+			
+			CellElementVisitor elementVisitor = new CellElementVisitor();
+			TableVisitor tableVisitor = new TableVisitor(tabulator, elementVisitor);
+			
+			exportTable(tableVisitor, table, isWhitePageBackground, true);
+			
+			if (isWhitePageBackground)
+			{
+				restoreBackcolor();
+			}
+			
+			writePageChunk();
 		}
-		
-		CellElementVisitor elementVisitor = new CellElementVisitor();
-		TableVisitor tableVisitor = new TableVisitor(tabulator, elementVisitor);
-		
-		exportTable(tableVisitor, table, isWhitePageBackground, true);
-		
-		if (isWhitePageBackground)
+		finally
 		{
-			restoreBackcolor();
+			endPageChunks();
 		}
 		
 		JRExportProgressMonitor progressMonitor = configuration.getProgressMonitor();
@@ -519,6 +574,65 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 		}
 	}
 
+	/**
+	 * Starts buffering the first chunk of the page content, if cell style classes are used.
+	 * 
+	 * <p>
+	 * New cell style classes are only defined while the first chunk is buffered, 
+	 * so that their style sheet can be written before the page table.
+	 * </p>
+	 */
+	protected void startPageChunks()
+	{
+		if (cellStyleClasses != null)
+		{
+			chunksWriter = writer;
+			chunkBuffer = new CharArrayWriter();
+			writer = chunkBuffer;
+		}
+	}
+	
+	/**
+	 * Ends a chunk of the page content.
+	 * 
+	 * <p>
+	 * If the first chunk was buffered, it is written to the output preceded by the cell style classes 
+	 * that it introduced, and the rest of the page is written directly to the output.
+	 * The output is then flushed if intermediate flushes are used.
+	 * </p>
+	 */
+	protected void writePageChunk() throws IOException
+	{
+		if (chunkBuffer != null)
+		{
+			if (pendingCellStyleRules.length() > 0)
+			{
+				chunksWriter.write("<style type=\"text/css\">\n");
+				chunksWriter.write(pendingCellStyleRules.toString());
+				chunksWriter.write("</style>\n");
+				pendingCellStyleRules.setLength(0);
+			}
+			
+			chunkBuffer.writeTo(chunksWriter);
+			endPageChunks();
+		}
+		
+		if (flushRowCount > 0)
+		{
+			writer.flush();
+		}
+	}
+	
+	protected void endPageChunks()
+	{
+		if (chunkBuffer != null)
+		{
+			writer = chunksWriter;
+			chunksWriter = null;
+			chunkBuffer = null;
+		}
+	}
+
 	public void exportElements(List<JRPrintElement> elements) throws IOException
 	{
 		Tabulator tabulator = new Tabulator(tableFilter, elements, getCurrentItemConfiguration().isAccessibleHtml());
@@ -602,8 +716,15 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 		}
 		writer.write("</tr>\n");
 		
+		int rowCount = 0;
 		for (Row row : rows)
 		{
+			if (isMainReportTable && chunkRowCount > 0 && rowCount > 0 && rowCount % chunkRowCount == 0)
+			{
+				writePageChunk();
+			}
+			++rowCount;
+			
 			writer.write("<tr valign=\"top\" style=\"height:");
 			writer.write(toSizeUnit(row.getExtent()));
 			writer.write("\">\n");
@@ -2090,6 +2211,9 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 		{
 			writer.write(dataAttr);
 		}
+		
+		// cells with custom classes keep inline styles
+		cellClassWritten = cellStyleClasses != null && getCellProperty(element, cell, PROPERTY_HTML_CLASS) != null;
 	}
 	
 	public String getDataAttributes(JRPrintElement element, TableCell cell)
@@ -2180,6 +2304,8 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 
 	protected void startCell(int colSpan, int rowSpan, CellType cellType) throws IOException
 	{
+		cellClassWritten = false;
+		
 		String tag = "td"; 
 		String role = null; 
 		if (cellType == CellType.COLUMN_HEADER)
@@ -2259,10 +2385,56 @@ public class HtmlExporter extends AbstractHtmlExporter<HtmlReportConfiguration,
 	{
 		if (styleBuffer.length() > 0)
 		{
-			writer.write(" style=\"");
-			writer.write(styleBuffer.toString());
-			writer.write("\"");
+			String styleClass = getCellStyleClass(styleBuffer);
+			if (styleClass == null)
+			{
+				writer.write(" style=\"");
+				writer.write(styleBuffer.toString());
+				writer.write("\"");
+			}
+			else
+			{
+				writer.write(" class=\"");
+				writer.write(styleClass);
+				writer.write("\"");
+			}
+		}
+	}
+	
+	/**
+	 * Returns the CSS class to be used for a cell style, registering it if needed.
+	 * 
+	 * <p>
+	 * New classes are only registered while the first chunk of a page is buffered,
+	 * styles first used further down the page are written inline.
+	 * </p>
+	 * 
+	 * @return the class name, or <code>null</code> if the style is to be written inline
+	 */
+	protected String getCellStyleClass(StringBuilder styleBuffer)
+	{
+		if (cellStyleClasses == null || cellClassWritten)
+		{
+			return null;
+		}
+		
+		String style = styleBuffer.toString();
+		String styleClass = cellStyleClasses.get(style);
+		if (styleClass == null && chunkBuffer != null
+				// character references are not decoded in style sheets
+				&& style.indexOf('&') < 0 && style.indexOf('<') < 0)
+		{
+			// class names only depend on the style so that they are consistent across exports
+			String className = CELL_STYLE_CLASS_PREFIX + Long.toHexString(DigestUtils.instance().md5(style).getLow());
+			// in the unlikely case of a digest collision the style is written inline
+			if (cellStyleClassNames.add(className))
+			{
+				styleClass = className;
+				cellStyleClasses.put(style, styleClass);
+				pendingCellStyleRules.append("  .").append(styleClass).append(" {").append(style).append("}\n");
+			}
 		}
+		return styleClass;
 	}
 	
 	protected void appendElementCellGenericStyle(TableCell cell, StringBuilder styleBuffer)
@@ -84,6 +84,11 @@ public abstract class JRAbstractCsvExporter<RC extends CsvReportConfiguration, C
 	protected ExporterNature nature;
 
 	protected int pageIndex;
+	
+	/**
+	 * Grid cells shared by the layouts of the pages of the current report.
+	 */
+	protected GridLayoutCache gridLayoutCache;
 
 	
 	/**
@@ -132,6 +137,7 @@ public abstract class JRAbstractCsvExporter<RC extends CsvReportConfiguration, C
 		finally
 		{
 			getExporterOutput().close();
+			resetExportContext();
 		}
 	}
 
@@ -160,6 +166,8 @@ public abstract class JRAbstractCsvExporter<RC extends CsvReportConfiguration, C
 			ExporterInputItem item = items.get(reportIndex);
 
 			setCurrentExporterInputItem(item);
+			
+			gridLayoutCache = new GridLayoutCache();
 
 			List<JRPrintPage> pages = jasperPrint.getPages();
 			if (pages != null && pages.size() > 0)
@@ -145,7 +145,8 @@ public class JRCsvExporter extends JRAbstractCsvExporter<CsvReportConfiguration,
 				pageFormat.getPageHeight(), 
 				lcItemConfiguration.getOffsetX() == null ? 0 : lcItemConfiguration.getOffsetX(), 
 				lcItemConfiguration.getOffsetY() == null ? 0 : lcItemConfiguration.getOffsetY(),
-				null //address
+				null, //address
+				gridLayoutCache
 				);
 		
 		Grid grid = layout.getGrid();
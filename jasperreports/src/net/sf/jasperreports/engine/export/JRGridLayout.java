@@ -30,24 +30,23 @@
 package net.sf.jasperreports.engine.export;
 
 import java.awt.Color;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
-
 import net.sf.jasperreports.engine.JRBoxContainer;
 import net.sf.jasperreports.engine.JRLineBox;
 import net.sf.jasperreports.engine.JRPrintElement;
 import net.sf.jasperreports.engine.JRPrintFrame;
 import net.sf.jasperreports.engine.JRPrintPage;
 import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.export.GridLayoutCache.PageGeometry;
+import net.sf.jasperreports.engine.export.GridLayoutCache.PageLayout;
 import net.sf.jasperreports.engine.type.ModeEnum;
 import net.sf.jasperreports.engine.util.JRBoxUtil;
-import net.sf.jasperreports.engine.util.Pair;
 
 /**
  * Utility class used by grid exporters to create a grid for page layout.
@@ -56,14 +55,10 @@ import net.sf.jasperreports.engine.util.Pair;
  */
 public class JRGridLayout
 {
-	private static final Log log = LogFactory.getLog(JRGridLayout.class);
-	
 	private final ExporterNature nature;
 	private final List<JRPrintElement> elementList;
 	
-	private final Map<GridCellSize, GridCellSize> cellSizes;
-	private final Map<GridCellStyle, GridCellStyle> cellStyles;
-	private final Map<Pair<GridCellSize, GridCellStyle>, EmptyGridCell> emptyCells;
+	private final GridLayoutCache cache;
 
 	private int width;
 	private int height;
@@ -130,14 +125,45 @@ public class JRGridLayout
 		int offsetY,
 		CutsInfo xCuts
 		)
+	{
+		this(
+			nature,
+			elements,
+			width,
+			height,
+			offsetX,
+			offsetY,
+			xCuts,
+			null //cache
+			);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param elements the elements that should arranged in a grid
+	 * @param width the width available for the grid
+	 * @param height the height available for the grid
+	 * @param offsetX horizontal element position offset
+	 * @param offsetY vertical element position offset
+	 * @param xCuts An optional list of pre-calculated X cuts.
+	 * @param cache An optional cache of grid cells shared with the layouts of other pages.
+	 */
+	public JRGridLayout(
+		ExporterNature nature,
+		List<JRPrintElement> elements,
+		int width,
+		int height,
+		int offsetX,
+		int offsetY,
+		CutsInfo xCuts,
+		GridLayoutCache cache
+		)
 	{
 		this.nature = nature;
 		this.elementList = elements;
 		
-		// TODO lucianc cache these across report pages?
-		this.cellSizes = new HashMap<>();
-		this.cellStyles = new HashMap<>();
-		this.emptyCells = new HashMap<>();
+		this.cache = cache == null ? new GridLayoutCache() : cache;
 		
 		this.height = height;
 		this.width = width;
@@ -171,9 +197,7 @@ public class JRGridLayout
 		this.nature = parent.nature;
 		this.elementList = parent.elementList;
 		
-		this.cellSizes = parent.cellSizes;
-		this.cellStyles = parent.cellStyles;
-		this.emptyCells = parent.emptyCells;
+		this.cache = parent.cache;
 		
 		this.height = height;
 		this.width = width;
@@ -213,41 +237,52 @@ public class JRGridLayout
 
 		boolean createXCuts = (xCuts == null);
 
-		xCuts = createXCuts ? new CutsInfo() : xCuts;
-		yCuts = nature.isIgnoreLastRow() ? new CutsInfo(0) : new CutsInfo(height);
+		boolean sharedColumns = !createXCuts && !isNested && cache.hasColumnCuts(xCuts);
+		PageGeometry geometry = sharedColumns ? pageGeometry(elements) : null;
+		PageLayout pageLayout = geometry == null ? null : cache.getPageLayout(geometry);
 
-		if(!isNested && nature.isIgnorePageMargins()) //FIXMEXLS left and right margins are not ignored when all pages on a single sheet
+		xCuts = createXCuts ? new CutsInfo() : xCuts;
+		if (pageLayout != null)
 		{
-			// TODO lucianc this is an extra virtualization iteration
-			setMargins(elements);
+			yCuts = pageLayout.createYCuts();
+		}
+		else
+		{
+			yCuts = nature.isIgnoreLastRow() ? new CutsInfo(0) : new CutsInfo(height);
 
-			if(createXCuts)
+			if(!isNested && nature.isIgnorePageMargins()) //FIXMEXLS left and right margins are not ignored when all pages on a single sheet
 			{
-				if(hasLeftMargin)
+				// TODO lucianc this is an extra virtualization iteration
+				setMargins(elements);
+
+				if(createXCuts)
 				{
-					xCuts.removeCutOffset(0);
+					if(hasLeftMargin)
+					{
+						xCuts.removeCutOffset(0);
+					}
 				}
-			}
 
-			if(hasTopMargin)
-			{
-				yCuts.removeCutOffset(0);
-			}
-			if(hasBottomMargin)
-			{
-				yCuts.removeCutOffset(height);
+				if(hasTopMargin)
+				{
+					yCuts.removeCutOffset(0);
+				}
+				if(hasBottomMargin)
+				{
+					yCuts.removeCutOffset(height);
+				}
 			}
-		}
 
-		createCuts(elements, offsetX, offsetY, createXCuts);
+			createCuts(elements, offsetX, offsetY, createXCuts);
 
-		// add a cut at the width if it's a nested grid, or if the right margin
-		// is not to be removed and no element goes beyond the width
-		if (createXCuts && (isNested
-				|| (!(nature.isIgnorePageMargins() && hasRightMargin)
-				&& !(xCuts.hasCuts() && xCuts.getLastCutOffset() >= width))))
-		{
-			xCuts.addCutOffset(width);
+			// add a cut at the width if it's a nested grid, or if the right margin
+			// is not to be removed and no element goes beyond the width
+			if (createXCuts && (isNested
+					|| (!(nature.isIgnorePageMargins() && hasRightMargin)
+					&& !(xCuts.hasCuts() && xCuts.getLastCutOffset() >= width))))
+			{
+				xCuts.addCutOffset(width);
+			}
 		}
 		
 		xCuts.use();
@@ -260,11 +295,18 @@ public class JRGridLayout
 
 		for(int row = 0; row < rowCount; row++)
 		{
+			int rowHeight = yCuts.getCutOffset(row + 1) - yCuts.getCutOffset(row);
+			if (sharedColumns)
+			{
+				grid.setRow(row, cache.getEmptyRow(rowHeight));
+				continue;
+			}
+			
 			for(int col = 0; col < colCount; col++)
 			{
 				GridCellSize size = cellSize(
 					xCuts.getCutOffset(col + 1) - xCuts.getCutOffset(col),
-					yCuts.getCutOffset(row + 1) - yCuts.getCutOffset(row),
+					rowHeight,
 					1,
 					1
 					);
@@ -272,9 +314,23 @@ public class JRGridLayout
 			}
 		}
 
-		setGridElements(parentElementIndex, elements, 
-				offsetX, offsetY,
-				0, 0, rowCount, colCount);
+		if (pageLayout != null)
+		{
+			setPlacedGridElements(elements, pageLayout.getPlacements(), rowCount, colCount);
+		}
+		else if (geometry != null)
+		{
+			int[] placements = setColumnAlignedGridElements(elements, 
+					offsetX, offsetY,
+					rowCount, colCount);
+			cache.putPageLayout(geometry, new PageLayout(yCuts, placements));
+		}
+		else
+		{
+			setGridElements(parentElementIndex, elements, 
+					offsetX, offsetY,
+					0, 0, rowCount, colCount);
+		}
 
 		width = xCuts.getTotalLength();
 		height = yCuts.getTotalLength();
@@ -282,19 +338,7 @@ public class JRGridLayout
 	
 	protected GridCellSize cellSize(int width, int height, int colSpan, int rowSpan)
 	{
-		GridCellSize key = new GridCellSize(width, height, colSpan, rowSpan);
-		GridCellSize size = cellSizes.get(key);
-		if (size == null)
-		{
-			size = key;
-			cellSizes.put(key, size);
-			
-			if (log.isTraceEnabled())
-			{
-				log.trace(this + " added cell size " + size);
-			}
-		}
-		return size;
+		return cache.cellSize(width, height, colSpan, rowSpan);
 	}
 
 	protected void createCuts(List<JRPrintElement> elements, int elementOffsetX, int elementOffsetY, boolean createXCuts)
@@ -408,19 +452,122 @@ public class JRGridLayout
 
 	protected EmptyGridCell emptyCell(GridCellSize size, GridCellStyle style)
 	{
-		Pair<GridCellSize, GridCellStyle> key = new Pair<>(size, style);
-		EmptyGridCell cell = emptyCells.get(key);
-		if (cell == null)
+		return cache.emptyCell(size, style);
+	}
+	
+	/**
+	 * Collects the geometry of the elements of a page if they can be directly mapped to the shared X cuts.
+	 * This is the case when no element needs to be exported as a nested grid and 
+	 * all element edges fall on existing X cuts.
+	 * 
+	 * @return the page geometry, or <code>null</code> if the elements are not aligned to the shared X cuts
+	 */
+	private PageGeometry pageGeometry(List<JRPrintElement> elements)
+	{
+		int[] values = new int[4 + 5 * elements.size()];
+		int count = 0;
+		values[count++] = width;
+		values[count++] = height;
+		values[count++] = offsetX;
+		values[count++] = offsetY;
+		
+		for (ListIterator<JRPrintElement> it = elements.listIterator(); it.hasNext();)
 		{
-			cell = new EmptyGridCell(size, style);
-			emptyCells.put(key, cell);
+			int elementIndex = it.nextIndex();
+			JRPrintElement element = it.next();
 			
-			if (log.isDebugEnabled())
+			if (nature.isToExport(element))
 			{
-				log.debug(this + " created empty cell for " + size + " and " + style);
+				if (element instanceof JRPrintFrame && nature.isDeep((JRPrintFrame) element))
+				{
+					return null;
+				}
+				
+				int x = element.getX() + offsetX;
+				if (cache.getColumnIndex(x) < 0
+					|| cache.getColumnIndex(x + element.getWidth()) < 0)
+				{
+					return null;
+				}
+				
+				values[count++] = elementIndex;
+				values[count++] = x;
+				values[count++] = element.getY() + offsetY;
+				values[count++] = element.getWidth();
+				values[count++] = element.getHeight();
 			}
 		}
-		return cell;
+		return new PageGeometry(count == values.length ? values : Arrays.copyOf(values, count));
+	}
+	
+	/**
+	 * Places the elements of a page aligned to the shared X cuts in the grid.
+	 * 
+	 * @return the placed elements, as groups of element index, start row, start column, end row and end column
+	 */
+	protected int[] setColumnAlignedGridElements(List<JRPrintElement> elements, 
+			int elementOffsetX, int elementOffsetY,
+			int rowCount, int colCount)
+	{
+		int[] placements = new int[5 * elements.size()];
+		int count = 0;
+		
+		for (ListIterator<JRPrintElement> it = elements.listIterator(elements.size()); it.hasPrevious();)
+		{
+			JRPrintElement element = it.previous();
+			int elementIndex = it.nextIndex();
+			
+			if (nature.isToExport(element))
+			{
+				int x = element.getX() + elementOffsetX;
+				int y = element.getY() + elementOffsetY;
+
+				int col1 = cache.getColumnIndex(x);
+				int row1 = yCuts.indexOfCutOffset(y);
+				int col2 = cache.getColumnIndex(x + element.getWidth());
+				int row2 = yCuts.indexOfCutOffset(y + element.getHeight());
+
+				if (!isOverlap(row1, col1, row2, col2))
+				{
+					setGridElement(element, null, elementIndex, row1, col1, row2, col2);
+					
+					placements[count++] = elementIndex;
+					placements[count++] = row1;
+					placements[count++] = col1;
+					placements[count++] = row2;
+					placements[count++] = col2;
+				}
+			}
+		}
+
+		if (nature.isHorizontallyMergeEmptyCells())
+		{
+			horizontallyMergeEmptyCells(0, 0, rowCount, colCount);
+		}
+		
+		return count == placements.length ? placements : Arrays.copyOf(placements, count);
+	}
+	
+	/**
+	 * Places the elements of a page in the grid at positions computed for a previous page
+	 * that had the same geometry.
+	 * 
+	 * @see #setColumnAlignedGridElements(List, int, int, int, int)
+	 */
+	protected void setPlacedGridElements(List<JRPrintElement> elements, int[] placements, 
+			int rowCount, int colCount)
+	{
+		for (int i = 0; i < placements.length; i += 5)
+		{
+			int elementIndex = placements[i];
+			setGridElement(elements.get(elementIndex), null, elementIndex, 
+					placements[i + 1], placements[i + 2], placements[i + 3], placements[i + 4]);
+		}
+
+		if (nature.isHorizontallyMergeEmptyCells())
+		{
+			horizontallyMergeEmptyCells(0, 0, rowCount, colCount);
+		}
 	}
 	
 	protected void horizontallyMergeEmptyCells(int startRow, int startCol, int endRow, int endCol)
@@ -559,24 +706,7 @@ public class JRGridLayout
 	
 	protected GridCellStyle cellStyle(Color backcolor, Color forecolor, JRLineBox box)
 	{
-		if (backcolor == null && forecolor == null && box == null)
-		{
-			return null;
-		}
-
-		GridCellStyle key = new GridCellStyle(backcolor, forecolor, box);
-		GridCellStyle style = cellStyles.get(key);
-		if (style == null)
-		{
-			style = key;
-			cellStyles.put(key, style);
-			
-			if (log.isTraceEnabled())
-			{
-				log.trace(this + " added cell style " + style);
-			}
-		}
-		return style;
+		return cache.cellStyle(backcolor, forecolor, box);
 	}
 
 
@@ -215,6 +215,7 @@ public class JRTextExporter extends JRAbstractExporter<TextReportConfiguration,
 		finally
 		{
 			getExporterOutput().close();
+			resetExportContext();
 		}
 	}
 
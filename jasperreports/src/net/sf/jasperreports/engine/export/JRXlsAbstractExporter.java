@@ -475,6 +475,8 @@ public abstract class JRXlsAbstractExporter<RC extends XlsReportConfiguration, C
 
 			XlsReportConfiguration configuration = getCurrentItemConfiguration();
 			configureDefinedNames(configuration.getDefinedNames());
+			
+			gridLayoutCache = new GridLayoutCache();
 
 			List<JRPrintPage> pages = jasperPrint.getPages();
 			if (pages != null && pages.size() > 0)
@@ -509,6 +511,7 @@ public abstract class JRXlsAbstractExporter<RC extends XlsReportConfiguration, C
 							getNature(), jasperPrint, startPageIndex, endPageIndex,
 							configuration.getOffsetX() == null ? 0 : configuration.getOffsetX() 
 							);
+					gridLayoutCache.setColumnCuts(xCuts);
 					
 					//clear the filter's internal cache that might have built up
 					if (filter instanceof ResetableExporterFilter)
@@ -559,7 +562,8 @@ public abstract class JRXlsAbstractExporter<RC extends XlsReportConfiguration, C
 				pageFormat.getPageHeight(),
 				configuration.getOffsetX() == null ? 0 : configuration.getOffsetX(), 
 				configuration.getOffsetY() == null ? 0 : configuration.getOffsetY(),
-				xCuts
+				xCuts,
+				gridLayoutCache
 				);
 
 		Grid grid = layout.getGrid();
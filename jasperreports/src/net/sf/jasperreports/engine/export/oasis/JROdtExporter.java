@@ -76,6 +76,7 @@ import net.sf.jasperreports.engine.export.JRGridLayout;
 import net.sf.jasperreports.engine.export.JRHyperlinkProducer;
 import net.sf.jasperreports.engine.export.JRXmlExporter;
 import net.sf.jasperreports.engine.export.LengthUtil;
+import net.sf.jasperreports.engine.export.zip.AbstractZip;
 import net.sf.jasperreports.engine.export.zip.ExportZipEntry;
 import net.sf.jasperreports.engine.export.zip.FileBufferedZipEntry;
 import net.sf.jasperreports.engine.type.ModeEnum;
@@ -352,6 +353,7 @@ public class JROdtExporter extends JRAbstractExporter<OdtReportConfiguration, Od
 	protected void exportReportToOasisZip(OutputStream os) throws JRException, IOException
 	{
 		OasisZip oasisZip = new OdtZip();
+		oasisZip.setDeflateThreads(getPropertiesUtil().getIntegerProperty(jasperPrint, AbstractZip.PROPERTY_DEFLATE_THREADS, 0));
 
 		ExportZipEntry tempBodyEntry = new FileBufferedZipEntry(null);
 		ExportZipEntry tempStyleEntry = new FileBufferedZipEntry(null);
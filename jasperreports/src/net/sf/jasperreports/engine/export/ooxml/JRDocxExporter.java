@@ -80,6 +80,7 @@ import net.sf.jasperreports.engine.export.JRHyperlinkProducer;
 import net.sf.jasperreports.engine.export.JRXmlExporter;
 import net.sf.jasperreports.engine.export.LengthUtil;
 import net.sf.jasperreports.engine.export.OccupiedGridCell;
+import net.sf.jasperreports.engine.export.zip.AbstractZip;
 import net.sf.jasperreports.engine.export.zip.FileBufferedZipEntry;
 import net.sf.jasperreports.engine.type.HorizontalTextAlignEnum;
 import net.sf.jasperreports.engine.type.HyperlinkTypeEnum;
@@ -361,6 +362,7 @@ public class JRDocxExporter extends JRAbstractExporter<DocxReportConfiguration,
 	protected void exportReportToStream(OutputStream os) throws JRException, IOException
 	{
 		docxZip = new DocxZip();
+		docxZip.setDeflateThreads(getPropertiesUtil().getIntegerProperty(jasperPrint, AbstractZip.PROPERTY_DEFLATE_THREADS, 0));
 
 		docWriter = docxZip.getDocumentEntry().getWriter();
 		
@@ -82,6 +82,7 @@ import net.sf.jasperreports.engine.export.JRXmlExporter;
 import net.sf.jasperreports.engine.export.LengthUtil;
 import net.sf.jasperreports.engine.export.OccupiedGridCell;
 import net.sf.jasperreports.engine.export.ooxml.type.PptxFieldTypeEnum;
+import net.sf.jasperreports.engine.export.zip.AbstractZip;
 import net.sf.jasperreports.engine.export.zip.ExportZipEntry;
 import net.sf.jasperreports.engine.export.zip.FileBufferedZipEntry;
 import net.sf.jasperreports.engine.type.BandTypeEnum;
@@ -370,6 +371,7 @@ public class JRPptxExporter extends JRAbstractExporter<PptxReportConfiguration,
 	protected void exportReportToStream(OutputStream os) throws JRException, IOException
 	{
 		pptxZip = new PptxZip();
+		pptxZip.setDeflateThreads(getPropertiesUtil().getIntegerProperty(jasperPrint, AbstractZip.PROPERTY_DEFLATE_THREADS, 0));
 		PptxExporterConfiguration configuration = getCurrentConfiguration();
 
 		presentationWriter = pptxZip.getPresentationEntry().getWriter();
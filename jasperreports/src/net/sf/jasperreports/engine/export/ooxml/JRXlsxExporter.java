@@ -82,6 +82,7 @@ import net.sf.jasperreports.engine.export.data.StringTextValue;
 import net.sf.jasperreports.engine.export.data.TextValue;
 import net.sf.jasperreports.engine.export.data.TextValueHandler;
 import net.sf.jasperreports.engine.export.type.ImageAnchorTypeEnum;
+import net.sf.jasperreports.engine.export.zip.AbstractZip;
 import net.sf.jasperreports.engine.export.zip.ExportZipEntry;
 import net.sf.jasperreports.engine.export.zip.FileBufferedZipEntry;
 import net.sf.jasperreports.engine.type.HyperlinkTypeEnum;
@@ -1667,6 +1668,19 @@ public class JRXlsxExporter extends JRXlsAbstractExporter<XlsxReportConfiguratio
 	}
 
 
+	@Override
+	protected void resetExportContext()
+	{
+		super.resetExportContext();
+		
+		if (sharedStringsHelper != null)
+		{
+			// the helper is not closed when the export fails
+			sharedStringsHelper.dispose();
+			sharedStringsHelper = null;
+		}
+	}
+
 	@Override
 	protected void openWorkbook(OutputStream os) throws JRException 
 	{
@@ -1680,6 +1694,8 @@ public class JRXlsxExporter extends JRXlsAbstractExporter<XlsxReportConfiguratio
 			String memoryThreshold = jasperPrint.getPropertiesMap().getProperty(FileBufferedOutputStream.PROPERTY_MEMORY_THRESHOLD);
 			xlsxZip = new XlsxZip(jasperReportsContext, getRepository(), 
 					memoryThreshold == null ? null : JRPropertiesUtil.asInteger(memoryThreshold));
+			xlsxZip.setDeflateThreads(getPropertiesUtil().getIntegerProperty(jasperPrint, AbstractZip.PROPERTY_DEFLATE_THREADS, 0));
+			xlsxZip.setZip64StreamingEntries(getPropertiesUtil().getBooleanProperty(jasperPrint, AbstractZip.PROPERTY_ZIP64_STREAMING_ENTRIES, false));
 
 			wbHelper = new XlsxWorkbookHelper(jasperReportsContext, xlsxZip.getWorkbookEntry().getWriter(), definedNames);
 			wbHelper.exportHeader();
@@ -1692,6 +1708,15 @@ public class JRXlsxExporter extends JRXlsAbstractExporter<XlsxReportConfiguratio
 			
 			XlsxExporterConfiguration configuration = getCurrentConfiguration();
 			
+			String password = configuration.getEncryptionPassword();
+			if (
+				Boolean.TRUE.equals(configuration.isStreamingSheets())
+				&& (password == null || password.trim().length() == 0)
+				)
+			{
+				xlsxZip.startStreaming(os);
+			}
+			
 			String macro = macroTemplate == null ? configuration.getMacroTemplate() : macroTemplate;
 			if(macro != null)
 			{
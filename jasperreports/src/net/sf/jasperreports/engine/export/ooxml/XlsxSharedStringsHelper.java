@@ -24,11 +24,13 @@
 package net.sf.jasperreports.engine.export.ooxml;
 
 import java.io.Writer;
-import java.util.Map;
-
-import org.apache.commons.collections4.map.ReferenceMap;
 
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.util.FileBufferedStringIndex;
+import net.sf.jasperreports.properties.PropertyConstants;
 
 
 /**
@@ -36,8 +38,25 @@ import net.sf.jasperreports.engine.JasperReportsContext;
  */
 public class XlsxSharedStringsHelper extends BaseHelper
 {
-	private int count = 0;
-	private Map<String, Integer> sharedStrings = new ReferenceMap<>(ReferenceMap.ReferenceStrength.SOFT, ReferenceMap.ReferenceStrength.HARD);
+	/**
+	 * Specifies the number of distinct shared strings kept in memory by the XLSX exporter.
+	 * When the limit is reached, the shared strings table is moved to a memory-mapped temporary file,
+	 * so that the heap usage does not grow with the number of distinct strings in the workbook.
+	 * A negative value keeps the whole table in memory.
+	 * 
+	 * @see FileBufferedStringIndex
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "100000",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_MEMORY_THRESHOLD = JRPropertiesUtil.PROPERTY_PREFIX + "export.xlsx.shared.strings.memory.threshold";
+	public static final int DEFAULT_MEMORY_THRESHOLD = 100000;
+	
+	private final FileBufferedStringIndex sharedStrings;
 	
 	/**
 	 * 
@@ -49,6 +68,10 @@ public class XlsxSharedStringsHelper extends BaseHelper
 		)
 	{
 		super(jasperReportsContext, writer);
+		
+		int memoryThreshold = JRPropertiesUtil.getInstance(jasperReportsContext).getIntegerProperty(
+				PROPERTY_MEMORY_THRESHOLD, DEFAULT_MEMORY_THRESHOLD);
+		sharedStrings = new FileBufferedStringIndex(memoryThreshold);
 	}
 
 	/**
@@ -65,15 +88,14 @@ public class XlsxSharedStringsHelper extends BaseHelper
 	 */
 	public int export(String value)
 	{
-		Integer index = sharedStrings.get(value);
-		if (index == null)
+		int index = sharedStrings.indexOf(value);
+		if (index < 0)
 		{
 			write("<si>");
 			write(value);
 			write("</si>\n");
 
-			index = count++;
-			sharedStrings.put(value, index);
+			index = sharedStrings.add(value);
 		}
 		return index;
 	}
@@ -85,4 +107,26 @@ public class XlsxSharedStringsHelper extends BaseHelper
 	{
 		write("</sst>");
 	}
+	
+	@Override
+	public void close()
+	{
+		try
+		{
+			super.close();
+		}
+		finally
+		{
+			dispose();
+		}
+	}
+	
+	/**
+	 * Releases the shared strings table, including its temporary files. 
+	 * This is also done by {@link #close()}, but needs to be called explicitly when the export fails.
+	 */
+	public void dispose()
+	{
+		sharedStrings.dispose();
+	}
 }
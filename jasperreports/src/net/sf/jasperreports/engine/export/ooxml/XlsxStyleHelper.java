@@ -26,11 +26,15 @@ package net.sf.jasperreports.engine.export.ooxml;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
 import net.sf.jasperreports.engine.JRLineBox;
 import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JRStyle;
 import net.sf.jasperreports.engine.JasperReportsContext;
@@ -40,6 +44,7 @@ import net.sf.jasperreports.engine.type.LineDirectionEnum;
 import net.sf.jasperreports.engine.type.RotationEnum;
 import net.sf.jasperreports.engine.util.FileBufferedWriter;
 import net.sf.jasperreports.export.XlsReportConfiguration;
+import net.sf.jasperreports.properties.PropertyConstants;
 
 
 /**
@@ -47,6 +52,24 @@ import net.sf.jasperreports.export.XlsReportConfiguration;
  */
 public class XlsxStyleHelper extends BaseHelper
 {
+	/**
+	 * Specifies the maximum number of distinct cell styles that the XLSX exporter keeps in memory 
+	 * in order to reuse them for cells having the same formatting.
+	 * When the limit is reached, the least recently used styles are discarded and written again in the workbook
+	 * if subsequently needed, which keeps the memory used by the exporter bounded 
+	 * at the cost of duplicate cell formats in the workbook.
+	 * A negative value, which is the default, means that the style cache is not limited.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "-1",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_STYLE_CACHE_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "export.xlsx.style.cache.size";
+	public static final int DEFAULT_STYLE_CACHE_SIZE = -1;
+	
 	/**
 	 * 
 	 */
@@ -56,7 +79,8 @@ public class XlsxStyleHelper extends BaseHelper
 	private FileBufferedWriter bordersWriter = new FileBufferedWriter();
 	private FileBufferedWriter cellXfsWriter = new FileBufferedWriter();
 	
-	private Map<XlsxStyleInfo, Integer> styleCache = new HashMap<>();//FIXMEXLSX use soft cache? check other exporter caches as well
+	private final Map<XlsxStyleInfo, Integer> styleCache;
+	private int styleCount;
 	
 	private XlsxFormatHelper formatHelper;
 	private XlsxFontHelper fontHelper;
@@ -76,6 +100,27 @@ public class XlsxStyleHelper extends BaseHelper
 		formatHelper = new XlsxFormatHelper(jasperReportsContext, formatsWriter);
 		fontHelper = new XlsxFontHelper(jasperReportsContext, fontsWriter, exporterKey);
 		borderHelper = new XlsxBorderHelper(jasperReportsContext ,bordersWriter);
+		
+		final int styleCacheSize = JRPropertiesUtil.getInstance(jasperReportsContext).getIntegerProperty(
+				PROPERTY_STYLE_CACHE_SIZE, DEFAULT_STYLE_CACHE_SIZE);
+		if (styleCacheSize < 0)
+		{
+			styleCache = new HashMap<>();
+		}
+		else
+		{
+			// creating a LRU map
+			styleCache = new LinkedHashMap<XlsxStyleInfo, Integer>(64, 0.75f, true)
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<XlsxStyleInfo, Integer> eldest)
+				{
+					return size() > styleCacheSize;
+				}
+			};
+		}
 	}
 	
 	
@@ -122,14 +167,7 @@ public class XlsxStyleHelper extends BaseHelper
 				sheetInfo,
 				direction
 				);
-		Integer styleIndex = styleCache.get(styleInfo);
-		if (styleIndex == null)
-		{
-			styleIndex = styleCache.size() + 1;
-			exportCellStyle(styleInfo, styleIndex, sheetInfo);
-			styleCache.put(styleInfo, styleIndex);
-		}
-		return styleIndex;
+		return getStyleIndex(styleInfo, sheetInfo);
 	}
 
 	public int getCellStyle(
@@ -163,14 +201,7 @@ public class XlsxStyleHelper extends BaseHelper
 						direction,
 						parentStyle
 						);
-		Integer styleIndex = styleCache.get(styleInfo);
-		if (styleIndex == null)
-		{
-			styleIndex = styleCache.size() + 1;
-			exportCellStyle(styleInfo, styleIndex, sheetInfo);
-			styleCache.put(styleInfo, styleIndex);
-		}
-		return styleIndex;
+		return getStyleIndex(styleInfo, sheetInfo);
 	}
 	
 	public int getCellStyle(
@@ -202,10 +233,19 @@ public class XlsxStyleHelper extends BaseHelper
 						sheetInfo,
 						direction
 						);
+		return getStyleIndex(styleInfo, sheetInfo);
+	}
+	
+	/**
+	 * 
+	 */
+	protected int getStyleIndex(XlsxStyleInfo styleInfo, JRXlsAbstractExporter.SheetInfo sheetInfo)
+	{
 		Integer styleIndex = styleCache.get(styleInfo);
 		if (styleIndex == null)
 		{
-			styleIndex = styleCache.size() + 1;
+			// styles evicted from the cache are written again under a new index
+			styleIndex = ++styleCount;
 			exportCellStyle(styleInfo, styleIndex, sheetInfo);
 			styleCache.put(styleInfo, styleIndex);
 		}
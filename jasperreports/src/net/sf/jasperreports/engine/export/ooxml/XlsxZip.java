@@ -158,11 +158,11 @@ public class XlsxZip extends FileBufferedZip
 	}
 	
 	/**
-	 * 
+	 * Adds a sheet entry, which is written directly to the output if the zip is {@link #isStreaming() streaming}.
 	 */
 	public ExportZipEntry addSheet(int index)
 	{
-		return createEntry("xl/worksheets/sheet" + index + ".xml");
+		return createStreamingEntry("xl/worksheets/sheet" + index + ".xml");
 	}
 	
 	/**
@@ -27,20 +27,85 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.properties.PropertyConstants;
+
 
 /**
  * @author Teodor Danciu (teodord@users.sourceforge.net)
  */
 public abstract class AbstractZip
 {
+	public static final String EXCEPTION_MESSAGE_KEY_STREAMING_OUTPUT_MISMATCH = "export.zip.streaming.output.mismatch";
+	
+	/**
+	 * Property that specifies the number of threads used to compress the entries of the zip 
+	 * archives produced by the DOCX, XLSX, PPTX, ODT and ODS exporters.
+	 * <p>
+	 * When set to a positive value, the entries are compressed in blocks, in parallel, while they are being written,
+	 * and the compressed data is copied as is into the archive at the end of the export.
+	 * The compression threads are shared by all exports, their number is the largest value requested by an export.
+	 * By default, the entries are compressed sequentially when the archive is written.
+	 * 
+	 * @see #setDeflateThreads(int)
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_DEFLATE_THREADS = JRPropertiesUtil.PROPERTY_PREFIX + "export.zip.deflate.threads";
+
+	/**
+	 * Flag property that specifies whether the entries that are written directly to the output of a streaming zip,
+	 * such as the XLSX worksheets, declare zip64 sizes in their local headers.
+	 * <p>
+	 * The sizes of such entries are not known when their local headers are written.
+	 * Declaring zip64 sizes is required for entries larger than 4 GB to be read by strict zip readers, 
+	 * but older readers such as <code>java.util.zip.ZipInputStream</code> before Java 21 cannot read such entries at all.
+	 * By default, the local headers are standard and only the data descriptors of the entries larger than 4 GB
+	 * contain zip64 sizes.
+	 * 
+	 * @see #setZip64StreamingEntries(boolean)
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_ZIP64_STREAMING_ENTRIES = JRPropertiesUtil.PROPERTY_PREFIX + "export.zip.streaming.entries.zip64";
 
 	/**
 	 * 
 	 */
 	protected Map<String, ExportZipEntry> exportZipEntries = new HashMap<>();
+	
+	private OutputStream streamingOutputStream;
+	private ZipOutputStream streamingZipOutputStream;
+	private StreamingZipEntry openStreamingEntry;
+	
+	private static final long DEFLATE_THREAD_KEEP_ALIVE_SECONDS = 30;
+	
+	private static ThreadPoolExecutor sharedDeflateExecutor;
+	
+	private ExecutorService deflateExecutor;
+	private ZipArchiveOutput streamingArchiveOutput;
+	private boolean zip64StreamingEntries;
 
 	/**
 	 *
@@ -56,13 +121,195 @@ public abstract class AbstractZip
 		exportZipEntries.put(entry.getName(), entry);
 	}
 	
+	/**
+	 * Starts writing the zip to the final output before all entries are produced.
+	 * <p>
+	 * After this call, entries created by {@link #createStreamingEntry(String)} are deflated directly into the output
+	 * as they are being written, while the other entries are buffered and written by {@link #zipEntries(OutputStream)}
+	 * on the same output stream.
+	 */
+	public void startStreaming(OutputStream os)
+	{
+		streamingOutputStream = os;
+		if (deflateExecutor == null && !zip64StreamingEntries)
+		{
+			streamingZipOutputStream = new ZipOutputStream(os);
+			streamingZipOutputStream.setMethod(ZipOutputStream.DEFLATED);
+		}
+		else
+		{
+			streamingArchiveOutput = new ZipArchiveOutput(os, deflateExecutor);
+		}
+	}
+	
+	/**
+	 *
+	 */
+	public boolean isStreaming()
+	{
+		return streamingZipOutputStream != null || streamingArchiveOutput != null;
+	}
+	
+	/**
+	 * Sets the number of threads used to compress the zip entries.
+	 * <p>
+	 * When the number is positive, the entries subsequently created by {@link #createEntry(String)} are
+	 * {@link DeflatedZipEntry compressed while being written}.
+	 * The compression threads are shared by all zips, 
+	 * the shared pool is grown to the number of threads if it is smaller.
+	 * This method is to be called before creating the entries and before {@link #startStreaming(OutputStream)}.
+	 * 
+	 * @see #PROPERTY_DEFLATE_THREADS
+	 */
+	public void setDeflateThreads(int threads)
+	{
+		deflateExecutor = threads > 0 ? getSharedDeflateExecutor(threads) : null;
+	}
+	
+	/**
+	 * Specifies whether the entries created by {@link #createStreamingEntry(String)} declare zip64 sizes in their local headers.
+	 * <p>
+	 * This method is to be called before {@link #startStreaming(OutputStream)}.
+	 * 
+	 * @see #PROPERTY_ZIP64_STREAMING_ENTRIES
+	 */
+	public void setZip64StreamingEntries(boolean zip64StreamingEntries)
+	{
+		this.zip64StreamingEntries = zip64StreamingEntries;
+	}
+	
+	/**
+	 * Returns the executor shared by all zips for compressing entries, making sure that it has at least the given number of threads.
+	 * <p>
+	 * The threads are daemon threads that stop when idle, so the executor is never shut down.
+	 */
+	protected static synchronized ExecutorService getSharedDeflateExecutor(int threads)
+	{
+		if (sharedDeflateExecutor == null)
+		{
+			AtomicInteger threadCount = new AtomicInteger();
+			ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 
+					DEFLATE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), 
+					runnable ->
+					{
+						Thread thread = new Thread(runnable, "JasperReports zip deflate #" + threadCount.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+			executor.allowCoreThreadTimeOut(true);
+			sharedDeflateExecutor = executor;
+		}
+		else if (sharedDeflateExecutor.getMaximumPoolSize() < threads)
+		{
+			// the maximum size is increased first, it cannot be smaller than the core size
+			sharedDeflateExecutor.setMaximumPoolSize(threads);
+			sharedDeflateExecutor.setCorePoolSize(threads);
+		}
+		return sharedDeflateExecutor;
+	}
+	
+	/**
+	 * Returns the executor used to compress entries in parallel, 
+	 * or <code>null</code> if the entries are compressed when the zip is written.
+	 */
+	protected ExecutorService getDeflateExecutor()
+	{
+		return deflateExecutor;
+	}
+	
+	/**
+	 * Creates an entry whose content is written directly to the zip output when the zip is {@link #isStreaming() streaming}.
+	 * <p>
+	 * Only one streaming entry can be open at a time, the entry is closed when its writer or output stream is closed.
+	 * If the zip is not streaming or if another streaming entry is still open, a regular buffered entry is created instead.
+	 */
+	public ExportZipEntry createStreamingEntry(String name)
+	{
+		if (!isStreaming() || openStreamingEntry != null)
+		{
+			return createEntry(name);
+		}
+		
+		OutputStream entryOutputStream;
+		try
+		{
+			if (streamingArchiveOutput == null)
+			{
+				streamingZipOutputStream.putNextEntry(new ZipEntry(name));
+				entryOutputStream = streamingZipOutputStream;
+			}
+			else
+			{
+				entryOutputStream = streamingArchiveOutput.startEntry(name, zip64StreamingEntries);
+			}
+		}
+		catch (IOException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+		
+		openStreamingEntry = new StreamingZipEntry(this, name, entryOutputStream);
+		return openStreamingEntry;
+	}
+	
+	/**
+	 *
+	 */
+	protected void closeStreamingEntry(StreamingZipEntry entry) throws IOException
+	{
+		if (entry == openStreamingEntry)
+		{
+			if (streamingArchiveOutput == null)
+			{
+				streamingZipOutputStream.closeEntry();
+			}
+			else
+			{
+				streamingArchiveOutput.closeEntry();
+			}
+			openStreamingEntry = null;
+		}
+	}
+	
 	/**
 	 *
 	 */
 	public void zipEntries(OutputStream os) throws IOException
 	{
-		ZipOutputStream zipos = new ZipOutputStream(os);
-		zipos.setMethod(ZipOutputStream.DEFLATED);
+		if (isStreaming())
+		{
+			if (os != streamingOutputStream)
+			{
+				throw 
+					new JRRuntimeException(
+						EXCEPTION_MESSAGE_KEY_STREAMING_OUTPUT_MISMATCH,
+						(Object[])null);
+			}
+			
+			if (openStreamingEntry != null)
+			{
+				openStreamingEntry.close();
+			}
+		}
+		
+		if (deflateExecutor != null || streamingArchiveOutput != null)
+		{
+			ZipArchiveOutput archiveOutput = streamingArchiveOutput == null 
+					? new ZipArchiveOutput(os, deflateExecutor) : streamingArchiveOutput;
+			zipEntries(archiveOutput);
+			return;
+		}
+		
+		ZipOutputStream zipos;
+		if (streamingZipOutputStream == null)
+		{
+			zipos = new ZipOutputStream(os);
+			zipos.setMethod(ZipOutputStream.DEFLATED);
+		}
+		else
+		{
+			zipos = streamingZipOutputStream;
+		}
 		
 		for (ExportZipEntry exportZipEntry : exportZipEntries.values()) 
 		{
@@ -75,6 +322,28 @@ public abstract class AbstractZip
 		zipos.finish();
 	}
 	
+	/**
+	 * Writes the entries copying the data of the entries that are already compressed.
+	 */
+	protected void zipEntries(ZipArchiveOutput archiveOutput) throws IOException
+	{
+		for (ExportZipEntry exportZipEntry : exportZipEntries.values()) 
+		{
+			if (exportZipEntry instanceof DeflatedZipEntry)
+			{
+				archiveOutput.writeDeflatedEntry((DeflatedZipEntry) exportZipEntry);
+			}
+			else
+			{
+				OutputStream entryOutputStream = archiveOutput.startEntry(exportZipEntry.getName());
+				exportZipEntry.writeData(entryOutputStream);
+				archiveOutput.closeEntry();
+			}
+		}
+		
+		archiveOutput.finish();
+	}
+	
 	/**
 	 *
 	 */
@@ -0,0 +1,296 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+
+/**
+ * Output stream that produces raw deflate data by compressing fixed size blocks independently.
+ * <p>
+ * Each block is compressed by a separate {@link Deflater} that uses the last 32K of the previous
+ * block as preset dictionary, and is terminated with a sync flush so that the compressed blocks
+ * can be concatenated into a single deflate stream. 
+ * When an executor is provided, the blocks are compressed in parallel while the content is still
+ * being written, and the compressed blocks are written to the target stream in order.
+ */
+public class BlockDeflaterOutputStream extends OutputStream
+{
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 17;
+	
+	protected static final int DICTIONARY_SIZE = 1 << 15;
+	
+	private final OutputStream out;
+	private final ExecutorService executor;
+	private final int blockSize;
+	private final int maxPendingBlocks;
+	
+	private final CRC32 crc = new CRC32();
+	private final ArrayDeque<Future<byte[]>> pendingBlocks = new ArrayDeque<>();
+	
+	private byte[] block;
+	private int blockLength;
+	private byte[] previousBlock;
+	private long size;
+	private long compressedSize;
+	private boolean finished;
+
+	/**
+	 * @param out the stream that receives the deflate data
+	 * @param executor the executor used to compress blocks in parallel, 
+	 * if <code>null</code> the blocks are compressed in the current thread
+	 */
+	public BlockDeflaterOutputStream(OutputStream out, ExecutorService executor)
+	{
+		this(out, executor, DEFAULT_BLOCK_SIZE, 2 * Runtime.getRuntime().availableProcessors());
+	}
+
+	public BlockDeflaterOutputStream(OutputStream out, ExecutorService executor, int blockSize, int maxPendingBlocks)
+	{
+		this.out = out;
+		this.executor = executor;
+		this.blockSize = blockSize;
+		this.maxPendingBlocks = Math.max(maxPendingBlocks, 1);
+		this.block = new byte[blockSize];
+	}
+
+	@Override
+	public void write(int b) throws IOException
+	{
+		ensureOpen();
+		
+		if (blockLength == blockSize)
+		{
+			submitBlock(false);
+		}
+		block[blockLength++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		ensureOpen();
+		
+		while (len > 0)
+		{
+			if (blockLength == blockSize)
+			{
+				submitBlock(false);
+			}
+			
+			int count = Math.min(len, blockSize - blockLength);
+			System.arraycopy(b, off, block, blockLength, count);
+			blockLength += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	/**
+	 * Compresses the remaining content and writes all the compressed data to the target stream,
+	 * without closing it.
+	 */
+	public void finish() throws IOException
+	{
+		if (finished)
+		{
+			return;
+		}
+		
+		submitBlock(true);
+		while (!pendingBlocks.isEmpty())
+		{
+			writeFirstPendingBlock();
+		}
+		finished = true;
+	}
+
+	/**
+	 * Finishes the deflate data, the target stream is not closed.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		finish();
+	}
+	
+	/**
+	 * Discards the blocks that are still being compressed.
+	 */
+	public void dispose()
+	{
+		for (Future<byte[]> pendingBlock : pendingBlocks)
+		{
+			pendingBlock.cancel(false);
+		}
+		pendingBlocks.clear();
+		finished = true;
+	}
+
+	public boolean isFinished()
+	{
+		return finished;
+	}
+
+	/**
+	 * Returns the CRC-32 of the uncompressed content written so far.
+	 */
+	public long getCrc()
+	{
+		return crc.getValue();
+	}
+
+	/**
+	 * Returns the size of the uncompressed content written so far.
+	 */
+	public long getSize()
+	{
+		return size;
+	}
+
+	/**
+	 * Returns the number of compressed bytes written to the target stream.
+	 */
+	public long getCompressedSize()
+	{
+		return compressedSize;
+	}
+	
+	protected void ensureOpen() throws IOException
+	{
+		if (finished)
+		{
+			throw new IOException("Deflater stream already finished");
+		}
+	}
+
+	protected void submitBlock(boolean last) throws IOException
+	{
+		byte[] data = block;
+		int length = blockLength;
+		byte[] dictionary = previousBlock;
+		
+		crc.update(data, 0, length);
+		size += length;
+		
+		Callable<byte[]> task = () -> deflate(data, length, dictionary, last);
+		Future<byte[]> compressedBlock;
+		if (executor == null)
+		{
+			FutureTask<byte[]> futureTask = new FutureTask<>(task);
+			futureTask.run();
+			compressedBlock = futureTask;
+		}
+		else
+		{
+			compressedBlock = executor.submit(task);
+		}
+		pendingBlocks.add(compressedBlock);
+		
+		// the submitted block is no longer modified, it is used as dictionary for the next block
+		previousBlock = data;
+		block = last ? null : new byte[blockSize];
+		blockLength = 0;
+		
+		while (!pendingBlocks.isEmpty() 
+				&& (pendingBlocks.size() > maxPendingBlocks || pendingBlocks.peek().isDone()))
+		{
+			writeFirstPendingBlock();
+		}
+	}
+	
+	protected void writeFirstPendingBlock() throws IOException
+	{
+		byte[] compressedData;
+		try
+		{
+			compressedData = pendingBlocks.peek().get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+		catch (ExecutionException e)
+		{
+			throw new IOException(e.getCause());
+		}
+		
+		pendingBlocks.remove();
+		out.write(compressedData);
+		compressedSize += compressedData.length;
+	}
+
+	protected static byte[] deflate(byte[] data, int length, byte[] dictionary, boolean last)
+	{
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try
+		{
+			if (dictionary != null)
+			{
+				int dictionaryLength = Math.min(dictionary.length, DICTIONARY_SIZE);
+				deflater.setDictionary(dictionary, dictionary.length - dictionaryLength, dictionaryLength);
+			}
+			deflater.setInput(data, 0, length);
+			
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(length / 4, 64));
+			byte[] buffer = new byte[1 << 14];
+			if (last)
+			{
+				deflater.finish();
+				while (!deflater.finished())
+				{
+					int count = deflater.deflate(buffer);
+					compressed.write(buffer, 0, count);
+				}
+			}
+			else
+			{
+				int count;
+				do
+				{
+					count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+					compressed.write(buffer, 0, count);
+				}
+				while (count == buffer.length);
+			}
+			return compressed.toByteArray();
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+}
@@ -0,0 +1,167 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export.zip;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import net.sf.jasperreports.engine.util.FileBufferedOutputStream;
+
+
+/**
+ * Zip entry whose content is compressed while it is being written.
+ * <p>
+ * The content is deflated in blocks by a {@link BlockDeflaterOutputStream}, possibly in parallel,
+ * and only the compressed data is buffered, so that the entry can be copied as is in the zip.
+ * 
+ * @see AbstractZip#setDeflateThreads(int)
+ */
+public class DeflatedZipEntry implements ExportZipEntry 
+{
+	/**
+	 * 
+	 */
+	private final String name;
+	private final FileBufferedOutputStream compressedData;
+	private final BlockDeflaterOutputStream deflaterStream;
+	private Writer writer;
+	
+	/**
+	 * 
+	 */
+	public DeflatedZipEntry(String name, Integer memoryThreshold, ExecutorService executor)
+	{
+		this.name = name;
+		this.compressedData = memoryThreshold == null ? new FileBufferedOutputStream() : new FileBufferedOutputStream(memoryThreshold);
+		this.deflaterStream = new BlockDeflaterOutputStream(compressedData, executor);
+	}
+	
+	@Override
+	public String getName()
+	{
+		return name;
+	}
+	
+	@Override
+	public Writer getWriter()
+	{
+		if (writer == null)
+		{
+			writer = new BufferedWriter(new OutputStreamWriter(deflaterStream, StandardCharsets.UTF_8));
+		}
+		
+		return writer;
+	}
+
+	@Override
+	public OutputStream getOutputStream()
+	{
+		return deflaterStream;
+	}
+	
+	/**
+	 * Compresses the remaining content of the entry.
+	 */
+	public void finish() throws IOException
+	{
+		if (writer != null && !deflaterStream.isFinished())
+		{
+			writer.flush();
+		}
+		deflaterStream.finish();
+	}
+
+	/**
+	 * Returns the CRC-32 of the uncompressed content, to be called after {@link #finish()}.
+	 */
+	public long getCrc()
+	{
+		return deflaterStream.getCrc();
+	}
+
+	/**
+	 * Returns the size of the uncompressed content, to be called after {@link #finish()}.
+	 */
+	public long getSize()
+	{
+		return deflaterStream.getSize();
+	}
+
+	/**
+	 * Returns the size of the compressed content, to be called after {@link #finish()}.
+	 */
+	public long getCompressedSize()
+	{
+		return deflaterStream.getCompressedSize();
+	}
+
+	/**
+	 * Writes the raw deflate data of the entry.
+	 */
+	public void writeCompressedData(OutputStream os) throws IOException
+	{
+		finish();
+		compressedData.writeData(os);
+	}
+
+	/**
+	 * Writes the uncompressed content of the entry.
+	 */
+	@Override
+	public void writeData(OutputStream os) throws IOException
+	{
+		finish();
+		
+		Inflater inflater = new Inflater(true);
+		try (InputStream is = new InflaterInputStream(compressedData.getDataInputStream(), inflater))
+		{
+			byte[] buffer = new byte[FileBufferedOutputStream.DEFAULT_INPUT_BUFFER_LENGTH];
+			int read;
+			while ((read = is.read(buffer)) > 0)
+			{
+				os.write(buffer, 0, read);
+			}
+		}
+		finally
+		{
+			inflater.end();
+		}
+	}
+
+	@Override
+	public void dispose()
+	{
+		deflaterStream.dispose();
+		compressedData.dispose();
+	}
+	
+}
@@ -57,7 +57,15 @@ public class FileBufferedZip extends AbstractZip
 	@Override
 	public ExportZipEntry createEntry(String name)
 	{
-		ExportZipEntry entry = memoryThreshold == null ? new FileBufferedZipEntry(name) : new FileBufferedZipEntry(name, memoryThreshold);
+		ExportZipEntry entry;
+		if (getDeflateExecutor() != null)
+		{
+			entry = new DeflatedZipEntry(name, memoryThreshold, getDeflateExecutor());
+		}
+		else
+		{
+			entry = memoryThreshold == null ? new FileBufferedZipEntry(name) : new FileBufferedZipEntry(name, memoryThreshold);
+		}
 
 		addEntry(entry);
 		
@@ -0,0 +1,150 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export.zip;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+
+
+/**
+ * Zip entry that is deflated directly into the zip output while it is being written.
+ * 
+ * @see AbstractZip#createStreamingEntry(String)
+ */
+public class StreamingZipEntry implements ExportZipEntry 
+{
+	public static final String EXCEPTION_MESSAGE_KEY_ENTRY_ALREADY_WRITTEN = "export.zip.streaming.entry.already.written";
+	
+	/**
+	 * 
+	 */
+	private final AbstractZip zip;
+	private final String name;
+	private final EntryOutputStream entryOutputStream;
+	private Writer writer;
+	
+	/**
+	 * 
+	 */
+	protected StreamingZipEntry(AbstractZip zip, String name, OutputStream zipOutputStream)
+	{
+		this.zip = zip;
+		this.name = name;
+		this.entryOutputStream = new EntryOutputStream(zipOutputStream);
+	}
+	
+	@Override
+	public String getName()
+	{
+		return name;
+	}
+	
+	@Override
+	public Writer getWriter()
+	{
+		if (writer == null)
+		{
+			writer = new BufferedWriter(new OutputStreamWriter(entryOutputStream, StandardCharsets.UTF_8));
+		}
+		
+		return writer;
+	}
+
+	@Override
+	public OutputStream getOutputStream()
+	{
+		return entryOutputStream;
+	}
+
+	/**
+	 * Flushes the pending content and closes the zip entry.
+	 */
+	public void close() throws IOException
+	{
+		if (writer != null)
+		{
+			writer.close();
+		}
+		else
+		{
+			entryOutputStream.close();
+		}
+	}
+
+	/**
+	 * Not supported, the content has already been written to the zip output.
+	 */
+	@Override
+	public void writeData(OutputStream os) throws IOException
+	{
+		throw 
+			new JRRuntimeException(
+				EXCEPTION_MESSAGE_KEY_ENTRY_ALREADY_WRITTEN,
+				new Object[]{name});
+	}
+
+	@Override
+	public void dispose()
+	{
+		//nothing to dispose
+	}
+	
+	
+	/**
+	 * 
+	 */
+	protected class EntryOutputStream extends FilterOutputStream
+	{
+		private boolean closed;
+		
+		public EntryOutputStream(OutputStream out)
+		{
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			if (!closed)
+			{
+				closed = true;
+				//not closing the zip output, only the current entry
+				zip.closeStreamingEntry(StreamingZipEntry.this);
+			}
+		}
+	}
+}
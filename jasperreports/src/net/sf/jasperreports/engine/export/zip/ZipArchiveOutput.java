@@ -0,0 +1,411 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export.zip;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+
+/**
+ * Writes zip archives that contain deflated entries, 
+ * either copying data that has already been compressed or compressing content as it is written.
+ * <p>
+ * Zip64 extensions are used when the sizes or offsets do not fit the standard zip format.
+ * The sizes of the entries written with data descriptors are not known when their local header is written,
+ * such entries declare zip64 sizes in the local header only when started by {@link #startEntry(String, boolean)}.
+ * 
+ * @see DeflatedZipEntry
+ * @see BlockDeflaterOutputStream
+ */
+public class ZipArchiveOutput
+{
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+	private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+	private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+	private static final int END_SIGNATURE = 0x06054b50;
+	
+	private static final int VERSION_DEFLATE = 20;
+	private static final int VERSION_ZIP64 = 45;
+	private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+	private static final int FLAG_UTF8 = 0x800;
+	private static final int METHOD_DEFLATED = 8;
+	private static final int ZIP64_EXTRA_ID = 0x0001;
+	
+	private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+	private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+	
+	private final CountingOutputStream out;
+	private final ExecutorService executor;
+	private final List<EntryInfo> entries = new ArrayList<>();
+	private final byte[] buffer = new byte[64];
+	
+	private EntryInfo currentEntry;
+	private BlockDeflaterOutputStream currentEntryStream;
+	private boolean finished;
+
+	/**
+	 * @param out the output stream, which is not closed by this object
+	 * @param executor optional executor used to compress entry content in parallel
+	 */
+	public ZipArchiveOutput(OutputStream out, ExecutorService executor)
+	{
+		this.out = new CountingOutputStream(out);
+		this.executor = executor;
+	}
+	
+	/**
+	 * Writes an entry by copying its compressed data.
+	 */
+	public void writeDeflatedEntry(DeflatedZipEntry entry) throws IOException
+	{
+		closeEntry();
+		
+		entry.finish();
+		
+		EntryInfo info = new EntryInfo(entry.getName(), 0);
+		info.crc = entry.getCrc();
+		info.size = entry.getSize();
+		info.compressedSize = entry.getCompressedSize();
+		
+		writeLocalHeader(info);
+		entry.writeCompressedData(out);
+		entries.add(info);
+	}
+	
+	/**
+	 * Starts an entry whose content is compressed as it is written to the returned stream,
+	 * with a standard local header.
+	 * 
+	 * @see #startEntry(String, boolean)
+	 */
+	public OutputStream startEntry(String name) throws IOException
+	{
+		return startEntry(name, false);
+	}
+	
+	/**
+	 * Starts an entry whose content is compressed as it is written to the returned stream.
+	 * <p>
+	 * The entry is ended by {@link #closeEntry()}, or when another entry is started.
+	 * <p>
+	 * When <code>zip64</code> is set, the local header contains a zip64 extra field and the data descriptor
+	 * contains 8 byte sizes, which is required for entries larger than 4 GB to be read by strict zip readers.
+	 * Older readers such as <code>java.util.zip.ZipInputStream</code> before Java 21 cannot read such entries.
+	 * Otherwise, the local header is standard and the data descriptor contains 8 byte sizes only 
+	 * if the entry turns out to be larger than 4 GB, as written by <code>java.util.zip.ZipOutputStream</code>.
+	 */
+	public OutputStream startEntry(String name, boolean zip64) throws IOException
+	{
+		closeEntry();
+		
+		EntryInfo info = new EntryInfo(name, FLAG_DATA_DESCRIPTOR);
+		info.zip64DataDescriptor = zip64;
+		writeLocalHeader(info);
+		
+		currentEntry = info;
+		currentEntryStream = new BlockDeflaterOutputStream(out, executor);
+		return currentEntryStream;
+	}
+	
+	/**
+	 * Ends the entry started by {@link #startEntry(String)}, if any.
+	 */
+	public void closeEntry() throws IOException
+	{
+		if (currentEntry == null)
+		{
+			return;
+		}
+		
+		EntryInfo info = currentEntry;
+		currentEntry = null;
+		
+		currentEntryStream.finish();
+		info.crc = currentEntryStream.getCrc();
+		info.size = currentEntryStream.getSize();
+		info.compressedSize = currentEntryStream.getCompressedSize();
+		currentEntryStream = null;
+		
+		writeInt(DATA_DESCRIPTOR_SIGNATURE);
+		writeInt(info.crc);
+		if (info.zip64DataDescriptor || info.isZip64Size())
+		{
+			writeLong(info.compressedSize);
+			writeLong(info.size);
+		}
+		else
+		{
+			writeInt(info.compressedSize);
+			writeInt(info.size);
+		}
+		
+		entries.add(info);
+	}
+	
+	/**
+	 * Writes the central directory, the output stream is not closed.
+	 */
+	public void finish() throws IOException
+	{
+		if (finished)
+		{
+			return;
+		}
+		
+		closeEntry();
+		
+		long directoryOffset = out.getCount();
+		for (EntryInfo info : entries)
+		{
+			writeCentralHeader(info);
+		}
+		long directorySize = out.getCount() - directoryOffset;
+		
+		int count = entries.size();
+		if (count >= ZIP64_MAGIC_COUNT || directoryOffset >= ZIP64_MAGIC || directorySize >= ZIP64_MAGIC)
+		{
+			long zip64EndOffset = out.getCount();
+			
+			writeInt(ZIP64_END_SIGNATURE);
+			writeLong(44);
+			writeShort(VERSION_ZIP64);
+			writeShort(VERSION_ZIP64);
+			writeInt(0);
+			writeInt(0);
+			writeLong(count);
+			writeLong(count);
+			writeLong(directorySize);
+			writeLong(directoryOffset);
+			
+			writeInt(ZIP64_LOCATOR_SIGNATURE);
+			writeInt(0);
+			writeLong(zip64EndOffset);
+			writeInt(1);
+		}
+		
+		writeInt(END_SIGNATURE);
+		writeShort(0);
+		writeShort(0);
+		writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+		writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+		writeInt(Math.min(directorySize, ZIP64_MAGIC));
+		writeInt(Math.min(directoryOffset, ZIP64_MAGIC));
+		writeShort(0);
+		
+		out.flush();
+		finished = true;
+	}
+	
+	protected void writeLocalHeader(EntryInfo info) throws IOException
+	{
+		info.offset = out.getCount();
+		
+		// sizes are not known in advance for entries with data descriptors
+		boolean zip64 = info.hasDataDescriptor() ? info.zip64DataDescriptor : info.isZip64Size();
+		
+		writeInt(LOCAL_HEADER_SIGNATURE);
+		writeShort(zip64 ? VERSION_ZIP64 : VERSION_DEFLATE);
+		writeShort(info.flags);
+		writeShort(METHOD_DEFLATED);
+		writeInt(info.time);
+		if (info.hasDataDescriptor())
+		{
+			writeInt(0);
+			writeInt(zip64 ? ZIP64_MAGIC : 0);
+			writeInt(zip64 ? ZIP64_MAGIC : 0);
+		}
+		else
+		{
+			writeInt(info.crc);
+			writeInt(zip64 ? ZIP64_MAGIC : info.compressedSize);
+			writeInt(zip64 ? ZIP64_MAGIC : info.size);
+		}
+		writeShort(info.name.length);
+		writeShort(zip64 ? 20 : 0);
+		out.write(info.name);
+		if (zip64)
+		{
+			writeShort(ZIP64_EXTRA_ID);
+			writeShort(16);
+			writeLong(info.size);
+			writeLong(info.compressedSize);
+		}
+	}
+	
+	protected void writeCentralHeader(EntryInfo info) throws IOException
+	{
+		boolean zip64Size = info.size >= ZIP64_MAGIC;
+		boolean zip64CompressedSize = info.compressedSize >= ZIP64_MAGIC;
+		boolean zip64Offset = info.offset >= ZIP64_MAGIC;
+		int extraLength = (zip64Size ? 8 : 0) + (zip64CompressedSize ? 8 : 0) + (zip64Offset ? 8 : 0);
+		int version = extraLength > 0 || info.zip64DataDescriptor ? VERSION_ZIP64 : VERSION_DEFLATE;
+		
+		writeInt(CENTRAL_HEADER_SIGNATURE);
+		writeShort(version);
+		writeShort(version);
+		writeShort(info.flags);
+		writeShort(METHOD_DEFLATED);
+		writeInt(info.time);
+		writeInt(info.crc);
+		writeInt(zip64CompressedSize ? ZIP64_MAGIC : info.compressedSize);
+		writeInt(zip64Size ? ZIP64_MAGIC : info.size);
+		writeShort(info.name.length);
+		writeShort(extraLength > 0 ? extraLength + 4 : 0);
+		writeShort(0);
+		writeShort(0);
+		writeShort(0);
+		writeInt(0);
+		writeInt(zip64Offset ? ZIP64_MAGIC : info.offset);
+		out.write(info.name);
+		if (extraLength > 0)
+		{
+			writeShort(ZIP64_EXTRA_ID);
+			writeShort(extraLength);
+			if (zip64Size)
+			{
+				writeLong(info.size);
+			}
+			if (zip64CompressedSize)
+			{
+				writeLong(info.compressedSize);
+			}
+			if (zip64Offset)
+			{
+				writeLong(info.offset);
+			}
+		}
+	}
+	
+	protected void writeShort(int value) throws IOException
+	{
+		buffer[0] = (byte) value;
+		buffer[1] = (byte) (value >>> 8);
+		out.write(buffer, 0, 2);
+	}
+	
+	protected void writeInt(long value) throws IOException
+	{
+		buffer[0] = (byte) value;
+		buffer[1] = (byte) (value >>> 8);
+		buffer[2] = (byte) (value >>> 16);
+		buffer[3] = (byte) (value >>> 24);
+		out.write(buffer, 0, 4);
+	}
+	
+	protected void writeLong(long value) throws IOException
+	{
+		writeInt(value);
+		writeInt(value >>> 32);
+	}
+	
+	protected static long dosTime(LocalDateTime time)
+	{
+		int year = time.getYear();
+		if (year < 1980)
+		{
+			return (1 << 21) | (1 << 16);
+		}
+		return ((year - 1980) << 25)
+				| (time.getMonthValue() << 21)
+				| (time.getDayOfMonth() << 16)
+				| (time.getHour() << 11)
+				| (time.getMinute() << 5)
+				| (time.getSecond() >> 1);
+	}
+	
+	
+	protected static class EntryInfo
+	{
+		private final byte[] name;
+		private final int flags;
+		private final long time;
+		private long crc;
+		private long size;
+		private long compressedSize;
+		private long offset;
+		private boolean zip64DataDescriptor;
+		
+		public EntryInfo(String name, int flags)
+		{
+			this.name = name.getBytes(StandardCharsets.UTF_8);
+			this.flags = flags | FLAG_UTF8;
+			this.time = dosTime(LocalDateTime.now());
+		}
+		
+		public boolean hasDataDescriptor()
+		{
+			return (flags & FLAG_DATA_DESCRIPTOR) != 0;
+		}
+		
+		public boolean isZip64Size()
+		{
+			return size >= ZIP64_MAGIC || compressedSize >= ZIP64_MAGIC;
+		}
+	}
+	
+	
+	protected static class CountingOutputStream extends FilterOutputStream
+	{
+		private long count;
+		
+		public CountingOutputStream(OutputStream out)
+		{
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			out.write(b);
+			++count;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			out.write(b, off, len);
+			count += len;
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			// the underlying stream is not closed
+			flush();
+		}
+
+		public long getCount()
+		{
+			return count;
+		}
+	}
+}
@@ -54,10 +54,13 @@ import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.ReportContext;
 import net.sf.jasperreports.engine.SimplePrintPart;
 import net.sf.jasperreports.engine.base.JRVirtualPrintPage;
+import net.sf.jasperreports.engine.base.LazyJasperReport;
 import net.sf.jasperreports.engine.type.CalculationEnum;
 import net.sf.jasperreports.engine.util.DefaultFormatFactory;
 import net.sf.jasperreports.engine.util.FormatFactory;
 import net.sf.jasperreports.engine.util.JRGraphEnvInitializer;
+import net.sf.jasperreports.metrics.EngineMetrics;
+import net.sf.jasperreports.metrics.MetricsRegistry;
 import net.sf.jasperreports.repo.RepositoryContext;
 import net.sf.jasperreports.repo.SimpleRepositoryContext;
 
@@ -124,6 +127,10 @@ public abstract class BaseReportFiller implements ReportFiller
 
 	protected FillListener fillListener;
 	
+	private FillProfiler.Scope reportProfileScope;
+	
+	private long fillStartTime;
+	
 	protected int usedPageWidth = 0;
 
 	public BaseReportFiller(JasperReportsContext jasperReportsContext, JasperReport jasperReport, 
@@ -218,17 +225,62 @@ public abstract class BaseReportFiller implements ReportFiller
 	{
 		datasetMap = new HashMap<>();
 
+		if (jasperReport instanceof LazyJasperReport)
+		{
+			// subdatasets are created when first used by a dataset run
+			return;
+		}
+		
 		JRDataset[] datasets = jasperReport.getDatasets();
 		if (datasets != null && datasets.length > 0)
 		{
 			for (int i = 0; i < datasets.length; i++)
 			{
-				JRFillDataset fillDataset = factory.getDataset(datasets[i]);
-				fillDataset.createCalculator(jasperReport);
+				createFillDataset(datasets[i]);
+			}
+		}
+	}
 
-				datasetMap.put(datasets[i].getName(), fillDataset);
+	private JRFillDataset createFillDataset(JRDataset dataset) throws JRException
+	{
+		JRFillDataset fillDataset = factory.getDataset(dataset);
+		fillDataset.createCalculator(jasperReport);
+
+		datasetMap.put(dataset.getName(), fillDataset);
+		return fillDataset;
+	}
+
+	/**
+	 * Returns the fill dataset for a report subdataset.
+	 * <p>
+	 * For reports with deferred parts, the fill dataset is created on the first call,
+	 * so that subdatasets which are not used by the fill are not loaded.
+	 * </p>
+	 * 
+	 * @param datasetName the subdataset name
+	 * @return the fill dataset, or <code>null</code> if the report has no subdataset with the name
+	 */
+	protected JRFillDataset getFillDataset(String datasetName)
+	{
+		JRFillDataset fillDataset = datasetMap.get(datasetName);
+		if (fillDataset == null && jasperReport instanceof LazyJasperReport)
+		{
+			JRDataset dataset = ((LazyJasperReport) jasperReport).getDataset(datasetName);
+			if (dataset != null)
+			{
+				try
+				{
+					fillDataset = createFillDataset(dataset);
+				}
+				catch (JRException e)
+				{
+					throw new JRRuntimeException(e);
+				}
+				
+				fillDataset.inheritFromMain();
 			}
 		}
+		return fillDataset;
 	}
 
 	protected final void initDatasets() throws JRException
@@ -242,6 +294,20 @@ public abstract class BaseReportFiller implements ReportFiller
 		mainDataset.initCalculator();
 	}
 
+	/**
+	 * Registers the element datasets and the variable calculations required by fill objects 
+	 * created after the datasets have been initialized.
+	 */
+	protected final void updateDatasets()
+	{
+		mainDataset.initElementDatasets(factory);
+		initDatasets(factory);
+
+		mainDataset.checkVariableCalculationReqs(factory);
+		
+		calculator.datasetUpdated();
+	}
+
 	private void initDatasets(JRFillObjectFactory factory)
 	{
 		for (Iterator<JRFillDataset> it = datasetMap.values().iterator(); it.hasNext();)
@@ -452,6 +518,18 @@ public abstract class BaseReportFiller implements ReportFiller
 		{
 			ReportContext reportContext = (ReportContext) parameterValues.get(JRParameter.REPORT_CONTEXT);
 			fillContext.setReportContext(reportContext);
+			fillContext.initProfiler();
+		}
+		
+		if (parent == null)
+		{
+			fillStartTime = System.nanoTime();
+		}
+		
+		FillProfiler profiler = fillContext.getProfiler();
+		if (profiler != null)
+		{
+			reportProfileScope = profiler.start(this, FillProfileCategory.REPORT, jasperReport.getName());
 		}
 
 		mainDataset.setParameterValues(parameterValues);
@@ -475,6 +553,55 @@ public abstract class BaseReportFiller implements ReportFiller
 		}
 	}
 	
+	/**
+	 * Ends the profiling of the report fill and, for the master report of a successful fill, 
+	 * publishes the collected profile.
+	 * <p>
+	 * Errors that occur while publishing the profile are logged, they do not fail the fill.
+	 */
+	protected void endReportProfile(boolean publish)
+	{
+		if (reportProfileScope != null)
+		{
+			reportProfileScope.end();
+			reportProfileScope = null;
+			
+			if (publish && parent == null)
+			{
+				try
+				{
+					fillContext.profilerDone();
+				}
+				catch (JRException | RuntimeException e)
+				{
+					log.warn("Error publishing the fill profile of " + jasperReport.getName(), e);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Reports the metrics of a master report fill.
+	 */
+	protected void recordFillMetrics(boolean success)
+	{
+		if (parent == null && fillStartTime != 0)
+		{
+			MetricsRegistry metrics = fillContext.getMetrics();
+			if (success)
+			{
+				metrics.increment(EngineMetrics.FILL_REPORTS, 1);
+				metrics.increment(EngineMetrics.FILL_PAGES, jasperPrint.getPages().size());
+				metrics.recordDuration(EngineMetrics.FILL_TIME, System.nanoTime() - fillStartTime);
+			}
+			else
+			{
+				metrics.increment(EngineMetrics.FILL_ERRORS, 1);
+			}
+			fillStartTime = 0;
+		}
+	}
+	
 	protected void setBookmarkHelper()
 	{
 		boolean isCreateBookmarks = propertiesUtil.getBooleanProperty(mainDataset, 
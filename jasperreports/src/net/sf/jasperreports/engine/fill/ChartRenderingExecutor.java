@@ -0,0 +1,142 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.awt.geom.Rectangle2D;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jfree.chart.JFreeChart;
+
+import net.sf.jasperreports.charts.util.AsyncChartRenderableFactory;
+import net.sf.jasperreports.charts.util.ChartHyperlinkProvider;
+import net.sf.jasperreports.engine.JRChart;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.renderers.Renderable;
+
+
+/**
+ * Renders charts on a bounded pool of threads shared by all the fillers of a report fill.
+ * <p>
+ * When all the threads are busy and the queue of pending charts is full, charts are rendered by the
+ * filling thread, so that the number of charts waiting to be rendered stays bounded.
+ * The threads are stopped after the queued charts are rendered when the fill ends.
+ * </p>
+ * 
+ * @see JRChart#PROPERTY_CHART_RENDER_THREADS
+ */
+class ChartRenderingExecutor implements JRFillContext.FillCacheDisposable
+{
+	private static final Log log = LogFactory.getLog(ChartRenderingExecutor.class);
+	
+	private static final String FILL_CACHE_KEY = ChartRenderingExecutor.class.getName();
+	
+	/**
+	 * Pending charts per rendering thread.
+	 */
+	private static final int QUEUE_SIZE_PER_THREAD = 4;
+	
+	private static final long THREAD_KEEP_ALIVE_SECONDS = 30;
+	
+	private static final ChartRenderingExecutor NONE = new ChartRenderingExecutor(null);
+	
+	/**
+	 * Returns the chart rendering executor of a fill, or <code>null</code> if charts are not to be
+	 * rendered asynchronously.
+	 */
+	public static ChartRenderingExecutor getInstance(JRFillContext fillContext)
+	{
+		ChartRenderingExecutor executor = (ChartRenderingExecutor) fillContext.getFillCache(FILL_CACHE_KEY);
+		if (executor == null)
+		{
+			BaseReportFiller masterFiller = fillContext.getMasterFiller();
+			int threads = masterFiller.getPropertiesUtil().getIntegerProperty(masterFiller.getJasperReport(), 
+					JRChart.PROPERTY_CHART_RENDER_THREADS, 0);
+			executor = threads > 0 ? new ChartRenderingExecutor(createExecutor(threads, 
+					masterFiller.getJasperReport().getName())) : NONE;
+			fillContext.setFillCache(FILL_CACHE_KEY, executor);
+		}
+		return executor == NONE ? null : executor;
+	}
+	
+	private static ThreadPoolExecutor createExecutor(int threads, String reportName)
+	{
+		AtomicInteger threadCount = new AtomicInteger();
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 
+				THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new ArrayBlockingQueue<>(threads * QUEUE_SIZE_PER_THREAD), 
+				runnable ->
+				{
+					Thread thread = new Thread(runnable, reportName + " charts #" + threadCount.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				},
+				// also running the chart when the executor has been shut down, so that its renderable is always produced
+				(runnable, threadPoolExecutor) -> runnable.run());
+		executor.allowCoreThreadTimeOut(true);
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("created chart rendering executor with " + threads + " threads for " + reportName);
+		}
+		return executor;
+	}
+	
+	private final ThreadPoolExecutor executor;
+	
+	private ChartRenderingExecutor(ThreadPoolExecutor executor)
+	{
+		this.executor = executor;
+	}
+
+	/**
+	 * Starts rendering a chart and returns a renderable that waits for the chart to be rendered when needed.
+	 */
+	public Renderable render(
+		AsyncChartRenderableFactory factory, 
+		JasperReportsContext jasperReportsContext,
+		JFreeChart chart, 
+		ChartHyperlinkProvider chartHyperlinkProvider,
+		Rectangle2D rectangle
+		)
+	{
+		Future<Renderable> renderable = executor.submit(
+				() -> factory.getRenderable(jasperReportsContext, chart, chartHyperlinkProvider, rectangle));
+		return factory.getFutureRenderable(renderable);
+	}
+
+	@Override
+	public void dispose()
+	{
+		if (executor != null)
+		{
+			// letting the queued charts be rendered, the filled report waits for them
+			executor.shutdown();
+		}
+	}
+}
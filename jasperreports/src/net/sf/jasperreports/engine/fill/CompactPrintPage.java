@@ -0,0 +1,347 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.Serializable;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.type.RunDirectionEnum;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * Print page implementation that stores its elements in primitive arrays instead of element objects.
+ * <p>
+ * Text, rectangle, line and ellipse elements that only have attributes determined by their template, 
+ * their position and size, their text and value are kept as columns of primitive values, with the templates,
+ * UUIDs and texts stored in tables shared by all the elements of the page.
+ * Other elements are kept as objects.
+ * </p>
+ * <p>
+ * {@link #getElements()} creates element objects from the stored data when first called.
+ * The returned list cannot be modified and is only softly referenced by the page, 
+ * which means that subsequent calls can return different element instances. 
+ * Calling {@link #addElement(JRPrintElement)} or {@link #setElements(List)} turns the page back
+ * into a list of element objects.
+ * </p>
+ * 
+ * @see #PROPERTY_COMPACT_PAGES
+ */
+public class CompactPrintPage implements JRPrintPage, Serializable
+{
+	private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+	/**
+	 * Property that determines whether the pages of a filled report are stored as {@link CompactPrintPage} instances.
+	 * 
+	 * <p>
+	 * Pages are converted once all the elements on the page have been evaluated, 
+	 * which reduces the memory used by the pages of large reports.
+	 * Pages are not converted when the report fill uses a virtualizer.
+	 * </p>
+	 * <p>
+	 * The property can be set globally or at report level.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_COMPACT_PAGES = JRPropertiesUtil.PROPERTY_PREFIX + "fill.compact.pages";
+	
+	private static final byte KIND_OBJECT = 0;
+	private static final byte KIND_TEXT = 1;
+	private static final byte KIND_RECTANGLE = 2;
+	private static final byte KIND_LINE = 3;
+	private static final byte KIND_ELLIPSE = 4;
+	
+	private static final RunDirectionEnum[] RUN_DIRECTIONS = RunDirectionEnum.values();
+	
+	private int size;
+	private byte[] kinds;
+	private int[] bounds;
+	private int[] elementIds;
+	private int[] templateIndexes;
+	private JRTemplateElement[] templates;
+	private int[] uuidIndexes;
+	private UUID[] uuids;
+	private int[] textIndexes;
+	private String[] texts;
+	private Object[] values;
+	private float[] textMetrics;
+	private byte[] runDirections;
+	private int[] bookmarkLevels;
+	private Object[] objects;
+	
+	private List<JRPrintElement> elements;
+	private transient SoftReference<List<JRPrintElement>> elementsReference;
+	
+	/**
+	 * Creates a page that contains a list of elements.
+	 * 
+	 * @param elements the elements
+	 */
+	public CompactPrintPage(List<JRPrintElement> elements)
+	{
+		size = elements.size();
+		kinds = new byte[size];
+		bounds = new int[4 * size];
+		elementIds = new int[2 * size];
+		templateIndexes = new int[size];
+		uuidIndexes = new int[size];
+		textIndexes = new int[size];
+		values = new Object[size];
+		textMetrics = new float[3 * size];
+		runDirections = new byte[size];
+		bookmarkLevels = new int[size];
+		objects = new Object[size];
+		
+		Map<JRTemplateElement, Integer> templateTable = new IdentityHashMap<>();
+		Map<UUID, Integer> uuidTable = new HashMap<>();
+		Map<String, Integer> textTable = new HashMap<>();
+		for (int i = 0; i < size; i++)
+		{
+			JRPrintElement element = elements.get(i);
+			byte kind = kind(element);
+			kinds[i] = kind;
+			if (kind == KIND_OBJECT)
+			{
+				objects[i] = element;
+				continue;
+			}
+			
+			JRTemplatePrintElement templateElement = (JRTemplatePrintElement) element;
+			bounds[4 * i] = element.getX();
+			bounds[4 * i + 1] = element.getY();
+			bounds[4 * i + 2] = element.getWidth();
+			bounds[4 * i + 3] = element.getHeight();
+			elementIds[2 * i] = element.getSourceElementId();
+			elementIds[2 * i + 1] = element.getPrintElementId();
+			templateIndexes[i] = index(templateTable, templateElement.getTemplate());
+			uuidIndexes[i] = index(uuidTable, element.getUUID());
+			
+			if (kind == KIND_TEXT)
+			{
+				JRTemplatePrintText text = (JRTemplatePrintText) element;
+				textIndexes[i] = index(textTable, text.getOriginalText());
+				values[i] = text.getValue();
+				textMetrics[3 * i] = text.getLineSpacingFactor();
+				textMetrics[3 * i + 1] = text.getLeadingOffset();
+				textMetrics[3 * i + 2] = text.getTextHeight();
+				RunDirectionEnum runDirection = text.getRunDirectionValue();
+				runDirections[i] = runDirection == null ? -1 : (byte) runDirection.ordinal();
+				bookmarkLevels[i] = text.getBookmarkLevel();
+			}
+		}
+		
+		templates = table(templateTable, new JRTemplateElement[templateTable.size()]);
+		uuids = table(uuidTable, new UUID[uuidTable.size()]);
+		texts = table(textTable, new String[textTable.size()]);
+	}
+	
+	private static byte kind(JRPrintElement element)
+	{
+		Class<?> elementClass = element.getClass();
+		if (elementClass == JRTemplatePrintText.class)
+		{
+			return ((JRTemplatePrintText) element).isCompactable() ? KIND_TEXT : KIND_OBJECT;
+		}
+		
+		byte kind;
+		if (elementClass == JRTemplatePrintRectangle.class)
+		{
+			kind = KIND_RECTANGLE;
+		}
+		else if (elementClass == JRTemplatePrintLine.class)
+		{
+			kind = KIND_LINE;
+		}
+		else if (elementClass == JRTemplatePrintEllipse.class)
+		{
+			kind = KIND_ELLIPSE;
+		}
+		else
+		{
+			return KIND_OBJECT;
+		}
+		return ((JRTemplatePrintElement) element).hasOwnProperties() ? KIND_OBJECT : kind;
+	}
+	
+	private static <T> int index(Map<T, Integer> table, T value)
+	{
+		if (value == null)
+		{
+			return -1;
+		}
+		
+		Integer index = table.get(value);
+		if (index == null)
+		{
+			index = table.size();
+			table.put(value, index);
+		}
+		return index;
+	}
+	
+	private static <T> T[] table(Map<T, Integer> table, T[] values)
+	{
+		for (Map.Entry<T, Integer> entry : table.entrySet())
+		{
+			values[entry.getValue()] = entry.getKey();
+		}
+		return values;
+	}
+	
+	private static <T> T entry(T[] table, int index)
+	{
+		return index < 0 ? null : table[index];
+	}
+
+	/**
+	 * Returns the number of elements on the page.
+	 */
+	public synchronized int getElementCount()
+	{
+		return elements == null ? size : elements.size();
+	}
+
+	@Override
+	public synchronized List<JRPrintElement> getElements()
+	{
+		if (elements != null)
+		{
+			return elements;
+		}
+		
+		List<JRPrintElement> list = elementsReference == null ? null : elementsReference.get();
+		if (list == null)
+		{
+			JRPrintElement[] pageElements = new JRPrintElement[size];
+			for (int i = 0; i < size; i++)
+			{
+				pageElements[i] = element(i);
+			}
+			list = Collections.unmodifiableList(Arrays.asList(pageElements));
+			elementsReference = new SoftReference<>(list);
+		}
+		return list;
+	}
+	
+	protected JRPrintElement element(int i)
+	{
+		JRTemplateElement template = entry(templates, templateIndexes[i]);
+		JRTemplatePrintElement element;
+		switch (kinds[i])
+		{
+			case KIND_TEXT:
+			{
+				JRTemplatePrintText text = new JRTemplatePrintText((JRTemplateText) template, null);
+				text.setText(entry(texts, textIndexes[i]));
+				text.setValue(values[i]);
+				text.setLineSpacingFactor(textMetrics[3 * i]);
+				text.setLeadingOffset(textMetrics[3 * i + 1]);
+				text.setTextHeight(textMetrics[3 * i + 2]);
+				text.setRunDirection(runDirections[i] < 0 ? null : RUN_DIRECTIONS[runDirections[i]]);
+				text.setBookmarkLevel(bookmarkLevels[i]);
+				element = text;
+				break;
+			}
+			case KIND_RECTANGLE:
+				element = new JRTemplatePrintRectangle((JRTemplateRectangle) template, null);
+				break;
+			case KIND_LINE:
+				element = new JRTemplatePrintLine((JRTemplateLine) template, null);
+				break;
+			case KIND_ELLIPSE:
+				element = new JRTemplatePrintEllipse((JRTemplateEllipse) template, null);
+				break;
+			default:
+				return (JRPrintElement) objects[i];
+		}
+		
+		element.setUUID(entry(uuids, uuidIndexes[i]));
+		element.setX(bounds[4 * i]);
+		element.setY(bounds[4 * i + 1]);
+		element.setWidth(bounds[4 * i + 2]);
+		element.setHeight(bounds[4 * i + 3]);
+		element.setSourceElementId(elementIds[2 * i]);
+		element.setPrintElementId(elementIds[2 * i + 1]);
+		return element;
+	}
+
+	@Override
+	public synchronized void setElements(List<JRPrintElement> elements)
+	{
+		this.elements = elements;
+		clearData();
+	}
+
+	@Override
+	public synchronized void addElement(JRPrintElement element)
+	{
+		if (elements == null)
+		{
+			List<JRPrintElement> pageElements = new ArrayList<>(getElements());
+			setElements(Collections.synchronizedList(pageElements));
+		}
+		elements.add(element);
+	}
+	
+	protected void clearData()
+	{
+		size = 0;
+		kinds = null;
+		bounds = null;
+		elementIds = null;
+		templateIndexes = null;
+		templates = null;
+		uuidIndexes = null;
+		uuids = null;
+		textIndexes = null;
+		texts = null;
+		values = null;
+		textMetrics = null;
+		runDirections = null;
+		bookmarkLevels = null;
+		objects = null;
+		elementsReference = null;
+	}
+}
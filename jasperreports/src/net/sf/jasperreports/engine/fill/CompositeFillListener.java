@@ -27,13 +27,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.PrintElementId;
 
 /**
  * {@link FillListener} implementation that contains several other listeners.
  * 
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
  */
-public class CompositeFillListener implements FillListener
+public class CompositeFillListener implements ElementsUpdatedFillListener
 {
 
 	public static FillListener addListener(FillListener existingListener, FillListener listener)
@@ -80,4 +81,16 @@ public class CompositeFillListener implements FillListener
 		}
 	}
 
+	@Override
+	public void elementsUpdated(JasperPrint jasperPrint, int pageIndex, List<PrintElementId> elementIds)
+	{
+		for (FillListener listener : listeners)
+		{
+			if (listener instanceof ElementsUpdatedFillListener)
+			{
+				((ElementsUpdatedFillListener) listener).elementsUpdated(jasperPrint, pageIndex, elementIds);
+			}
+		}
+	}
+
 }
@@ -23,6 +23,7 @@
  */
 package net.sf.jasperreports.engine.fill;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -38,6 +39,7 @@ import net.sf.jasperreports.engine.JRPrintPage;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JRVirtualizable;
 import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.PrintElementId;
 import net.sf.jasperreports.engine.PrintElementVisitor;
 import net.sf.jasperreports.engine.base.JRVirtualPrintPage;
 import net.sf.jasperreports.engine.base.VirtualElementsData;
@@ -262,12 +264,19 @@ public class DelayedFillActions implements VirtualizationListener<VirtualElement
 						context.setEvaluationTime(evaluationTime);
 						context.setExpressionEvaluationType(evaluation);
 						
+						// collect the resolved elements only when a listener is interested in them
+						List<PrintElementId> updatedElementIds = 
+								reportFiller.fillListener instanceof ElementsUpdatedFillListener
+								? new ArrayList<>() : null;
+						
 						LinkedMap<Object, EvaluationBoundAction> boundElementsMap = pageEntry.getValue();
 						// execute the actions
 						while (!boundElementsMap.isEmpty())
 						{
 							EvaluationBoundAction action = boundElementsMap.pop();
 							action.execute(context);
+							
+							updatedElementIds = collectUpdatedElement(updatedElementIds, action);
 						}
 						
 						// remove the entry from the pages map
@@ -276,6 +285,12 @@ public class DelayedFillActions implements VirtualizationListener<VirtualElement
 						// call the listener to signal that the page has been modified
 						if (reportFiller.fillListener != null)
 						{
+							if (updatedElementIds != null)
+							{
+								((ElementsUpdatedFillListener) reportFiller.fillListener).elementsUpdated(
+										jasperPrint, pageIdx, updatedElementIds);
+							}
+							
 							reportFiller.fillListener.pageUpdated(jasperPrint, pageIdx);
 						}
 					}
@@ -289,6 +304,33 @@ public class DelayedFillActions implements VirtualizationListener<VirtualElement
 		while(hasEntry);
 	}
 	
+	protected List<PrintElementId> collectUpdatedElement(List<PrintElementId> updatedElementIds, 
+			EvaluationBoundAction action)
+	{
+		if (updatedElementIds == null)
+		{
+			return null;
+		}
+		
+		if (action instanceof ElementEvaluationAction)
+		{
+			JRPrintElement printElement = ((ElementEvaluationAction) action).getPrintElement();
+			if (printElement.getSourceElementId() == JRPrintElement.UNSET_SOURCE_ELEMENT_ID
+					|| printElement.getPrintElementId() == JRPrintElement.UNSET_PRINT_ELEMENT_ID)
+			{
+				// the element cannot be identified
+				return null;
+			}
+			
+			updatedElementIds.add(PrintElementId.forElement(printElement));
+			return updatedElementIds;
+		}
+		
+		// virtualized page actions only add element actions for the page, 
+		// for other actions we don't know which elements have been modified
+		return action instanceof VirtualizedPageEvaluationAction ? updatedElementIds : null;
+	}
+	
 	public boolean hasDelayedActions(JRPrintPage page)
 	{
 		FillPageKey pageKey = new FillPageKey(page);
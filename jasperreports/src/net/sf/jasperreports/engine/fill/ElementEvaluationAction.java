@@ -48,6 +48,16 @@ public class ElementEvaluationAction implements EvaluationBoundAction
 		this.printElement = printElement;
 	}
 	
+	/**
+	 * Returns the print element resolved by this action.
+	 * 
+	 * @return the print element resolved by this action
+	 */
+	public JRPrintElement getPrintElement()
+	{
+		return printElement;
+	}
+	
 	@Override
 	public void execute(BoundActionExecutionContext executionContext) throws JRException
 	{
@@ -0,0 +1,56 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.List;
+
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.PrintElementId;
+
+/**
+ * Fill listener that is also notified of the elements that have been resolved
+ * when a previously generated page is updated by delayed evaluations.
+ * 
+ * <p>
+ * For each page update, {@link #elementsUpdated(JasperPrint, int, List)} is called
+ * right before {@link #pageUpdated(JasperPrint, int)} when the updated elements are known.
+ * A page update that is not preceded by such a call can affect any element on the page.
+ * </p>
+ * 
+ * @see AsynchronousFillHandle#addFillListener(FillListener)
+ */
+public interface ElementsUpdatedFillListener extends FillListener
+{
+
+	/**
+	 * Called when elements on a previously generated page have been resolved by delayed evaluations.
+	 * 
+	 * @param jasperPrint the report that is currently generating
+	 * @param pageIndex the index of the page that contains the elements
+	 * @param elementIds the Ids of the elements that have been resolved, 
+	 * including elements placed inside frames
+	 */
+	void elementsUpdated(JasperPrint jasperPrint, int pageIndex, List<PrintElementId> elementIds);
+
+}
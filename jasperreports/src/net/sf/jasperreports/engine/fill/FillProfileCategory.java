@@ -0,0 +1,88 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+/**
+ * Kinds of fill operations measured by {@link FillProfiler}.
+ */
+public enum FillProfileCategory
+{
+	/**
+	 * The fill of a (sub)report.
+	 */
+	REPORT("report"),
+	/**
+	 * The execution of a dataset query.
+	 */
+	QUERY("query"),
+	/**
+	 * Advancing a dataset to its next record, including variable calculations.
+	 */
+	DATASET("dataset"),
+	/**
+	 * The evaluation of the elements in a band.
+	 */
+	BAND_EVALUATION("bandEvaluation"),
+	/**
+	 * The layout of a band, including element stretching and print element creation.
+	 */
+	BAND_FILL("bandFill"),
+	/**
+	 * The evaluation of an element.
+	 */
+	ELEMENT_EVALUATION("elementEvaluation"),
+	/**
+	 * The stretch preparation of an element.
+	 */
+	ELEMENT_STRETCH("elementStretch"),
+	/**
+	 * Text measurement done while stretching a text element.
+	 */
+	TEXT_MEASUREMENT("textMeasurement"),
+	/**
+	 * The evaluation or stretch preparation of a subreport.
+	 */
+	SUBREPORT("subreport"),
+	/**
+	 * The evaluation or stretch preparation of a crosstab.
+	 */
+	CROSSTAB("crosstab"),
+	/**
+	 * The evaluation of a report expression.
+	 */
+	EXPRESSION("expression");
+	
+	private final String name;
+
+	private FillProfileCategory(String name)
+	{
+		this.name = name;
+	}
+
+	public String getName()
+	{
+		return name;
+	}
+	
+}
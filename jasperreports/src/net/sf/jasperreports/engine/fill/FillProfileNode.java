@@ -0,0 +1,152 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregated measurements of a fill operation, collected by {@link FillProfiler}.
+ * <p>
+ * Nodes form a tree which mirrors the nesting of the measured operations, 
+ * all invocations of an operation at the same position in the tree being 
+ * accumulated in a single node.
+ * </p>
+ */
+public class FillProfileNode
+{
+
+	private final FillProfileCategory category;
+	private final String name;
+	private final Map<String, FillProfileNode> children;
+	
+	private long count;
+	private long wallTime;
+	private long cpuTime;
+	private long allocatedBytes;
+	
+	protected FillProfileNode(FillProfileCategory category, String name)
+	{
+		this.category = category;
+		this.name = name;
+		this.children = new LinkedHashMap<>();
+	}
+	
+	protected FillProfileNode child(FillProfileCategory category, String name)
+	{
+		String key = category == null ? name : category.getName() + ':' + name;
+		FillProfileNode child = children.get(key);
+		if (child == null)
+		{
+			child = new FillProfileNode(category, name);
+			children.put(key, child);
+		}
+		return child;
+	}
+	
+	protected void record(long wallTime, long cpuTime, long allocatedBytes)
+	{
+		++this.count;
+		this.wallTime += wallTime;
+		this.cpuTime += cpuTime;
+		this.allocatedBytes += allocatedBytes;
+	}
+
+	/**
+	 * Returns the category of the measured operation, <code>null</code> for the root node.
+	 */
+	public FillProfileCategory getCategory()
+	{
+		return category;
+	}
+
+	/**
+	 * Returns the name of the measured operation, such as the report, dataset, band or element name.
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/**
+	 * Returns the number of times the operation was performed.
+	 */
+	public long getCount()
+	{
+		return count;
+	}
+
+	/**
+	 * Returns the total wall clock time of the operation, in nanoseconds.
+	 */
+	public long getWallTime()
+	{
+		return wallTime;
+	}
+
+	/**
+	 * Returns the total CPU time of the operation, in nanoseconds.
+	 * 
+	 * The value is 0 when the JVM does not support thread CPU time measurement.
+	 */
+	public long getCpuTime()
+	{
+		return cpuTime;
+	}
+
+	/**
+	 * Returns an estimate of the memory allocated by the operation, in bytes.
+	 * 
+	 * The value is 0 when the JVM does not support thread allocation measurement.
+	 */
+	public long getAllocatedBytes()
+	{
+		return allocatedBytes;
+	}
+	
+	/**
+	 * Returns the wall clock time of the operation that was not spent in measured nested operations.
+	 */
+	public long getSelfWallTime()
+	{
+		long self = wallTime;
+		for (FillProfileNode child : children.values())
+		{
+			// nested fills running on other threads can exceed the parent time
+			self -= Math.min(child.wallTime, self);
+		}
+		return self;
+	}
+
+	/**
+	 * Returns the nested operations.
+	 */
+	public List<FillProfileNode> getChildren()
+	{
+		return new ArrayList<>(children.values());
+	}
+	
+}
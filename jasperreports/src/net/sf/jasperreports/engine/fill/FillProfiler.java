@@ -0,0 +1,487 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRExpression;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JROrigin;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.ReportContext;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * Collects wall clock time, CPU time and memory allocation estimates for the 
+ * operations performed while filling a report.
+ * <p>
+ * Profiling is enabled either by setting the {@link #PROPERTY_ENABLED} property, 
+ * in which case the collected profile is written to the directory specified by
+ * {@link #PROPERTY_OUTPUT_DIRECTORY} (or logged when no directory is set), or by 
+ * passing a profiler instance as the {@link #PARAMETER_FILL_PROFILER} 
+ * {@link ReportContext} parameter, in which case the caller can inspect the profile 
+ * after the fill via {@link #getRoot()}, {@link #writeJson(Writer)} and 
+ * {@link #writeCollapsedStacks(Writer)}.
+ * </p>
+ * <p>
+ * The measurements are aggregated in a tree of {@link FillProfileNode nodes}; subreport
+ * fills are nested under the subreport element that triggered them.
+ * </p>
+ * 
+ * @see FillProfileCategory
+ */
+public class FillProfiler
+{
+	
+	private static final Log log = LogFactory.getLog(FillProfiler.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_OUTPUT_ERROR = "fill.profiler.output.error";
+
+	/**
+	 * Property that enables fill profiling for a report.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_ENABLED = JRPropertiesUtil.PROPERTY_PREFIX + "fill.profiler.enabled";
+
+	/**
+	 * Property that specifies the directory where profiles collected as a result of
+	 * {@link #PROPERTY_ENABLED} are written.
+	 * 
+	 * <p>
+	 * For each fill, a JSON file and a collapsed stacks file that can be processed by
+	 * flame graph tools are written.
+	 * If the property is not set, the collapsed stacks are logged at debug level.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3
+			)
+	public static final String PROPERTY_OUTPUT_DIRECTORY = JRPropertiesUtil.PROPERTY_PREFIX + "fill.profiler.output.directory";
+	
+	/**
+	 * {@link ReportContext} parameter that can be used to pass a profiler instance to a fill.
+	 */
+	public static final String PARAMETER_FILL_PROFILER = "net.sf.jasperreports.fill.profiler";
+	
+	private static final int EXPRESSION_NAME_MAX_LENGTH = 80;
+	
+	private final FillProfileNode root;
+	private final Map<BaseReportFiller, Deque<Scope>> stacks;
+	
+	public FillProfiler()
+	{
+		this.root = new FillProfileNode(null, "fill");
+		this.stacks = new IdentityHashMap<>();
+	}
+
+	/**
+	 * Returns the root of the collected profile.
+	 * 
+	 * The children of the root node correspond to the profiled fills.
+	 */
+	public FillProfileNode getRoot()
+	{
+		return root;
+	}
+	
+	/**
+	 * Starts measuring an operation.
+	 * 
+	 * @param filler the filler that performs the operation
+	 * @param category the operation category
+	 * @param name the operation name
+	 * @return the measurement scope, which needs to be ended when the operation finishes 
+	 */
+	public Scope start(BaseReportFiller filler, FillProfileCategory category, String name)
+	{
+		Scope scope;
+		synchronized (this)
+		{
+			Deque<Scope> stack = stacks.get(filler);
+			if (stack == null)
+			{
+				stack = new ArrayDeque<>();
+				stacks.put(filler, stack);
+			}
+			
+			FillProfileNode parentNode = stack.isEmpty() ? fillerParentNode(filler) : stack.peek().node;
+			scope = new Scope(filler, stack, parentNode.child(category, name));
+			stack.push(scope);
+		}
+		scope.begin();
+		return scope;
+	}
+	
+	public Scope startElement(JRFillElement element, FillProfileCategory category)
+	{
+		if (element instanceof JRFillSubreport)
+		{
+			category = FillProfileCategory.SUBREPORT;
+		}
+		else if (element instanceof JRFillCrosstab)
+		{
+			category = FillProfileCategory.CROSSTAB;
+		}
+		return start(element.filler, category, elementName(element));
+	}
+	
+	public Scope startBand(JRFillBand band, FillProfileCategory category)
+	{
+		return start(band.filler, category, bandName(band));
+	}
+	
+	public Scope startExpression(BaseReportFiller filler, JRExpression expression)
+	{
+		return start(filler, FillProfileCategory.EXPRESSION, expressionName(expression));
+	}
+	
+	private FillProfileNode fillerParentNode(BaseReportFiller filler)
+	{
+		// nested fills are attached to the current operation of the parent filler
+		for (FillerParent parent = filler.parent; parent != null; parent = parent.getFiller().parent)
+		{
+			Deque<Scope> parentStack = stacks.get(parent.getFiller());
+			if (parentStack != null && !parentStack.isEmpty())
+			{
+				return parentStack.peek().node;
+			}
+		}
+		return root;
+	}
+	
+	protected String elementName(JRFillElement element)
+	{
+		String key = element.getKey();
+		if (key != null)
+		{
+			return key;
+		}
+		
+		String type = element.getClass().getSimpleName();
+		if (type.startsWith("JRFill"))
+		{
+			type = type.substring(6);
+		}
+		return type + ' ' + element.getUUID();
+	}
+	
+	protected String bandName(JRFillBand band)
+	{
+		JROrigin origin = band.getOrigin();
+		if (origin == null)
+		{
+			return "band";
+		}
+		
+		String name = origin.getBandTypeValue().getName();
+		if (origin.getGroupName() != null)
+		{
+			name += ' ' + origin.getGroupName();
+		}
+		return name;
+	}
+	
+	protected String expressionName(JRExpression expression)
+	{
+		String text = expression.getText();
+		if (text == null)
+		{
+			return "#" + expression.getId();
+		}
+		
+		text = text.trim();
+		if (text.length() > EXPRESSION_NAME_MAX_LENGTH)
+		{
+			text = text.substring(0, EXPRESSION_NAME_MAX_LENGTH) + "...";
+		}
+		return "#" + expression.getId() + ' ' + text;
+	}
+	
+	protected void end(Scope scope, long wallTime, long cpuTime, long allocatedBytes)
+	{
+		synchronized (this)
+		{
+			scope.node.record(wallTime, cpuTime, allocatedBytes);
+			
+			Deque<Scope> stack = scope.stack;
+			// also drops scopes that were not ended because of exceptions
+			while (!stack.isEmpty() && stack.pop() != scope)
+			{
+				// NOP
+			}
+			
+			if (stack.isEmpty())
+			{
+				stacks.remove(scope.filler);
+			}
+		}
+	}
+	
+	/**
+	 * Writes the collected profile as JSON.
+	 * 
+	 * Each node is written as an object having the <code>category</code>, <code>name</code>, 
+	 * <code>count</code>, <code>wallTimeNanos</code>, <code>selfWallTimeNanos</code>, 
+	 * <code>cpuTimeNanos</code>, <code>allocatedBytes</code> and <code>children</code> fields.
+	 */
+	public synchronized void writeJson(Writer writer) throws IOException
+	{
+		JsonGenerator generator = new JsonFactory().createGenerator(writer);
+		generator.useDefaultPrettyPrinter();
+		writeJson(generator, root);
+		generator.flush();
+	}
+	
+	protected void writeJson(JsonGenerator generator, FillProfileNode node) throws IOException
+	{
+		generator.writeStartObject();
+		if (node.getCategory() != null)
+		{
+			generator.writeStringField("category", node.getCategory().getName());
+		}
+		generator.writeStringField("name", node.getName());
+		generator.writeNumberField("count", node.getCount());
+		generator.writeNumberField("wallTimeNanos", node.getWallTime());
+		generator.writeNumberField("selfWallTimeNanos", node.getSelfWallTime());
+		generator.writeNumberField("cpuTimeNanos", node.getCpuTime());
+		generator.writeNumberField("allocatedBytes", node.getAllocatedBytes());
+		
+		generator.writeArrayFieldStart("children");
+		for (FillProfileNode child : node.getChildren())
+		{
+			writeJson(generator, child);
+		}
+		generator.writeEndArray();
+		
+		generator.writeEndObject();
+	}
+
+	/**
+	 * Writes the collected profile in the collapsed stacks format used by flame graph tools.
+	 * 
+	 * Each line contains the semicolon separated operation path and the self wall clock time 
+	 * of the operation, in microseconds.
+	 */
+	public synchronized void writeCollapsedStacks(Writer writer) throws IOException
+	{
+		StringBuilder path = new StringBuilder();
+		for (FillProfileNode child : root.getChildren())
+		{
+			writeCollapsedStacks(writer, child, path);
+		}
+		writer.flush();
+	}
+	
+	protected void writeCollapsedStacks(Writer writer, FillProfileNode node, StringBuilder path) throws IOException
+	{
+		int pathLength = path.length();
+		if (pathLength > 0)
+		{
+			path.append(';');
+		}
+		path.append(node.getCategory().getName()).append(' ');
+		for (int i = 0; i < node.getName().length(); i++)
+		{
+			char c = node.getName().charAt(i);
+			path.append(c == ';' ? ',' : (Character.isWhitespace(c) ? ' ' : c));
+		}
+		
+		long selfMicros = node.getSelfWallTime() / 1000;
+		if (selfMicros > 0)
+		{
+			writer.write(path.toString());
+			writer.write(' ');
+			writer.write(Long.toString(selfMicros));
+			writer.write('\n');
+		}
+		
+		for (FillProfileNode child : node.getChildren())
+		{
+			writeCollapsedStacks(writer, child, path);
+		}
+		
+		path.setLength(pathLength);
+	}
+	
+	protected void writeOutput(String directory, String reportName) throws JRException
+	{
+		File dir = new File(directory);
+		String baseName = reportName + "-" + System.currentTimeMillis() + ".fill-profile";
+		File jsonFile = new File(dir, baseName + ".json");
+		File stacksFile = new File(dir, baseName + ".collapsed");
+		try
+		{
+			dir.mkdirs();
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(jsonFile), StandardCharsets.UTF_8))
+			{
+				writeJson(writer);
+			}
+			try (Writer writer = new OutputStreamWriter(new FileOutputStream(stacksFile), StandardCharsets.UTF_8))
+			{
+				writeCollapsedStacks(writer);
+			}
+		}
+		catch (IOException e)
+		{
+			throw new JRException(EXCEPTION_MESSAGE_KEY_OUTPUT_ERROR, new Object[]{dir}, e);
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("fill profile written to " + jsonFile + " and " + stacksFile);
+		}
+	}
+	
+	protected void logOutput()
+	{
+		if (log.isDebugEnabled())
+		{
+			StringWriter writer = new StringWriter();
+			try
+			{
+				writeCollapsedStacks(writer);
+			}
+			catch (IOException e)
+			{
+				// cannot happen
+			}
+			log.debug("fill profile:\n" + writer);
+		}
+	}
+	
+	/**
+	 * Measurement of a single operation.
+	 */
+	public final class Scope
+	{
+		private final BaseReportFiller filler;
+		private final Deque<Scope> stack;
+		private final FillProfileNode node;
+		
+		private long startWallTime;
+		private long startCpuTime;
+		private long startAllocatedBytes;
+		
+		private Scope(BaseReportFiller filler, Deque<Scope> stack, FillProfileNode node)
+		{
+			this.filler = filler;
+			this.stack = stack;
+			this.node = node;
+		}
+		
+		private void begin()
+		{
+			startAllocatedBytes = ThreadMetrics.allocatedBytes();
+			startCpuTime = ThreadMetrics.cpuTime();
+			startWallTime = System.nanoTime();
+		}
+		
+		/**
+		 * Ends the measurement.
+		 */
+		public void end()
+		{
+			long wallTime = System.nanoTime() - startWallTime;
+			long cpuTime = ThreadMetrics.cpuTime() - startCpuTime;
+			long allocatedBytes = ThreadMetrics.allocatedBytes() - startAllocatedBytes;
+			FillProfiler.this.end(this, wallTime, cpuTime, allocatedBytes);
+		}
+	}
+	
+	private static final class ThreadMetrics
+	{
+		private static final ThreadMXBean THREAD_BEAN;
+		private static final boolean CPU_TIME_SUPPORTED;
+		private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN;
+		
+		static
+		{
+			ThreadMXBean threadBean = null;
+			boolean cpuTimeSupported = false;
+			com.sun.management.ThreadMXBean allocationBean = null;
+			try
+			{
+				threadBean = ManagementFactory.getThreadMXBean();
+				cpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+				if (threadBean instanceof com.sun.management.ThreadMXBean)
+				{
+					com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+					if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled())
+					{
+						allocationBean = bean;
+					}
+				}
+			}
+			catch (LinkageError | SecurityException | UnsupportedOperationException e)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("thread metrics not available", e);
+				}
+			}
+			THREAD_BEAN = threadBean;
+			CPU_TIME_SUPPORTED = cpuTimeSupported;
+			ALLOCATION_BEAN = allocationBean;
+		}
+		
+		static long cpuTime()
+		{
+			return CPU_TIME_SUPPORTED ? THREAD_BEAN.getCurrentThreadCpuTime() : 0;
+		}
+		
+		static long allocatedBytes()
+		{
+			return ALLOCATION_BEAN == null ? 0 : ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+	}
+	
+}
@@ -73,6 +73,7 @@ import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.base.JRBasePrintPage;
 import net.sf.jasperreports.engine.base.JRVirtualPrintPage;
+import net.sf.jasperreports.engine.base.LazyJasperReport;
 import net.sf.jasperreports.engine.type.BandTypeEnum;
 import net.sf.jasperreports.engine.type.EvaluationTimeEnum;
 import net.sf.jasperreports.engine.type.OrientationEnum;
@@ -183,6 +184,11 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 	protected JRFillBand columnHeader;
 
 	protected JRFillSection detailSection;
+	
+	/**
+	 * Whether the detail section is created when the first record is read.
+	 */
+	private boolean detailSectionDeferred;
 
 	protected JRFillBand columnFooter;
 
@@ -214,6 +220,8 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 	 * @deprecated To be removed.
 	 */
 	private boolean isLegacyTextMeasuring;
+	
+	private boolean compactPages;
 
 	/**
 	 *
@@ -288,15 +296,15 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 		pageHeader = createFillBand(jasperReport.getPageHeader(), reportName, BandTypeEnum.PAGE_HEADER);
 		columnHeader = createFillBand(jasperReport.getColumnHeader(), reportName, BandTypeEnum.COLUMN_HEADER);
 		
-		detailSection = factory.getSection(jasperReport.getDetailSection());
-		if (detailSection != missingFillSection)
+		if (jasperReport instanceof LazyJasperReport)
 		{
-			detailSection.setOrigin(
-				new JROrigin(
-					reportName,
-					BandTypeEnum.DETAIL
-					)
-				);
+			// reports with deferred parts do not load the detail section unless there are records to fill
+			detailSection = missingFillSection;
+			detailSectionDeferred = true;
+		}
+		else
+		{
+			detailSection = createDetailSection(reportName);
 		}
 		
 		columnFooter = createFillBand(jasperReport.getColumnFooter(), reportName, BandTypeEnum.COLUMN_FOOTER);
@@ -364,6 +372,44 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 		return fillFactory;
 	}
 	
+	private JRFillSection createDetailSection(String reportName)
+	{
+		JRFillSection fillSection = factory.getSection(jasperReport.getDetailSection());
+		if (fillSection != missingFillSection)
+		{
+			fillSection.setOrigin(
+				new JROrigin(
+					reportName,
+					BandTypeEnum.DETAIL
+					)
+				);
+		}
+		return fillSection;
+	}
+
+	private void createDeferredDetailSection()
+	{
+		detailSectionDeferred = false;
+		
+		String reportName = getBandReportParent() == null ? null : getBandReportParent().getReportName();
+		detailSection = createDetailSection(reportName);
+		
+		JRFillBand[] detailBands = detailSection.getFillBands();
+		if (detailBands != null)
+		{
+			for (int i = 0; i < detailBands.length; i++)
+			{
+				bands.add(detailBands[i]);
+				createBoundElementMaps(JREvaluationTime.getBandEvaluationTime(detailBands[i]));
+			}
+		}
+		
+		// the styles have already been loaded
+		factory.useLoadedStyles();
+		
+		updateDatasets();
+	}
+
 	private JRFillBand createFillBand(JRBand reportBand, String reportName, BandTypeEnum bandType)
 	{
 		JRFillBand fillBand = factory.getBand(reportBand);
@@ -595,6 +641,9 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 			isLegacyTextMeasuring = propertiesUtil.getBooleanProperty(mainDataset, 
 					JRFillTextElement.PROPERTY_LEGACY_TEXT_MEASURING, false);
 			
+			compactPages = parent == null && !fillContext.isUsingVirtualizer()
+					&& propertiesUtil.getBooleanProperty(mainDataset, CompactPrintPage.PROPERTY_COMPACT_PAGES, false);
+			
 			loadStyles();
 
 			jasperPrint.setName(name);
@@ -630,6 +679,14 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 			/*   */
 			fillReport();
 			
+			if (compactPages)
+			{
+				for (int pageIdx = 0; pageIdx < jasperPrint.getPages().size(); pageIdx++)
+				{
+					compactPage(pageIdx);
+				}
+			}
+			
 			mainDataset.evaluateProperties(PropertyEvaluationTimeEnum.REPORT);
 			
 			propertiesUtil.transferProperties(
@@ -681,6 +738,9 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 			}
 
 			JRResourcesFillUtil.revertResourcesFillContext(resourcesContext);
+			
+			recordFillMetrics(success);
+			endReportProfile(success);
 		}
 	}
 		
@@ -699,6 +759,12 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 	protected void addDefaultStyleListener(DefaultStyleListener listener)
 	{
 		defaultStyleListeners.add(listener);
+		
+		if (defaultStyle != null)
+		{
+			// the listener is added after the styles have been loaded
+			listener.defaultStyleSet(defaultStyle);
+		}
 	}
 
 	protected void setDefaultStyle(JRStyle style)
@@ -716,6 +782,11 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 	{
 		List<JRStyle> styleList = collectStyles();
 		JRStyle reportDefaultStyle = jasperReport.getDefaultStyle();
+		if (detailSectionDeferred)
+		{
+			// including the styles that will be used by the detail section
+			factory.requestStyles(((LazyJasperReport) jasperReport).getDetailStyleNames());
+		}
 		if (reportDefaultStyle == null)
 		{
 			lookupExternalDefaultStyle(styleList);
@@ -1207,7 +1278,12 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 		isCrtRecordOnPage = false;
 		isCrtRecordOnColumn = false;
 		
-		return mainDataset.next();
+		boolean hasNext = mainDataset.next();
+		if (hasNext && detailSectionDeferred)
+		{
+			createDeferredDetailSection();
+		}
+		return hasNext;
 	}
 
 	/**
@@ -1380,11 +1456,33 @@ public abstract class JRBaseFiller extends BaseReportFiller implements JRDefault
 				fillListener.pageGenerated(jasperPrint, pageCount - 1);
 			}
 
+			if (compactPages && pageCount > 1)
+			{
+				// the previous page can still change when elements are moved to the new page,
+				// the one before it is complete
+				compactPage(pageCount - 2);
+			}
+
 			jasperPrint.addPage(page);
 			fillContext.setPrintPage(page);
 		}
 	}
 	
+	protected void compactPage(int pageIdx)
+	{
+		List<JRPrintPage> pages = jasperPrint.getPages();
+		JRPrintPage page = pages.get(pageIdx);
+		if (page.getClass() == JRBasePrintPage.class && isPageFinal(page))
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("Fill " + fillerId + ": compacting page " + (pageIdx + 1));
+			}
+			
+			pages.set(pageIdx, new CompactPrintPage(page.getElements()));
+		}
+	}
+	
 	@continuable
 	protected void addPageToParent(final boolean ended) throws JRException
 	{
@@ -166,6 +166,16 @@ public class JRCalculator implements JRFillExpressionEvaluator
 	}
 
 
+	/**
+	 * Picks up the variables and element datasets added to the dataset after initialization.
+	 */
+	protected void datasetUpdated()
+	{
+		variables = dataset.variables;
+		datasets = dataset.elementDatasets;
+	}
+
+
 	/**
 	 *
 	 */
@@ -620,6 +630,28 @@ public class JRCalculator implements JRFillExpressionEvaluator
 		JRExpression expression,
 		byte evaluationType
 		) throws JRException
+	{
+		FillProfiler profiler = dataset == null || expression == null ? null : dataset.getProfiler();
+		if (profiler == null)
+		{
+			return evaluateValue(expression, evaluationType);
+		}
+		
+		FillProfiler.Scope profileScope = profiler.startExpression(dataset.getFiller(), expression);
+		try
+		{
+			return evaluateValue(expression, evaluationType);
+		}
+		finally
+		{
+			profileScope.end();
+		}
+	}
+	
+	private Object evaluateValue(
+		JRExpression expression,
+		byte evaluationType
+		) throws JRException
 	{
 		Object value = null;
 		
@@ -436,6 +436,29 @@ public class JRFillBand extends JRFillElementContainer implements JRBand, JROrig
 		int availableHeight,
 		boolean isOverflowAllowed
 		) throws JRException
+	{
+		FillProfiler profiler = filler.getFillContext().getProfiler();
+		if (profiler == null)
+		{
+			return fillBand(availableHeight, isOverflowAllowed);
+		}
+		
+		FillProfiler.Scope profileScope = profiler.startBand(this, FillProfileCategory.BAND_FILL);
+		try
+		{
+			return fillBand(availableHeight, isOverflowAllowed);
+		}
+		finally
+		{
+			profileScope.end();
+		}
+	}
+
+
+	private JRPrintBand fillBand(
+		int availableHeight,
+		boolean isOverflowAllowed
+		) throws JRException
 	{
 		filler.checkInterrupted();
 
@@ -543,9 +566,22 @@ public class JRFillBand extends JRFillElementContainer implements JRBand, JROrig
 	@Override
 	protected void evaluate(byte evaluation) throws JRException
 	{
-		resetSavedVariables();
-		evaluateConditionalStyles(evaluation);
-		super.evaluate(evaluation);
+		FillProfiler profiler = filler.getFillContext().getProfiler();
+		FillProfiler.Scope profileScope = profiler == null ? null 
+				: profiler.startBand(this, FillProfileCategory.BAND_EVALUATION);
+		try
+		{
+			resetSavedVariables();
+			evaluateConditionalStyles(evaluation);
+			super.evaluate(evaluation);
+		}
+		finally
+		{
+			if (profileScope != null)
+			{
+				profileScope.end();
+			}
+		}
 	}
 	
 	protected void resetSavedVariables()
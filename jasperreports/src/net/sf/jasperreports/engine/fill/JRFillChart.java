@@ -83,13 +83,16 @@ import net.sf.jasperreports.charts.fill.JRFillXyDataset;
 import net.sf.jasperreports.charts.fill.JRFillXyzDataset;
 import net.sf.jasperreports.charts.type.AxisPositionEnum;
 import net.sf.jasperreports.charts.type.EdgeEnum;
+import net.sf.jasperreports.charts.util.AsyncChartRenderableFactory;
 import net.sf.jasperreports.charts.util.CategoryChartHyperlinkProvider;
 import net.sf.jasperreports.charts.util.ChartHyperlinkProvider;
+import net.sf.jasperreports.charts.util.ChartRenderableFactory;
 import net.sf.jasperreports.charts.util.ChartUtil;
 import net.sf.jasperreports.charts.util.HighLowChartHyperlinkProvider;
 import net.sf.jasperreports.charts.util.JRMeterInterval;
 import net.sf.jasperreports.charts.util.MultiAxisChartHyperlinkProvider;
 import net.sf.jasperreports.charts.util.PieChartHyperlinkProvider;
+import net.sf.jasperreports.charts.util.SeriesDownsampler;
 import net.sf.jasperreports.charts.util.TimePeriodChartHyperlinkProvider;
 import net.sf.jasperreports.charts.util.TimeSeriesChartHyperlinkProvider;
 import net.sf.jasperreports.charts.util.XYChartHyperlinkProvider;
@@ -814,13 +817,46 @@ public class JRFillChart extends JRFillElement implements JRChart
 		
 		Rectangle2D rectangle = new Rectangle2D.Double(0,0,getWidth(),getHeight());
 
-		renderer = 
-			ChartUtil.getInstance(filler.getJasperReportsContext()).getChartRenderableFactory(getRenderType()).getRenderable(
-				filler.getJasperReportsContext(),
-				chart, 
-				chartHyperlinkProvider,
-				rectangle
-				);
+		ChartRenderableFactory factory = 
+			ChartUtil.getInstance(filler.getJasperReportsContext()).getChartRenderableFactory(getRenderType());
+		ChartRenderingExecutor executor = 
+			factory instanceof AsyncChartRenderableFactory && isDatasetComplete()
+			? ChartRenderingExecutor.getInstance(filler.getFillContext()) : null;
+		if (executor == null)
+		{
+			renderer = 
+				factory.getRenderable(
+					filler.getJasperReportsContext(),
+					chart, 
+					chartHyperlinkProvider,
+					rectangle
+					);
+		}
+		else
+		{
+			renderer = 
+				executor.render(
+					(AsyncChartRenderableFactory) factory,
+					filler.getJasperReportsContext(),
+					chart, 
+					chartHyperlinkProvider,
+					rectangle
+					);
+		}
+	}
+	
+	/**
+	 * Determines whether the chart data can no longer be modified by the fill after the chart is evaluated,
+	 * which is the case for charts that have their own dataset run and for charts evaluated at report level.
+	 * Such charts can be rendered on a separate thread.
+	 * 
+	 * @see JRChart#PROPERTY_CHART_RENDER_THREADS
+	 */
+	protected boolean isDatasetComplete()
+	{
+		return dataset != null
+				&& getChartType() != JRChart.CHART_TYPE_MULTI_AXIS
+				&& (dataset.getDatasetRun() != null || getEvaluationTimeValue() == EvaluationTimeEnum.REPORT);
 	}
 	
 	protected ChartHyperlinkProvider getHyperlinkProvider()
@@ -848,6 +884,11 @@ public class JRFillChart extends JRFillElement implements JRChart
 			theme = ChartUtil.getInstance(filler.getJasperReportsContext()).getTheme(themeName);
 		}
 		
+		if (dataset != null)
+		{
+			dataset.setDownsamplingThreshold(getDownsamplingThreshold());
+		}
+		
 		if (getChartType() == JRChart.CHART_TYPE_MULTI_AXIS)
 		{
 			//FIXMECHARTTHEME multi axis charts do not support themes
@@ -877,6 +918,25 @@ public class JRFillChart extends JRFillElement implements JRChart
 	}
 
 
+	/**
+	 * Returns the number of points to which the chart series are reduced,
+	 * or 0 if the series are not to be reduced.
+	 * 
+	 * @see JRChart#PROPERTY_CHART_DOWNSAMPLING
+	 */
+	protected int getDownsamplingThreshold()
+	{
+		JRPropertiesUtil propertiesUtil = filler.getPropertiesUtil();
+		if (!propertiesUtil.getBooleanProperty(this, JRChart.PROPERTY_CHART_DOWNSAMPLING, false))
+		{
+			return 0;
+		}
+		
+		float factor = propertiesUtil.getFloatProperty(this, JRChart.PROPERTY_CHART_DOWNSAMPLING_FACTOR, 2f);
+		return Math.max(SeriesDownsampler.MIN_THRESHOLD, (int) Math.ceil(getWidth() * factor));
+	}
+
+
 	@Override
 	protected boolean prepare(
 		int availableHeight,
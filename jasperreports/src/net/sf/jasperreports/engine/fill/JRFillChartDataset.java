@@ -23,6 +23,7 @@
  */
 package net.sf.jasperreports.engine.fill;
 
+import net.sf.jasperreports.engine.JRChart;
 import net.sf.jasperreports.engine.JRChartDataset;
 
 import org.jfree.data.general.Dataset;
@@ -33,6 +34,9 @@ import org.jfree.data.general.Dataset;
  */
 public abstract class JRFillChartDataset extends JRFillElementDataset implements JRChartDataset
 {
+	
+	private int downsamplingThreshold;
+	
 	/**
 	 *
 	 */
@@ -59,6 +63,25 @@ public abstract class JRFillChartDataset extends JRFillElementDataset implements
 	 */
 	public abstract Dataset getCustomDataset();
 
+	/**
+	 * Returns the number of points to which the series of the dataset are reduced
+	 * by datasets that support it, or 0 if the series are not reduced.
+	 * 
+	 * @see JRChart#PROPERTY_CHART_DOWNSAMPLING
+	 */
+	public int getDownsamplingThreshold()
+	{
+		return downsamplingThreshold;
+	}
+
+	/**
+	 *
+	 */
+	public void setDownsamplingThreshold(int downsamplingThreshold)
+	{
+		this.downsamplingThreshold = downsamplingThreshold;
+	}
+
 	/**
 	 *
 	 */
@@ -25,6 +25,7 @@ package net.sf.jasperreports.engine.fill;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -39,6 +40,8 @@ import net.sf.jasperreports.data.cache.DataCacheHandler;
 import net.sf.jasperreports.data.cache.DataRecorder;
 import net.sf.jasperreports.data.cache.DataSnapshot;
 import net.sf.jasperreports.engine.Deduplicable;
+import net.sf.jasperreports.engine.JRConditionalStyle;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
 import net.sf.jasperreports.engine.JRException;
 import net.sf.jasperreports.engine.JRPrintElement;
 import net.sf.jasperreports.engine.JRPrintPage;
@@ -58,6 +61,8 @@ import net.sf.jasperreports.engine.util.JRStyledTextUtil;
 import net.sf.jasperreports.engine.util.MarkupProcessor;
 import net.sf.jasperreports.engine.util.MarkupProcessorFactory;
 import net.sf.jasperreports.engine.util.Pair;
+import net.sf.jasperreports.metrics.EngineMetrics;
+import net.sf.jasperreports.metrics.MetricsRegistry;
 import net.sf.jasperreports.renderers.Renderable;
 import net.sf.jasperreports.renderers.RenderersCache;
 import net.sf.jasperreports.repo.JasperDesignCache;
@@ -76,6 +81,8 @@ public class JRFillContext
 	
 	public static final String EXCEPTION_MESSAGE_KEY_MISSING_MARKUP_PROCESSOR_FACTORY = "fill.text.element.missing.markup.processor.factory";
 	
+	private static final Object NOT_SHARED = new Object();
+	
 	private static final JRSingletonCache<MarkupProcessorFactory> markupProcessorFactoryCache = 
 			new JRSingletonCache<>(MarkupProcessorFactory.class);
 	private final Map<String,MarkupProcessor> markupProcessors = new HashMap<>();
@@ -87,6 +94,9 @@ public class JRFillContext
 	private Map<Object,JasperReportSource> loadedSubreports;
 	private Map<Object,ReportTemplateSource> loadedTemplates;
 	private DeduplicableRegistry deduplicableRegistry;
+	private SharedTemplatePool sharedTemplatePool;
+	private Map<JRDefaultStyleProvider, Map<JRStyle, Object>> sharedStyles;
+	private Map<JRDefaultStyleProvider, Object> sharedStyleProviders;
 	private boolean usingVirtualizer;
 	private JRPrintPage printPage;
 	private JRQueryExecuter queryExecuter;
@@ -126,6 +136,11 @@ public class JRFillContext
 
 	private FillEvents fillEvents;
 	
+	private FillProfiler profiler;
+	private boolean ownProfiler;
+	
+	private final MetricsRegistry metrics;
+	
 	/**
 	 * Constructs a fill context.
 	 */
@@ -134,6 +149,7 @@ public class JRFillContext
 		this.masterFiller = masterFiller;
 		this.jasperReportsContext = masterFiller.getJasperReportsContext();
 		this.styledTextUtil = JRStyledTextUtil.getInstance(jasperReportsContext);
+		this.metrics = EngineMetrics.getRegistry(jasperReportsContext);
 		
 		loadedImageRenderers = new HashMap<>();
 		renderersCache = new RenderersCache(jasperReportsContext);
@@ -141,6 +157,15 @@ public class JRFillContext
 		loadedTemplates = new HashMap<>();
 		deduplicableRegistry = new DeduplicableRegistry();
 		
+		JasperReport jasperReport = masterFiller.getJasperReport();
+		if (masterFiller.getPropertiesUtil().getBooleanProperty(jasperReport, 
+				SharedTemplatePool.PROPERTY_SHARED_TEMPLATES, false))
+		{
+			sharedTemplatePool = SharedTemplatePool.getInstance(jasperReportsContext, jasperReport);
+			sharedStyles = new IdentityHashMap<>();
+			sharedStyleProviders = new IdentityHashMap<>();
+		}
+		
 		FontUtil.getInstance(jasperReportsContext).resetThreadMissingFontsCache();
 		
 		legacyElementStretchEnabled = 
@@ -548,9 +573,121 @@ public class JRFillContext
 	 */
 	public <T extends Deduplicable> T deduplicate(T object)
 	{
+		if (sharedTemplatePool != null && object instanceof JRTemplateElement)
+		{
+			@SuppressWarnings("unchecked")
+			T sharedTemplate = (T) shareTemplate((JRTemplateElement) object);
+			if (sharedTemplate != null)
+			{
+				return sharedTemplate;
+			}
+		}
+		
 		return deduplicableRegistry.deduplicate(object);
 	}
 
+	/**
+	 * Looks up an element template in the pool shared with the other fills of the report.
+	 * 
+	 * The styles of the template are replaced by shared copies before the lookup, 
+	 * so that identical templates created by different fills reference the same style instances.
+	 * 
+	 * @param template a template that has just been created
+	 * @return the shared template, or <code>null</code> if the template cannot be shared
+	 */
+	protected JRTemplateElement shareTemplate(JRTemplateElement template)
+	{
+		JRDefaultStyleProvider sharedDefaultStyleProvider = null;
+		if (template.defaultStyleProvider != null)
+		{
+			sharedDefaultStyleProvider = getSharedStyleProvider(template.defaultStyleProvider);
+			if (sharedDefaultStyleProvider == null)
+			{
+				return null;
+			}
+		}
+		
+		JRStyle sharedParentStyle = null;
+		if (template.parentStyle != null)
+		{
+			sharedParentStyle = getSharedStyle(template.parentStyle);
+			if (sharedParentStyle == null)
+			{
+				return null;
+			}
+		}
+		
+		template.defaultStyleProvider = sharedDefaultStyleProvider;
+		template.parentStyle = sharedParentStyle;
+		return sharedTemplatePool.deduplicate(null, template);
+	}
+	
+	protected JRDefaultStyleProvider getSharedStyleProvider(JRDefaultStyleProvider defaultStyleProvider)
+	{
+		Object sharedProvider = sharedStyleProviders.get(defaultStyleProvider);
+		if (sharedProvider == null)
+		{
+			JRStyle defaultStyle = defaultStyleProvider.getDefaultStyle();
+			JRStyle sharedDefaultStyle = defaultStyle == null ? null 
+					// the default style and its parents are shared without a default style
+					: getSharedStyle(defaultStyle, sharedTemplatePool.getDefaultStyleProvider(null));
+			
+			sharedProvider = defaultStyle != null && sharedDefaultStyle == null ? NOT_SHARED 
+					: sharedTemplatePool.getDefaultStyleProvider(sharedDefaultStyle);
+			sharedStyleProviders.put(defaultStyleProvider, sharedProvider);
+		}
+		return sharedProvider == NOT_SHARED ? null : (JRDefaultStyleProvider) sharedProvider;
+	}
+	
+	protected JRStyle getSharedStyle(JRStyle style)
+	{
+		JRDefaultStyleProvider sharedDefaultStyleProvider;
+		if (style.getDefaultStyleProvider() == null)
+		{
+			sharedDefaultStyleProvider = sharedTemplatePool.getDefaultStyleProvider(null);
+		}
+		else
+		{
+			sharedDefaultStyleProvider = getSharedStyleProvider(style.getDefaultStyleProvider());
+			if (sharedDefaultStyleProvider == null)
+			{
+				return null;
+			}
+		}
+		return getSharedStyle(style, sharedDefaultStyleProvider);
+	}
+	
+	protected JRStyle getSharedStyle(JRStyle style, JRDefaultStyleProvider sharedDefaultStyleProvider)
+	{
+		Map<JRStyle, Object> providerStyles = sharedStyles.get(sharedDefaultStyleProvider);
+		if (providerStyles == null)
+		{
+			providerStyles = new IdentityHashMap<>();
+			sharedStyles.put(sharedDefaultStyleProvider, providerStyles);
+		}
+		
+		Object sharedStyle = providerStyles.get(style);
+		if (sharedStyle == null)
+		{
+			sharedStyle = NOT_SHARED;
+			
+			// conditional styles are evaluated by the fill and are not shared
+			JRConditionalStyle[] conditionalStyles = style.getConditionalStyles();
+			if (conditionalStyles == null || conditionalStyles.length == 0)
+			{
+				JRStyle parentStyle = style.getStyle();
+				JRStyle sharedParentStyle = parentStyle == null ? null 
+						: getSharedStyle(parentStyle, sharedDefaultStyleProvider);
+				if (parentStyle == null || sharedParentStyle != null)
+				{
+					sharedStyle = sharedTemplatePool.getStyle(style, sharedParentStyle, sharedDefaultStyleProvider);
+				}
+			}
+			providerStyles.put(style, sharedStyle);
+		}
+		return sharedStyle == NOT_SHARED ? null : (JRStyle) sharedStyle;
+	}
+
 	/**
 	 * Generates a fresh fill element Id.
 	 * 
@@ -595,6 +732,61 @@ public class JRFillContext
 		}
 	}
 
+	/**
+	 * Sets up the fill profiler, either received as a report context parameter 
+	 * or created as a result of {@link FillProfiler#PROPERTY_ENABLED}.
+	 */
+	protected void initProfiler()
+	{
+		profiler = (FillProfiler) getContextParameterValue(FillProfiler.PARAMETER_FILL_PROFILER);
+		ownProfiler = false;
+		if (profiler == null 
+				&& masterFiller.getPropertiesUtil().getBooleanProperty(masterFiller.getJasperReport(), 
+						FillProfiler.PROPERTY_ENABLED, false))
+		{
+			profiler = new FillProfiler();
+			ownProfiler = true;
+		}
+	}
+
+	/**
+	 * Returns the profiler used by the fill, if profiling is enabled.
+	 * 
+	 * @return the fill profiler, or <code>null</code> if profiling is not enabled
+	 */
+	public FillProfiler getProfiler()
+	{
+		return profiler;
+	}
+	
+	/**
+	 * Returns the registry to which fill metrics are reported.
+	 * 
+	 * @return the metrics registry
+	 * @see EngineMetrics#getRegistry(JasperReportsContext)
+	 */
+	public MetricsRegistry getMetrics()
+	{
+		return metrics;
+	}
+	
+	protected void profilerDone() throws JRException
+	{
+		if (ownProfiler)
+		{
+			String directory = masterFiller.getPropertiesUtil().getProperty(masterFiller.getJasperReport(), 
+					FillProfiler.PROPERTY_OUTPUT_DIRECTORY);
+			if (directory == null)
+			{
+				profiler.logOutput();
+			}
+			else
+			{
+				profiler.writeOutput(directory, masterFiller.getJasperReport().getName());
+			}
+		}
+	}
+
 	protected Object getContextParameterValue(String parameterName)
 	{
 		if (reportContext == null)
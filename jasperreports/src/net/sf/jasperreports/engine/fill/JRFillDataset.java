@@ -76,6 +76,7 @@ import net.sf.jasperreports.engine.ParameterContributorFactory;
 import net.sf.jasperreports.engine.data.IndexedDataSource;
 import net.sf.jasperreports.engine.design.JRDesignVariable;
 import net.sf.jasperreports.engine.query.JRQueryExecuter;
+import net.sf.jasperreports.engine.query.PushdownQueryExecuter;
 import net.sf.jasperreports.engine.query.QueryExecuterFactory;
 import net.sf.jasperreports.engine.query.SimpleQueryExecutionContext;
 import net.sf.jasperreports.engine.scriptlets.ScriptletFactory;
@@ -91,6 +92,7 @@ import net.sf.jasperreports.engine.util.JRDataUtils;
 import net.sf.jasperreports.engine.util.JRQueryExecuterUtils;
 import net.sf.jasperreports.engine.util.JRResourcesUtil;
 import net.sf.jasperreports.engine.util.MD5Digest;
+import net.sf.jasperreports.metrics.EngineMetrics;
 import net.sf.jasperreports.repo.RepositoryContext;
 import net.sf.jasperreports.repo.SimpleRepositoryContext;
 
@@ -266,6 +268,8 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 	private CachedDataset cachedDataset;
 	private boolean sortingData;
 	private boolean sortedDataSource;
+	private boolean sortPushedDown;
+	private boolean filterPushedDown;
 	
 	private boolean ended;
 	private int cacheRecordCount;
@@ -721,6 +725,8 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 	{
 		queryExecuter = null;
 		dataSource = null;
+		sortPushedDown = false;
+		filterPushedDown = false;
 
 		if (cachedDataset != null)
 		{
@@ -733,12 +739,28 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 			dataSource = (JRDataSource) getParameterValue(JRParameter.REPORT_DATA_SOURCE);
 			if (!useDatasourceParamValue && (useConnectionParamValue || dataSource == null))
 			{
-				dataSource = createQueryDatasource();
+				FillProfiler.Scope profileScope = startProfile(FillProfileCategory.QUERY);
+				long queryStart = System.nanoTime();
+				try
+				{
+					dataSource = createQueryDatasource();
+				}
+				finally
+				{
+					if (profileScope != null)
+					{
+						profileScope.end();
+					}
+				}
+				if (query != null && filler != null)
+				{
+					filler.getFillContext().getMetrics().recordDuration(EngineMetrics.QUERY_TIME, System.nanoTime() - queryStart);
+				}
 				setParameter(JRParameter.REPORT_DATA_SOURCE, dataSource);
 			}
 		}
 
-		if (DatasetSortUtil.needSorting(this))
+		if (!sortPushedDown && DatasetSortUtil.needSorting(this))
 		{
 			sortingData = true;
 			dataSource = DatasetSortUtil.getSortedDataSource(filler, this, locale);
@@ -1283,6 +1305,11 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 				filler.fillContext.setRunningQueryExecuter(queryExecuter);
 			}
 			
+			if (queryExecuter instanceof PushdownQueryExecuter)
+			{
+				pushDownSortAndFilter((PushdownQueryExecuter) queryExecuter);
+			}
+			
 			return queryExecuter.createDatasource();
 		}
 		finally
@@ -1295,6 +1322,33 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 	}
 
 
+	/**
+	 * Offers the sort fields and the dynamic filter to a query executer that is able to include them in the query.
+	 */
+	protected void pushDownSortAndFilter(PushdownQueryExecuter pushdownExecuter)
+	{
+		if (dataRecorder != null)
+		{
+			// the data snapshot needs to contain all records in the original order
+			return;
+		}
+		
+		if (DatasetSortUtil.needSorting(this))
+		{
+			sortPushedDown = pushdownExecuter.pushDownSortFields(Arrays.asList(DatasetSortUtil.getAllSortFields(this)));
+		}
+		
+		if (filter != null)
+		{
+			filterPushedDown = pushdownExecuter.pushDownFilter(filter);
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("sort pushed down: " + sortPushedDown + ", filter pushed down: " + filterPushedDown);
+		}
+	}
+
 	protected void reset()
 	{
 		useDatasourceParamValue = false;
@@ -1419,6 +1473,36 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 	 * @throws JRException
 	 */
 	protected boolean next(boolean sorting) throws JRException
+	{
+		FillProfiler.Scope profileScope = startProfile(FillProfileCategory.DATASET);
+		if (profileScope == null)
+		{
+			return nextRecord(sorting);
+		}
+		
+		try
+		{
+			return nextRecord(sorting);
+		}
+		finally
+		{
+			profileScope.end();
+		}
+	}
+	
+	private FillProfiler.Scope startProfile(FillProfileCategory category)
+	{
+		FillProfiler profiler = getProfiler();
+		return profiler == null ? null : profiler.start(filler, category, getName());
+	}
+	
+	protected FillProfiler getProfiler()
+	{
+		return filler == null ? null : filler.getFillContext().getProfiler();
+	}
+
+
+	private boolean nextRecord(boolean sorting) throws JRException
 	{
 		boolean hasNext = false;
 
@@ -1467,7 +1551,7 @@ public class JRFillDataset implements JRDataset, DatasetFillContext
 								cacheRecord();
 							}
 							
-							if (filter != null)
+							if (filter != null && !filterPushedDown)
 							{
 								includeRow = filter.matches(EvaluationType.ESTIMATED);
 								if (log.isDebugEnabled())
@@ -99,7 +99,7 @@ public class JRFillDatasetRun implements JRDatasetRun
 			JRDatasetRun datasetRun, JRFillObjectFactory factory)
 	{
 		this(filler, expressionEvaluator, datasetRun, 
-				filler.datasetMap.get(datasetRun.getDatasetName()));
+				filler.getFillDataset(datasetRun.getDatasetName()));
 		
 		factory.put(datasetRun, this);
 		
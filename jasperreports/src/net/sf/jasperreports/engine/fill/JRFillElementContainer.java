@@ -380,11 +380,50 @@ public abstract class JRFillElementContainer extends JRFillElementGroup implemen
 				{
 					JRFillElement element = (JRFillElement)allElements[i];
 					element.setCurrentEvaluation(evaluation);
-					element.evaluate(evaluation);
+					evaluateElement(element, evaluation);
 				}
 			}
 		//}
 	}
+	
+	private void evaluateElement(JRFillElement element, byte evaluation) throws JRException
+	{
+		FillProfiler profiler = filler.getFillContext().getProfiler();
+		if (profiler == null)
+		{
+			element.evaluate(evaluation);
+			return;
+		}
+		
+		FillProfiler.Scope profileScope = profiler.startElement(element, FillProfileCategory.ELEMENT_EVALUATION);
+		try
+		{
+			element.evaluate(evaluation);
+		}
+		finally
+		{
+			profileScope.end();
+		}
+	}
+	
+	private boolean prepareElement(JRFillElement element, int availableHeight, boolean isOverflow) throws JRException
+	{
+		FillProfiler profiler = filler.getFillContext().getProfiler();
+		if (profiler == null)
+		{
+			return element.prepare(availableHeight, isOverflow);
+		}
+		
+		FillProfiler.Scope profileScope = profiler.startElement(element, FillProfileCategory.ELEMENT_STRETCH);
+		try
+		{
+			return element.prepare(availableHeight, isOverflow);
+		}
+		finally
+		{
+			profileScope.end();
+		}
+	}
 
 
 	/**
@@ -453,7 +492,8 @@ public abstract class JRFillElementContainer extends JRFillElementGroup implemen
 				JRFillElement element = ySortedElements[i];
 
 				currentOverflowWithElements = 
-					element.prepare(
+					prepareElement(
+						element,
 						availableHeight + getElementFirstY(element),
 						isOverflow
 						) 
@@ -539,7 +579,8 @@ public abstract class JRFillElementContainer extends JRFillElementGroup implemen
 			for (JRFillElement element : ySortedElements)
 			{
 				currentOverflowWithElements = 
-					element.prepare(
+					prepareElement(
+						element,
 						availableHeight + getElementFirstY(element),
 						isOverflow
 						) 
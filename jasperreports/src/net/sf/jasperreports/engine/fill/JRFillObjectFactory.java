@@ -1637,6 +1637,60 @@ public class JRFillObjectFactory extends JRAbstractObjectFactory
 		}
 	}
 
+	/**
+	 * Marks styles as requested by fill objects that are created after the styles are set.
+	 * 
+	 * @param styleNames the names of the styles
+	 * @see #useLoadedStyles()
+	 */
+	protected void requestStyles(String[] styleNames)
+	{
+		if (parentFiller == null)
+		{
+			for (String styleName : styleNames)
+			{
+				if (!delayedStyleSettersByName.containsKey(styleName))
+				{
+					delayedStyleSettersByName.put(styleName, new ArrayList<>());
+				}
+			}
+		}
+		else
+		{
+			parentFiller.requestStyles(styleNames);
+		}
+	}
+
+	/**
+	 * Sets the styles to the style setters registered after the styles were set.
+	 */
+	protected void useLoadedStyles()
+	{
+		if (parentFiller == null)
+		{
+			for (Iterator<Map.Entry<String, List<JRStyleSetter>>> it = delayedStyleSettersByName.entrySet().iterator(); it.hasNext();)
+			{
+				Map.Entry<String, List<JRStyleSetter>> entry = it.next();
+				JRStyle originalStyle = stylesMap.getStyle(entry.getKey());
+				if (originalStyle != null)
+				{
+					JRStyle style = (JRStyle) get(originalStyle);
+					for (JRStyleSetter setter : entry.getValue())
+					{
+						setter.setStyle(style);
+					}
+					it.remove();
+				}
+			}
+			
+			checkUnresolvedReferences();
+		}
+		else
+		{
+			parentFiller.useLoadedStyles();
+		}
+	}
+
 	protected void checkUnresolvedReferences()
 	{
 		if (!delayedStyleSettersByName.isEmpty())
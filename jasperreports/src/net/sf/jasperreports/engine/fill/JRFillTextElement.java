@@ -632,6 +632,32 @@ public abstract class JRFillTextElement extends JRFillElement implements JRTextE
 	}
 
 
+	private JRMeasuredText measureText(
+		JRStyledText styledText,
+		int remainingTextStart,
+		int availableStretchHeight,
+		boolean indentFirstLine,
+		boolean canOverflow
+		)
+	{
+		FillProfiler profiler = filler.getFillContext().getProfiler();
+		if (profiler == null)
+		{
+			return textMeasurer.measure(styledText, remainingTextStart, availableStretchHeight, indentFirstLine, canOverflow);
+		}
+		
+		FillProfiler.Scope profileScope = profiler.startElement(this, FillProfileCategory.TEXT_MEASUREMENT);
+		try
+		{
+			return textMeasurer.measure(styledText, remainingTextStart, availableStretchHeight, indentFirstLine, canOverflow);
+		}
+		finally
+		{
+			profileScope.end();
+		}
+	}
+
+
 	/**
 	 *
 	 */
@@ -656,7 +682,7 @@ public abstract class JRFillTextElement extends JRFillElement implements JRTextE
 
 		boolean canOverflow = canOverflow();
 		JRStyledText processedText = getProcessedStyledText();
-		JRMeasuredText measuredText = textMeasurer.measure(
+		JRMeasuredText measuredText = measureText(
 			processedText,
 			getTextEnd(),
 			availableStretchHeight,
@@ -716,7 +742,7 @@ public abstract class JRFillTextElement extends JRFillElement implements JRTextE
 					&& (newFontSizeMaxDiff != scaleFontStepLimit || deltaSign * newFontSizeMaxDiff != - oldDeltaSign * oldFontSizeMaxDiff);
 				if (keepMeasuring)
 				{
-					tmpMeasuredText = textMeasurer.measure(
+					tmpMeasuredText = measureText(
 						tmpProcessedText,
 						getTextEnd(),
 						availableStretchHeight,
@@ -369,6 +369,16 @@ public class JRTemplatePrintElement implements JRPrintElement, Serializable, Vir
 		this.sourceElementId = sourceElementId;
 	}
 	
+	void setPrintElementId(int printElementId)
+	{
+		this.printElementId = printElementId;
+	}
+	
+	synchronized boolean hasOwnProperties()
+	{
+		return properties != null && properties.hasOwnProperties();
+	}
+	
 	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
 	{
 		in.defaultReadObject();
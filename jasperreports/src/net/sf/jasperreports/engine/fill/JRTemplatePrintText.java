@@ -367,6 +367,18 @@ public class JRTemplatePrintText extends JRTemplatePrintElement implements JRPri
 		this.hyperlinkOmitted = hyperlinkOmitted;
 	}
 		
+	/**
+	 * Determines whether the element has no attributes besides the ones stored by {@link CompactPrintPage}.
+	 */
+	boolean isCompactable()
+	{
+		return textTruncateIndex == null && textTruncateSuffix == null && lineBreakOffsets == null
+				&& textFormat == null && anchorName == null && !hyperlinkOmitted
+				&& hyperlinkReference == null && hyperlinkAnchor == null && hyperlinkPage == null
+				&& hyperlinkTooltip == null && hyperlinkParameters == null
+				&& !hasOwnProperties();
+	}
+		
 	@Override
 	public HyperlinkTypeEnum getHyperlinkTypeValue()
 	{
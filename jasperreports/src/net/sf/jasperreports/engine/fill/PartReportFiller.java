@@ -266,6 +266,9 @@ public class PartReportFiller extends BaseReportFiller
 			}
 
 			JRResourcesFillUtil.revertResourcesFillContext(resourcesContext);
+			
+			recordFillMetrics(success);
+			endReportProfile(success);
 		}
 	}
 
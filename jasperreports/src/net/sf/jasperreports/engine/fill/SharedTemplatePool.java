@@ -0,0 +1,412 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.collections4.map.ReferenceMap;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.Deduplicable;
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRDefaultStyleProvider;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.base.JRBaseObjectFactory;
+import net.sf.jasperreports.engine.base.JRBaseStyle;
+import net.sf.jasperreports.engine.util.StyleResolver;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * Pool of print element templates and styles shared by all the fills of a report.
+ * <p>
+ * While {@link JRFillContext#deduplicate(Deduplicable)} only reuses identical templates within a fill,
+ * the pool allows concurrent and subsequent fills of the same report to use the same
+ * {@link JRTemplateElement} instances, so that identical templates are kept in memory only once
+ * and keep the same {@link JRTemplateElement#getId() ID} in all the resulting documents.
+ * The pool only holds weak references to the pooled objects, an object is removed from the pool
+ * once it is no longer referenced by any document.
+ * </p>
+ * <p>
+ * One pool is kept for each report and {@link JasperReportsContext} combination,
+ * see {@link #getInstance(JasperReportsContext, JasperReport)}.
+ * </p>
+ * 
+ * @see #PROPERTY_SHARED_TEMPLATES
+ */
+public class SharedTemplatePool
+{
+	private static final Log log = LogFactory.getLog(SharedTemplatePool.class);
+
+	/**
+	 * Property that determines whether print element templates are shared between the fills of a report.
+	 * 
+	 * <p>
+	 * When enabled, identical element templates created by different fills of the same report 
+	 * are replaced by a single instance, which is referenced by all the documents produced by the fills.
+	 * The styles referenced by shared templates are copies of the fill styles that are
+	 * also shared between fills.
+	 * </p>
+	 * <p>
+	 * Consequently the styles of the elements in the generated documents are not the instances found in
+	 * {@link net.sf.jasperreports.engine.JasperPrint#getStylesMap() the document styles}, 
+	 * and the default style provider of the elements is not the document itself.
+	 * Serialized documents include the shared style copies and the shared default style provider,
+	 * and can only be deserialized by versions that include this class.
+	 * </p>
+	 * <p>
+	 * The property can be set globally or at report level, and is disabled by default.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_FILL,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_SHARED_TEMPLATES = JRPropertiesUtil.PROPERTY_PREFIX + "fill.shared.templates";
+
+	private static final ReferenceMap<JasperReport, ReferenceMap<JasperReportsContext, SharedTemplatePool>> pools = 
+		new ReferenceMap<>(
+			ReferenceMap.ReferenceStrength.WEAK, ReferenceMap.ReferenceStrength.HARD
+			);
+
+	/**
+	 * Returns the pool of a report for a given context.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @param jasperReport the report
+	 * @return the pool shared by the fills of the report that use the context
+	 */
+	public static SharedTemplatePool getInstance(JasperReportsContext jasperReportsContext, JasperReport jasperReport)
+	{
+		synchronized (pools)
+		{
+			ReferenceMap<JasperReportsContext, SharedTemplatePool> reportPools = pools.get(jasperReport);
+			if (reportPools == null)
+			{
+				reportPools = new ReferenceMap<>(
+					ReferenceMap.ReferenceStrength.WEAK, ReferenceMap.ReferenceStrength.SOFT
+					);
+				pools.put(jasperReport, reportPools);
+			}
+			
+			SharedTemplatePool pool = reportPools.get(jasperReportsContext);
+			if (pool == null)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("creating shared template pool for report " + jasperReport.getName());
+				}
+				
+				pool = new SharedTemplatePool(jasperReportsContext);
+				reportPools.put(jasperReportsContext, pool);
+			}
+			return pool;
+		}
+	}
+	
+	private final StyleResolver styleResolver;
+	private final ReferenceQueue<Deduplicable> queue = new ReferenceQueue<>();
+	private final ConcurrentMap<PoolKey, PooledReference> pooled = new ConcurrentHashMap<>();
+	
+	protected SharedTemplatePool(JasperReportsContext jasperReportsContext)
+	{
+		this.styleResolver = new StyleResolver(jasperReportsContext);
+	}
+	
+	/**
+	 * Searches the pool for an object identical to a given object, and adds the object
+	 * to the pool if no identical object is found.
+	 * 
+	 * @param scope object that needs to be the same for identical objects, compared by identity; can be <code>null</code>
+	 * @param object the object to be searched or added
+	 * @return the pooled object identical to the passed object, or the passed object if not found
+	 */
+	public <T extends Deduplicable> T deduplicate(Object scope, T object)
+	{
+		expungeCleared();
+		
+		PoolKey key = new LookupKey(scope, object);
+		while (true)
+		{
+			PooledReference existingRef = pooled.get(key);
+			if (existingRef != null)
+			{
+				@SuppressWarnings("unchecked")
+				T existing = (T) existingRef.get();
+				if (existing != null)
+				{
+					return existing;
+				}
+				
+				pooled.remove(existingRef, existingRef);
+				continue;
+			}
+			
+			PooledReference ref = new PooledReference(scope, object, key.hash, queue);
+			if (pooled.putIfAbsent(ref, ref) == null)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("Added shared object " + object);
+				}
+				return object;
+			}
+		}
+	}
+
+	/**
+	 * Returns a default style provider shared by the pooled templates and styles 
+	 * that are created for a given default style.
+	 * 
+	 * @param defaultStyle the pooled default style, or <code>null</code> if no default style
+	 * @return the shared default style provider
+	 */
+	public JRDefaultStyleProvider getDefaultStyleProvider(JRStyle defaultStyle)
+	{
+		return deduplicate(null, new SharedDefaultStyleProvider(defaultStyle, styleResolver));
+	}
+	
+	/**
+	 * Returns a pooled copy of a style.
+	 * 
+	 * @param style the style, which should not have conditional styles
+	 * @param sharedParentStyle the pooled copy of the parent style, or <code>null</code> if the style has no parent
+	 * @param sharedDefaultStyleProvider the shared default style provider to be used by the copy
+	 * @return the pooled style identical to the style copy
+	 * @see #getDefaultStyleProvider(JRStyle)
+	 */
+	public JRStyle getStyle(JRStyle style, JRStyle sharedParentStyle, JRDefaultStyleProvider sharedDefaultStyleProvider)
+	{
+		JRBaseStyle styleCopy = new JRBaseStyle(style, 
+				new SharedStyleFactory(sharedDefaultStyleProvider, sharedParentStyle));
+		return deduplicate(sharedDefaultStyleProvider, styleCopy);
+	}
+	
+	protected void expungeCleared()
+	{
+		Reference<? extends Deduplicable> ref;
+		while ((ref = queue.poll()) != null)
+		{
+			PooledReference pooledRef = ((QueuedReference) ref).pooledReference;
+			pooled.remove(pooledRef, pooledRef);
+		}
+	}
+	
+	protected abstract static class PoolKey
+	{
+		protected final int hash;
+		
+		protected PoolKey(int hash)
+		{
+			this.hash = hash;
+		}
+		
+		protected abstract Object scope();
+		
+		protected abstract Deduplicable object();
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj)
+			{
+				return true;
+			}
+			if (!(obj instanceof PoolKey))
+			{
+				return false;
+			}
+			
+			PoolKey key = (PoolKey) obj;
+			Deduplicable object = object();
+			Deduplicable keyObject = key.object();
+			return hash == key.hash
+					&& object != null && keyObject != null 
+					&& scope() == key.scope()
+					&& object.getClass() == keyObject.getClass()
+					&& object.isIdentical(keyObject);
+		}
+	}
+	
+	protected static class LookupKey extends PoolKey
+	{
+		private final Object scope;
+		private final Deduplicable object;
+		
+		public LookupKey(Object scope, Deduplicable object)
+		{
+			super(31 * System.identityHashCode(scope) + object.getHashCode());
+			
+			this.scope = scope;
+			this.object = object;
+		}
+
+		@Override
+		protected Object scope()
+		{
+			return scope;
+		}
+
+		@Override
+		protected Deduplicable object()
+		{
+			return object;
+		}
+	}
+	
+	protected static class PooledReference extends PoolKey
+	{
+		private final Object scope;
+		private final Reference<Deduplicable> reference;
+		
+		public PooledReference(Object scope, Deduplicable object, int hash, ReferenceQueue<Deduplicable> queue)
+		{
+			super(hash);
+			
+			this.scope = scope;
+			this.reference = new QueuedReference(object, queue, this);
+		}
+
+		@Override
+		protected Object scope()
+		{
+			return scope;
+		}
+
+		@Override
+		protected Deduplicable object()
+		{
+			return reference.get();
+		}
+		
+		public Deduplicable get()
+		{
+			return reference.get();
+		}
+	}
+	
+	protected static class QueuedReference extends WeakReference<Deduplicable>
+	{
+		private final PooledReference pooledReference;
+		
+		public QueuedReference(Deduplicable object, ReferenceQueue<Deduplicable> queue, PooledReference pooledReference)
+		{
+			super(object, queue);
+			
+			this.pooledReference = pooledReference;
+		}
+	}
+	
+	/**
+	 * Factory used to copy styles, linking the copies to pooled parent styles.
+	 */
+	protected static class SharedStyleFactory extends JRBaseObjectFactory
+	{
+		private final JRStyle sharedParentStyle;
+		
+		public SharedStyleFactory(JRDefaultStyleProvider defaultStyleProvider, JRStyle sharedParentStyle)
+		{
+			super(defaultStyleProvider);
+			
+			this.sharedParentStyle = sharedParentStyle;
+		}
+
+		@Override
+		public JRStyle getStyle(JRStyle style)
+		{
+			return style == null ? null : sharedParentStyle;
+		}
+	}
+	
+	/**
+	 * Default style provider used by shared templates and styles, 
+	 * in place of the default style provider of the document produced by a fill.
+	 */
+	protected static class SharedDefaultStyleProvider implements JRDefaultStyleProvider, Deduplicable, Serializable
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+		
+		private final JRStyle defaultStyle;
+		private transient StyleResolver styleResolver;
+		
+		public SharedDefaultStyleProvider(JRStyle defaultStyle, StyleResolver styleResolver)
+		{
+			this.defaultStyle = defaultStyle;
+			this.styleResolver = styleResolver;
+		}
+
+		@Override
+		public JRStyle getDefaultStyle()
+		{
+			return defaultStyle;
+		}
+
+		@Override
+		public StyleResolver getStyleResolver()
+		{
+			return styleResolver;
+		}
+
+		@Override
+		public int getHashCode()
+		{
+			return System.identityHashCode(defaultStyle);
+		}
+
+		@Override
+		public boolean isIdentical(Object object)
+		{
+			return object instanceof SharedDefaultStyleProvider 
+					&& defaultStyle == ((SharedDefaultStyleProvider) object).defaultStyle;
+		}
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+		{
+			in.defaultReadObject();
+			styleResolver = StyleResolver.getInstance();
+		}
+	}
+}
@@ -52,6 +52,8 @@ import net.sf.jasperreports.engine.util.JRStyledText.Run;
 import net.sf.jasperreports.engine.util.Pair;
 import net.sf.jasperreports.engine.util.TextUtils;
 import net.sf.jasperreports.engine.util.text.TextLayoutUtils;
+import net.sf.jasperreports.metrics.EngineMetrics;
+import net.sf.jasperreports.metrics.MetricsRegistry;
 import net.sf.jasperreports.properties.PropertyConstants;
 
 /**
@@ -103,6 +105,7 @@ public class SimpleTextLineWrapper implements TextLineWrapper
 	private boolean measureExact;
 	private boolean measureExactMultiline;
 	private Map<FontKey, ElementFontInfo> fontInfos;
+	private MetricsRegistry metrics;
 	
 	private String wholeText;
 	private FontKey fontKey;
@@ -129,6 +132,7 @@ public class SimpleTextLineWrapper implements TextLineWrapper
 		this.measureExact = parent.measureExact;
 		this.measureExactMultiline = parent.measureExactMultiline;
 		this.fontInfos = parent.fontInfos;
+		this.metrics = parent.metrics;
 		
 		this.wholeText = parent.wholeText;
 		this.fontKey = parent.fontKey;
@@ -139,6 +143,7 @@ public class SimpleTextLineWrapper implements TextLineWrapper
 	public void init(TextMeasureContext context)
 	{
 		this.context = context;
+		this.metrics = EngineMetrics.getRegistry(context.getJasperReportsContext());
 		
 		JRPropertiesUtil properties = JRPropertiesUtil.getInstance(context.getJasperReportsContext());
 		measureSimpleTexts = properties.getBooleanProperty(context.getPropertiesHolder(), 
@@ -241,6 +246,7 @@ public class SimpleTextLineWrapper implements TextLineWrapper
 		if (fontInfo != null)
 		{
 			// found in local cache
+			metrics.increment(EngineMetrics.FONT_INFO_CACHE_HITS, 1);
 			return;
 		}
 		
@@ -264,6 +270,9 @@ public class SimpleTextLineWrapper implements TextLineWrapper
 			fontInfo = elementFontInfos.get(elementFontKey);
 		}
 		
+		EngineMetrics.recordCacheLookup(metrics, fontInfo != null, 
+				EngineMetrics.FONT_INFO_CACHE_HITS, EngineMetrics.FONT_INFO_CACHE_MISSES);
+		
 		if (fontInfo == null)
 		{
 			// did not find in the general cache, create the font info
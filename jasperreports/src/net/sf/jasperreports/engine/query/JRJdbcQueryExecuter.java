@@ -34,9 +34,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.SQLTimeoutException;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.regex.Matcher;
@@ -47,6 +49,7 @@ import javax.sql.rowset.CachedRowSet;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import net.sf.jasperreports.engine.DatasetFilter;
 import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JRDataset;
 import net.sf.jasperreports.engine.JRException;
@@ -54,6 +57,7 @@ import net.sf.jasperreports.engine.JRParameter;
 import net.sf.jasperreports.engine.JRPropertiesHolder;
 import net.sf.jasperreports.engine.JRResultSetDataSource;
 import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JRSortField;
 import net.sf.jasperreports.engine.JRValueParameter;
 import net.sf.jasperreports.engine.JasperReportsContext;
 
@@ -65,7 +69,7 @@ import net.sf.jasperreports.engine.JasperReportsContext;
  * 
  * @author Teodor Danciu (teodord@users.sourceforge.net)
  */
-public class JRJdbcQueryExecuter extends JRAbstractQueryExecuter
+public class JRJdbcQueryExecuter extends JRAbstractQueryExecuter implements PushdownQueryExecuter
 {
 	private static final Log log = LogFactory.getLog(JRJdbcQueryExecuter.class);
 	public static final String EXCEPTION_MESSAGE_KEY_MULTI_PARAMETERS_CANNOT_CONTAIN_NULL_VALUES = "query.multi.parameters.cannot.contain.null.values";
@@ -127,6 +131,10 @@ public class JRJdbcQueryExecuter extends JRAbstractQueryExecuter
 	private boolean isProcedureCall;
 	private ProcedureCallHandler procedureCallHandler;
 	
+	private SqlSortFilterPushdown pushdown;
+	private String pushdownWhereClause;
+	private String pushdownOrderByClause;
+	
 	/**
 	 * 
 	 */
@@ -196,6 +204,80 @@ public class JRJdbcQueryExecuter extends JRAbstractQueryExecuter
 		return CANONICAL_LANGUAGE;
 	}
 
+	/**
+	 * Returns the translator of sort fields and filters into SQL clauses, 
+	 * or <code>null</code> if push-down is not enabled or the query does not support it.
+	 * 
+	 * @see JRJdbcQueryExecuterFactory#PROPERTY_SORT_FILTER_PUSHDOWN
+	 */
+	protected SqlSortFilterPushdown getPushdown()
+	{
+		if (pushdown == null
+				&& getPropertiesUtil().getBooleanProperty(dataset, JRJdbcQueryExecuterFactory.PROPERTY_SORT_FILTER_PUSHDOWN, false)
+				&& SqlSortFilterPushdown.isWrappable(super.getQueryString()))
+		{
+			pushdown = new SqlSortFilterPushdown(dataset.getFields());
+		}
+		return pushdown;
+	}
+
+	@Override
+	public boolean pushDownSortFields(List<JRSortField> sortFields)
+	{
+		SqlSortFilterPushdown sqlPushdown = getPushdown();
+		if (sqlPushdown == null || pushdownOrderByClause != null)
+		{
+			return false;
+		}
+		
+		pushdownOrderByClause = sqlPushdown.createOrderByClause(sortFields);
+		if (log.isDebugEnabled() && pushdownOrderByClause != null)
+		{
+			log.debug("sort fields pushed down as " + pushdownOrderByClause);
+		}
+		return pushdownOrderByClause != null;
+	}
+
+	@Override
+	public boolean pushDownFilter(DatasetFilter filter)
+	{
+		SqlSortFilterPushdown sqlPushdown = getPushdown();
+		if (sqlPushdown == null || pushdownWhereClause != null)
+		{
+			return false;
+		}
+		
+		List<ValuedQueryParameter> whereParameters = new ArrayList<>();
+		pushdownWhereClause = sqlPushdown.createWhereClause(filter, whereParameters);
+		if (pushdownWhereClause == null)
+		{
+			return false;
+		}
+		
+		if (log.isDebugEnabled())
+		{
+			log.debug("filter pushed down as " + pushdownWhereClause);
+		}
+		
+		// the where clause follows the original query
+		for (ValuedQueryParameter parameter : whereParameters)
+		{
+			addQueryParameter(parameter.getType(), parameter.getValue());
+		}
+		return true;
+	}
+
+	@Override
+	protected String getQueryString()
+	{
+		String queryString = super.getQueryString();
+		if (pushdownWhereClause != null || pushdownOrderByClause != null)
+		{
+			queryString = SqlSortFilterPushdown.wrapQuery(queryString, pushdownWhereClause, pushdownOrderByClause);
+		}
+		return queryString;
+	}
+
 	protected void setTimeZone()
 	{
 		String timeZoneIdParam = (String) getParameterValue(JRJdbcQueryExecuterFactory.PROPERTY_TIME_ZONE, true);
@@ -180,6 +180,28 @@ public class JRJdbcQueryExecuterFactory extends AbstractQueryExecuterFactory imp
 			)
 	public static final String PROPERTY_FIELDS_TIME_ZONE = JRPropertiesUtil.PROPERTY_PREFIX + "jdbc.fields.time.zone";
 
+	/**
+	 * Flag property specifying whether the dataset sort fields and the filters created by interactive
+	 * table operations are applied by the database instead of being applied in memory on the fetched records.
+	 * <p/>
+	 * When enabled, the dataset query is wrapped as a subquery and ORDER BY/WHERE clauses are added 
+	 * for the sort fields and filters that map to result set columns.
+	 * The database collation and null ordering are used for sorting, which might differ from the in memory sorting.
+	 * Queries that cannot be used as subqueries (e.g. queries that contain an ORDER BY clause on databases that
+	 * do not allow it in subqueries) should not enable this property.
+	 * 
+	 * @see SqlSortFilterPushdown
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_DATA_SOURCE,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.DATASET},
+			scopeQualifications = {QUERY_EXECUTER_NAME},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_SORT_FILTER_PUSHDOWN = JRPropertiesUtil.PROPERTY_PREFIX + "jdbc.sort.filter.pushdown";
+
 	/**
 	 * SQL query language.
 	 */
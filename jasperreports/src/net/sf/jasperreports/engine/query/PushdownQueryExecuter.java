@@ -0,0 +1,61 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.query;
+
+import java.util.List;
+
+import net.sf.jasperreports.engine.DatasetFilter;
+import net.sf.jasperreports.engine.JRSortField;
+
+/**
+ * Query executer that is able to include the dataset sort fields and the dynamic dataset filter
+ * in the executed query.
+ * <p/>
+ * The methods are called by the dataset before {@link #createDatasource()}.
+ * When the query executer accepts the sort fields or the filter, the dataset no longer
+ * sorts or filters the records in memory.
+ * 
+ * @see net.sf.jasperreports.engine.JRParameter#SORT_FIELDS
+ * @see net.sf.jasperreports.engine.JRParameter#FILTER
+ */
+public interface PushdownQueryExecuter extends JRQueryExecuter
+{
+
+	/**
+	 * Attempts to include the sort fields in the query.
+	 * 
+	 * @param sortFields all the dataset sort fields, static and dynamic
+	 * @return whether the records produced by the query will be sorted by the fields
+	 */
+	boolean pushDownSortFields(List<JRSortField> sortFields);
+
+	/**
+	 * Attempts to include a dataset filter in the query.
+	 * 
+	 * @param filter the dynamic dataset filter
+	 * @return whether the query will only produce records that match the filter
+	 */
+	boolean pushDownFilter(DatasetFilter filter);
+	
+}
@@ -0,0 +1,582 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.query;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.components.sort.AbstractFieldComparator;
+import net.sf.jasperreports.components.sort.FieldFilter;
+import net.sf.jasperreports.components.sort.FilterTypeBooleanOperatorsEnum;
+import net.sf.jasperreports.components.sort.FilterTypeDateOperatorsEnum;
+import net.sf.jasperreports.components.sort.FilterTypeNumericOperatorsEnum;
+import net.sf.jasperreports.components.sort.FilterTypeTextOperatorsEnum;
+import net.sf.jasperreports.components.sort.FilterTypesEnum;
+import net.sf.jasperreports.engine.CompositeDatasetFilter;
+import net.sf.jasperreports.engine.DatasetFilter;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRResultSetDataSource;
+import net.sf.jasperreports.engine.JRSortField;
+import net.sf.jasperreports.engine.query.JRAbstractQueryExecuter.ValuedQueryParameter;
+import net.sf.jasperreports.engine.type.SortFieldTypeEnum;
+import net.sf.jasperreports.engine.type.SortOrderEnum;
+
+/**
+ * Translates dataset sort fields and {@link FieldFilter field filters} into SQL clauses
+ * that are applied on the dataset query wrapped as a subquery.
+ * <p/>
+ * Only the criteria that can be evaluated by the database with the same result as the in-memory
+ * sorting and filtering are translated:
+ * <ul>
+ * 	<li>the fields need to map to result set columns by name or label, and the column names
+ * 	need to be plain SQL identifiers;</li>
+ * 	<li>text filters are translated using case insensitive comparisons;</li>
+ * 	<li>numeric filters are only translated for integral fields, as the values of decimal fields
+ * 	are rounded by the filter pattern before being compared;</li>
+ * 	<li>date and time filters are only translated when testing for null values, for the same reason.</li>
+ * </ul>
+ * 
+ * @see JRJdbcQueryExecuterFactory#PROPERTY_SORT_FILTER_PUSHDOWN
+ */
+public class SqlSortFilterPushdown
+{
+	
+	private static final Log log = LogFactory.getLog(SqlSortFilterPushdown.class);
+	
+	protected static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+	protected static final Pattern SELECT_PATTERN = Pattern.compile("\\s*select\\s", Pattern.CASE_INSENSITIVE);
+	protected static final String QUERY_ALIAS = "jr_pushdown";
+	protected static final char LIKE_ESCAPE = '!';
+	
+	private final Map<String, JRField> fields;
+
+	public SqlSortFilterPushdown(JRField[] fields)
+	{
+		this.fields = new HashMap<>();
+		if (fields != null)
+		{
+			for (JRField field : fields)
+			{
+				this.fields.put(field.getName(), field);
+			}
+		}
+	}
+	
+	/**
+	 * Determines whether a query can be wrapped as a subquery.
+	 */
+	public static boolean isWrappable(String query)
+	{
+		return query != null && SELECT_PATTERN.matcher(query).lookingAt();
+	}
+
+	/**
+	 * Wraps a query as a subquery and applies filter and order by clauses on it.
+	 */
+	public static String wrapQuery(String query, String whereClause, String orderByClause)
+	{
+		String innerQuery = query.trim();
+		while (innerQuery.endsWith(";"))
+		{
+			innerQuery = innerQuery.substring(0, innerQuery.length() - 1).trim();
+		}
+		
+		StringBuilder wrapped = new StringBuilder();
+		wrapped.append("SELECT * FROM (\n");
+		wrapped.append(innerQuery);
+		wrapped.append("\n) ").append(QUERY_ALIAS);
+		if (whereClause != null && !whereClause.isEmpty())
+		{
+			wrapped.append(" WHERE ").append(whereClause);
+		}
+		if (orderByClause != null)
+		{
+			wrapped.append(" ORDER BY ").append(orderByClause);
+		}
+		return wrapped.toString();
+	}
+	
+	/**
+	 * Returns the column of the wrapped query that corresponds to a field.
+	 * 
+	 * @return the column name, or <code>null</code> if the field does not map to a column that can be referenced in SQL
+	 */
+	public String getColumn(String fieldName)
+	{
+		JRField field = fields.get(fieldName);
+		if (field == null)
+		{
+			return null;
+		}
+		
+		String column = fieldName;
+		if (field.hasProperties())
+		{
+			String label = field.getPropertiesMap().getProperty(JRResultSetDataSource.PROPERTY_FIELD_COLUMN_LABEL);
+			String name = field.getPropertiesMap().getProperty(JRResultSetDataSource.PROPERTY_FIELD_COLUMN_NAME);
+			String index = field.getPropertiesMap().getProperty(JRResultSetDataSource.PROPERTY_FIELD_COLUMN_INDEX);
+			if (label != null)
+			{
+				column = label;
+			}
+			else if (name != null || index != null)
+			{
+				// the column name might not be visible outside the query
+				return null;
+			}
+		}
+		
+		return IDENTIFIER_PATTERN.matcher(column).matches() ? column : null;
+	}
+	
+	/**
+	 * Creates the order by clause for a list of sort fields.
+	 * 
+	 * @return the order by clause, or <code>null</code> if not all sort fields can be translated
+	 */
+	public String createOrderByClause(List<JRSortField> sortFields)
+	{
+		StringBuilder orderBy = new StringBuilder();
+		for (JRSortField sortField : sortFields)
+		{
+			if (sortField.getType() != SortFieldTypeEnum.FIELD)
+			{
+				return null;
+			}
+			
+			String column = getColumn(sortField.getName());
+			if (column == null)
+			{
+				if (log.isDebugEnabled())
+				{
+					log.debug("field " + sortField.getName() + " does not map to a column, not pushing down sort fields");
+				}
+				return null;
+			}
+			
+			if (orderBy.length() > 0)
+			{
+				orderBy.append(", ");
+			}
+			orderBy.append(column);
+			orderBy.append(sortField.getOrderValue() == SortOrderEnum.DESCENDING ? " DESC" : " ASC");
+		}
+		return orderBy.length() == 0 ? null : orderBy.toString();
+	}
+	
+	/**
+	 * Creates the where clause for a dataset filter.
+	 * 
+	 * @param filter the filter
+	 * @param parameters the list to which the values of the clause parameters are added
+	 * @return the where clause, an empty string if the filter matches all records,
+	 * or <code>null</code> if the filter cannot be translated
+	 */
+	public String createWhereClause(DatasetFilter filter, List<ValuedQueryParameter> parameters)
+	{
+		List<String> conditions = new ArrayList<>();
+		List<ValuedQueryParameter> conditionParameters = new ArrayList<>();
+		if (!collectConditions(filter, conditions, conditionParameters))
+		{
+			return null;
+		}
+		
+		parameters.addAll(conditionParameters);
+		return String.join(" AND ", conditions);
+	}
+	
+	protected boolean collectConditions(DatasetFilter filter, List<String> conditions, 
+			List<ValuedQueryParameter> parameters)
+	{
+		if (filter instanceof CompositeDatasetFilter)
+		{
+			List<? extends DatasetFilter> filters = ((CompositeDatasetFilter) filter).getFilters();
+			if (filters != null)
+			{
+				for (DatasetFilter childFilter : filters)
+				{
+					if (!collectConditions(childFilter, conditions, parameters))
+					{
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+		
+		if (filter instanceof FieldFilter)
+		{
+			return collectConditions((FieldFilter) filter, conditions, parameters);
+		}
+		
+		return false;
+	}
+	
+	protected boolean collectConditions(FieldFilter filter, List<String> conditions, 
+			List<ValuedQueryParameter> parameters)
+	{
+		if (Boolean.FALSE.equals(filter.getIsField()))
+		{
+			// variable filter
+			return false;
+		}
+		
+		JRField field = fields.get(filter.getField());
+		String column = getColumn(filter.getField());
+		FilterTypesEnum filterType = FilterTypesEnum.getByName(filter.getFilterType());
+		if (field == null || column == null || filterType == null || filter.getFilterTypeOperator() == null)
+		{
+			return false;
+		}
+		
+		String condition;
+		switch (filterType)
+		{
+		case TEXT:
+			condition = textCondition(filter, field, column, parameters);
+			break;
+		case NUMERIC:
+			condition = numericCondition(filter, field, column, parameters);
+			break;
+		case BOOLEAN:
+			condition = booleanCondition(filter, field, column, parameters);
+			break;
+		case DATE:
+		case TIME:
+			condition = dateCondition(filter, column);
+			break;
+		default:
+			condition = null;
+			break;
+		}
+		
+		if (condition == null)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("filter on field " + filter.getField() + " cannot be translated to SQL");
+			}
+			return false;
+		}
+		
+		if (!condition.isEmpty())
+		{
+			conditions.add(condition);
+		}
+		return true;
+	}
+	
+	protected String textCondition(FieldFilter filter, JRField field, String column, 
+			List<ValuedQueryParameter> parameters)
+	{
+		if (!String.class.equals(field.getValueClass()))
+		{
+			return null;
+		}
+		
+		FilterTypeTextOperatorsEnum operator = FilterTypeTextOperatorsEnum.getByEnumConstantName(filter.getFilterTypeOperator());
+		if (operator == null)
+		{
+			return null;
+		}
+		
+		String value = filter.getFilterValueStart();
+		if (value == null)
+		{
+			// matches everything
+			return "";
+		}
+		
+		Locale locale = filter.getFilterLocale();
+		String lcValue = value.toLowerCase(locale);
+		String lcColumn = "LOWER(" + column + ")";
+		
+		String condition;
+		switch (operator)
+		{
+		case EQUALS:
+			condition = lcColumn + " = ?";
+			parameters.add(new ValuedQueryParameter(String.class, lcValue));
+			break;
+		case IS_NOT_EQUAL_TO:
+			condition = "(" + column + " IS NULL OR " + lcColumn + " <> ?)";
+			parameters.add(new ValuedQueryParameter(String.class, lcValue));
+			break;
+		case CONTAINS:
+			condition = likeCondition(lcColumn, false, "%" + escapeLike(lcValue) + "%", parameters);
+			break;
+		case DOES_NOT_CONTAIN:
+			condition = likeCondition(lcColumn, true, "%" + escapeLike(lcValue) + "%", parameters);
+			break;
+		case STARTS_WITH:
+			condition = likeCondition(lcColumn, false, escapeLike(lcValue) + "%", parameters);
+			break;
+		case DOES_NOT_START_WITH:
+			condition = likeCondition(lcColumn, true, escapeLike(lcValue) + "%", parameters);
+			break;
+		case ENDS_WITH:
+			condition = likeCondition(lcColumn, false, "%" + escapeLike(lcValue), parameters);
+			break;
+		case DOES_NOT_END_WITH:
+			condition = likeCondition(lcColumn, true, "%" + escapeLike(lcValue), parameters);
+			break;
+		case IS_NULL:
+			condition = column + " IS NULL";
+			break;
+		case IS_NOT_NULL:
+			condition = column + " IS NOT NULL";
+			break;
+		default:
+			condition = null;
+			break;
+		}
+		return condition;
+	}
+	
+	protected String likeCondition(String column, boolean negated, String pattern, 
+			List<ValuedQueryParameter> parameters)
+	{
+		parameters.add(new ValuedQueryParameter(String.class, pattern));
+		return column + (negated ? " NOT LIKE ?" : " LIKE ?") + " ESCAPE '" + LIKE_ESCAPE + "'";
+	}
+	
+	protected String escapeLike(String value)
+	{
+		StringBuilder escaped = new StringBuilder(value.length() + 4);
+		for (int i = 0; i < value.length(); i++)
+		{
+			char c = value.charAt(i);
+			if (c == '%' || c == '_' || c == LIKE_ESCAPE)
+			{
+				escaped.append(LIKE_ESCAPE);
+			}
+			escaped.append(c);
+		}
+		return escaped.toString();
+	}
+	
+	protected String numericCondition(FieldFilter filter, JRField field, String column, 
+			List<ValuedQueryParameter> parameters)
+	{
+		FilterTypeNumericOperatorsEnum operator = FilterTypeNumericOperatorsEnum.getByEnumConstantName(filter.getFilterTypeOperator());
+		if (operator == null)
+		{
+			return null;
+		}
+		
+		switch (operator)
+		{
+		case IS_NULL:
+			return column + " IS NULL";
+		case IS_NOT_NULL:
+			return column + " IS NOT NULL";
+		default:
+			break;
+		}
+		
+		Class<?> valueClass = field.getValueClass();
+		if (!(Integer.class.equals(valueClass) || Long.class.equals(valueClass) 
+				|| Short.class.equals(valueClass) || Byte.class.equals(valueClass)
+				|| BigInteger.class.equals(valueClass)))
+		{
+			// decimal values are rounded by the filter pattern before being compared
+			return null;
+		}
+		
+		String pattern = filter.getFilterPattern();
+		if (pattern != null && (pattern.indexOf('E') >= 0 || pattern.indexOf('%') >= 0 || pattern.indexOf('\u2030') >= 0))
+		{
+			// formatting the field value with the pattern would change it
+			return null;
+		}
+		
+		Object[] values = parseValues(filter, valueClass);
+		if (values == null || values[0] == null)
+		{
+			return null;
+		}
+		
+		return comparisonCondition(operator, column, valueClass, values, parameters);
+	}
+	
+	protected String comparisonCondition(FilterTypeNumericOperatorsEnum operator, String column, 
+			Class<?> valueClass, Object[] values, List<ValuedQueryParameter> parameters)
+	{
+		Object start = values[0];
+		Object end = values[1];
+		
+		String condition;
+		switch (operator)
+		{
+		case EQUALS:
+			condition = column + " = ?";
+			break;
+		case DOES_NOT_EQUAL:
+			condition = "(" + column + " IS NULL OR " + column + " <> ?)";
+			break;
+		case GREATER_THAN:
+			condition = column + " > ?";
+			break;
+		case GREATER_THAN_EQUAL_TO:
+			condition = column + " >= ?";
+			break;
+		case LESS_THAN:
+			condition = column + " < ?";
+			break;
+		case LESS_THAN_EQUAL_TO:
+			condition = column + " <= ?";
+			break;
+		case IS_BETWEEN:
+			if (end == null)
+			{
+				return null;
+			}
+			parameters.add(new ValuedQueryParameter(valueClass, start));
+			parameters.add(new ValuedQueryParameter(valueClass, end));
+			return "(" + column + " >= ? AND " + column + " <= ?)";
+		case IS_NOT_BETWEEN:
+			if (end == null)
+			{
+				return null;
+			}
+			parameters.add(new ValuedQueryParameter(valueClass, start));
+			parameters.add(new ValuedQueryParameter(valueClass, end));
+			return "(" + column + " IS NULL OR " + column + " < ? OR " + column + " > ?)";
+		default:
+			return null;
+		}
+		
+		parameters.add(new ValuedQueryParameter(valueClass, start));
+		return condition;
+	}
+	
+	protected Object[] parseValues(FieldFilter filter, Class<?> valueClass)
+	{
+		AbstractFieldComparator<?> comparator = filter.getFieldComparator();
+		if (comparator == null)
+		{
+			return null;
+		}
+		
+		comparator.setCompareToClass(valueClass);
+		comparator.setValueStart(filter.getFilterValueStart());
+		comparator.setValueEnd(filter.getFilterValueEnd());
+		try
+		{
+			comparator.initValues();
+		}
+		catch (Exception e)
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("failed to parse filter values for field " + filter.getField(), e);
+			}
+			return null;
+		}
+		
+		Object start = isEmpty(filter.getFilterValueStart()) ? null : comparator.getCompareStart();
+		Object end = isEmpty(filter.getFilterValueEnd()) ? null : comparator.getCompareEnd();
+		return new Object[]{start, end};
+	}
+	
+	protected static boolean isEmpty(String value)
+	{
+		return value == null || value.isEmpty();
+	}
+	
+	protected String booleanCondition(FieldFilter filter, JRField field, String column, 
+			List<ValuedQueryParameter> parameters)
+	{
+		if (!Boolean.class.equals(field.getValueClass()))
+		{
+			return null;
+		}
+		
+		FilterTypeBooleanOperatorsEnum operator = FilterTypeBooleanOperatorsEnum.getByEnumConstantName(filter.getFilterTypeOperator());
+		if (operator == null)
+		{
+			return null;
+		}
+		
+		String condition;
+		switch (operator)
+		{
+		case IS_TRUE:
+			condition = column + " = ?";
+			parameters.add(new ValuedQueryParameter(Boolean.class, Boolean.TRUE));
+			break;
+		case IS_NOT_TRUE:
+			condition = "(" + column + " IS NULL OR " + column + " <> ?)";
+			parameters.add(new ValuedQueryParameter(Boolean.class, Boolean.TRUE));
+			break;
+		case IS_FALSE:
+			condition = column + " = ?";
+			parameters.add(new ValuedQueryParameter(Boolean.class, Boolean.FALSE));
+			break;
+		case IS_NOT_FALSE:
+			condition = "(" + column + " IS NULL OR " + column + " <> ?)";
+			parameters.add(new ValuedQueryParameter(Boolean.class, Boolean.FALSE));
+			break;
+		case IS_NULL:
+			condition = column + " IS NULL";
+			break;
+		case IS_NOT_NULL:
+			condition = column + " IS NOT NULL";
+			break;
+		default:
+			condition = null;
+			break;
+		}
+		return condition;
+	}
+	
+	protected String dateCondition(FieldFilter filter, String column)
+	{
+		FilterTypeDateOperatorsEnum operator = FilterTypeDateOperatorsEnum.getByEnumConstantName(filter.getFilterTypeOperator());
+		if (operator == null)
+		{
+			return null;
+		}
+		
+		switch (operator)
+		{
+		case IS_NULL:
+			return column + " IS NULL";
+		case IS_NOT_NULL:
+			return column + " IS NOT NULL";
+		default:
+			// date values are compared after being formatted with the filter pattern
+			return null;
+		}
+	}
+	
+}
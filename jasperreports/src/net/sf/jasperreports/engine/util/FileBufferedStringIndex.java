@@ -0,0 +1,494 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+
+
+/**
+ * Exact string dictionary that assigns consecutive indexes to distinct strings.
+ * <p>
+ * Strings are kept in an in-memory hash map until the number of entries reaches
+ * the memory threshold. At that point all entries are moved to an open addressing
+ * hash table stored in a memory-mapped temporary file, while the string characters
+ * are appended to a second temporary file. Further lookups and additions go to the
+ * on-disk table, so the heap usage of the dictionary stays bounded regardless of the
+ * number of distinct strings, and no entry is ever lost.
+ * <p>
+ * The implementation is not thread-safe.
+ */
+public class FileBufferedStringIndex
+{
+	private static final Log log = LogFactory.getLog(FileBufferedStringIndex.class);
+	
+	public static final String EXCEPTION_MESSAGE_KEY_INDEX_DISPOSED = "util.file.buffered.string.index.disposed";
+	public static final String EXCEPTION_MESSAGE_KEY_INDEX_TOO_LARGE = "util.file.buffered.string.index.too.large";
+	
+	public static final int INFINIT_MEMORY_THRESHOLD = -1;
+	
+	protected static final int SLOT_SIZE = 16;
+	protected static final int INITIAL_TABLE_CAPACITY = 1 << 16;
+	protected static final int MAX_TABLE_CAPACITY = Integer.MAX_VALUE / SLOT_SIZE + 1;
+	protected static final int DATA_BUFFER_SIZE = 1 << 16;
+
+	private final int memoryThreshold;
+	
+	private Map<String, Integer> memoryIndex;
+	private int size;
+	
+	private File tableFile;
+	private RandomAccessFile tableAccessFile;
+	private MappedByteBuffer table;
+	private int tableCapacity;
+	
+	private File dataFile;
+	private RandomAccessFile dataAccessFile;
+	private FileChannel dataChannel;
+	private long dataFlushedSize;
+	private ByteBuffer dataWriteBuffer;
+	private ByteBuffer dataReadBuffer;
+	
+	private boolean disposed;
+	
+	/**
+	 * Creates a string index.
+	 * 
+	 * @param memoryThreshold the number of strings kept in memory before the index
+	 * is moved to disk; 0 means that the on-disk table is used from the start
+	 * and a negative value means that the index is always kept in memory
+	 */
+	public FileBufferedStringIndex(int memoryThreshold)
+	{
+		this.memoryThreshold = memoryThreshold;
+		this.memoryIndex = memoryThreshold == 0 ? null : new HashMap<>();
+		this.size = 0;
+	}
+
+	/**
+	 * Returns the index previously assigned to a string.
+	 * 
+	 * @param value the string
+	 * @return the index of the string, or <code>-1</code> if the string has not been added
+	 */
+	public int indexOf(String value)
+	{
+		checkDisposed();
+		
+		if (memoryIndex != null)
+		{
+			Integer index = memoryIndex.get(value);
+			return index == null ? -1 : index;
+		}
+		
+		if (table == null)
+		{
+			return -1;
+		}
+		
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		int hash = hash(value);
+		int mask = tableCapacity - 1;
+		for (int slot = hash & mask; ; slot = (slot + 1) & mask)
+		{
+			int position = slot * SLOT_SIZE;
+			int slotIndex = table.getInt(position + 4) - 1;
+			if (slotIndex < 0)
+			{
+				return -1;
+			}
+			
+			if (table.getInt(position) == hash
+				&& dataEquals(table.getLong(position + 8), bytes))
+			{
+				return slotIndex;
+			}
+		}
+	}
+
+	/**
+	 * Adds a string to the index and returns the index assigned to it.
+	 * The caller is expected to have checked that the string has not already been added.
+	 * 
+	 * @param value the string
+	 * @return the index assigned to the string
+	 * @see #indexOf(String)
+	 */
+	public int add(String value)
+	{
+		checkDisposed();
+		
+		int index = size;
+		if (memoryIndex != null)
+		{
+			memoryIndex.put(value, index);
+			++size;
+			
+			if (memoryThreshold > 0 && size >= memoryThreshold)
+			{
+				spill();
+			}
+		}
+		else
+		{
+			try
+			{
+				ensureFiles();
+				long offset = appendData(value.getBytes(StandardCharsets.UTF_8));
+				putSlot(hash(value), index, offset);
+			}
+			catch (IOException e)
+			{
+				throw new JRRuntimeException(e);
+			}
+			++size;
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the number of strings in the index.
+	 */
+	public int size()
+	{
+		return size;
+	}
+	
+	/**
+	 * Determines whether the index has been moved to disk.
+	 */
+	public boolean isFileBuffered()
+	{
+		return memoryIndex == null;
+	}
+	
+	protected void spill()
+	{
+		if (log.isDebugEnabled())
+		{
+			log.debug("moving string index of size " + size + " to disk");
+		}
+		
+		try
+		{
+			ensureFiles();
+			for (Map.Entry<String, Integer> entry : memoryIndex.entrySet())
+			{
+				String value = entry.getKey();
+				long offset = appendData(value.getBytes(StandardCharsets.UTF_8));
+				putSlot(hash(value), entry.getValue(), offset);
+			}
+		}
+		catch (IOException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+		memoryIndex = null;
+	}
+	
+	protected static int hash(String value)
+	{
+		int hash = value.hashCode();
+		//spreading the bits as the table is indexed with a power of two mask
+		hash ^= (hash >>> 16);
+		hash *= 0x85ebca6b;
+		hash ^= (hash >>> 13);
+		return hash;
+	}
+	
+	protected void ensureFiles() throws IOException
+	{
+		if (table != null)
+		{
+			return;
+		}
+		
+		dataFile = File.createTempFile("file.buff.strings.", ".dat");
+		dataAccessFile = new RandomAccessFile(dataFile, "rw");
+		dataChannel = dataAccessFile.getChannel();
+		dataFlushedSize = 0;
+		dataWriteBuffer = ByteBuffer.allocate(DATA_BUFFER_SIZE);
+		dataReadBuffer = ByteBuffer.allocate(DATA_BUFFER_SIZE);
+		
+		int capacity = INITIAL_TABLE_CAPACITY;
+		while (capacity < MAX_TABLE_CAPACITY && capacity < 2 * size)
+		{
+			capacity <<= 1;
+		}
+		createTable(capacity);
+	}
+	
+	protected void createTable(int capacity) throws IOException
+	{
+		long length = (long) capacity * SLOT_SIZE;
+		tableFile = File.createTempFile("file.buff.strings.", ".idx");
+		tableAccessFile = new RandomAccessFile(tableFile, "rw");
+		tableAccessFile.setLength(length);
+		table = tableAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+		tableCapacity = capacity;
+	}
+	
+	protected void putSlot(int hash, int index, long offset) throws IOException
+	{
+		if (2 * (size + 1L) > tableCapacity)
+		{
+			growTable();
+		}
+		writeSlot(table, tableCapacity, hash, index, offset);
+	}
+	
+	protected static void writeSlot(ByteBuffer buffer, int capacity, int hash, int index, long offset)
+	{
+		int mask = capacity - 1;
+		int slot = hash & mask;
+		while (buffer.getInt(slot * SLOT_SIZE + 4) != 0)
+		{
+			slot = (slot + 1) & mask;
+		}
+		
+		int position = slot * SLOT_SIZE;
+		buffer.putInt(position, hash);
+		buffer.putInt(position + 4, index + 1);
+		buffer.putLong(position + 8, offset);
+	}
+	
+	protected void growTable() throws IOException
+	{
+		if (tableCapacity >= MAX_TABLE_CAPACITY)
+		{
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_INDEX_TOO_LARGE,
+					new Object[]{size});
+		}
+		
+		File oldTableFile = tableFile;
+		RandomAccessFile oldTableAccessFile = tableAccessFile;
+		MappedByteBuffer oldTable = table;
+		int oldCapacity = tableCapacity;
+		
+		createTable(oldCapacity << 1);
+		if (log.isDebugEnabled())
+		{
+			log.debug("grew string index table to " + tableCapacity + " slots");
+		}
+		
+		//the slots hold the hashes and offsets, the table can be rebuilt without reading the strings
+		for (int slot = 0; slot < oldCapacity; ++slot)
+		{
+			int position = slot * SLOT_SIZE;
+			int index = oldTable.getInt(position + 4) - 1;
+			if (index >= 0)
+			{
+				writeSlot(table, tableCapacity, oldTable.getInt(position), index, oldTable.getLong(position + 8));
+			}
+		}
+		
+		closeQuietly(oldTableAccessFile);
+		deleteQuietly(oldTableFile);
+	}
+	
+	protected long appendData(byte[] bytes) throws IOException
+	{
+		long offset = dataFlushedSize + dataWriteBuffer.position();
+		if (dataWriteBuffer.remaining() < 4 + bytes.length)
+		{
+			flushData();
+		}
+		
+		if (dataWriteBuffer.remaining() >= 4 + bytes.length)
+		{
+			dataWriteBuffer.putInt(bytes.length);
+			dataWriteBuffer.put(bytes);
+		}
+		else
+		{
+			//large strings are written directly
+			ByteBuffer buffer = ByteBuffer.allocate(4 + bytes.length);
+			buffer.putInt(bytes.length);
+			buffer.put(bytes);
+			buffer.flip();
+			writeFully(buffer);
+		}
+		return offset;
+	}
+	
+	protected void flushData() throws IOException
+	{
+		dataWriteBuffer.flip();
+		writeFully(dataWriteBuffer);
+		dataWriteBuffer.clear();
+	}
+	
+	protected void writeFully(ByteBuffer buffer) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			dataFlushedSize += dataChannel.write(buffer, dataFlushedSize);
+		}
+	}
+	
+	protected boolean dataEquals(long offset, byte[] bytes)
+	{
+		if (offset >= dataFlushedSize)
+		{
+			//still in the write buffer
+			int position = (int) (offset - dataFlushedSize);
+			if (dataWriteBuffer.getInt(position) != bytes.length)
+			{
+				return false;
+			}
+			position += 4;
+			for (int i = 0; i < bytes.length; ++i)
+			{
+				if (dataWriteBuffer.get(position + i) != bytes[i])
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		try
+		{
+			ByteBuffer buffer = dataReadBuffer;
+			if (buffer.capacity() < 4 + bytes.length)
+			{
+				buffer = ByteBuffer.allocate(4 + bytes.length);
+			}
+			buffer.clear();
+			buffer.limit(4 + bytes.length);
+			readFully(buffer, offset);
+			buffer.flip();
+			
+			if (buffer.getInt() != bytes.length)
+			{
+				return false;
+			}
+			for (int i = 0; i < bytes.length; ++i)
+			{
+				if (buffer.get() != bytes[i])
+				{
+					return false;
+				}
+			}
+			return true;
+		}
+		catch (IOException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+	}
+	
+	protected void readFully(ByteBuffer buffer, long offset) throws IOException
+	{
+		long position = offset;
+		while (buffer.hasRemaining())
+		{
+			int read = dataChannel.read(buffer, position);
+			if (read < 0)
+			{
+				//the stored string is shorter than the one we compare with
+				break;
+			}
+			position += read;
+		}
+	}
+	
+	protected void checkDisposed()
+	{
+		if (disposed)
+		{
+			throw 
+				new JRRuntimeException(
+					EXCEPTION_MESSAGE_KEY_INDEX_DISPOSED,
+					(Object[])null);
+		}
+	}
+	
+	/**
+	 * Releases the memory held by the index and deletes the temporary files.
+	 */
+	public void dispose()
+	{
+		if (disposed)
+		{
+			return;
+		}
+		disposed = true;
+		
+		memoryIndex = null;
+		table = null;
+		dataWriteBuffer = null;
+		dataReadBuffer = null;
+		
+		closeQuietly(tableAccessFile);
+		tableAccessFile = null;
+		closeQuietly(dataAccessFile);
+		dataAccessFile = null;
+		dataChannel = null;
+		
+		deleteQuietly(tableFile);
+		tableFile = null;
+		deleteQuietly(dataFile);
+		dataFile = null;
+	}
+	
+	private static void closeQuietly(RandomAccessFile file)
+	{
+		if (file != null)
+		{
+			try
+			{
+				file.close();
+			}
+			catch (IOException e)
+			{
+				log.warn("Error while closing the temporary string index file", e);
+			}
+		}
+	}
+	
+	private static void deleteQuietly(File file)
+	{
+		if (file != null && !file.delete())
+		{
+			//the mapping might still be alive on some platforms
+			log.warn("Error while deleting the temporary string index file " + file);
+			file.deleteOnExit();
+		}
+	}
+}
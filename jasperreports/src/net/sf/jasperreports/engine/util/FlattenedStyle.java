@@ -0,0 +1,413 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.awt.Color;
+
+import net.sf.jasperreports.engine.JRCommonText;
+import net.sf.jasperreports.engine.JRFont;
+import net.sf.jasperreports.engine.JRLineBox;
+import net.sf.jasperreports.engine.JRParagraph;
+import net.sf.jasperreports.engine.JRPen;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.TabStop;
+import net.sf.jasperreports.engine.type.FillEnum;
+import net.sf.jasperreports.engine.type.HorizontalImageAlignEnum;
+import net.sf.jasperreports.engine.type.HorizontalTextAlignEnum;
+import net.sf.jasperreports.engine.type.LineSpacingEnum;
+import net.sf.jasperreports.engine.type.LineStyleEnum;
+import net.sf.jasperreports.engine.type.ModeEnum;
+import net.sf.jasperreports.engine.type.RotationEnum;
+import net.sf.jasperreports.engine.type.ScaleImageEnum;
+import net.sf.jasperreports.engine.type.VerticalImageAlignEnum;
+import net.sf.jasperreports.engine.type.VerticalTextAlignEnum;
+
+
+/**
+ * Immutable record of the attributes of a style, resolved through its parent style 
+ * and the default style by a {@link StyleResolver}.
+ * <p>
+ * The record holds the values that {@link StyleResolver} returns for the style itself, 
+ * for its line pen, for its paragraph and for the paddings of its box, 
+ * so that querying an attribute of the style no longer walks the style inheritance chain.
+ * Records are created by {@link StyleResolver} and kept by the style until one of its attributes
+ * is changed.
+ * </p>
+ * 
+ * @see StyleResolver#getFlattenedStyle(JRStyle)
+ */
+public final class FlattenedStyle
+{
+	private static final Integer INTEGER_ZERO = 0;
+	
+	private final StyleResolver styleResolver;
+	private final FlattenedStyle base;
+	
+	private final ModeEnum mode;
+	private final Color forecolor;
+	private final Color backcolor;
+	private final FillEnum fill;
+	private final Integer radius;
+	private final ScaleImageEnum scaleImage;
+	private final HorizontalTextAlignEnum horizontalTextAlign;
+	private final VerticalTextAlignEnum verticalTextAlign;
+	private final HorizontalImageAlignEnum horizontalImageAlign;
+	private final VerticalImageAlignEnum verticalImageAlign;
+	private final RotationEnum rotation;
+	private final String markup;
+	private final String pattern;
+	private final Boolean blankWhenNull;
+	private final String fontName;
+	private final Boolean bold;
+	private final Boolean italic;
+	private final Boolean underline;
+	private final Boolean strikeThrough;
+	private final Float fontsize;
+	private final String pdfFontName;
+	private final String pdfEncoding;
+	private final Boolean pdfEmbedded;
+
+	private final Float lineWidth;
+	private final LineStyleEnum lineStyle;
+	private final Color lineColor;
+
+	private final LineSpacingEnum lineSpacing;
+	private final Float lineSpacingSize;
+	private final Integer firstLineIndent;
+	private final Integer leftIndent;
+	private final Integer rightIndent;
+	private final Integer spacingBefore;
+	private final Integer spacingAfter;
+	private final Integer tabStopWidth;
+	private final TabStop[] tabStops;
+
+	private final Integer padding;
+	private final Integer topPadding;
+	private final Integer leftPadding;
+	private final Integer bottomPadding;
+	private final Integer rightPadding;
+
+	/**
+	 * Resolves the attributes of a style.
+	 * 
+	 * @param styleResolver the resolver creating the record
+	 * @param propertiesUtil used to read the default attribute values
+	 * @param style the style
+	 * @param base the record of the style from which the style inherits, <code>null</code> if none
+	 */
+	FlattenedStyle(StyleResolver styleResolver, JRPropertiesUtil propertiesUtil, JRStyle style, FlattenedStyle base)
+	{
+		this.styleResolver = styleResolver;
+		this.base = base;
+		
+		mode = inherit(style.getOwnModeValue(), base == null ? null : base.mode);
+		forecolor = inherit(style.getOwnForecolor(), base == null ? null : base.forecolor);
+		backcolor = inherit(style.getOwnBackcolor(), base == null ? null : base.backcolor);
+		fill = inherit(style.getOwnFillValue(), base == null ? null : base.fill);
+		radius = inherit(style.getOwnRadius(), base == null ? null : base.radius);
+		scaleImage = inherit(style.getOwnScaleImageValue(), base == null ? null : base.scaleImage);
+		horizontalTextAlign = inherit(style.getOwnHorizontalTextAlign(), base == null ? null : base.horizontalTextAlign);
+		verticalTextAlign = inherit(style.getOwnVerticalTextAlign(), base == null ? null : base.verticalTextAlign);
+		horizontalImageAlign = inherit(style.getOwnHorizontalImageAlign(), base == null ? null : base.horizontalImageAlign);
+		verticalImageAlign = inherit(style.getOwnVerticalImageAlign(), base == null ? null : base.verticalImageAlign);
+		rotation = inherit(style.getOwnRotationValue(), base == null ? null : base.rotation);
+		markup = inherit(style.getOwnMarkup(), base == null ? JRCommonText.MARKUP_NONE : base.markup);
+		pattern = inherit(style.getOwnPattern(), base == null ? null : base.pattern);
+		blankWhenNull = inherit(style.isOwnBlankWhenNull(), base == null ? null : base.blankWhenNull);
+		fontName = inherit(style.getOwnFontName(), base == null ? null : base.fontName, 
+				propertiesUtil.getProperty(JRFont.DEFAULT_FONT_NAME));
+		bold = inherit(style.isOwnBold(), base == null ? null : base.bold);
+		italic = inherit(style.isOwnItalic(), base == null ? null : base.italic);
+		underline = inherit(style.isOwnUnderline(), base == null ? null : base.underline);
+		strikeThrough = inherit(style.isOwnStrikeThrough(), base == null ? null : base.strikeThrough);
+		fontsize = inherit(style.getOwnFontsize(), base == null ? null : base.fontsize);
+		pdfFontName = inherit(style.getOwnPdfFontName(), base == null ? null : base.pdfFontName, 
+				propertiesUtil.getProperty(JRFont.DEFAULT_PDF_FONT_NAME));
+		pdfEncoding = inherit(style.getOwnPdfEncoding(), base == null ? null : base.pdfEncoding, 
+				propertiesUtil.getProperty(JRFont.DEFAULT_PDF_ENCODING));
+		pdfEmbedded = inherit(style.isOwnPdfEmbedded(), base == null ? null : base.pdfEmbedded);
+		
+		JRPen pen = style.getLinePen();
+		lineWidth = inherit(pen.getOwnLineWidth(), base == null ? null : base.lineWidth, 
+				style.getDefaultLineWidth());
+		lineStyle = inherit(pen.getOwnLineStyleValue(), base == null ? null : base.lineStyle, 
+				LineStyleEnum.SOLID);
+		// the default line color of a style is its forecolor
+		lineColor = inherit(pen.getOwnLineColor(), base == null ? null : base.lineColor, forecolor);
+		
+		JRParagraph paragraph = style.getParagraph();
+		lineSpacing = inherit(paragraph.getOwnLineSpacing(), base == null ? null : base.lineSpacing, 
+				LineSpacingEnum.SINGLE);
+		lineSpacingSize = inherit(paragraph.getOwnLineSpacingSize(), base == null ? null : base.lineSpacingSize, 
+				propertiesUtil.getFloatProperty(JRParagraph.DEFAULT_LINE_SPACING_SIZE));
+		firstLineIndent = inherit(paragraph.getOwnFirstLineIndent(), base == null ? null : base.firstLineIndent, 
+				propertiesUtil.getIntegerProperty(JRParagraph.DEFAULT_FIRST_LINE_INDENT));
+		leftIndent = inherit(paragraph.getOwnLeftIndent(), base == null ? null : base.leftIndent, 
+				propertiesUtil.getIntegerProperty(JRParagraph.DEFAULT_LEFT_INDENT));
+		rightIndent = inherit(paragraph.getOwnRightIndent(), base == null ? null : base.rightIndent, 
+				propertiesUtil.getIntegerProperty(JRParagraph.DEFAULT_RIGHT_INDENT));
+		spacingBefore = inherit(paragraph.getOwnSpacingBefore(), base == null ? null : base.spacingBefore, 
+				propertiesUtil.getIntegerProperty(JRParagraph.DEFAULT_SPACING_BEFORE));
+		spacingAfter = inherit(paragraph.getOwnSpacingAfter(), base == null ? null : base.spacingAfter, 
+				propertiesUtil.getIntegerProperty(JRParagraph.DEFAULT_SPACING_AFTER));
+		tabStopWidth = inherit(paragraph.getOwnTabStopWidth(), base == null ? null : base.tabStopWidth, 
+				propertiesUtil.getIntegerProperty(JRParagraph.DEFAULT_TAB_STOP_WIDTH));
+		tabStops = inherit(paragraph.getOwnTabStops(), base == null ? null : base.tabStops);
+		
+		JRLineBox box = style.getLineBox();
+		Integer ownPadding = box.getOwnPadding();
+		padding = inherit(ownPadding, base == null ? null : base.padding, INTEGER_ZERO);
+		topPadding = inherit(inherit(box.getOwnTopPadding(), ownPadding), base == null ? null : base.topPadding, INTEGER_ZERO);
+		leftPadding = inherit(inherit(box.getOwnLeftPadding(), ownPadding), base == null ? null : base.leftPadding, INTEGER_ZERO);
+		bottomPadding = inherit(inherit(box.getOwnBottomPadding(), ownPadding), base == null ? null : base.bottomPadding, INTEGER_ZERO);
+		rightPadding = inherit(inherit(box.getOwnRightPadding(), ownPadding), base == null ? null : base.rightPadding, INTEGER_ZERO);
+	}
+	
+	private static <T> T inherit(T ownValue, T baseValue)
+	{
+		return ownValue == null ? baseValue : ownValue;
+	}
+	
+	private static <T> T inherit(T ownValue, T baseValue, T defaultValue)
+	{
+		return ownValue != null ? ownValue : (baseValue != null ? baseValue : defaultValue);
+	}
+
+	/**
+	 * Returns the resolver that created this record.
+	 */
+	public StyleResolver getStyleResolver()
+	{
+		return styleResolver;
+	}
+
+	/**
+	 * Returns the record from which the attributes of this record were inherited.
+	 */
+	FlattenedStyle getBase()
+	{
+		return base;
+	}
+
+	public ModeEnum getModeValue()
+	{
+		return mode;
+	}
+
+	public Color getForecolor()
+	{
+		return forecolor;
+	}
+
+	public Color getBackcolor()
+	{
+		return backcolor;
+	}
+
+	public FillEnum getFillValue()
+	{
+		return fill;
+	}
+
+	public Integer getRadius()
+	{
+		return radius;
+	}
+
+	public ScaleImageEnum getScaleImageValue()
+	{
+		return scaleImage;
+	}
+
+	public HorizontalTextAlignEnum getHorizontalTextAlign()
+	{
+		return horizontalTextAlign;
+	}
+
+	public VerticalTextAlignEnum getVerticalTextAlign()
+	{
+		return verticalTextAlign;
+	}
+
+	public HorizontalImageAlignEnum getHorizontalImageAlign()
+	{
+		return horizontalImageAlign;
+	}
+
+	public VerticalImageAlignEnum getVerticalImageAlign()
+	{
+		return verticalImageAlign;
+	}
+
+	public RotationEnum getRotationValue()
+	{
+		return rotation;
+	}
+
+	public String getMarkup()
+	{
+		return markup;
+	}
+
+	public String getPattern()
+	{
+		return pattern;
+	}
+
+	public Boolean isBlankWhenNull()
+	{
+		return blankWhenNull;
+	}
+
+	public String getFontName()
+	{
+		return fontName;
+	}
+
+	public Boolean isBold()
+	{
+		return bold;
+	}
+
+	public Boolean isItalic()
+	{
+		return italic;
+	}
+
+	public Boolean isUnderline()
+	{
+		return underline;
+	}
+
+	public Boolean isStrikeThrough()
+	{
+		return strikeThrough;
+	}
+
+	public Float getFontsize()
+	{
+		return fontsize;
+	}
+
+	public String getPdfFontName()
+	{
+		return pdfFontName;
+	}
+
+	public String getPdfEncoding()
+	{
+		return pdfEncoding;
+	}
+
+	public Boolean isPdfEmbedded()
+	{
+		return pdfEmbedded;
+	}
+
+	public Float getLineWidth()
+	{
+		return lineWidth;
+	}
+
+	public LineStyleEnum getLineStyleValue()
+	{
+		return lineStyle;
+	}
+
+	public Color getLineColor()
+	{
+		return lineColor;
+	}
+
+	public LineSpacingEnum getLineSpacing()
+	{
+		return lineSpacing;
+	}
+
+	public Float getLineSpacingSize()
+	{
+		return lineSpacingSize;
+	}
+
+	public Integer getFirstLineIndent()
+	{
+		return firstLineIndent;
+	}
+
+	public Integer getLeftIndent()
+	{
+		return leftIndent;
+	}
+
+	public Integer getRightIndent()
+	{
+		return rightIndent;
+	}
+
+	public Integer getSpacingBefore()
+	{
+		return spacingBefore;
+	}
+
+	public Integer getSpacingAfter()
+	{
+		return spacingAfter;
+	}
+
+	public Integer getTabStopWidth()
+	{
+		return tabStopWidth;
+	}
+
+	public TabStop[] getTabStops()
+	{
+		return tabStops;
+	}
+
+	public Integer getPadding()
+	{
+		return padding;
+	}
+
+	public Integer getTopPadding()
+	{
+		return topPadding;
+	}
+
+	public Integer getLeftPadding()
+	{
+		return leftPadding;
+	}
+
+	public Integer getBottomPadding()
+	{
+		return bottomPadding;
+	}
+
+	public Integer getRightPadding()
+	{
+		return rightPadding;
+	}
+}
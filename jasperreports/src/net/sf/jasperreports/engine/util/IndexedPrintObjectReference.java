@@ -0,0 +1,63 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.Serializable;
+
+import net.sf.jasperreports.engine.JRConstants;
+
+/**
+ * Placeholder written in the page blocks of an indexed print file for objects
+ * that are stored once in the file header.
+ * 
+ * @see IndexedPrintWriter
+ * @see IndexedPrintReader
+ */
+class IndexedPrintObjectReference implements Serializable
+{
+	private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+	
+	static final byte TYPE_STYLE = 1;
+	static final byte TYPE_ORIGIN = 2;
+	static final byte TYPE_DEFAULT_STYLE_PROVIDER = 3;
+
+	private final byte type;
+	private final int index;
+	
+	IndexedPrintObjectReference(byte type, int index)
+	{
+		this.type = type;
+		this.index = index;
+	}
+
+	public byte getType()
+	{
+		return type;
+	}
+
+	public int getIndex()
+	{
+		return index;
+	}
+}
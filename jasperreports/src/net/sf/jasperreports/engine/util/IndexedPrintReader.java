@@ -0,0 +1,447 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.export.ExporterInput;
+import net.sf.jasperreports.export.ReadOnlyPartJasperPrint;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * Opens documents saved by {@link IndexedPrintWriter}.
+ * <p>
+ * Only the file header and the page index are read when the file is opened.
+ * The returned {@link JasperPrint} object loads its pages from the file when they are
+ * accessed, keeping a limited number of recently used pages in memory, so
+ * that displaying or exporting a few pages of a large document does not
+ * require reading the whole file.
+ * </p>
+ * <p>
+ * The reader keeps the file open until it is {@link #close() closed}; the document
+ * obtained from it can no longer load pages after that.
+ * </p>
+ * 
+ * @see IndexedPrintWriter
+ */
+public class IndexedPrintReader implements Closeable
+{
+	
+	/**
+	 * Property that specifies how many pages loaded from an indexed print file are kept in memory.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_OTHER,
+			defaultValue = "10",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_PAGE_CACHE_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "indexed.print.page.cache.size";
+	
+	public static final String EXCEPTION_MESSAGE_KEY_FILE_OPEN_ERROR = "util.indexed.print.file.open.error";
+	public static final String EXCEPTION_MESSAGE_KEY_INVALID_FILE = "util.indexed.print.invalid.file";
+	public static final String EXCEPTION_MESSAGE_KEY_PAGE_LOADING_ERROR = "util.indexed.print.page.loading.error";
+	
+	private final JasperReportsContext jasperReportsContext;
+	private final File file;
+	private final FileChannel channel;
+	private long[] pageOffsets;
+	private JasperPrint jasperPrint;
+	
+	
+	protected IndexedPrintReader(JasperReportsContext jasperReportsContext, File file) throws IOException
+	{
+		this.jasperReportsContext = jasperReportsContext;
+		this.file = file;
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+	}
+	
+	
+	/**
+	 * Opens an indexed print file.
+	 * 
+	 * @param file the file
+	 * @return a reader for the file
+	 * @throws JRException
+	 */
+	public static IndexedPrintReader open(File file) throws JRException
+	{
+		return open(DefaultJasperReportsContext.getInstance(), file);
+	}
+	
+	
+	/**
+	 * Opens an indexed print file.
+	 * 
+	 * @param jasperReportsContext the JasperReports context
+	 * @param file the file
+	 * @return a reader for the file
+	 * @throws JRException
+	 */
+	public static IndexedPrintReader open(JasperReportsContext jasperReportsContext, File file) throws JRException
+	{
+		IndexedPrintReader reader;
+		try
+		{
+			reader = new IndexedPrintReader(jasperReportsContext, file);
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_FILE_OPEN_ERROR,
+					new Object[]{file},
+					e);
+		}
+		
+		try
+		{
+			reader.readIndex();
+			reader.readHeader();
+		}
+		catch (IOException | ClassNotFoundException | RuntimeException e)
+		{
+			reader.close();
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_FILE_OPEN_ERROR,
+					new Object[]{file},
+					e);
+		}
+		catch (JRException e)
+		{
+			reader.close();
+			throw e;
+		}
+		return reader;
+	}
+	
+	
+	protected void readIndex() throws IOException, JRException
+	{
+		long size = channel.size();
+		if (size < IndexedPrintWriter.HEADER_OFFSET + IndexedPrintWriter.TRAILER_SIZE)
+		{
+			throw invalidFile();
+		}
+		
+		ByteBuffer start = read(0, IndexedPrintWriter.HEADER_OFFSET);
+		if (start.getInt() != IndexedPrintWriter.MAGIC || start.getInt() != IndexedPrintWriter.VERSION)
+		{
+			throw invalidFile();
+		}
+		
+		ByteBuffer trailer = read(size - IndexedPrintWriter.TRAILER_SIZE, IndexedPrintWriter.TRAILER_SIZE);
+		long indexOffset = trailer.getLong();
+		if (trailer.getInt() != IndexedPrintWriter.MAGIC
+				|| indexOffset < IndexedPrintWriter.HEADER_OFFSET 
+				|| indexOffset > size - IndexedPrintWriter.TRAILER_SIZE - 4)
+		{
+			throw invalidFile();
+		}
+		
+		int pageCount = read(indexOffset, 4).getInt();
+		if (pageCount < 0 || indexOffset + 4 + 8L * (pageCount + 1) > size - IndexedPrintWriter.TRAILER_SIZE)
+		{
+			throw invalidFile();
+		}
+		
+		ByteBuffer index = read(indexOffset + 4, 8 * (pageCount + 1));
+		pageOffsets = new long[pageCount + 1];
+		for (int i = 0; i <= pageCount; i++)
+		{
+			pageOffsets[i] = index.getLong();
+		}
+	}
+	
+	
+	protected void readHeader() throws IOException, ClassNotFoundException
+	{
+		ByteBuffer headerData = read(IndexedPrintWriter.HEADER_OFFSET, 
+				(int) (pageOffsets[0] - IndexedPrintWriter.HEADER_OFFSET));
+		JasperPrint header;
+		try (ObjectInputStream ois = new ContextClassLoaderObjectInputStream(jasperReportsContext, 
+				new ByteArrayInputStream(headerData.array())))
+		{
+			header = (JasperPrint) ois.readObject();
+		}
+		
+		int cacheSize = JRPropertiesUtil.getInstance(jasperReportsContext).getIntegerProperty(PROPERTY_PAGE_CACHE_SIZE, 10);
+		jasperPrint = new IndexedJasperPrint(new PageList(cacheSize));
+		jasperPrint.copyFrom(header);
+	}
+	
+	
+	protected ByteBuffer read(long position, int length) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		while (buffer.hasRemaining())
+		{
+			int read = channel.read(buffer, position + buffer.position());
+			if (read < 0)
+			{
+				throw new EOFException();
+			}
+		}
+		buffer.flip();
+		return buffer;
+	}
+	
+	
+	protected JRException invalidFile()
+	{
+		return 
+			new JRException(
+				EXCEPTION_MESSAGE_KEY_INVALID_FILE,
+				new Object[]{file});
+	}
+	
+	
+	/**
+	 * Returns the document, with pages being loaded on demand.
+	 */
+	public JasperPrint getJasperPrint()
+	{
+		return jasperPrint;
+	}
+	
+	
+	/**
+	 * Returns the number of pages in the document.
+	 */
+	public int getPageCount()
+	{
+		return pageOffsets.length - 1;
+	}
+	
+	
+	/**
+	 * Reads a page from the file, without using the page cache.
+	 * 
+	 * @param pageIndex the page index
+	 * @return the page
+	 * @throws JRException
+	 */
+	public JRPrintPage readPage(int pageIndex) throws JRException
+	{
+		if (pageIndex < 0 || pageIndex >= getPageCount())
+		{
+			throw new IndexOutOfBoundsException("Page index " + pageIndex + " out of range [0, " + getPageCount() + ")");
+		}
+		
+		long offset = pageOffsets[pageIndex];
+		try
+		{
+			ByteBuffer pageData = read(offset, (int) (pageOffsets[pageIndex + 1] - offset));
+			try (ObjectInputStream ois = new PageObjectInputStream(new ByteArrayInputStream(pageData.array())))
+			{
+				return (JRPrintPage) ois.readObject();
+			}
+		}
+		catch (IOException | ClassNotFoundException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_PAGE_LOADING_ERROR,
+					new Object[]{pageIndex, file},
+					e);
+		}
+	}
+	
+	
+	/**
+	 * Creates an exporter input for a range of pages of the document.
+	 * Exporting the input only loads the pages in the range.
+	 * 
+	 * @param startPageIndex the index of the first page to export
+	 * @param endPageIndex the index of the last page to export
+	 * @return the exporter input
+	 */
+	public ExporterInput createExporterInput(int startPageIndex, int endPageIndex)
+	{
+		if (startPageIndex < 0 || endPageIndex < startPageIndex || endPageIndex >= getPageCount())
+		{
+			throw new IndexOutOfBoundsException("Invalid page range [" + startPageIndex + ", " + endPageIndex 
+					+ "] for " + getPageCount() + " pages");
+		}
+		
+		return new SimpleExporterInput(new ReadOnlyPartJasperPrint(jasperPrint, null, startPageIndex, endPageIndex + 1));
+	}
+	
+	
+	@Override
+	public void close()
+	{
+		try
+		{
+			channel.close();
+		}
+		catch (IOException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+	}
+	
+	
+	protected Object resolveReference(IndexedPrintObjectReference reference)
+	{
+		switch (reference.getType())
+		{
+			case IndexedPrintObjectReference.TYPE_STYLE:
+				return jasperPrint.getStylesList().get(reference.getIndex());
+			case IndexedPrintObjectReference.TYPE_ORIGIN:
+				return jasperPrint.getOriginsList().get(reference.getIndex());
+			case IndexedPrintObjectReference.TYPE_DEFAULT_STYLE_PROVIDER:
+				return jasperPrint.getDefaultStyleProvider();
+			default:
+				throw new JRRuntimeException("Unknown reference type " + reference.getType());
+		}
+	}
+	
+	
+	protected class PageObjectInputStream extends ContextClassLoaderObjectInputStream
+	{
+		protected PageObjectInputStream(InputStream in) throws IOException
+		{
+			super(jasperReportsContext, in);
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) throws IOException
+		{
+			if (obj instanceof IndexedPrintObjectReference)
+			{
+				return resolveReference((IndexedPrintObjectReference) obj);
+			}
+			return super.resolveObject(obj);
+		}
+	}
+	
+	
+	/**
+	 * Read only list of pages backed by the file, with a LRU cache of loaded pages.
+	 */
+	protected class PageList extends AbstractList<JRPrintPage>
+	{
+		private final Map<Integer, JRPrintPage> cache;
+		
+		protected PageList(int cacheSize)
+		{
+			this.cache = new LinkedHashMap<Integer, JRPrintPage>(16, 0.75f, true)
+			{
+				private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Integer, JRPrintPage> eldest)
+				{
+					return size() > cacheSize;
+				}
+			};
+		}
+		
+		@Override
+		public JRPrintPage get(int index)
+		{
+			synchronized (cache)
+			{
+				JRPrintPage page = cache.get(index);
+				if (page != null)
+				{
+					return page;
+				}
+			}
+			
+			JRPrintPage page;
+			try
+			{
+				page = readPage(index);
+			}
+			catch (JRException e)
+			{
+				throw new JRRuntimeException(e);
+			}
+			
+			synchronized (cache)
+			{
+				cache.put(index, page);
+			}
+			return page;
+		}
+
+		@Override
+		public int size()
+		{
+			return getPageCount();
+		}
+	}
+	
+	
+	/**
+	 * Document whose pages are loaded from the file.
+	 * When serialized, the pages are loaded and a regular document is written.
+	 */
+	protected static class IndexedJasperPrint extends JasperPrint
+	{
+		private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+
+		protected IndexedJasperPrint(List<JRPrintPage> pages)
+		{
+			super(pages);
+		}
+		
+		private Object writeReplace()
+		{
+			JasperPrint print = new JasperPrint();
+			print.copyFrom(this);
+			return print;
+		}
+	}
+	
+}
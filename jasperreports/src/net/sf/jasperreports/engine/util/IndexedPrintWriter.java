@@ -0,0 +1,266 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JROrigin;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.base.VirtualizableElementList;
+
+
+/**
+ * Saves {@link JasperPrint} documents in a container format that allows random
+ * access to individual pages.
+ * <p>
+ * The file starts with a header holding the document attributes, styles, origins,
+ * parts and bookmarks, followed by the pages, each one serialized independently
+ * of the others, and ends with an index of the page offsets. 
+ * Styles and origins used by the page elements are written only once, in the header.
+ * </p>
+ * <p>
+ * Such files are opened with {@link IndexedPrintReader}, which only reads
+ * the pages that are actually accessed.
+ * </p>
+ * 
+ * @see IndexedPrintReader
+ */
+public final class IndexedPrintWriter
+{
+	
+	public static final String EXCEPTION_MESSAGE_KEY_FILE_SAVE_ERROR = "util.indexed.print.file.save.error";
+	public static final String EXCEPTION_MESSAGE_KEY_OUTPUT_STREAM_SAVE_ERROR = "util.indexed.print.output.stream.save.error";
+
+	static final int MAGIC = 0x4A525058;//JRPX
+	static final int VERSION = 1;
+	static final int HEADER_OFFSET = 8;
+	static final int TRAILER_SIZE = 12;
+	
+	
+	private IndexedPrintWriter()
+	{
+	}
+	
+	
+	/**
+	 * Saves a document to a file.
+	 * 
+	 * @param jasperPrint the document
+	 * @param file the destination file
+	 * @throws JRException
+	 */
+	public static void save(JasperPrint jasperPrint, File file) throws JRException
+	{
+		try (OutputStream os = new BufferedOutputStream(new FileOutputStream(file)))
+		{
+			write(jasperPrint, os);
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_FILE_SAVE_ERROR,
+					new Object[]{file},
+					e);
+		}
+	}
+	
+	
+	/**
+	 * Saves a document to an output stream.
+	 * The stream is flushed but not closed.
+	 * 
+	 * @param jasperPrint the document
+	 * @param os the output stream
+	 * @throws JRException
+	 */
+	public static void save(JasperPrint jasperPrint, OutputStream os) throws JRException
+	{
+		try
+		{
+			write(jasperPrint, os);
+		}
+		catch (IOException e)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_OUTPUT_STREAM_SAVE_ERROR,
+					null,
+					e);
+		}
+	}
+	
+	
+	private static void write(JasperPrint jasperPrint, OutputStream os) throws IOException
+	{
+		DataOutputStream out = new DataOutputStream(os);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		
+		JasperPrint header = new JasperPrint();
+		header.copyFrom(jasperPrint);
+		header.getPages().clear();
+		long position = HEADER_OFFSET;
+		position += writeBlock(header, new ObjectOutputStream(buffer), buffer, out);
+		
+		SharedObjectsOutput sharedObjects = new SharedObjectsOutput(jasperPrint);
+		List<JRPrintPage> pages = jasperPrint.getPages();
+		int pageCount = pages.size();
+		long[] offsets = new long[pageCount + 1];
+		for (int i = 0; i < pageCount; i++)
+		{
+			offsets[i] = position;
+			
+			JRBasePrintPage page = new JRBasePrintPage();
+			page.setElements(new ArrayList<>(pages.get(i).getElements()));
+			position += writeBlock(page, new PageObjectOutputStream(buffer, sharedObjects), buffer, out);
+		}
+		
+		long indexOffset = position;
+		offsets[pageCount] = indexOffset;
+		
+		out.writeInt(pageCount);
+		for (long offset : offsets)
+		{
+			out.writeLong(offset);
+		}
+		
+		out.writeLong(indexOffset);
+		out.writeInt(MAGIC);
+		out.flush();
+	}
+	
+	
+	private static int writeBlock(Object object, ObjectOutputStream oos, 
+			ByteArrayOutputStream buffer, DataOutputStream out) throws IOException
+	{
+		oos.writeObject(object);
+		oos.close();
+		
+		int size = buffer.size();
+		buffer.writeTo(out);
+		buffer.reset();
+		return size;
+	}
+	
+	
+	/**
+	 * Indexes of the objects stored in the header of the file.
+	 */
+	protected static class SharedObjectsOutput
+	{
+		private final Object defaultStyleProvider;
+		private final Map<JRStyle, Integer> styles;
+		private final Map<JROrigin, Integer> origins;
+		
+		protected SharedObjectsOutput(JasperPrint jasperPrint)
+		{
+			defaultStyleProvider = jasperPrint.getDefaultStyleProvider();
+			
+			List<JRStyle> stylesList = jasperPrint.getStylesList();
+			styles = new IdentityHashMap<>(stylesList.size() * 4 / 3 + 1);
+			for (int i = 0; i < stylesList.size(); i++)
+			{
+				styles.put(stylesList.get(i), i);
+			}
+			
+			List<JROrigin> originsList = jasperPrint.getOriginsList();
+			origins = new HashMap<>(originsList.size() * 4 / 3 + 1);
+			for (int i = 0; i < originsList.size(); i++)
+			{
+				origins.putIfAbsent(originsList.get(i), i);
+			}
+		}
+		
+		protected Object replace(Object obj)
+		{
+			if (obj == defaultStyleProvider)
+			{
+				return new IndexedPrintObjectReference(IndexedPrintObjectReference.TYPE_DEFAULT_STYLE_PROVIDER, 0);
+			}
+			
+			if (obj instanceof JRStyle)
+			{
+				Integer index = styles.get(obj);
+				if (index != null)
+				{
+					return new IndexedPrintObjectReference(IndexedPrintObjectReference.TYPE_STYLE, index);
+				}
+			}
+			else if (obj instanceof JROrigin)
+			{
+				Integer index = origins.get(obj);
+				if (index != null)
+				{
+					return new IndexedPrintObjectReference(IndexedPrintObjectReference.TYPE_ORIGIN, index);
+				}
+			}
+			else if (obj instanceof VirtualizableElementList)
+			{
+				// frame contents of virtualized documents are written as plain lists
+				return new ArrayList<>((VirtualizableElementList) obj);
+			}
+			return obj;
+		}
+	}
+	
+	
+	protected static class PageObjectOutputStream extends ObjectOutputStream
+	{
+		private final SharedObjectsOutput sharedObjects;
+		
+		protected PageObjectOutputStream(OutputStream out, SharedObjectsOutput sharedObjects) throws IOException
+		{
+			super(out);
+			
+			this.sharedObjects = sharedObjects;
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) throws IOException
+		{
+			return sharedObjects.replace(obj);
+		}
+	}
+	
+}
@@ -28,6 +28,7 @@ import net.sf.jasperreports.engine.JRDatasetRun;
 import net.sf.jasperreports.engine.JRReport;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.base.LazyJasperReport;
 
 /**
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
@@ -44,16 +45,24 @@ public final class JRReportUtils
 
 	public static JRDataset findSubdataset(String datasetName, JRReport report)
 	{
-		JRDataset[] datasets = report.getDatasets();
 		JRDataset reportDataset = null;
-		if (datasets != null)
+		if (report instanceof LazyJasperReport)
 		{
-			for (int i = 0; i < datasets.length; i++)
+			// only loading the requested subdataset
+			reportDataset = ((LazyJasperReport) report).getDataset(datasetName);
+		}
+		else
+		{
+			JRDataset[] datasets = report.getDatasets();
+			if (datasets != null)
 			{
-				if (datasetName.equals(datasets[i].getName()))
+				for (int i = 0; i < datasets.length; i++)
 				{
-					reportDataset = datasets[i];
-					break;
+					if (datasetName.equals(datasets[i].getName()))
+					{
+						reportDataset = datasets[i];
+						break;
+					}
 				}
 			}
 		}
@@ -35,6 +35,8 @@ import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.fill.JRFileVirtualizer;
+import net.sf.jasperreports.metrics.EngineMetrics;
+import net.sf.jasperreports.metrics.MetricsRegistry;
 
 
 /**
@@ -66,6 +68,8 @@ public class JRSwapFile
 	private final int blockSize;
 	private final int minGrowCount;
 	private final LongQueue freeBlocks;
+	private final MetricsRegistry metrics;
+	private long reportedSize;
 	
 	
 	/**
@@ -94,6 +98,7 @@ public class JRSwapFile
 	 */
 	public JRSwapFile(JasperReportsContext jasperReportsContext, String directory, int blockSize, int minGrowCount)
 	{
+		metrics = EngineMetrics.getRegistry(jasperReportsContext);
 		try
 		{
 			String filename = "swap_" + System.identityHashCode(this) + "_" + System.currentTimeMillis();
@@ -229,6 +234,12 @@ public class JRSwapFile
 	{
 		synchronized (this)
 		{
+			if (reportedSize > 0)
+			{
+				metrics.increment(EngineMetrics.SWAP_FILE_SIZE, -reportedSize);
+				reportedSize = 0;
+			}
+			
 			if (swapFile.exists())
 			{
 				if (log.isDebugEnabled())
@@ -279,6 +290,8 @@ public class JRSwapFile
 				log.debug("Growing swap file " + swapFile.getPath() + " with " + growCount + " blocks x " + blockSize + " bytes to size " + newLength);
 			}
 			file.setLength(newLength);
+			metrics.increment(EngineMetrics.SWAP_FILE_SIZE, newLength - length);
+			reportedSize = newLength;
 
 			for (int i = 0; i < growCount; ++i)
 			{
@@ -40,6 +40,15 @@ public class SortedIntList
 		this.values = new int[64];
 	}
 
+	/**
+	 * Creates a copy of a list.
+	 */
+	public SortedIntList(SortedIntList list)
+	{
+		this.size = list.size;
+		this.values = Arrays.copyOf(list.values, Math.max(list.size, 64));
+	}
+
 	public int size()
 	{
 		return size;
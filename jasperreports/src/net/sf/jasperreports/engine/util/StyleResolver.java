@@ -24,6 +24,7 @@
 package net.sf.jasperreports.engine.util;
 
 import java.awt.Color;
+import java.util.Objects;
 
 import net.sf.jasperreports.annotations.properties.Property;
 import net.sf.jasperreports.annotations.properties.PropertyScope;
@@ -56,7 +57,9 @@ import net.sf.jasperreports.engine.JRTextAlignment;
 import net.sf.jasperreports.engine.JRTextField;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.TabStop;
+import net.sf.jasperreports.engine.base.JRBaseStyle;
 import net.sf.jasperreports.engine.base.JRBoxPen;
+import net.sf.jasperreports.engine.design.JRDesignStyle;
 import net.sf.jasperreports.engine.type.FillEnum;
 import net.sf.jasperreports.engine.type.HorizontalImageAlignEnum;
 import net.sf.jasperreports.engine.type.HorizontalTextAlignEnum;
@@ -232,6 +235,75 @@ public class StyleResolver
 		return null;
 	}
 
+	/**
+	 * Returns the attributes of a style resolved through its parent style and the default style.
+	 * <p>
+	 * The attributes are resolved once per style and cached by the style, so that subsequent queries 
+	 * for the style attributes do not need to walk the style inheritance chain. 
+	 * The cached attributes are discarded when the style, its line pen, box or paragraph are changed,
+	 * and are resolved again when the attributes of the parent or default style have changed.
+	 * Only styles that are not usually changed after creation are cached, i.e. the styles of compiled reports, 
+	 * fill time styles (including the styles created for conditional style combinations) and the styles of generated documents.
+	 * Design styles are always resolved by walking the inheritance chain.
+	 * </p>
+	 * 
+	 * @param style the style
+	 * @return the resolved attributes, or <code>null</code> if the style attributes are not cached
+	 */
+	public FlattenedStyle getFlattenedStyle(JRStyle style)
+	{
+		if (!(style instanceof JRBaseStyle) || style instanceof JRDesignStyle)
+		{
+			return null;
+		}
+		
+		JRBaseStyle cachingStyle = (JRBaseStyle) style;
+		FlattenedStyle flattenedStyle = cachingStyle.getFlattenedStyle();
+		if (flattenedStyle != null && flattenedStyle.getStyleResolver() != this)
+		{
+			// resolved by a different resolver, which might use different defaults
+			return null;
+		}
+		
+		FlattenedStyle baseFlattenedStyle = null;
+		JRStyle baseStyle = getBaseStyle(style);
+		if (baseStyle != null)
+		{
+			baseFlattenedStyle = getFlattenedStyle(baseStyle);
+			if (baseFlattenedStyle == null)
+			{
+				// inheriting from a style that is not cached
+				return null;
+			}
+		}
+		
+		// the record is also created again when the base style or its attributes have changed
+		if (flattenedStyle == null || flattenedStyle.getBase() != baseFlattenedStyle)
+		{
+			flattenedStyle = new FlattenedStyle(this, propertiesUtil, style, baseFlattenedStyle);
+			cachingStyle.setFlattenedStyle(flattenedStyle);
+		}
+		return flattenedStyle;
+	}
+
+	protected FlattenedStyle getFlattenedStyle(JRPen pen)
+	{
+		JRPenContainer penContainer = pen.getPenContainer();
+		return penContainer instanceof JRStyle ? getFlattenedStyle((JRStyle) penContainer) : null;
+	}
+
+	protected FlattenedStyle getFlattenedStyle(JRParagraph paragraph)
+	{
+		JRParagraphContainer paragraphContainer = paragraph.getParagraphContainer();
+		return paragraphContainer instanceof JRStyle ? getFlattenedStyle((JRStyle) paragraphContainer) : null;
+	}
+
+	protected FlattenedStyle getFlattenedStyle(JRLineBox box)
+	{
+		JRBoxContainer boxContainer = box.getBoxContainer();
+		return boxContainer instanceof JRStyle ? getFlattenedStyle((JRStyle) boxContainer) : null;
+	}
+
 	/**
 	 *
 	 */
@@ -259,6 +331,12 @@ public class StyleResolver
 	 */
 	public ModeEnum getModeValue(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getModeValue();
+		}
+
 		ModeEnum ownMode = style.getOwnModeValue();
 		if (ownMode != null)
 		{
@@ -312,6 +390,12 @@ public class StyleResolver
 	 */
 	public Color getForecolor(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getForecolor();
+		}
+
 		Color ownForecolor = style.getOwnForecolor();
 		if (ownForecolor != null)
 		{
@@ -370,6 +454,12 @@ public class StyleResolver
 	 */
 	public Color getBackcolor(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getBackcolor();
+		}
+
 		Color ownBackcolor = style.getOwnBackcolor();
 		if (ownBackcolor != null)
 		{
@@ -388,6 +478,13 @@ public class StyleResolver
 	 */
 	public Float getLineWidth(JRPen pen, Float defaultLineWidth)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(pen);
+		// the default line width of styles is null
+		if (flattenedStyle != null && defaultLineWidth == null)
+		{
+			return flattenedStyle.getLineWidth();
+		}
+
 		Float ownLineWidth = pen.getOwnLineWidth();
 		if (ownLineWidth != null)
 		{
@@ -442,6 +539,12 @@ public class StyleResolver
 	 */
 	public LineStyleEnum getLineStyleValue(JRPen pen)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(pen);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getLineStyleValue();
+		}
+
 		LineStyleEnum ownLineStyle = pen.getOwnLineStyleValue();
 		if (ownLineStyle != null)
 		{
@@ -496,6 +599,13 @@ public class StyleResolver
 	 */
 	public Color getLineColor(JRPen pen, Color defaultColor)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(pen);
+		// the default line color of styles is the style forecolor
+		if (flattenedStyle != null && Objects.equals(defaultColor, flattenedStyle.getForecolor()))
+		{
+			return flattenedStyle.getLineColor();
+		}
+
 		Color ownLineColor = pen.getOwnLineColor();
 		if (ownLineColor != null)
 		{
@@ -574,6 +684,12 @@ public class StyleResolver
 	 */
 	public FillEnum getFillValue(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getFillValue();
+		}
+
 		FillEnum ownFill = style.getOwnFillValue();
 		if (ownFill != null)
 		{
@@ -614,6 +730,12 @@ public class StyleResolver
 	 */
 	public Integer getRadius(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getRadius();
+		}
+
 		Integer ownRadius = style.getOwnRadius();
 		if (ownRadius != null)
 		{
@@ -654,6 +776,12 @@ public class StyleResolver
 	 */
 	public ScaleImageEnum getScaleImageValue(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getScaleImageValue();
+		}
+
 		ScaleImageEnum ownScaleImage = style.getOwnScaleImageValue();
 		if (ownScaleImage != null)
 		{
@@ -716,6 +844,12 @@ public class StyleResolver
 	 */
 	public HorizontalTextAlignEnum getHorizontalTextAlign(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getHorizontalTextAlign();
+		}
+
 		HorizontalTextAlignEnum ownHorizontalAlignment = style.getOwnHorizontalTextAlign();
 		if (ownHorizontalAlignment != null)
 		{
@@ -734,6 +868,12 @@ public class StyleResolver
 	 */
 	public HorizontalImageAlignEnum getHorizontalImageAlign(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getHorizontalImageAlign();
+		}
+
 		HorizontalImageAlignEnum ownHorizontalAlignment = style.getOwnHorizontalImageAlign();
 		if (ownHorizontalAlignment != null)
 		{
@@ -796,6 +936,12 @@ public class StyleResolver
 	 */
 	public VerticalTextAlignEnum getVerticalTextAlign(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getVerticalTextAlign();
+		}
+
 		VerticalTextAlignEnum ownVerticalAlignment = style.getOwnVerticalTextAlign();
 		if (ownVerticalAlignment != null)
 		{
@@ -814,6 +960,12 @@ public class StyleResolver
 	 */
 	public VerticalImageAlignEnum getVerticalImageAlign(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getVerticalImageAlign();
+		}
+
 		VerticalImageAlignEnum ownVerticalAlignment = style.getOwnVerticalImageAlign();
 		if (ownVerticalAlignment != null)
 		{
@@ -832,6 +984,12 @@ public class StyleResolver
 	 */
 	public Float getLineSpacingSize(JRParagraph paragraph)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(paragraph);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getLineSpacingSize();
+		}
+
 		Float ownLineSpacingSize = paragraph.getOwnLineSpacingSize();
 		if (ownLineSpacingSize != null)
 		{
@@ -854,6 +1012,12 @@ public class StyleResolver
 	 */
 	public Integer getFirstLineIndent(JRParagraph paragraph)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(paragraph);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getFirstLineIndent();
+		}
+
 		Integer ownFirstLineIndent = paragraph.getOwnFirstLineIndent();
 		if (ownFirstLineIndent != null)
 		{
@@ -876,6 +1040,12 @@ public class StyleResolver
 	 */
 	public Integer getLeftIndent(JRParagraph paragraph)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(paragraph);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getLeftIndent();
+		}
+
 		Integer ownLeftIndent = paragraph.getOwnLeftIndent();
 		if (ownLeftIndent != null)
 		{
@@ -898,6 +1068,12 @@ public class StyleResolver
 	 */
 	public Integer getRightIndent(JRParagraph paragraph)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(paragraph);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getRightIndent();
+		}
+
 		Integer ownRightIndent = paragraph.getOwnRightIndent();
 		if (ownRightIndent != null)
 		{
@@ -920,6 +1096,12 @@ public class StyleResolver
 	 */
 	public Integer getSpacingBefore(JRParagraph paragraph)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(paragraph);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getSpacingBefore();
+		}
+
 		Integer ownSpacingBefore = paragraph.getOwnSpacingBefore();
 		if (ownSpacingBefore != null)
 		{
@@ -942,6 +1124,12 @@ public class StyleResolver
 	 */
 	public Integer getSpacingAfter(JRParagraph paragraph)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(paragraph);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getSpacingAfter();
+		}
+
 		Integer ownSpacingAfter = paragraph.getOwnSpacingAfter();
 		if (ownSpacingAfter != null)
 		{
@@ -964,6 +1152,12 @@ public class StyleResolver
 	 */
 	public Integer getTabStopWidth(JRParagraph paragraph)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(paragraph);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getTabStopWidth();
+		}
+
 		Integer ownTabStopWidth = paragraph.getOwnTabStopWidth();
 		if (ownTabStopWidth != null)
 		{
@@ -986,6 +1180,12 @@ public class StyleResolver
 	 */
 	public TabStop[] getTabStops(JRParagraph paragraph)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(paragraph);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getTabStops();
+		}
+
 		TabStop[] ownTabStops = paragraph.getOwnTabStops();
 		if (ownTabStops != null)
 		{
@@ -1052,6 +1252,12 @@ public class StyleResolver
 	 */
 	public RotationEnum getRotationValue(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getRotationValue();
+		}
+
 		RotationEnum ownRotation = style.getOwnRotationValue();
 		if (ownRotation != null)
 		{
@@ -1070,6 +1276,12 @@ public class StyleResolver
 	 */
 	public LineSpacingEnum getLineSpacing(JRParagraph paragraph)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(paragraph);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getLineSpacing();
+		}
+
 		LineSpacingEnum ownLineSpacing = paragraph.getOwnLineSpacing();
 		if (ownLineSpacing != null)
 		{
@@ -1114,6 +1326,12 @@ public class StyleResolver
 	 */
 	public String getMarkup(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getMarkup();
+		}
+
 		String ownMarkup = style.getOwnMarkup();
 		if (ownMarkup != null)
 		{
@@ -1150,6 +1368,12 @@ public class StyleResolver
 	 */
 	public String getPattern(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getPattern();
+		}
+
 		String ownPattern = style.getOwnPattern();
 		if (ownPattern != null)
 		{
@@ -1190,6 +1414,12 @@ public class StyleResolver
 	 */
 	public Boolean isBlankWhenNull(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.isBlankWhenNull();
+		}
+
 		Boolean ownBlankWhenNull = style.isOwnBlankWhenNull();
 		if (ownBlankWhenNull != null)
 		{
@@ -1230,6 +1460,12 @@ public class StyleResolver
 	 */
 	public String getFontName(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getFontName();
+		}
+
 		String ownFontName = style.getOwnFontName();
 		if (ownFontName != null)
 		{
@@ -1274,6 +1510,12 @@ public class StyleResolver
 	 */
 	public Boolean isBold(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.isBold();
+		}
+
 		Boolean ownBold = style.isOwnBold();
 		if (ownBold != null)
 		{
@@ -1314,6 +1556,12 @@ public class StyleResolver
 	 */
 	public Boolean isItalic(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.isItalic();
+		}
+
 		Boolean ownItalic = style.isOwnItalic();
 		if (ownItalic != null)
 		{
@@ -1354,6 +1602,12 @@ public class StyleResolver
 	 */
 	public Boolean isUnderline(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.isUnderline();
+		}
+
 		Boolean ownUnderline = style.isOwnUnderline();
 		if (ownUnderline != null)
 		{
@@ -1394,6 +1648,12 @@ public class StyleResolver
 	 */
 	public Boolean isStrikeThrough(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.isStrikeThrough();
+		}
+
 		if (style.isOwnStrikeThrough() != null)
 		{
 			return style.isOwnStrikeThrough();
@@ -1433,6 +1693,12 @@ public class StyleResolver
 	 */
 	public Float getFontsize(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getFontsize();
+		}
+
 		Float ownFontSize = style.getOwnFontsize();
 		if (ownFontSize != null)
 		{
@@ -1473,6 +1739,12 @@ public class StyleResolver
 	 */
 	public String getPdfFontName(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getPdfFontName();
+		}
+
 		String ownPdfFontName = style.getOwnPdfFontName();
 		if (ownPdfFontName != null)
 		{
@@ -1517,6 +1789,12 @@ public class StyleResolver
 	 */
 	public String getPdfEncoding(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getPdfEncoding();
+		}
+
 		String ownPdfEncoding = style.getOwnPdfEncoding();
 		if (ownPdfEncoding != null)
 		{
@@ -1561,6 +1839,12 @@ public class StyleResolver
 	 */
 	public Boolean isPdfEmbedded(JRStyle style)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(style);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.isPdfEmbedded();
+		}
+
 		Boolean ownPdfEmbedded = style.isOwnPdfEmbedded();
 		if (ownPdfEmbedded != null)
 		{
@@ -1579,6 +1863,12 @@ public class StyleResolver
 	 */
 	public Integer getPadding(JRLineBox box)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(box);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getPadding();
+		}
+
 		Integer ownPadding = box.getOwnPadding();
 		if (ownPadding != null)
 		{
@@ -1601,6 +1891,12 @@ public class StyleResolver
 	 */
 	public Integer getTopPadding(JRLineBox box)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(box);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getTopPadding();
+		}
+
 		Integer ownTopPadding = box.getOwnTopPadding();
 		if (ownTopPadding != null)
 		{
@@ -1628,6 +1924,12 @@ public class StyleResolver
 	 */
 	public Integer getLeftPadding(JRLineBox box)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(box);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getLeftPadding();
+		}
+
 		Integer ownLeftPadding = box.getOwnLeftPadding();
 		if (ownLeftPadding != null)
 		{
@@ -1655,6 +1957,12 @@ public class StyleResolver
 	 */
 	public Integer getBottomPadding(JRLineBox box)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(box);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getBottomPadding();
+		}
+
 		Integer ownBottomPadding = box.getOwnBottomPadding();
 		if (ownBottomPadding != null)
 		{
@@ -1682,6 +1990,12 @@ public class StyleResolver
 	 */
 	public Integer getRightPadding(JRLineBox box)
 	{
+		FlattenedStyle flattenedStyle = getFlattenedStyle(box);
+		if (flattenedStyle != null)
+		{
+			return flattenedStyle.getRightPadding();
+		}
+
 		Integer ownRightPadding = box.getOwnRightPadding();
 		if (ownRightPadding != null)
 		{
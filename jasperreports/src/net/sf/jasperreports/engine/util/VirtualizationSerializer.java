@@ -23,6 +23,8 @@
  */
 package net.sf.jasperreports.engine.util;
 
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -31,6 +33,8 @@ import net.sf.jasperreports.engine.JRVirtualizable;
 import net.sf.jasperreports.engine.fill.JRVirtualizationContext;
 import net.sf.jasperreports.engine.virtualization.VirtualizationInput;
 import net.sf.jasperreports.engine.virtualization.VirtualizationOutput;
+import net.sf.jasperreports.metrics.EngineMetrics;
+import net.sf.jasperreports.metrics.MetricsRegistry;
 
 /**
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
@@ -42,7 +46,18 @@ public abstract class VirtualizationSerializer
 	{
 		Object virtualData = o.getVirtualData();
 		JRVirtualizationContext context = o.getContext();
-		writeData(virtualData, context, out);
+		
+		MetricsRegistry metrics = EngineMetrics.getRegistry(context.getJasperReportsContext());
+		if (!metrics.isEnabled())
+		{
+			writeData(virtualData, context, out);
+			return;
+		}
+		
+		CountingOutputStream countingOut = new CountingOutputStream(out);
+		writeData(virtualData, context, countingOut);
+		metrics.increment(EngineMetrics.VIRTUALIZER_PAGE_OUT, 1);
+		metrics.increment(EngineMetrics.VIRTUALIZER_PAGE_OUT_BYTES, countingOut.count);
 	}
 
 	public final void writeData(Object virtualData, JRVirtualizationContext context, OutputStream out) throws IOException
@@ -57,7 +72,21 @@ public abstract class VirtualizationSerializer
 	
 	public final void readData(JRVirtualizable o, InputStream in) throws IOException
 	{
-		Object virtualData = readData(o.getContext(), in);
+		JRVirtualizationContext context = o.getContext();
+		
+		MetricsRegistry metrics = EngineMetrics.getRegistry(context.getJasperReportsContext());
+		Object virtualData;
+		if (metrics.isEnabled())
+		{
+			CountingInputStream countingIn = new CountingInputStream(in);
+			virtualData = readData(context, countingIn);
+			metrics.increment(EngineMetrics.VIRTUALIZER_PAGE_IN, 1);
+			metrics.increment(EngineMetrics.VIRTUALIZER_PAGE_IN_BYTES, countingIn.count);
+		}
+		else
+		{
+			virtualData = readData(context, in);
+		}
 		o.setVirtualData(virtualData);
 	}
 	
@@ -70,5 +99,69 @@ public abstract class VirtualizationSerializer
 
 	protected abstract VirtualizationInput createInput(JRVirtualizationContext context, InputStream in) 
 			throws IOException;
+	
+	private static class CountingOutputStream extends FilterOutputStream
+	{
+		private long count;
+		
+		CountingOutputStream(OutputStream out)
+		{
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			out.write(b);
+			++count;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+	
+	private static class CountingInputStream extends FilterInputStream
+	{
+		private long count;
+		
+		CountingInputStream(InputStream in)
+		{
+			super(in);
+		}
+
+		@Override
+		public int read() throws IOException
+		{
+			int b = in.read();
+			if (b >= 0)
+			{
+				++count;
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException
+		{
+			int read = in.read(b, off, len);
+			if (read > 0)
+			{
+				count += read;
+			}
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException
+		{
+			long skipped = in.skip(n);
+			count += skipped;
+			return skipped;
+		}
+	}
 
 }
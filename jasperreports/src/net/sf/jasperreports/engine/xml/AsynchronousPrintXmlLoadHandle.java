@@ -0,0 +1,179 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.xml;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRVirtualizer;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.fill.AsynchronousFilllListener;
+import net.sf.jasperreports.engine.fill.FillHandle;
+import net.sf.jasperreports.engine.fill.FillListener;
+
+/**
+ * Loads a document exported in XML format on a separate thread, exposing it
+ * through the {@link FillHandle} contract so that it can be consumed page by page,
+ * as with an asynchronous fill, while the rest of the XML is still being read.
+ * <p>
+ * The pages are placed into the virtualizer passed at creation so that the memory
+ * used by the loaded document is bounded.
+ * </p>
+ * 
+ * @see JRPrintXmlLoader
+ * @see net.sf.jasperreports.web.servlets.AsyncJasperPrintAccessor
+ */
+public class AsynchronousPrintXmlLoadHandle implements FillHandle
+{
+	
+	private static final Log log = LogFactory.getLog(AsynchronousPrintXmlLoadHandle.class);
+	
+	private final JRPrintXmlLoader loader;
+	private final InputStream inputStream;
+	private final List<AsynchronousFilllListener> listeners = new ArrayList<>();
+	private final Object lock = new Object();
+	private boolean started;
+	private boolean running;
+	
+	/**
+	 * Creates a handle for loading a document.
+	 * 
+	 * @param jasperReportsContext the JasperReports context
+	 * @param inputStream the XML stream, closed when the loading ends
+	 * @param virtualizer the virtualizer to place the pages into, can be <code>null</code>
+	 */
+	public AsynchronousPrintXmlLoadHandle(JasperReportsContext jasperReportsContext, 
+			InputStream inputStream, JRVirtualizer virtualizer)
+	{
+		this.loader = new JRPrintXmlLoader(jasperReportsContext, virtualizer);
+		this.inputStream = inputStream;
+	}
+
+	@Override
+	public void addListener(AsynchronousFilllListener listener)
+	{
+		listeners.add(listener);
+	}
+
+	@Override
+	public boolean removeListener(AsynchronousFilllListener listener)
+	{
+		return listeners.remove(listener);
+	}
+
+	@Override
+	public void addFillListener(FillListener listener)
+	{
+		loader.addFillListener(listener);
+	}
+
+	@Override
+	public void startFill()
+	{
+		synchronized (lock)
+		{
+			if (started)
+			{
+				throw new IllegalStateException("Load already started.");
+			}
+
+			started = true;
+			running = true;
+			
+			Thread loadThread = new Thread(this::load, "JRPrintXmlLoader");
+			loadThread.setDaemon(true);
+			loadThread.start();
+		}
+	}
+
+	protected void load()
+	{
+		try (InputStream is = inputStream)
+		{
+			JasperPrint print = loader.loadXML(is);
+			
+			for (AsynchronousFilllListener listener : listeners)
+			{
+				listener.reportFinished(print);
+			}
+		}
+		catch (Throwable e) //NOPMD
+		{
+			if (log.isDebugEnabled())
+			{
+				log.debug("load error", e);
+			}
+			
+			for (AsynchronousFilllListener listener : listeners)
+			{
+				if (loader.isCancelled())
+				{
+					listener.reportCancelled();
+				}
+				else
+				{
+					listener.reportFillError(e);
+				}
+			}
+		}
+		finally
+		{
+			synchronized (lock)
+			{
+				running = false;
+			}
+		}
+	}
+
+	@Override
+	public void cancellFill() throws JRException
+	{
+		synchronized (lock)
+		{
+			if (!running)
+			{
+				throw new IllegalStateException("Load not running.");
+			}
+			
+			loader.cancelLoad();
+		}
+	}
+
+	/**
+	 * Pages are only published after they have been read completely,
+	 * so every page is final.
+	 */
+	@Override
+	public boolean isPageFinal(int pageIdx)
+	{
+		return true;
+	}
+
+}
@@ -32,10 +32,13 @@ import java.util.List;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 
+import org.apache.commons.digester.AbstractObjectCreationFactory;
+import org.apache.commons.digester.Rule;
 import org.apache.commons.digester.SetNestedPropertiesRule;
 import org.apache.commons.digester.SetPropertiesRule;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.xml.sax.Attributes;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
@@ -49,10 +52,15 @@ import net.sf.jasperreports.engine.JRPrintHyperlinkParameter;
 import net.sf.jasperreports.engine.JRPrintPage;
 import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.JRVirtualizer;
 import net.sf.jasperreports.engine.JasperPrint;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.PrintBookmark;
 import net.sf.jasperreports.engine.TabStop;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.base.JRVirtualPrintPage;
+import net.sf.jasperreports.engine.fill.FillListener;
+import net.sf.jasperreports.engine.fill.JRVirtualizationContext;
 import net.sf.jasperreports.engine.util.CompositeClassloader;
 
 
@@ -65,6 +73,13 @@ import net.sf.jasperreports.engine.util.CompositeClassloader;
  * one can parse them back into {@link net.sf.jasperreports.engine.JasperPrint} objects
  * by using this class.
  * </p>
+ * <p>
+ * When a {@link JRVirtualizer virtualizer} is supplied, pages are created as
+ * {@link JRVirtualPrintPage virtual pages} and handed to the virtualizer as soon as
+ * their <code>page</code> element is closed, so that large documents can be loaded
+ * without keeping all their pages in memory. Registered {@link FillListener fill listeners}
+ * are notified of each page as it becomes available, before the whole document is read.
+ * </p>
  * @author Teodor Danciu (teodord@users.sourceforge.net)
  */
 public class JRPrintXmlLoader implements ErrorHandler
@@ -72,20 +87,40 @@ public class JRPrintXmlLoader implements ErrorHandler
 	
 	private static final Log log = LogFactory.getLog(JRPrintXmlLoader.class);
 	
+	public static final String EXCEPTION_MESSAGE_KEY_LOAD_CANCELLED = "xml.print.loader.load.cancelled";
+	
 	/**
 	 *
 	 */
 	private final JasperReportsContext jasperReportsContext;
+	private final JRVirtualizer virtualizer;
+	private JRVirtualizationContext virtualizationContext;
 	private JasperPrint jasperPrint;
 	private List<Exception> errors = new ArrayList<>();
+	private final List<FillListener> fillListeners = new ArrayList<>();
+	private volatile boolean cancelled;
 
 
 	/**
 	 *
 	 */
 	protected JRPrintXmlLoader(JasperReportsContext jasperReportsContext)
+	{
+		this(jasperReportsContext, null);
+	}
+
+
+	/**
+	 * Creates a loader that places the loaded pages into a virtualizer.
+	 * 
+	 * @param jasperReportsContext the JasperReports context
+	 * @param virtualizer the virtualizer to use for the loaded pages, 
+	 * if <code>null</code> regular in-memory pages are created
+	 */
+	protected JRPrintXmlLoader(JasperReportsContext jasperReportsContext, JRVirtualizer virtualizer)
 	{
 		this.jasperReportsContext = jasperReportsContext;
+		this.virtualizer = virtualizer;
 	}
 
 
@@ -107,6 +142,74 @@ public class JRPrintXmlLoader implements ErrorHandler
 	}
 
 
+	/**
+	 * Registers a listener that is notified each time a page has been loaded.
+	 */
+	public void addFillListener(FillListener listener)
+	{
+		fillListeners.add(listener);
+	}
+
+
+	/**
+	 * Requests the loading to stop, the load method will fail after the page
+	 * that is currently being read has been completed.
+	 */
+	public void cancelLoad()
+	{
+		cancelled = true;
+	}
+
+
+	/**
+	 *
+	 */
+	public boolean isCancelled()
+	{
+		return cancelled;
+	}
+
+
+	/**
+	 * Loads a document from an XML file, placing its pages into a virtualizer.
+	 * 
+	 * @param jasperReportsContext the JasperReports context
+	 * @param sourceFileName the XML file name
+	 * @param virtualizer the virtualizer to use for the pages
+	 * @return the loaded document
+	 * @throws JRException
+	 */
+	public static JasperPrint loadFromFile(JasperReportsContext jasperReportsContext, String sourceFileName, 
+			JRVirtualizer virtualizer) throws JRException
+	{
+		try (FileInputStream fis = new FileInputStream(sourceFileName))
+		{
+			return load(jasperReportsContext, fis, virtualizer);
+		}
+		catch(IOException e)
+		{
+			throw new JRException(e);
+		}
+	}
+
+
+	/**
+	 * Loads a document from an XML stream, placing its pages into a virtualizer.
+	 * 
+	 * @param jasperReportsContext the JasperReports context
+	 * @param is the XML stream
+	 * @param virtualizer the virtualizer to use for the pages
+	 * @return the loaded document
+	 * @throws JRException
+	 */
+	public static JasperPrint load(JasperReportsContext jasperReportsContext, InputStream is, 
+			JRVirtualizer virtualizer) throws JRException
+	{
+		JRPrintXmlLoader printXmlLoader = new JRPrintXmlLoader(jasperReportsContext, virtualizer);
+		return printXmlLoader.loadXML(is);
+	}
+
+
 	/**
 	 *
 	 */
@@ -172,11 +275,24 @@ public class JRPrintXmlLoader implements ErrorHandler
 	/**
 	 *
 	 */
-	private JasperPrint loadXML(InputStream is) throws JRException
+	protected JasperPrint loadXML(InputStream is) throws JRException
 	{
+		JRXmlDigesterPool digesterPool = isReuseDigester() 
+				? JRXmlDigesterPool.getInstance(jasperReportsContext, JRXmlDigesterPool.PRINT_DIGESTER_POOL)
+				: null;
+		JRXmlDigester digester = digesterPool == null ? null : digesterPool.getDigester();
 		try
 		{
-			JRXmlDigester digester = prepareDigester();
+			if (digester == null)
+			{
+				digester = prepareDigester();
+			}
+			else
+			{
+				setDigesterClassLoader(digester);
+				digester.push(this);
+				digester.setErrorHandler(this);
+			}
 
 			/*   */
 			digester.parse(is);
@@ -195,11 +311,29 @@ public class JRPrintXmlLoader implements ErrorHandler
 			}
 			throw new JRException(e);
 		}
+		
+		if (digesterPool != null)
+		{
+			digester.setErrorHandler(null);
+			digesterPool.returnDigester(digester);
+		}
 
 		return this.jasperPrint;
 	}
 
 
+	/**
+	 * Decides whether digesters are taken from and returned to the context pool.
+	 * The rules created by {@link #prepareDigester()} need to locate the loader as
+	 * the digester root for the digesters to be reusable by other loader instances, 
+	 * therefore reuse is only enabled by default for this class and not for subclasses.
+	 */
+	protected boolean isReuseDigester()
+	{
+		return getClass() == JRPrintXmlLoader.class;
+	}
+
+
 	/**
 	 *
 	 */
@@ -207,11 +341,7 @@ public class JRPrintXmlLoader implements ErrorHandler
 	{
 		JRXmlDigester digester = new JRXmlDigester(createParser());
 		
-		// use a classloader that resolves both JR classes and classes from the context classloader
-		CompositeClassloader digesterClassLoader = new CompositeClassloader(
-				JRPrintXmlLoader.class.getClassLoader(), 
-				Thread.currentThread().getContextClassLoader());
-		digester.setClassLoader(digesterClassLoader);
+		setDigesterClassLoader(digester);
 		digester.setNamespaceAware(true);
 		
 		digester.setRuleNamespaceURI(JRXmlConstants.JASPERPRINT_NAMESPACE);
@@ -252,8 +382,8 @@ public class JRPrintXmlLoader implements ErrorHandler
 		digester.addFactoryCreate("jasperPrint/part", PrintPartFactory.class.getName());
 
 		/*   */
-		digester.addFactoryCreate("jasperPrint/page", JRPrintPageFactory.class.getName());
-		digester.addSetNext("jasperPrint/page", "addPage", JRPrintPage.class.getName());
+		digester.addFactoryCreate("jasperPrint/page", new PrintPageFactory());
+		digester.addRule("jasperPrint/page", new PageLoadedRule());
 
 		/*   */
 		digester.addFactoryCreate("*/line", JRPrintLineFactory.class.getName());
@@ -330,6 +460,84 @@ public class JRPrintXmlLoader implements ErrorHandler
 	}
 
 
+	/**
+	 * Creates the object for a <code>page</code> element.
+	 */
+	protected JRPrintPage createPage(JasperPrint print)
+	{
+		if (virtualizer == null)
+		{
+			return new JRBasePrintPage();
+		}
+		
+		if (virtualizationContext == null)
+		{
+			virtualizationContext = new JRVirtualizationContext(jasperReportsContext);
+			virtualizationContext.setVirtualizer(virtualizer);
+			JRVirtualizationContext.register(virtualizationContext, print);
+		}
+		return new JRVirtualPrintPage(virtualizationContext);
+	}
+
+
+	/**
+	 * Called after a <code>page</code> element has been completely read.
+	 */
+	protected void pageLoaded(JasperPrint print, JRPrintPage page) throws JRException
+	{
+		print.addPage(page);
+		
+		int pageIndex = print.getPages().size() - 1;
+		for (FillListener listener : fillListeners)
+		{
+			listener.pageGenerated(print, pageIndex);
+		}
+		
+		if (cancelled)
+		{
+			throw 
+				new JRException(
+					EXCEPTION_MESSAGE_KEY_LOAD_CANCELLED,
+					(Object[])null);
+		}
+	}
+
+
+	protected static class PrintPageFactory extends AbstractObjectCreationFactory
+	{
+		@Override
+		public Object createObject(Attributes attributes)
+		{
+			JRPrintXmlLoader loader = (JRPrintXmlLoader) digester.getRoot();
+			JasperPrint print = (JasperPrint) digester.peek();
+			return loader.createPage(print);
+		}
+	}
+
+
+	protected static class PageLoadedRule extends Rule
+	{
+		@Override
+		public void end(String namespace, String name) throws Exception
+		{
+			JRPrintXmlLoader loader = (JRPrintXmlLoader) digester.getRoot();
+			JRPrintPage page = (JRPrintPage) digester.peek();
+			JasperPrint print = (JasperPrint) digester.peek(1);
+			loader.pageLoaded(print, page);
+		}
+	}
+
+
+	private void setDigesterClassLoader(JRXmlDigester digester)
+	{
+		// use a classloader that resolves both JR classes and classes from the context classloader
+		CompositeClassloader digesterClassLoader = new CompositeClassloader(
+				JRPrintXmlLoader.class.getClassLoader(), 
+				Thread.currentThread().getContextClassLoader());
+		digester.setClassLoader(digesterClassLoader);
+	}
+
+
 	protected SAXParser createParser()
 	{
 		String parserFactoryClass = JRPropertiesUtil.getInstance(jasperReportsContext).getProperty(
@@ -220,12 +220,7 @@ public final class JRXmlDigesterFactory
 	 */
 	public static void configureDigester(JasperReportsContext jasperReportsContext, Digester digester) throws SAXException, ParserConfigurationException
 	{
-		// set a composite classloader that includes both the JR classloader
-		// and the context classloader
-		CompositeClassloader digesterClassLoader = new CompositeClassloader(
-				JRXmlDigesterFactory.class.getClassLoader(), 
-				Thread.currentThread().getContextClassLoader());
-		digester.setClassLoader(digesterClassLoader);
+		configureClassLoader(digester);
 		
 		digester.setErrorHandler(new ErrorHandlerImpl());
 		
@@ -1538,6 +1533,44 @@ public final class JRXmlDigesterFactory
 	}
 
 
+	/**
+	 * Sets a classloader that includes both the JR classloader and the 
+	 * current context classloader on a digester.
+	 * This needs to be called each time a pooled digester is reused.
+	 * 
+	 * @see JRXmlDigesterPool
+	 */
+	public static void configureClassLoader(Digester digester)
+	{
+		CompositeClassloader digesterClassLoader = new CompositeClassloader(
+				JRXmlDigesterFactory.class.getClassLoader(), 
+				Thread.currentThread().getContextClassLoader());
+		digester.setClassLoader(digesterClassLoader);
+	}
+
+
+	/**
+	 * Returns a digester for parsing report definition files, reusing an idle
+	 * digester from the context pool when available.
+	 * The digester should be given back to the pool via 
+	 * {@link JRXmlDigesterPool#returnDigester(JRXmlDigester)} after a successful parse.
+	 */
+	public static JRXmlDigester getPooledDigester(JasperReportsContext jasperReportsContext) throws ParserConfigurationException, SAXException
+	{
+		JRXmlDigester digester = JRXmlDigesterPool.getInstance(jasperReportsContext, 
+				JRXmlDigesterPool.REPORT_DIGESTER_POOL).getDigester();
+		if (digester == null)
+		{
+			digester = createDigester(jasperReportsContext);
+		}
+		else
+		{
+			configureClassLoader(digester);
+		}
+		return digester;
+	}
+
+
 	/**
 	 * Creates a new instance of digester. The created digester is ready for
 	 * parsing report definition files.
@@ -0,0 +1,157 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.xml;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+/**
+ * Keeps configured {@link JRXmlDigester} instances for reuse.
+ * <p>
+ * Creating a digester registers the whole set of parsing rules and creates a SAX parser,
+ * which for report templates can take longer than the actual parsing of a small file.
+ * A pool is kept in the JasperReports context for each kind of XML document
+ * (report templates, style templates, exported documents). 
+ * Pools are not shared between a context and its parent, as the digesters depend
+ * on the extensions and properties of the context that created them.
+ * Digesters are taken from the pool by one thread at a time and returned after a successful parse;
+ * digesters used in failed parses are simply not returned.
+ * </p>
+ * 
+ * @see JRXmlLoader
+ * @see JRXmlTemplateLoader
+ * @see JRPrintXmlLoader
+ */
+public class JRXmlDigesterPool
+{
+	
+	/**
+	 * Property that specifies the maximum number of idle digesters kept in a pool.
+	 * Setting the property to 0 disables digester reuse.
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_OTHER,
+			defaultValue = "8",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_POOL_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "xml.digester.pool.size";
+	
+	public static final String REPORT_DIGESTER_POOL = "report";
+	public static final String TEMPLATE_DIGESTER_POOL = "template";
+	public static final String PRINT_DIGESTER_POOL = "print";
+	
+	private static final String CONTEXT_KEY_PREFIX = "net.sf.jasperreports.xml.digester.pool.";
+
+	/**
+	 * Returns the digester pool of a given kind for a JasperReports context, 
+	 * creating it if necessary.
+	 * 
+	 * @param jasperReportsContext the context
+	 * @param name the kind of digesters, one of {@link #REPORT_DIGESTER_POOL}, 
+	 * {@link #TEMPLATE_DIGESTER_POOL}, {@link #PRINT_DIGESTER_POOL} or a custom name
+	 * @return the digester pool
+	 */
+	public static JRXmlDigesterPool getInstance(JasperReportsContext jasperReportsContext, String name)
+	{
+		String key = CONTEXT_KEY_PREFIX + name;
+		synchronized (JRXmlDigesterPool.class)
+		{
+			// not inheriting pools from parent contexts because digesters are created 
+			// using the component extensions and the parser settings of a specific context
+			JRXmlDigesterPool pool = (JRXmlDigesterPool) jasperReportsContext.getOwnValue(key);
+			if (pool == null)
+			{
+				int maxIdle = JRPropertiesUtil.getInstance(jasperReportsContext).getIntegerProperty(PROPERTY_POOL_SIZE, 8);
+				pool = new JRXmlDigesterPool(maxIdle);
+				jasperReportsContext.setValue(key, pool);
+			}
+			return pool;
+		}
+	}
+	
+	private final int maxIdle;
+	private final Deque<JRXmlDigester> idleDigesters;
+	
+	protected JRXmlDigesterPool(int maxIdle)
+	{
+		this.maxIdle = maxIdle;
+		this.idleDigesters = new ArrayDeque<>();
+	}
+
+	/**
+	 * Takes an idle digester from the pool.
+	 * 
+	 * @return an idle digester, or <code>null</code> if none is available 
+	 * and the caller needs to create a new one
+	 */
+	public synchronized JRXmlDigester getDigester()
+	{
+		return idleDigesters.pollFirst();
+	}
+
+	/**
+	 * Returns a digester to the pool after it has been successfully used.
+	 * The digester is cleared of any references to the parsed objects and of its classloader,
+	 * callers that need a specific classloader have to set it again when reusing the digester.
+	 * 
+	 * @param digester the digester
+	 */
+	public void returnDigester(JRXmlDigester digester)
+	{
+		if (maxIdle <= 0)
+		{
+			return;
+		}
+		
+		digester.clear();
+		digester.resetRoot();
+		digester.clearLastPopped();
+		digester.setClassLoader(null);
+		
+		synchronized (this)
+		{
+			if (idleDigesters.size() < maxIdle)
+			{
+				idleDigesters.addFirst(digester);
+			}
+		}
+	}
+
+	/**
+	 * Discards all idle digesters.
+	 */
+	public synchronized void clear()
+	{
+		idleDigesters.clear();
+	}
+	
+}
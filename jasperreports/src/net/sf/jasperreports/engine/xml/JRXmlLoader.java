@@ -241,20 +241,21 @@ public class JRXmlLoader
 	 */
 	public static JasperDesign load(JasperReportsContext jasperReportsContext, InputStream is) throws JRException
 	{
-		JasperDesign jasperDesign = null;
-
-		JRXmlLoader xmlLoader = null;
-
+		JRXmlDigester digester;
 		try 
 		{
-			xmlLoader = new JRXmlLoader(jasperReportsContext, JRXmlDigesterFactory.createDigester(jasperReportsContext));
+			digester = JRXmlDigesterFactory.getPooledDigester(jasperReportsContext);
 		}
 		catch (ParserConfigurationException | SAXException e) 
 		{
 			throw new JRException(e);
 		}
 		
-		jasperDesign = xmlLoader.loadXML(is);
+		JRXmlLoader xmlLoader = new JRXmlLoader(jasperReportsContext, digester);
+		JasperDesign jasperDesign = xmlLoader.loadXML(is);
+		
+		// only digesters that completed a parse are reused
+		JRXmlDigesterPool.getInstance(jasperReportsContext, JRXmlDigesterPool.REPORT_DIGESTER_POOL).returnDigester(digester);
 
 		return jasperDesign;
 	}
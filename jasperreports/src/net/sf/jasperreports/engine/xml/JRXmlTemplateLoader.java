@@ -200,11 +200,20 @@ public class JRXmlTemplateLoader
 	 */
 	public JRTemplate loadTemplate(InputStream data)
 	{
-		JRXmlDigester digester = JRXmlTemplateDigesterFactory.instance().createDigester(
-				repositoryContext.getJasperReportsContext());
+		JasperReportsContext jasperReportsContext = repositoryContext.getJasperReportsContext();
+		JRXmlDigesterPool digesterPool = JRXmlDigesterPool.getInstance(jasperReportsContext, 
+				JRXmlDigesterPool.TEMPLATE_DIGESTER_POOL);
+		JRXmlDigester digester = digesterPool.getDigester();
+		if (digester == null)
+		{
+			digester = JRXmlTemplateDigesterFactory.instance().createDigester(jasperReportsContext);
+		}
+		
 		try
 		{
-			return (JRTemplate) digester.parse(data);
+			JRTemplate template = (JRTemplate) digester.parse(data);
+			digesterPool.returnDigester(digester);
+			return template;
 		}
 		catch (IOException e)
 		{
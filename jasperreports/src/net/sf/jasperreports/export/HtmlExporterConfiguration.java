@@ -60,6 +60,42 @@ public interface HtmlExporterConfiguration extends ExporterConfiguration
 	public static final String PROPERTY_FLUSH_OUTPUT = JRPropertiesUtil.PROPERTY_PREFIX + "export.html.flush.output";
 
 
+	/**
+	 * Property that provides the default value for the {@link #getFlushRowCount()} export configuration setting.
+	 * 
+	 * <p>
+	 * The property can be set at report level or globally.
+	 * By default, the output is not flushed while pages are exported.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "0",
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Integer.class
+			)
+	public static final String PROPERTY_FLUSH_ROW_COUNT = JRPropertiesUtil.PROPERTY_PREFIX + "export.html.flush.row.count";
+
+
+	/**
+	 * Property that provides the default value for the {@link #isCellStyleClasses()} export configuration setting.
+	 * 
+	 * <p>
+	 * The property can be set at report level or globally.
+	 * By default, cell styles are written as inline style attributes.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_CELL_STYLE_CLASSES = JRPropertiesUtil.PROPERTY_PREFIX + "export.html.cell.style.classes";
+
+
 	/**
 	 * Property that provides the default value for the {@link #getHtmlHeader()} export configuration setting.
 	 */
@@ -148,4 +184,37 @@ public interface HtmlExporterConfiguration extends ExporterConfiguration
 		booleanDefault=true
 		)
 	public Boolean isFlushOutput();
+	
+	
+	/**
+	 * Specifies the number of page table rows after which the HTML exporter writes 
+	 * the content produced so far to the output and flushes it.
+	 * This allows the consumer of the output (such as a servlet response) to start sending 
+	 * content before a page is fully exported.
+	 * When a positive value is set, the output is also flushed after each page.
+	 * Zero or negative values disable the intermediate flushes.
+	 * @see #PROPERTY_FLUSH_ROW_COUNT
+	 */
+	@ExporterProperty(
+		value=PROPERTY_FLUSH_ROW_COUNT, 
+		intDefault=0
+		)
+	public Integer getFlushRowCount();
+	
+	
+	/**
+	 * A flag that determines whether the HTML exporter should write the table cell styles as 
+	 * CSS classes instead of inline style attributes.
+	 * Each distinct cell style is defined once in a style sheet that is written before 
+	 * the table of the first page which uses it.
+	 * Styles that first appear further down a page, after its first rows have been written to the output,
+	 * are written inline.
+	 * Cells that have a class set via the {@link HtmlExporter#PROPERTY_HTML_CLASS} property keep inline styles.
+	 * @see #PROPERTY_CELL_STYLE_CLASSES
+	 */
+	@ExporterProperty(
+		value=PROPERTY_CELL_STYLE_CLASSES, 
+		booleanDefault=false
+		)
+	public Boolean isCellStyleClasses();
 }
@@ -34,6 +34,8 @@ public class SimpleHtmlExporterConfiguration extends SimpleExporterConfiguration
 	private String betweenPagesHtml;
 	private String htmlFooter;
 	private Boolean flushOutput;
+	private Integer flushRowCount;
+	private Boolean cellStyleClasses;
 
 	
 	/**
@@ -98,4 +100,32 @@ public class SimpleHtmlExporterConfiguration extends SimpleExporterConfiguration
 	{
 		this.flushOutput = flushOutput;
 	}
+	
+	@Override
+	public Integer getFlushRowCount()
+	{
+		return flushRowCount;
+	}
+	
+	/**
+	 * 
+	 */
+	public void setFlushRowCount(Integer flushRowCount)
+	{
+		this.flushRowCount = flushRowCount;
+	}
+	
+	@Override
+	public Boolean isCellStyleClasses()
+	{
+		return cellStyleClasses;
+	}
+	
+	/**
+	 * 
+	 */
+	public void setCellStyleClasses(Boolean cellStyleClasses)
+	{
+		this.cellStyleClasses = cellStyleClasses;
+	}
 }
@@ -30,6 +30,7 @@ package net.sf.jasperreports.export;
 public class SimpleXlsxExporterConfiguration extends SimpleXlsExporterConfiguration implements XlsxExporterConfiguration
 {
 	private String macroTemplate;
+	private Boolean streamingSheets;
 	
 	/**
 	 * 
@@ -51,4 +52,18 @@ public class SimpleXlsxExporterConfiguration extends SimpleXlsExporterConfigurat
 	{
 		this.macroTemplate = macroTemplate;
 	}
+
+	@Override
+	public Boolean isStreamingSheets()
+	{
+		return streamingSheets;
+	}
+
+	/**
+	 * 
+	 */
+	public void setStreamingSheets(Boolean streamingSheets)
+	{
+		this.streamingSheets = streamingSheets;
+	}
 }
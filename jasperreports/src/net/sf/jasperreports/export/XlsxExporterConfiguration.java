@@ -64,4 +64,34 @@ public interface XlsxExporterConfiguration extends XlsExporterConfiguration
 	@ExporterProperty(PROPERTY_MACRO_TEMPLATE)
 	public String getMacroTemplate();
 
+	/**
+	 * Property used to provide a default value for the {@link #isStreamingSheets()} export configuration flag.
+	 * 
+	 * @see JRPropertiesUtil
+	 * @since 6.21.3
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = PropertyConstants.BOOLEAN_FALSE,
+			scopes = {PropertyScope.CONTEXT, PropertyScope.REPORT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Boolean.class
+			)
+	public static final String PROPERTY_STREAMING_SHEETS = JRPropertiesUtil.PROPERTY_PREFIX + "export.xlsx.streaming.sheets";
+
+	/**
+	 * Flag that specifies whether the sheet content should be deflated directly into the output stream as rows are exported,
+	 * instead of being buffered until the end of the export.
+	 * The output stream starts receiving data as soon as the first sheet is created, 
+	 * so the memory and temporary disk space used for the sheets no longer depend on the number of exported rows.
+	 * This flag is ignored when the document is password protected.
+	 * @see #PROPERTY_STREAMING_SHEETS
+	 */
+	@ExporterProperty(
+		value=PROPERTY_STREAMING_SHEETS, 
+		booleanDefault=false
+		)
+	public Boolean isStreamingSheets();
+
+
 }
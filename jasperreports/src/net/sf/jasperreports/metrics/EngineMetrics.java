@@ -0,0 +1,213 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.jasperreports.engine.JasperReportsContext;
+
+/**
+ * Names of the metrics reported by the engine and access to the configured {@link MetricsRegistry}.
+ */
+public final class EngineMetrics
+{
+	
+	private static final String PREFIX = "net.sf.jasperreports.";
+	
+	/**
+	 * Counter of completed report fills.
+	 */
+	public static final String FILL_REPORTS = PREFIX + "fill.reports";
+	
+	/**
+	 * Counter of failed or canceled report fills.
+	 */
+	public static final String FILL_ERRORS = PREFIX + "fill.errors";
+	
+	/**
+	 * Counter of the pages generated by completed report fills.
+	 */
+	public static final String FILL_PAGES = PREFIX + "fill.pages";
+	
+	/**
+	 * Timer of report fills.
+	 */
+	public static final String FILL_TIME = PREFIX + "fill.time";
+	
+	/**
+	 * Timer of dataset query executions.
+	 */
+	public static final String QUERY_TIME = PREFIX + "query.time";
+	
+	/**
+	 * Counter of the pages exported.
+	 */
+	public static final String EXPORT_PAGES = PREFIX + "export.pages";
+	
+	/**
+	 * Timer of report exports.
+	 */
+	public static final String EXPORT_TIME = PREFIX + "export.time";
+	
+	/**
+	 * Prefix of the per exporter timers, followed by the exporter key 
+	 * without the <code>net.sf.jasperreports.</code> prefix (e.g. <code>pdf</code>).
+	 */
+	public static final String EXPORT_TIME_PREFIX = EXPORT_TIME + ".";
+	
+	/**
+	 * Counter of objects paged out by virtualizers.
+	 */
+	public static final String VIRTUALIZER_PAGE_OUT = PREFIX + "virtualizer.page.out";
+	
+	/**
+	 * Counter of bytes written by virtualizers when paging out objects.
+	 */
+	public static final String VIRTUALIZER_PAGE_OUT_BYTES = PREFIX + "virtualizer.page.out.bytes";
+	
+	/**
+	 * Counter of objects paged in by virtualizers.
+	 */
+	public static final String VIRTUALIZER_PAGE_IN = PREFIX + "virtualizer.page.in";
+	
+	/**
+	 * Counter of bytes read by virtualizers when paging in objects.
+	 */
+	public static final String VIRTUALIZER_PAGE_IN_BYTES = PREFIX + "virtualizer.page.in.bytes";
+	
+	/**
+	 * Counter that holds the current total size of the open swap files.
+	 */
+	public static final String SWAP_FILE_SIZE = PREFIX + "swap.file.size";
+	
+	/**
+	 * Counters of renderers cache hits and misses.
+	 */
+	public static final String RENDERERS_CACHE_HITS = PREFIX + "cache.renderers.hits";
+	public static final String RENDERERS_CACHE_MISSES = PREFIX + "cache.renderers.misses";
+	
+	/**
+	 * Counters of text measurement font information cache hits and misses.
+	 * 
+	 * The font information is cached per text measurer and per fill.
+	 */
+	public static final String FONT_INFO_CACHE_HITS = PREFIX + "cache.font.info.hits";
+	public static final String FONT_INFO_CACHE_MISSES = PREFIX + "cache.font.info.misses";
+	
+	/**
+	 * Counters of rasterized images cache hits and misses.
+	 * 
+	 * The rasterized images cache is shared by all exports.
+	 * 
+	 * @see net.sf.jasperreports.renderers.RasterizedImageCache
+	 */
+	public static final String RASTERIZED_IMAGES_CACHE_HITS = PREFIX + "cache.rasterized.images.hits";
+	public static final String RASTERIZED_IMAGES_CACHE_MISSES = PREFIX + "cache.rasterized.images.misses";
+	
+	private EngineMetrics()
+	{
+	}
+	
+	/**
+	 * Returns the metrics registry registered as extension in a context.
+	 * 
+	 * <p>
+	 * If no registry is registered, a no-op registry is returned. 
+	 * If several registries are registered, metrics are reported to all of them.
+	 * </p>
+	 * 
+	 * @param jasperReportsContext the context
+	 * @return the metrics registry
+	 */
+	public static MetricsRegistry getRegistry(JasperReportsContext jasperReportsContext)
+	{
+		List<MetricsRegistry> registries = jasperReportsContext.getExtensions(MetricsRegistry.class);
+		if (registries == null || registries.isEmpty())
+		{
+			return NoOpMetricsRegistry.INSTANCE;
+		}
+		
+		if (registries.size() == 1)
+		{
+			return registries.get(0);
+		}
+		
+		return new CompositeMetricsRegistry(registries);
+	}
+	
+	/**
+	 * Records a cache lookup.
+	 * 
+	 * @param registry the metrics registry
+	 * @param hit whether the lookup found a cached value
+	 * @param hitsName the hits counter name
+	 * @param missesName the misses counter name
+	 */
+	public static void recordCacheLookup(MetricsRegistry registry, boolean hit, String hitsName, String missesName)
+	{
+		registry.increment(hit ? hitsName : missesName, 1);
+	}
+	
+	private static class CompositeMetricsRegistry implements MetricsRegistry
+	{
+		private final List<MetricsRegistry> registries;
+		
+		CompositeMetricsRegistry(List<MetricsRegistry> registries)
+		{
+			this.registries = new ArrayList<>(registries);
+		}
+
+		@Override
+		public void increment(String name, long delta)
+		{
+			for (MetricsRegistry registry : registries)
+			{
+				registry.increment(name, delta);
+			}
+		}
+
+		@Override
+		public void recordDuration(String name, long nanos)
+		{
+			for (MetricsRegistry registry : registries)
+			{
+				registry.recordDuration(name, nanos);
+			}
+		}
+
+		@Override
+		public boolean isEnabled()
+		{
+			for (MetricsRegistry registry : registries)
+			{
+				if (registry.isEnabled())
+				{
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
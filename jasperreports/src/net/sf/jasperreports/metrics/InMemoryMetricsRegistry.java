@@ -0,0 +1,167 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics registry that keeps counters and timers in memory.
+ * <p>
+ * The registry can be registered as an extension and polled by a monitoring 
+ * component, or used for diagnostics in tests and tools.
+ * </p>
+ */
+public class InMemoryMetricsRegistry implements MetricsRegistry
+{
+
+	private final Map<String, LongAdder> counters;
+	private final Map<String, Timer> timers;
+	private volatile long startTime;
+	
+	public InMemoryMetricsRegistry()
+	{
+		counters = new ConcurrentHashMap<>();
+		timers = new ConcurrentHashMap<>();
+		startTime = System.nanoTime();
+	}
+	
+	@Override
+	public void increment(String name, long delta)
+	{
+		counters.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+	}
+
+	@Override
+	public void recordDuration(String name, long nanos)
+	{
+		timers.computeIfAbsent(name, key -> new Timer()).record(nanos);
+	}
+
+	/**
+	 * Returns the current value of a counter.
+	 * 
+	 * @param name the counter name
+	 * @return the counter value, 0 if the counter has not been incremented
+	 */
+	public long getCount(String name)
+	{
+		LongAdder counter = counters.get(name);
+		return counter == null ? 0 : counter.sum();
+	}
+	
+	/**
+	 * Returns the average rate of a counter since the registry was created or last reset.
+	 * 
+	 * @param name the counter name
+	 * @return the counter increments per second
+	 */
+	public double getRate(String name)
+	{
+		long elapsed = System.nanoTime() - startTime;
+		return elapsed <= 0 ? 0 : getCount(name) * 1e9 / elapsed;
+	}
+
+	/**
+	 * Returns the number of operations recorded by a timer.
+	 * 
+	 * @param name the timer name
+	 * @return the number of recorded durations
+	 */
+	public long getTimerCount(String name)
+	{
+		Timer timer = timers.get(name);
+		return timer == null ? 0 : timer.count.sum();
+	}
+
+	/**
+	 * Returns the total duration recorded by a timer.
+	 * 
+	 * @param name the timer name
+	 * @return the total duration in nanoseconds
+	 */
+	public long getTimerTotal(String name)
+	{
+		Timer timer = timers.get(name);
+		return timer == null ? 0 : timer.total.sum();
+	}
+
+	/**
+	 * Returns the longest duration recorded by a timer.
+	 * 
+	 * @param name the timer name
+	 * @return the maximum duration in nanoseconds
+	 */
+	public long getTimerMax(String name)
+	{
+		Timer timer = timers.get(name);
+		return timer == null ? 0 : timer.max.get();
+	}
+	
+	/**
+	 * Returns the names of the counters that have been incremented.
+	 */
+	public Set<String> getCounterNames()
+	{
+		return Collections.unmodifiableSet(new TreeSet<>(counters.keySet()));
+	}
+	
+	/**
+	 * Returns the names of the timers that have recorded durations.
+	 */
+	public Set<String> getTimerNames()
+	{
+		return Collections.unmodifiableSet(new TreeSet<>(timers.keySet()));
+	}
+	
+	/**
+	 * Clears all counters and timers and restarts the rate measurement.
+	 */
+	public void reset()
+	{
+		counters.clear();
+		timers.clear();
+		startTime = System.nanoTime();
+	}
+	
+	private static class Timer
+	{
+		private final LongAdder count = new LongAdder();
+		private final LongAdder total = new LongAdder();
+		private final AtomicLong max = new AtomicLong();
+		
+		void record(long nanos)
+		{
+			count.increment();
+			total.add(nanos);
+			max.accumulateAndGet(nanos, Math::max);
+		}
+	}
+
+}
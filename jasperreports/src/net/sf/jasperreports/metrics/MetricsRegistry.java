@@ -0,0 +1,73 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.metrics;
+
+/**
+ * Service provider interface for receiving engine metrics.
+ * <p>
+ * Implementations are registered as extensions of this type (see 
+ * {@link net.sf.jasperreports.extensions.ExtensionsRegistry}) and can bridge the
+ * metrics to a monitoring system. 
+ * The metric names reported by the engine are listed in {@link EngineMetrics}.
+ * </p>
+ * <p>
+ * Implementations need to be thread safe and fast, as metrics are reported from 
+ * fill and export threads.
+ * </p>
+ * 
+ * @see EngineMetrics#getRegistry(net.sf.jasperreports.engine.JasperReportsContext)
+ * @see InMemoryMetricsRegistry
+ */
+public interface MetricsRegistry
+{
+
+	/**
+	 * Adds a value to a counter.
+	 * 
+	 * @param name the counter name
+	 * @param delta the value to add, negative values being used for counters that measure current sizes
+	 */
+	void increment(String name, long delta);
+
+	/**
+	 * Records the duration of an operation.
+	 * 
+	 * @param name the timer name
+	 * @param nanos the duration, in nanoseconds
+	 */
+	void recordDuration(String name, long nanos);
+	
+	/**
+	 * Determines whether the registry records metrics.
+	 * 
+	 * The engine skips measurements that have a cost of their own when the registry is not enabled.
+	 * 
+	 * @return whether the registry records metrics
+	 */
+	default boolean isEnabled()
+	{
+		return true;
+	}
+
+}
@@ -264,4 +264,6 @@ public interface PropertyConstants
 	
 	String VERSION_6_21_2 = "6.21.2";
 	
+	String VERSION_6_21_3 = "6.21.3";
+	
 }
@@ -0,0 +1,97 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.renderers;
+
+import java.awt.Color;
+import java.awt.geom.Dimension2D;
+
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.metrics.EngineMetrics;
+import net.sf.jasperreports.metrics.MetricsRegistry;
+
+
+/**
+ * Renderer that rasterizes SVG data to an image and keeps the image in the {@link RasterizedImageCache}.
+ */
+public class CachedRenderToImageDataRenderer extends WrappingRenderToImageDataRenderer
+{
+	private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+	
+	private final DataRenderable svgRenderer;
+	private final Dimension2D dimension;
+	private final Color backcolor;
+	private final long maxCacheSize;
+	private final transient MetricsRegistry metrics;
+
+	/**
+	 * 
+	 * @param renderer the renderer that draws the SVG data
+	 * @param svgRenderer the renderer that provides the SVG data
+	 * @param dimension the image dimension
+	 * @param backcolor the image background color, or <code>null</code>
+	 * @param maxCacheSize the maximum total size of the cached images
+	 * @param metrics the registry to which cache hits and misses are reported
+	 */
+	public CachedRenderToImageDataRenderer(
+		Graphics2DRenderable renderer, 
+		DataRenderable svgRenderer,
+		Dimension2D dimension,
+		Color backcolor,
+		long maxCacheSize,
+		MetricsRegistry metrics
+		)
+	{
+		super(renderer, dimension, backcolor);
+		
+		this.svgRenderer = svgRenderer;
+		this.dimension = dimension;
+		this.backcolor = backcolor;
+		this.maxCacheSize = maxCacheSize;
+		this.metrics = metrics;
+	}
+
+	@Override
+	public byte[] getData(JasperReportsContext jasperReportsContext) throws JRException
+	{
+		RasterizedImageCache cache = RasterizedImageCache.getInstance();
+		RasterizedImageCache.Key key = cache.createKey(jasperReportsContext, svgRenderer.getData(jasperReportsContext), 
+				svgRenderer.getClass(), dimension, getImageDataDPI(jasperReportsContext), backcolor);
+		
+		byte[] data = cache.get(key);
+		if (metrics != null)
+		{
+			EngineMetrics.recordCacheLookup(metrics, data != null, 
+					EngineMetrics.RASTERIZED_IMAGES_CACHE_HITS, EngineMetrics.RASTERIZED_IMAGES_CACHE_MISSES);
+		}
+		
+		if (data == null)
+		{
+			data = super.getData(jasperReportsContext);
+			cache.put(key, data, maxCacheSize);
+		}
+		return data;
+	}
+}
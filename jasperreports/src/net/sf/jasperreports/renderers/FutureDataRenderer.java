@@ -0,0 +1,124 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.renderers;
+
+import java.awt.geom.Rectangle2D;
+import java.io.ObjectStreamException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintImageAreaHyperlink;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperReportsContext;
+
+
+/**
+ * Data renderer that delegates to a renderer which is being produced asynchronously.
+ * <p>
+ * Callers block only when they need the image data or the image map areas, until the 
+ * renderer is available. When serialized, the object is replaced by the produced renderer.
+ * </p>
+ */
+public class FutureDataRenderer extends AbstractRenderer implements DataRenderable, AreaHyperlinksRenderable
+{
+	private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+	
+	public static final String EXCEPTION_MESSAGE_KEY_RENDERER_INTERRUPTED = "renderers.future.data.renderer.interrupted";
+
+	private final transient Future<? extends Renderable> future;
+	private transient Renderable renderer;
+	
+	public FutureDataRenderer(Future<? extends Renderable> future)
+	{
+		this.future = future;
+	}
+
+	/**
+	 * Returns the produced renderer, waiting for it if needed.
+	 */
+	public synchronized Renderable getRenderer()
+	{
+		if (renderer == null)
+		{
+			try
+			{
+				renderer = future.get();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw 
+					new JRRuntimeException(
+						EXCEPTION_MESSAGE_KEY_RENDERER_INTERRUPTED, 
+						(Object[]) null, 
+						e);
+			}
+			catch (ExecutionException e)
+			{
+				Throwable cause = e.getCause();
+				if (cause instanceof RuntimeException)
+				{
+					throw (RuntimeException) cause;
+				}
+				if (cause instanceof Error)
+				{
+					throw (Error) cause;
+				}
+				throw new JRRuntimeException(cause);
+			}
+		}
+		return renderer;
+	}
+
+	@Override
+	public byte[] getData(JasperReportsContext jasperReportsContext) throws JRException
+	{
+		return ((DataRenderable) getRenderer()).getData(jasperReportsContext);
+	}
+
+	@Override
+	public List<JRPrintImageAreaHyperlink> getImageAreaHyperlinks(Rectangle2D renderingArea) throws JRException
+	{
+		Renderable delegate = getRenderer();
+		return delegate instanceof AreaHyperlinksRenderable 
+				? ((AreaHyperlinksRenderable) delegate).getImageAreaHyperlinks(renderingArea) 
+				: null;
+	}
+
+	@Override
+	public boolean hasImageAreaHyperlinks()
+	{
+		Renderable delegate = getRenderer();
+		return delegate instanceof AreaHyperlinksRenderable 
+				&& ((AreaHyperlinksRenderable) delegate).hasImageAreaHyperlinks();
+	}
+	
+	protected Object writeReplace() throws ObjectStreamException
+	{
+		return getRenderer();
+	}
+}
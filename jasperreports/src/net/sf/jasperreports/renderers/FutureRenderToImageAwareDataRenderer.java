@@ -0,0 +1,57 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.renderers;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.Future;
+
+import net.sf.jasperreports.engine.JRConstants;
+import net.sf.jasperreports.engine.JasperReportsContext;
+
+
+/**
+ * {@link FutureDataRenderer} for renderers that produce vector data which can be rendered to images.
+ */
+public class FutureRenderToImageAwareDataRenderer extends FutureDataRenderer implements RenderToImageAwareRenderable
+{
+	private static final long serialVersionUID = JRConstants.SERIAL_VERSION_UID;
+	
+	public FutureRenderToImageAwareDataRenderer(Future<? extends Renderable> future)
+	{
+		super(future);
+	}
+
+	@Override
+	public int getImageDataDPI(JasperReportsContext jasperReportsContext)
+	{
+		return ((RenderToImageAwareRenderable) getRenderer()).getImageDataDPI(jasperReportsContext);
+	}
+
+	@Override
+	public Graphics2D createGraphics(BufferedImage bi)
+	{
+		return ((RenderToImageAwareRenderable) getRenderer()).createGraphics(bi);
+	}
+}
@@ -0,0 +1,285 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.renderers;
+
+import java.awt.Color;
+import java.awt.geom.Dimension2D;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import net.sf.jasperreports.annotations.properties.Property;
+import net.sf.jasperreports.annotations.properties.PropertyScope;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.fonts.FontFamily;
+import net.sf.jasperreports.engine.fonts.FontSet;
+import net.sf.jasperreports.properties.PropertyConstants;
+
+
+/**
+ * Process wide cache of the images produced by rasterizing SVG data, shared by all exports.
+ * <p>
+ * Exporters that do not support vector images (such as the HTML exporter when converting SVG to images, 
+ * and the XLSX, DOCX and PPTX exporters) rasterize SVG images, which include SVG charts and barcodes,
+ * for each image element.
+ * The cache is keyed by a digest of the SVG data, the image dimension, resolution and background color,
+ * so that identical images are only rasterized once.
+ * The key also identifies the font extensions of the context, through which the fonts of SVG text are resolved,
+ * so that images are only shared by contexts that use the same font families and font sets.
+ * Least recently used images are evicted when the total size of the cached images exceeds the 
+ * {@link #PROPERTY_MAX_SIZE maximum size}.
+ * </p>
+ * 
+ * @see RenderersCache#getRasterizedRenderable(DataRenderable, String, Dimension2D, Color)
+ */
+public final class RasterizedImageCache
+{
+	
+	/**
+	 * Property that specifies the maximum total size, in bytes, of the images kept in the rasterized images cache.
+	 * <p>
+	 * A value of 0 or less disables the cache.
+	 * </p>
+	 */
+	@Property(
+			category = PropertyConstants.CATEGORY_EXPORT,
+			defaultValue = "16777216",
+			scopes = {PropertyScope.CONTEXT},
+			sinceVersion = PropertyConstants.VERSION_6_21_3,
+			valueType = Long.class
+			)
+	public static final String PROPERTY_MAX_SIZE = JRPropertiesUtil.PROPERTY_PREFIX + "export.rasterized.images.cache.max.size";
+	
+	public static final long DEFAULT_MAX_SIZE = 16 * 1024 * 1024;
+	
+	private static final RasterizedImageCache INSTANCE = new RasterizedImageCache();
+	
+	public static RasterizedImageCache getInstance()
+	{
+		return INSTANCE;
+	}
+	
+	private final LinkedHashMap<Key, byte[]> images;
+	private long size;
+	
+	private final Map<Object, Integer> fontExtensionIds;
+	private int fontExtensionCount;
+	
+	private RasterizedImageCache()
+	{
+		images = new LinkedHashMap<>(16, 0.75f, true);
+		fontExtensionIds = new WeakHashMap<>();
+	}
+	
+	/**
+	 * Creates the cache key of an image produced by rasterizing SVG data.
+	 * 
+	 * @param jasperReportsContext the context used to rasterize the image, which provides the fonts of SVG text
+	 * @param svgData the SVG data
+	 * @param rendererClass the class of the renderer that provided the data, as it can affect rasterization
+	 * @param dimension the dimension of the image
+	 * @param dpi the resolution of the image
+	 * @param backcolor the background color of the image, or <code>null</code>
+	 */
+	public Key createKey(JasperReportsContext jasperReportsContext, 
+			byte[] svgData, Class<?> rendererClass, Dimension2D dimension, int dpi, Color backcolor)
+	{
+		return new Key(getFontExtensionIds(jasperReportsContext), digest(svgData), svgData.length, rendererClass.getName(), 
+				dimension.getWidth(), dimension.getHeight(), dpi, 
+				backcolor == null ? null : backcolor.getRGB());
+	}
+	
+	/**
+	 * Returns IDs that identify the font family and font set extension objects of a context.
+	 * <p>
+	 * Each extension object gets an ID that is not reused, the objects are not kept in memory by the cache.
+	 */
+	protected int[] getFontExtensionIds(JasperReportsContext jasperReportsContext)
+	{
+		List<FontFamily> fontFamilies = jasperReportsContext.getExtensions(FontFamily.class);
+		List<FontSet> fontSets = jasperReportsContext.getExtensions(FontSet.class);
+		int fontFamilyCount = fontFamilies == null ? 0 : fontFamilies.size();
+		int fontSetCount = fontSets == null ? 0 : fontSets.size();
+		
+		int[] ids = new int[fontFamilyCount + fontSetCount];
+		synchronized (fontExtensionIds)
+		{
+			for (int i = 0; i < fontFamilyCount; i++)
+			{
+				ids[i] = getFontExtensionId(fontFamilies.get(i));
+			}
+			for (int i = 0; i < fontSetCount; i++)
+			{
+				ids[fontFamilyCount + i] = getFontExtensionId(fontSets.get(i));
+			}
+		}
+		return ids;
+	}
+	
+	private int getFontExtensionId(Object fontExtension)
+	{
+		Integer id = fontExtensionIds.get(fontExtension);
+		if (id == null)
+		{
+			id = ++fontExtensionCount;
+			fontExtensionIds.put(fontExtension, id);
+		}
+		return id;
+	}
+	
+	private static byte[] digest(byte[] data)
+	{
+		try
+		{
+			return MessageDigest.getInstance("SHA-256").digest(data);
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new JRRuntimeException(e);
+		}
+	}
+	
+	/**
+	 * Returns the cached image data for a key, or <code>null</code> if not cached.
+	 */
+	public synchronized byte[] get(Key key)
+	{
+		return images.get(key);
+	}
+	
+	/**
+	 * Caches the image data for a key, evicting the least recently used images if the total size
+	 * of the cached images exceeds a maximum size.
+	 * 
+	 * @param key the image key
+	 * @param data the image data
+	 * @param maxSize the maximum total size of the cached images
+	 */
+	public synchronized void put(Key key, byte[] data, long maxSize)
+	{
+		if (data.length > maxSize)
+		{
+			return;
+		}
+		
+		byte[] previous = images.put(key, data);
+		if (previous != null)
+		{
+			size -= previous.length;
+		}
+		size += data.length;
+		
+		for (Iterator<Map.Entry<Key, byte[]>> it = images.entrySet().iterator(); size > maxSize && it.hasNext();)
+		{
+			size -= it.next().getValue().length;
+			it.remove();
+		}
+	}
+	
+	/**
+	 * Returns the total size of the cached images.
+	 */
+	public synchronized long getSize()
+	{
+		return size;
+	}
+	
+	/**
+	 * Removes all the cached images.
+	 */
+	public synchronized void clear()
+	{
+		images.clear();
+		size = 0;
+	}
+	
+	/**
+	 * Key of a rasterized image.
+	 */
+	public static final class Key
+	{
+		private final int[] fontExtensionIds;
+		private final byte[] digest;
+		private final int dataLength;
+		private final String rendererClass;
+		private final double width;
+		private final double height;
+		private final int dpi;
+		private final Integer backcolor;
+		private final int hash;
+		
+		private Key(int[] fontExtensionIds, byte[] digest, int dataLength, String rendererClass, 
+				double width, double height, int dpi, Integer backcolor)
+		{
+			this.fontExtensionIds = fontExtensionIds;
+			this.digest = digest;
+			this.dataLength = dataLength;
+			this.rendererClass = rendererClass;
+			this.width = width;
+			this.height = height;
+			this.dpi = dpi;
+			this.backcolor = backcolor;
+			this.hash = Objects.hash(Arrays.hashCode(fontExtensionIds), Arrays.hashCode(digest), 
+					dataLength, rendererClass, width, height, dpi, backcolor);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (obj == this)
+			{
+				return true;
+			}
+			if (!(obj instanceof Key))
+			{
+				return false;
+			}
+			Key key = (Key) obj;
+			return hash == key.hash
+					&& dataLength == key.dataLength
+					&& width == key.width
+					&& height == key.height
+					&& dpi == key.dpi
+					&& Objects.equals(backcolor, key.backcolor)
+					&& rendererClass.equals(key.rendererClass)
+					&& Arrays.equals(digest, key.digest)
+					&& Arrays.equals(fontExtensionIds, key.fontExtensionIds);
+		}
+	}
+	
+}
@@ -23,12 +23,17 @@
  */
 package net.sf.jasperreports.renderers;
 
+import java.awt.Color;
+import java.awt.geom.Dimension2D;
 import java.util.HashMap;
 import java.util.Map;
 
 import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPropertiesUtil;
 import net.sf.jasperreports.engine.JasperReportsContext;
 import net.sf.jasperreports.engine.type.OnErrorTypeEnum;
+import net.sf.jasperreports.metrics.EngineMetrics;
+import net.sf.jasperreports.metrics.MetricsRegistry;
 import net.sf.jasperreports.renderers.util.RendererUtil;
 
 
@@ -38,8 +43,10 @@ import net.sf.jasperreports.renderers.util.RendererUtil;
 public class RenderersCache
 {
 	private final RendererUtil rendererUtil;
+	private final MetricsRegistry metrics;
 	private final Map<String, Renderable> resourceRenderers;
 	private final Map<String, Renderable> wrappingDataRenderers;
+	private final long rasterizedImagesCacheMaxSize;
 	
 	
 	/**
@@ -48,8 +55,11 @@ public class RenderersCache
 	public RenderersCache(JasperReportsContext jasperReportsContext)
 	{
 		this.rendererUtil = RendererUtil.getInstance(jasperReportsContext);
+		this.metrics = EngineMetrics.getRegistry(jasperReportsContext);
 		this.resourceRenderers = new HashMap<>();
 		this.wrappingDataRenderers = new HashMap<>();
+		this.rasterizedImagesCacheMaxSize = JRPropertiesUtil.getInstance(jasperReportsContext).getLongProperty(
+				RasterizedImageCache.PROPERTY_MAX_SIZE, RasterizedImageCache.DEFAULT_MAX_SIZE);
 	}
 
 
@@ -60,7 +70,10 @@ public class RenderersCache
 	{
 		Renderable loadedRenderer;
 		String resourceRendererId = resourceRenderer.getId();
-		if (resourceRenderers.containsKey(resourceRendererId))
+		boolean cached = resourceRenderers.containsKey(resourceRendererId);
+		EngineMetrics.recordCacheLookup(metrics, cached, 
+				EngineMetrics.RENDERERS_CACHE_HITS, EngineMetrics.RENDERERS_CACHE_MISSES);
+		if (cached)
 		{
 			loadedRenderer = resourceRenderers.get(resourceRendererId);
 		}
@@ -143,7 +156,10 @@ public class RenderersCache
 	{
 		Renderable wrappingRenderer = null;
 		
-		if (wrappingDataRenderers.containsKey(rendererId))
+		boolean cached = wrappingDataRenderers.containsKey(rendererId);
+		EngineMetrics.recordCacheLookup(metrics, cached, 
+				EngineMetrics.RENDERERS_CACHE_HITS, EngineMetrics.RENDERERS_CACHE_MISSES);
+		if (cached)
 		{
 			wrappingRenderer = wrappingDataRenderers.get(rendererId);
 		}
@@ -164,4 +180,42 @@ public class RenderersCache
 		
 		return wrappingRenderer;
 	}
+
+
+	/**
+	 * Returns a renderer that rasterizes SVG data to an image.
+	 * <p>
+	 * Unless disabled by {@link RasterizedImageCache#PROPERTY_MAX_SIZE}, the images are kept in the
+	 * {@link RasterizedImageCache} which is shared by all exports, so that identical SVG images 
+	 * of the same size are only rasterized once.
+	 * </p>
+	 * 
+	 * @param svgRenderer the renderer that provides the SVG data
+	 * @param rendererId the ID of the renderer
+	 * @param dimension the image dimension
+	 * @param backcolor the image background color, or <code>null</code>
+	 */
+	public DataRenderable getRasterizedRenderable(
+		DataRenderable svgRenderer, 
+		String rendererId, 
+		Dimension2D dimension, 
+		Color backcolor
+		) throws JRException
+	{
+		Graphics2DRenderable grxRenderer = (Graphics2DRenderable)getWrappingRenderable(rendererId, svgRenderer);
+		if (rasterizedImagesCacheMaxSize <= 0 || dimension == null)
+		{
+			return new WrappingRenderToImageDataRenderer(grxRenderer, dimension, backcolor);
+		}
+		
+		return 
+			new CachedRenderToImageDataRenderer(
+				grxRenderer, 
+				svgRenderer, 
+				dimension, 
+				backcolor, 
+				rasterizedImagesCacheMaxSize, 
+				metrics
+				);
+	}
 }
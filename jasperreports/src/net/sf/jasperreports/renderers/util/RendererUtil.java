@@ -538,8 +538,9 @@ public class RendererUtil
 				if (isSvgData)
 				{
 					imageRenderer =
-						new WrappingRenderToImageDataRenderer(
-							(Graphics2DRenderable)renderersCache.getWrappingRenderable(renderer.getId(), (DataRenderable)renderer), 
+						renderersCache.getRasterizedRenderable(
+							(DataRenderable)renderer, 
+							renderer.getId(), 
 							dimension, 
 							backcolor
 							);
@@ -23,8 +23,12 @@
  */
 package net.sf.jasperreports.web.servlets;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -35,17 +39,24 @@ import org.apache.commons.logging.LogFactory;
 
 import net.sf.jasperreports.engine.JRRuntimeException;
 import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.PrintElementId;
 import net.sf.jasperreports.engine.fill.AsynchronousFilllListener;
+import net.sf.jasperreports.engine.fill.ElementsUpdatedFillListener;
 import net.sf.jasperreports.engine.fill.FillHandle;
-import net.sf.jasperreports.engine.fill.FillListener;
 
 /**
  * Generated report accessor used for asynchronous report executions that publishes pages
  * before the entire report has been generated.
  * 
+ * <p>
+ * For pages that have been requested before being final, the accessor also keeps track of the elements
+ * resolved afterwards by delayed evaluations, so that clients can update such pages incrementally
+ * via {@link #pageUpdates(int, Long)} instead of fetching them again.
+ * </p>
+ * 
  * @author Lucian Chirita (lucianc@users.sourceforge.net)
  */
-public class AsyncJasperPrintAccessor implements JasperPrintAccessor, AsynchronousFilllListener, FillListener
+public class AsyncJasperPrintAccessor implements JasperPrintAccessor, AsynchronousFilllListener, ElementsUpdatedFillListener
 {
 
 	private static final Log log = LogFactory.getLog(AsyncJasperPrintAccessor.class);
@@ -58,6 +69,11 @@ public class AsyncJasperPrintAccessor implements JasperPrintAccessor, Asynchrono
 	private final Lock lock;
 	private final Condition pageCondition;
 	private final Map<Integer, Long> trackedPages = new HashMap<>();
+	private final Map<Integer, PageUpdatesLog> pageUpdateLogs = new HashMap<>();
+	
+	// only accessed by the fill thread, between elementsUpdated and pageUpdated
+	private int updatedElementsPageIndex = -1;
+	private List<PrintElementId> updatedElementIds;
 	
 	private volatile boolean done;
 	private boolean cancelled;
@@ -101,8 +117,34 @@ public class AsyncJasperPrintAccessor implements JasperPrintAccessor, Asynchrono
 		lock.unlock();
 	}
 	
+	/**
+	 * Returns the status of a page.
+	 * <p>
+	 * Once the final status of a page is returned, the updates of the page are no longer logged, 
+	 * and {@link #pageUpdates(int, Long)} requires the page to be delivered entirely to clients
+	 * that hold a non-final version of the page.
+	 * </p>
+	 */
 	@Override
 	public ReportPageStatus pageStatus(int pageIdx, Long pageTimestamp)
+	{
+		ReportPageStatus status = getPageStatus(pageIdx, pageTimestamp);
+		if (status.isPageFinal())
+		{
+			lock();
+			try
+			{
+				pageUpdateLogs.remove(pageIdx);
+			}
+			finally
+			{
+				unlock();
+			}
+		}
+		return status;
+	}
+	
+	protected ReportPageStatus getPageStatus(int pageIdx, Long pageTimestamp)
 	{
 		if (!done)
 		{
@@ -135,32 +177,91 @@ public class AsyncJasperPrintAccessor implements JasperPrintAccessor, Asynchrono
 			return ReportPageStatus.NO_SUCH_PAGE;
 		}
 		
-		if (done || fillHandle.isPageFinal(pageIdx))
+		// checked outside the lock because the fill thread notifies page updates 
+		// while holding the virtualization context lock needed by isPageFinal
+		boolean pageFinal = done || fillHandle.isPageFinal(pageIdx);
+		
+		lock();
+		try
 		{
-			trackedPages.remove(pageIdx);
-			return ReportPageStatus.PAGE_FINAL;
+			if (pageFinal)
+			{
+				trackedPages.remove(pageIdx);
+				return ReportPageStatus.PAGE_FINAL;
+			}
+			
+			long timestamp;
+			boolean modified;
+			
+			Long lastUpdate = trackedPages.get(pageIdx);
+			if (lastUpdate == null)
+			{
+				// we don't know when exactly the page was modified, using current time
+				timestamp = System.currentTimeMillis();
+				modified = true;
+				
+				// start logging the updates of the page
+				if (!pageUpdateLogs.containsKey(pageIdx))
+				{
+					pageUpdateLogs.put(pageIdx, new PageUpdatesLog(timestamp));
+				}
+			}
+			else
+			{
+				timestamp = lastUpdate;
+				modified = pageTimestamp == null || pageTimestamp < lastUpdate;
+			}
+			
+			ReportPageStatus status = ReportPageStatus.nonFinal(timestamp, modified);
+			// add the page to the tracked map so that we catch updates
+			trackedPages.put(pageIdx, timestamp);
+			return status;
 		}
-		
-		long timestamp;
-		boolean modified;
-		
-		Long lastUpdate = trackedPages.get(pageIdx);
-		if (lastUpdate == null)
+		finally
 		{
-			// we don't know when exactly the page was modified, using current time
-			timestamp = System.currentTimeMillis();
-			modified = true;
+			unlock();
 		}
-		else
+	}
+
+	/**
+	 * Determines the updates of a page since a version previously delivered to a client.
+	 * 
+	 * <p>
+	 * Similarly to {@link #pageStatus(int, Long)}, this method waits until the page is available.
+	 * If the client version of the page has been obtained after a non-final status for the page was returned, 
+	 * the result contains the Ids of the elements that have been resolved since then.
+	 * Otherwise the result indicates that the entire page needs to be delivered again.
+	 * </p>
+	 * <p>
+	 * The log of the page updates is dropped when the final status of the page is returned,
+	 * so the updates that lead to the final version of a page are only determined once.
+	 * </p>
+	 * 
+	 * @param pageIdx the page index
+	 * @param pageTimestamp the timestamp of the page version held by the client, 
+	 * as returned by {@link ReportPageStatus#getTimestamp()}, or <code>null</code> if the client does not have the page
+	 * @return the updates of the page
+	 */
+	public ReportPageUpdates pageUpdates(int pageIdx, Long pageTimestamp)
+	{
+		ReportPageStatus status = getPageStatus(pageIdx, pageTimestamp);
+		if (!status.pageExists())
 		{
-			timestamp = lastUpdate;
-			modified = pageTimestamp == null || pageTimestamp < lastUpdate;
+			return ReportPageUpdates.NO_SUCH_PAGE;
 		}
 		
-		ReportPageStatus status = ReportPageStatus.nonFinal(timestamp, modified);
-		// add the page to the tracked map so that we catch updates
-		trackedPages.put(pageIdx, timestamp);
-		return status;
+		lock();
+		try
+		{
+			PageUpdatesLog updatesLog = status.isPageFinal() 
+					? pageUpdateLogs.remove(pageIdx) : pageUpdateLogs.get(pageIdx);
+			return updatesLog == null || pageTimestamp == null ? ReportPageUpdates.fullPage(status) 
+					: updatesLog.updatesSince(status, pageTimestamp);
+		}
+		finally
+		{
+			unlock();
+		}
 	}
 
 	@Override
@@ -365,6 +466,19 @@ public class AsyncJasperPrintAccessor implements JasperPrintAccessor, Asynchrono
 		}
 	}
 
+	@Override
+	public void elementsUpdated(JasperPrint jasperPrint, int pageIndex, List<PrintElementId> elementIds)
+	{
+		if (log.isDebugEnabled())
+		{
+			log.debug(elementIds.size() + " elements updated on page " + pageIndex);
+		}
+		
+		// remembered until the pageUpdated call that follows
+		updatedElementsPageIndex = pageIndex;
+		updatedElementIds = elementIds;
+	}
+
 	@Override
 	public void pageUpdated(JasperPrint jasperPrint, int pageIndex)
 	{
@@ -373,14 +487,26 @@ public class AsyncJasperPrintAccessor implements JasperPrintAccessor, Asynchrono
 			log.debug("page " + pageIndex + " updated");
 		}
 		
+		List<PrintElementId> elementIds = pageIndex == updatedElementsPageIndex ? updatedElementIds : null;
+		updatedElementsPageIndex = -1;
+		updatedElementIds = null;
+		
 		lock();
 		try
 		{
 			// update the timestamp if the page is tracked
-			if (trackedPages.containsKey(pageIndex))
+			Long lastUpdate = trackedPages.get(pageIndex);
+			if (lastUpdate != null)
 			{
-				long timestamp = System.currentTimeMillis();
+				// making sure that the timestamp changes so that the update is not missed
+				long timestamp = Math.max(System.currentTimeMillis(), lastUpdate + 1);
 				trackedPages.put(pageIndex, timestamp);
+				
+				PageUpdatesLog updatesLog = pageUpdateLogs.get(pageIndex);
+				if (updatesLog != null)
+				{
+					updatesLog.add(timestamp, elementIds);
+				}
 			}
 		}
 		finally
@@ -410,4 +536,52 @@ public class AsyncJasperPrintAccessor implements JasperPrintAccessor, Asynchrono
 		return ReportExecutionStatus.finished(jasperPrint.getPages().size());
 	}
 
+	
+	/**
+	 * Log of the updates of a page since the page has been first requested in non-final form.
+	 */
+	protected static class PageUpdatesLog
+	{
+		private final long startTimestamp;
+		private final List<Long> timestamps = new ArrayList<>();
+		// null entries for updates that can affect the entire page
+		private final List<List<PrintElementId>> elementIds = new ArrayList<>();
+		
+		protected PageUpdatesLog(long startTimestamp)
+		{
+			this.startTimestamp = startTimestamp;
+		}
+		
+		protected void add(long timestamp, List<PrintElementId> updatedElementIds)
+		{
+			timestamps.add(timestamp);
+			elementIds.add(updatedElementIds);
+		}
+		
+		protected ReportPageUpdates updatesSince(ReportPageStatus status, long pageTimestamp)
+		{
+			if (pageTimestamp < startTimestamp)
+			{
+				// the client version precedes the log
+				return ReportPageUpdates.fullPage(status);
+			}
+			
+			Set<PrintElementId> updatedElementIds = new LinkedHashSet<>();
+			for (int i = 0; i < timestamps.size(); i++)
+			{
+				if (timestamps.get(i) > pageTimestamp)
+				{
+					List<PrintElementId> ids = elementIds.get(i);
+					if (ids == null)
+					{
+						return ReportPageUpdates.fullPage(status);
+					}
+					
+					updatedElementIds.addAll(ids);
+				}
+			}
+			return ReportPageUpdates.elements(status, updatedElementIds);
+		}
+	}
+
 }
@@ -0,0 +1,161 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.web.servlets;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.PrintElementId;
+
+/**
+ * Updates of a page in a generated report relative to a previously delivered version of the page.
+ * 
+ * <p>
+ * When {@link #isFullPage()} is <code>false</code>, a client that holds the page version identified 
+ * by the timestamp used in the request can bring it up to date by only replacing the elements
+ * returned by {@link #getElementIds()}, which are elements resolved by delayed evaluations.
+ * Otherwise the entire page needs to be delivered again.
+ * </p>
+ * 
+ * @see AsyncJasperPrintAccessor#pageUpdates(int, Long)
+ */
+public class ReportPageUpdates
+{
+
+	/**
+	 * Updates returned when the requested page does not exist.
+	 */
+	public static final ReportPageUpdates NO_SUCH_PAGE = 
+			new ReportPageUpdates(ReportPageStatus.NO_SUCH_PAGE, true, Collections.<PrintElementId>emptySet());
+	
+	/**
+	 * Creates updates that require the entire page to be delivered.
+	 * 
+	 * @param status the current status of the page
+	 */
+	public static ReportPageUpdates fullPage(ReportPageStatus status)
+	{
+		return new ReportPageUpdates(status, true, Collections.<PrintElementId>emptySet());
+	}
+	
+	/**
+	 * Creates updates that consist of a set of resolved elements.
+	 * 
+	 * @param status the current status of the page
+	 * @param elementIds the Ids of the elements that have been updated, possibly empty
+	 */
+	public static ReportPageUpdates elements(ReportPageStatus status, Set<PrintElementId> elementIds)
+	{
+		return new ReportPageUpdates(status, false, Collections.unmodifiableSet(elementIds));
+	}
+	
+	private final ReportPageStatus status;
+	private final boolean fullPage;
+	private final Set<PrintElementId> elementIds;
+	
+	protected ReportPageUpdates(ReportPageStatus status, boolean fullPage, Set<PrintElementId> elementIds)
+	{
+		this.status = status;
+		this.fullPage = fullPage;
+		this.elementIds = elementIds;
+	}
+
+	/**
+	 * Returns the current status of the page.
+	 * 
+	 * @return the current status of the page
+	 */
+	public ReportPageStatus getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * Determines whether the entire page needs to be delivered, 
+	 * either because it was not previously delivered or because the updates are not known.
+	 * 
+	 * @return whether the entire page needs to be delivered
+	 */
+	public boolean isFullPage()
+	{
+		return fullPage;
+	}
+	
+	/**
+	 * Determines whether the page has changed since the version held by the client.
+	 * 
+	 * @return whether the page has changed
+	 */
+	public boolean hasUpdates()
+	{
+		return fullPage || !elementIds.isEmpty();
+	}
+
+	/**
+	 * Returns the Ids of the updated elements.
+	 * 
+	 * @return the Ids of the updated elements, empty when the entire page needs to be delivered
+	 */
+	public Set<PrintElementId> getElementIds()
+	{
+		return elementIds;
+	}
+	
+	/**
+	 * Collects the updated elements from the current version of the page,
+	 * looking for them in frames as well.
+	 * 
+	 * @param page the current version of the page
+	 * @return the updated elements in the order in which they appear in the page
+	 */
+	public List<JRPrintElement> getElements(JRPrintPage page)
+	{
+		List<JRPrintElement> elements = new ArrayList<>(elementIds.size());
+		if (!elementIds.isEmpty())
+		{
+			collectElements(page.getElements(), elements);
+		}
+		return elements;
+	}
+	
+	protected void collectElements(List<JRPrintElement> pageElements, List<JRPrintElement> elements)
+	{
+		for (JRPrintElement element : pageElements)
+		{
+			if (elementIds.contains(PrintElementId.forElement(element)))
+			{
+				elements.add(element);
+			}
+			else if (element instanceof JRPrintFrame)
+			{
+				collectElements(((JRPrintFrame) element).getElements(), elements);
+			}
+		}
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.charts.util;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.time.Second;
+import org.jfree.data.time.TimeSeries;
+import org.jfree.data.time.TimeSeriesCollection;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+import org.testng.annotations.Test;
+
+public class SeriesDownsamplerTest
+{
+	
+	private static final int WIDTH = 500;
+	private static final int HEIGHT = 300;
+	private static final int THRESHOLD = 2 * WIDTH;
+	
+	@Test
+	public void timeSeriesFidelity()
+	{
+		TimeSeries series = new TimeSeries("readings");
+		Random random = new Random(42);
+		Second period = new Second(0, 0, 0, 1, 1, 2020);
+		for (int i = 0; i < 200000; i++)
+		{
+			double value = 100 * Math.sin(i / 5000d) + 10 * random.nextGaussian();
+			if (i == 123457)
+			{
+				value = 500;
+			}
+			series.add(period, value, false);
+			period = (Second) period.next();
+		}
+		
+		TimeSeries downsampled = SeriesDownsampler.downsample(series, THRESHOLD);
+		assert downsampled.getItemCount() == THRESHOLD;
+		assert downsampled.getKey().equals(series.getKey());
+		assert downsampled.getMaxY() == series.getMaxY();
+		assert downsampled.getTimePeriod(0).equals(series.getTimePeriod(0));
+		assert downsampled.getTimePeriod(THRESHOLD - 1).equals(series.getTimePeriod(series.getItemCount() - 1));
+		for (int i = 0; i < downsampled.getItemCount(); i++)
+		{
+			// kept points are points of the original series
+			assert downsampled.getValue(i).equals(series.getValue(downsampled.getTimePeriod(i)));
+		}
+		
+		BufferedImage full = render(ChartFactory.createTimeSeriesChart(null, null, null, 
+				new TimeSeriesCollection(series), false, false, false));
+		BufferedImage reduced = render(ChartFactory.createTimeSeriesChart(null, null, null, 
+				new TimeSeriesCollection(downsampled), false, false, false));
+		assertSameEnvelope(full, reduced);
+	}
+	
+	@Test
+	public void xySeriesFidelity()
+	{
+		XYSeries series = new XYSeries("xy");
+		Random random = new Random(7);
+		for (int i = 0; i < 50000; i++)
+		{
+			series.add(i, Math.floor(i / 1000) % 2 == 0 ? random.nextDouble() : 10 + random.nextDouble(), false);
+		}
+		
+		XYSeries downsampled = SeriesDownsampler.downsample(series, THRESHOLD);
+		assert downsampled.getItemCount() == THRESHOLD;
+		assert downsampled.getMaxY() - downsampled.getMinY() > 0.99 * (series.getMaxY() - series.getMinY());
+		
+		BufferedImage full = render(ChartFactory.createXYLineChart(null, null, null, 
+				new XYSeriesCollection(series)));
+		BufferedImage reduced = render(ChartFactory.createXYLineChart(null, null, null, 
+				new XYSeriesCollection(downsampled)));
+		assertSameEnvelope(full, reduced);
+	}
+	
+	@Test
+	public void gapsAndSmallSeries()
+	{
+		TimeSeries series = new TimeSeries("gaps");
+		Second period = new Second(0, 0, 0, 1, 1, 2020);
+		for (int i = 0; i < 10000; i++)
+		{
+			series.add(period, i % 1000 == 500 ? null : Double.valueOf(i % 7), false);
+			period = (Second) period.next();
+		}
+		
+		TimeSeries downsampled = SeriesDownsampler.downsample(series, 100);
+		int nullCount = 0;
+		for (int i = 0; i < downsampled.getItemCount(); i++)
+		{
+			if (downsampled.getValue(i) == null)
+			{
+				++nullCount;
+			}
+		}
+		assert nullCount == 10;
+		assert downsampled.getItemCount() == 110;
+		
+		assert SeriesDownsampler.downsample(series, series.getItemCount()) == series;
+		assert SeriesDownsampler.downsample(series, 0) == series;
+		
+		XYSeries unsorted = new XYSeries("unsorted", false);
+		for (int i = 0; i < 1000; i++)
+		{
+			unsorted.add(Math.sin(i), Math.cos(i), false);
+		}
+		assert SeriesDownsampler.downsample(unsorted, 10) == unsorted;
+	}
+	
+	private static BufferedImage render(JFreeChart chart)
+	{
+		chart.setAntiAlias(false);
+		XYPlot plot = chart.getXYPlot();
+		plot.setBackgroundPaint(Color.WHITE);
+		plot.setDomainGridlinesVisible(false);
+		plot.setRangeGridlinesVisible(false);
+		plot.getRenderer().setSeriesPaint(0, Color.RED);
+		return chart.createBufferedImage(WIDTH, HEIGHT);
+	}
+	
+	/**
+	 * Compares the vertical extent of the series line in each pixel column of the two charts.
+	 */
+	private static void assertSameEnvelope(BufferedImage full, BufferedImage reduced)
+	{
+		int columns = 0;
+		double difference = 0;
+		for (int x = 0; x < WIDTH; x++)
+		{
+			int[] fullEnvelope = envelope(full, x);
+			int[] reducedEnvelope = envelope(reduced, x);
+			if (fullEnvelope != null)
+			{
+				assert reducedEnvelope != null : x;
+				++columns;
+				difference += Math.abs(fullEnvelope[0] - reducedEnvelope[0]) 
+						+ Math.abs(fullEnvelope[1] - reducedEnvelope[1]);
+			}
+		}
+		
+		assert columns > WIDTH / 2;
+		double averageDifference = difference / (2 * columns);
+		assert averageDifference < 0.01 * HEIGHT : averageDifference;
+	}
+	
+	private static int[] envelope(BufferedImage image, int x)
+	{
+		int[] envelope = null;
+		for (int y = 0; y < HEIGHT; y++)
+		{
+			if (image.getRGB(x, y) == Color.RED.getRGB())
+			{
+				if (envelope == null)
+				{
+					envelope = new int[] {y, y};
+				}
+				envelope[1] = y;
+			}
+		}
+		return envelope;
+	}
+	
+}
@@ -0,0 +1,255 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.compilers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.compilers.ExpressionTreeParser.Dialect;
+import net.sf.jasperreports.compilers.ExpressionTreeParser.UnsupportedExpressionException;
+import net.sf.jasperreports.engine.JRElement;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRTextField;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.design.JRDesignExpression;
+import net.sf.jasperreports.engine.design.JRReportCompileData;
+import net.sf.jasperreports.engine.fill.ExpressionValues;
+
+public class ExpressionTreeParserTest
+{
+	
+	private static class TestValues implements ExpressionValues
+	{
+		@Override
+		public Object getParameterValue(String parameterName)
+		{
+			return PARAMETER_VALUES.get(parameterName);
+		}
+
+		@Override
+		public Object getFieldValue(String fieldName)
+		{
+			return FIELD_VALUES.get(fieldName);
+		}
+
+		@Override
+		public Object getVariableValue(String variableName)
+		{
+			return VARIABLE_VALUES.get(variableName);
+		}
+
+		@Override
+		public String getMessage(String messageKey)
+		{
+			return "message:" + messageKey;
+		}
+	}
+	
+	private static final Map<String, Object> PARAMETER_VALUES = new HashMap<>();
+	private static final Map<String, Object> FIELD_VALUES = new HashMap<>();
+	private static final Map<String, Object> VARIABLE_VALUES = new HashMap<>();
+	static
+	{
+		PARAMETER_VALUES.put("title", "Report");
+		FIELD_VALUES.put("name", "Name");
+		FIELD_VALUES.put("nullName", null);
+		FIELD_VALUES.put("count", 7);
+		FIELD_VALUES.put("nullCount", null);
+		FIELD_VALUES.put("amount", 2.5d);
+		FIELD_VALUES.put("total", 10L);
+		FIELD_VALUES.put("active", Boolean.TRUE);
+		FIELD_VALUES.put("object", "object");
+		VARIABLE_VALUES.put("PAGE_NUMBER", 3);
+	}
+	
+	private ExpressionTreeParser parser(Dialect dialect)
+	{
+		Map<String, String> parameterTypes = new HashMap<>();
+		parameterTypes.put("title", String.class.getName());
+		
+		Map<String, String> fieldTypes = new HashMap<>();
+		fieldTypes.put("name", String.class.getName());
+		fieldTypes.put("nullName", String.class.getName());
+		fieldTypes.put("count", Integer.class.getName());
+		fieldTypes.put("nullCount", Integer.class.getName());
+		fieldTypes.put("amount", Double.class.getName());
+		fieldTypes.put("total", Long.class.getName());
+		fieldTypes.put("active", Boolean.class.getName());
+		fieldTypes.put("object", "com.example.Custom");
+		
+		Map<String, String> variableTypes = new HashMap<>();
+		variableTypes.put("PAGE_NUMBER", Integer.class.getName());
+		
+		return new ExpressionTreeParser(dialect, parameterTypes, fieldTypes, variableTypes);
+	}
+	
+	private Object evaluate(Dialect dialect, String expressionText) throws UnsupportedExpressionException
+	{
+		DirectExpressionEvaluation evaluation = parser(dialect).parse(new JRDesignExpression(expressionText));
+		if (evaluation instanceof ConstantExpressionEvaluation)
+		{
+			return ((ConstantExpressionEvaluation) evaluation).getValue();
+		}
+		
+		assert evaluation instanceof ExpressionTreeEvaluation;
+		return ((ExpressionTreeEvaluation) evaluation).getRoot().evaluate(new TestValues());
+	}
+	
+	@Test(dataProvider = "supportedExpressions")
+	public void supported(Dialect dialect, String expressionText, Object expected) throws UnsupportedExpressionException
+	{
+		Object value = evaluate(dialect, expressionText);
+		assert expected == null ? value == null : expected.equals(value) 
+				: expressionText + " evaluated to " + value;
+	}
+	
+	@DataProvider
+	public Object[][] supportedExpressions()
+	{
+		return new Object[][] {
+			{Dialect.JAVA, "\"Page \" + $V{PAGE_NUMBER} + \" of \" + $P{title}", "Page 3 of Report"},
+			{Dialect.GROOVY, "\"Page \" + $V{PAGE_NUMBER} + \" of \" + $P{title}", "Page 3 of Report"},
+			{Dialect.JAVA, "$F{nullName} == null ? \"\" : $F{nullName}", ""},
+			{Dialect.GROOVY, "$F{name} != null ? $F{name} : \"-\"", "Name"},
+			{Dialect.JAVA, "$F{count} * 2 + 1", 15},
+			{Dialect.GROOVY, "$F{count} * 2 + 1", 15},
+			{Dialect.JAVA, "$F{count} / 2", 3},
+			{Dialect.JAVA, "$F{amount} * $F{count}", 17.5d},
+			{Dialect.JAVA, "$F{total} + $F{count}", 17L},
+			{Dialect.JAVA, "1 + 2 + \"a\" + 1 + 2", "3a12"},
+			{Dialect.JAVA, "-$F{count}", -7},
+			{Dialect.JAVA, "-1", -1},
+			{Dialect.JAVA, "$F{count} > 5 && $F{active}", true},
+			{Dialect.JAVA, "!($F{count} <= 5) || $F{nullName}.isEmpty()", true},
+			{Dialect.JAVA, "$F{active} ? 1 : 2.5", 1.0d},
+			{Dialect.GROOVY, "$F{active} ? 1 : \"x\"", 1},
+			{Dialect.JAVA, "$F{name}.toUpperCase() + $F{name}.length()", "NAME4"},
+			{Dialect.JAVA, "$F{name}.substring(1, 3).equals(\"am\")", true},
+			{Dialect.JAVA, "$F{count}.doubleValue()", 7.0d},
+			{Dialect.JAVA, "$F{object}.toString()", "object"},
+			{Dialect.JAVA, "$R{label} + \":\"", "message:label:"},
+			{Dialect.JAVA, "\"a\\tb\\\"\"", "a\tb\""},
+			{Dialect.JAVA, "$F{count} == 7", true},
+			{Dialect.JAVA, "Boolean.TRUE", true},
+		};
+	}
+	
+	@Test(dataProvider = "unsupportedExpressions")
+	public void unsupported(Dialect dialect, String expressionText)
+	{
+		try
+		{
+			parser(dialect).parse(new JRDesignExpression(expressionText));
+			assert false : expressionText + " should not be supported";
+		}
+		catch (UnsupportedExpressionException e)
+		{
+			assert e.getMessage() != null;
+		}
+	}
+	
+	@DataProvider
+	public Object[][] unsupportedExpressions()
+	{
+		return new Object[][] {
+			{Dialect.JAVA, "new java.util.Date()"},
+			{Dialect.JAVA, "$F{name}.replace(\"a\", \"b\")"},
+			{Dialect.JAVA, "$F{object}.length()"},
+			{Dialect.JAVA, "$F{name} - 1"},
+			{Dialect.JAVA, "$F{unknown}"},
+			{Dialect.JAVA, "'c'"},
+			{Dialect.JAVA, "1 // comment"},
+			{Dialect.JAVA, "2147483648"},
+			{Dialect.JAVA, "$F{name} == $F{count}"},
+			{Dialect.GROOVY, "$F{nullName} ? \"yes\" : \"no\""},
+			{Dialect.GROOVY, "$F{count} / 2"},
+			{Dialect.GROOVY, "1.5"},
+			{Dialect.GROOVY, "$F{count} > 5"},
+			{Dialect.GROOVY, "$F{name} == \"Name\""},
+			{Dialect.GROOVY, "\"${$F{name}}\""},
+			{Dialect.GROOVY, "$F{object}.toString()"},
+		};
+	}
+	
+	@Test(expectedExceptions = ArithmeticException.class)
+	public void integerDivisionByZero() throws UnsupportedExpressionException
+	{
+		evaluate(Dialect.JAVA, "$F{count} / 0");
+	}
+	
+	@Test
+	public void doubleDivisionByZero() throws UnsupportedExpressionException
+	{
+		assert Double.valueOf(Double.POSITIVE_INFINITY).equals(evaluate(Dialect.JAVA, "$F{amount} / 0"));
+	}
+	
+	@Test(expectedExceptions = NullPointerException.class)
+	public void javaUnboxingNull() throws UnsupportedExpressionException
+	{
+		evaluate(Dialect.JAVA, "$F{nullCount} + 1");
+	}
+	
+	@Test
+	public void groovyNullMethodTarget() throws UnsupportedExpressionException
+	{
+		assert "null".equals(evaluate(Dialect.GROOVY, "$F{nullName}.toString()"));
+	}
+	
+	@Test
+	public void compiledFallbacks() throws JRException
+	{
+		String report = 
+				"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+				+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+				+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+				+ " name=\"fallbacks\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\">"
+				+ "<detail><band height=\"20\">"
+				+ "<textField><reportElement x=\"0\" y=\"0\" width=\"100\" height=\"20\"/>"
+				+ "<textFieldExpression>\"count \" + $V{REPORT_COUNT}</textFieldExpression></textField>"
+				+ "<textField><reportElement x=\"100\" y=\"0\" width=\"100\" height=\"20\"/>"
+				+ "<textFieldExpression>new java.text.DecimalFormat(\"#\").format($V{REPORT_COUNT})</textFieldExpression></textField>"
+				+ "</band></detail>"
+				+ "</jasperReport>";
+		JasperReport jasperReport = JasperCompileManager.compileReport(
+				new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8)));
+		
+		JRElement[] elements = jasperReport.getDetailSection().getBands()[0].getElements();
+		int interpretedId = ((JRTextField) elements[0]).getExpression().getId();
+		int compiledId = ((JRTextField) elements[1]).getExpression().getId();
+		
+		JRReportCompileData compileData = (JRReportCompileData) jasperReport.getCompileData();
+		ReportExpressionEvaluationData datasetData = (ReportExpressionEvaluationData) compileData.getMainDatasetCompileData();
+		Map<Integer, String> fallbacks = datasetData.getInterpreterFallbacks();
+		assert fallbacks.containsKey(compiledId);
+		assert fallbacks.get(compiledId) != null;
+		assert !fallbacks.containsKey(interpretedId);
+	}
+
+}
@@ -0,0 +1,193 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.compilers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.design.JRCompiler;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+public class JavaScriptEvaluatorTest
+{
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"javascript\" language=\"javascript\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\">"
+			+ "<detail><band height=\"20\">"
+			+ "<textField><reportElement x=\"0\" y=\"0\" width=\"300\" height=\"20\"/>"
+			+ "<textFieldExpression>\"Row \" + $V{REPORT_COUNT} + \" \" + Math.max($V{REPORT_COUNT}, 2)"
+			+ " + \" \" + new java.text.DecimalFormat(\"00\").format($V{REPORT_COUNT})</textFieldExpression></textField>"
+			+ "</band></detail>"
+			+ "</jasperReport>";
+	
+	private static final String FILE_REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"javascriptFile\" language=\"javascript\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\">"
+			+ "<detail><band height=\"20\">"
+			+ "<textField><reportElement x=\"0\" y=\"0\" width=\"300\" height=\"20\"/>"
+			+ "<textFieldExpression>new java.io.File(\"report.txt\").getName()</textFieldExpression></textField>"
+			+ "</band></detail>"
+			+ "</jasperReport>";
+	
+	private static final String[] EXPECTED = {"Row 1 2 01", "Row 2 2 02", "Row 3 3 03"};
+	
+	private static SimpleJasperReportsContext context(boolean shared)
+	{
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		context.setProperty(JavaScriptEvaluator.PROPERTY_SHARED_SCRIPTS, String.valueOf(shared));
+		context.setProperty(JavaScriptEvaluator.PROPERTY_SHARED_STANDARD_OBJECTS, String.valueOf(shared));
+		return context;
+	}
+	
+	private static JasperReport compile(JRCompiler compiler, SimpleJasperReportsContext context) throws JRException
+	{
+		return compile(compiler, context, REPORT);
+	}
+	
+	private static JasperReport compile(JRCompiler compiler, SimpleJasperReportsContext context, String report) 
+			throws JRException
+	{
+		JasperDesign design = JRXmlLoader.load(context, new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8)));
+		return compiler.compileReport(design);
+	}
+	
+	private static void fillAndCheck(JasperReport report, SimpleJasperReportsContext context) throws JRException
+	{
+		JasperPrint print = JasperFillManager.getInstance(context).fill(report, new HashMap<>(), 
+				new JREmptyDataSource(EXPECTED.length));
+		for (int i = 0; i < EXPECTED.length; i++)
+		{
+			JRPrintText text = (JRPrintText) print.getPages().get(0).getElements().get(i);
+			assert EXPECTED[i].equals(text.getFullText()) : text.getFullText();
+		}
+	}
+	
+	@Test
+	public void evaluate() throws JRException
+	{
+		for (boolean shared : new boolean[]{false, true})
+		{
+			SimpleJasperReportsContext context = context(shared);
+			JasperReport fillTimeReport = compile(new JavaScriptCompiler(context), context);
+			JasperReport classReport = compile(new JavaScriptClassCompiler(context), context);
+			for (int fill = 0; fill < 2; fill++)
+			{
+				fillAndCheck(fillTimeReport, context);
+				fillAndCheck(classReport, context);
+			}
+		}
+	}
+	
+	@Test
+	public void classFilter() throws JRException
+	{
+		SimpleJasperReportsContext context = context(true);
+		SimpleJasperReportsContext filteredContext = context(true);
+		filteredContext.setProperty(ReportClassFilter.PROPERTY_PREFIX_CLASS_FILTER_ENABLED, "true");
+		
+		for (JRCompiler compiler : new JRCompiler[]{new JavaScriptCompiler(context), new JavaScriptClassCompiler(context)})
+		{
+			JasperReport report = compile(compiler, context, FILE_REPORT);
+			
+			// the classes accessed by a context do not become visible to, or hidden from, other contexts
+			fillFile(report, context);
+			fillFilteredFile(report, filteredContext);
+			fillFilteredFile(report, filteredContext);
+			fillFile(report, context);
+		}
+	}
+	
+	private static void fillFile(JasperReport report, SimpleJasperReportsContext context) throws JRException
+	{
+		JasperPrint print = JasperFillManager.getInstance(context).fill(report, new HashMap<>(), new JREmptyDataSource(1));
+		JRPrintText text = (JRPrintText) print.getPages().get(0).getElements().get(0);
+		assert "report.txt".equals(text.getFullText()) : text.getFullText();
+	}
+	
+	private static void fillFilteredFile(JasperReport report, SimpleJasperReportsContext context)
+	{
+		try
+		{
+			JasperFillManager.getInstance(context).fill(report, new HashMap<>(), new JREmptyDataSource(1));
+			assert false : "java.io.File accessed with class filter enabled";
+		}
+		catch (JRException | RuntimeException e)
+		{
+			// expected
+		}
+	}
+	
+	@Test
+	public void concurrentFills() throws Exception
+	{
+		SimpleJasperReportsContext context = context(true);
+		JasperReport report = compile(new JavaScriptCompiler(context), context);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			List<Future<Void>> fills = new ArrayList<>();
+			for (int i = 0; i < 16; i++)
+			{
+				fills.add(executor.submit(() -> 
+				{
+					fillAndCheck(report, context);
+					return null;
+				}));
+			}
+			
+			for (Future<Void> fill : fills)
+			{
+				fill.get();
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,272 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.data.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import net.sf.jasperreports.data.DataFileConnection;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.ParameterContributorContext;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+
+public class HttpDataServiceTest
+{
+	
+	private static final String ETAG = "\"v1\"";
+	
+	private HttpServer server;
+	private final AtomicInteger requestCount = new AtomicInteger();
+	private final AtomicInteger notModifiedCount = new AtomicInteger();
+	private final Set<String> clientPorts = Collections.synchronizedSet(new HashSet<>());
+	private volatile String content = "id,name\n1,one\n2,two\n";
+	
+	@BeforeClass
+	public void startServer() throws IOException
+	{
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/data", this::handle);
+		server.start();
+	}
+	
+	@AfterClass
+	public void stopServer()
+	{
+		server.stop(0);
+	}
+	
+	protected void handle(HttpExchange exchange) throws IOException
+	{
+		requestCount.incrementAndGet();
+		clientPorts.add(String.valueOf(exchange.getRemoteAddress().getPort()));
+		
+		String etag = ETAG + content.length();
+		exchange.getResponseHeaders().set("ETag", etag);
+		if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+		{
+			notModifiedCount.incrementAndGet();
+			exchange.sendResponseHeaders(304, -1);
+		}
+		else
+		{
+			byte[] data = content.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, data.length);
+			try (OutputStream out = exchange.getResponseBody())
+			{
+				out.write(data);
+			}
+		}
+		exchange.close();
+	}
+	
+	protected HttpDataService createService(SimpleJasperReportsContext context)
+	{
+		StandardHttpDataLocation location = new StandardHttpDataLocation();
+		location.setUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/data");
+		return new HttpDataService(new ParameterContributorContext(context, null, Collections.emptyMap()), location);
+	}
+	
+	protected String read(HttpDataService service) throws JRException, IOException
+	{
+		DataFileConnection connection = service.getDataFileConnection(Collections.emptyMap());
+		try
+		{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			try (InputStream in = connection.getInputStream())
+			{
+				byte[] buffer = new byte[4];
+				int read;
+				while ((read = in.read(buffer)) > 0)
+				{
+					out.write(buffer, 0, read);
+				}
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+		finally
+		{
+			connection.dispose();
+		}
+	}
+	
+	@Test
+	public void unpooledConnections() throws Exception
+	{
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		HttpDataService service = createService(context);
+		
+		clientPorts.clear();
+		for (int i = 0; i < 3; i++)
+		{
+			String data = read(service);
+			assert data.equals(content);
+		}
+		assert clientPorts.size() == 3 : clientPorts;
+		HttpDataClientManager manager = HttpDataClientManager.getInstance(context);
+		assert manager.getConnectionManager() == null;
+	}
+	
+	@Test
+	public void pooledConnections() throws Exception
+	{
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		context.setProperty(HttpDataClientManager.PROPERTY_CONNECTION_POOL_ENABLED, "true");
+		HttpDataService service = createService(context);
+		
+		clientPorts.clear();
+		for (int i = 0; i < 5; i++)
+		{
+			String data = read(service);
+			assert data.equals(content);
+		}
+		assert clientPorts.size() == 1 : clientPorts;
+		
+		HttpDataClientManager.dispose(context);
+	}
+	
+	@Test
+	public void conditionalCache() throws Exception
+	{
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		context.setProperty(HttpDataClientManager.PROPERTY_CACHE_MAX_SIZE, "1024");
+		HttpDataService service = createService(context);
+		
+		requestCount.set(0);
+		notModifiedCount.set(0);
+		
+		String initial = content;
+		String data = read(service);
+		assert data.equals(initial);
+		data = read(service);
+		assert data.equals(initial);
+		data = read(service);
+		assert data.equals(initial);
+		assert requestCount.get() == 3;
+		assert notModifiedCount.get() == 2;
+		
+		content = initial + "3,three\n";
+		try
+		{
+			data = read(service);
+			assert data.equals(content);
+			data = read(service);
+			assert data.equals(content);
+			assert requestCount.get() == 5;
+			assert notModifiedCount.get() == 3;
+		}
+		finally
+		{
+			content = initial;
+		}
+		
+		HttpDataClientManager.dispose(context);
+	}
+	
+	@Test
+	public void managerOwnership()
+	{
+		SimpleJasperReportsContext parentContext = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		parentContext.setProperty(HttpDataClientManager.PROPERTY_CACHE_MAX_SIZE, "1024");
+		// a context such as the ones created for fills
+		SimpleJasperReportsContext fillContext = new SimpleJasperReportsContext(parentContext);
+		SimpleJasperReportsContext childContext = new SimpleJasperReportsContext(parentContext);
+		childContext.setProperty(HttpDataClientManager.PROPERTY_CACHE_MAX_SIZE, "2048");
+		
+		HttpDataClientManager parentManager = HttpDataClientManager.getInstance(parentContext);
+		try
+		{
+			HttpDataClientManager fillManager = HttpDataClientManager.getInstance(fillContext);
+			assert fillManager == parentManager;
+			assert fillContext.getOwnValue("net.sf.jasperreports.data.http.client.manager") == null;
+			
+			HttpDataClientManager childManager = HttpDataClientManager.getInstance(childContext);
+			assert childManager != parentManager;
+			assert childManager.getResponseCache().getMaxSize() == 2048;
+			assert parentManager.getResponseCache().getMaxSize() == 1024;
+			HttpDataClientManager.dispose(childContext);
+			
+			HttpDataClientManager manager = HttpDataClientManager.getInstance(parentContext);
+			assert manager == parentManager;
+			HttpDataClientManager.dispose(fillContext);
+			manager = HttpDataClientManager.getInstance(parentContext);
+			assert manager != parentManager;
+		}
+		finally
+		{
+			HttpDataClientManager.dispose(parentContext);
+		}
+	}
+	
+	@Test
+	public void cacheDirectoryDeleted() throws Exception
+	{
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		context.setProperty(HttpDataClientManager.PROPERTY_CACHE_MAX_SIZE, "1024");
+		HttpDataService service = createService(context);
+		
+		String data = read(service);
+		assert data.equals(content);
+		File directory = HttpDataClientManager.getInstance(context).getResponseCache().getDirectory();
+		assert directory.list().length == 1;
+		
+		HttpDataClientManager.dispose(context);
+		assert !directory.exists();
+	}
+	
+	@Test
+	public void cacheSizeLimit() throws Exception
+	{
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		context.setProperty(HttpDataClientManager.PROPERTY_CACHE_MAX_SIZE, "8");
+		HttpDataService service = createService(context);
+		
+		notModifiedCount.set(0);
+		
+		String data = read(service);
+		assert data.equals(content);
+		data = read(service);
+		assert data.equals(content);
+		assert notModifiedCount.get() == 0;
+		
+		HttpDataClientManager.dispose(context);
+	}
+	
+}
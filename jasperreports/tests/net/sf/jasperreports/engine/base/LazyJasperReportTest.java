@@ -0,0 +1,178 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.base;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRBand;
+import net.sf.jasperreports.engine.JRElement;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+
+public class LazyJasperReportTest
+{
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"lazy\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\">"
+			+ "<style name=\"base\" isDefault=\"true\" fontSize=\"9\"/>"
+			+ "<style name=\"bold\" style=\"base\" isBold=\"true\"/>"
+			+ "<style name=\"italic\" isItalic=\"true\"/>"
+			+ "<subDataset name=\"sub\"><field name=\"f\" class=\"java.lang.String\"/></subDataset>"
+			+ "<subDataset name=\"unused\"><field name=\"u\" class=\"java.lang.String\"/></subDataset>"
+			+ "<title><band height=\"20\">"
+			+ "<staticText><reportElement style=\"bold\" x=\"0\" y=\"0\" width=\"100\" height=\"20\"/><text>Title</text></staticText>"
+			+ "</band></title>"
+			+ "<detail><band height=\"40\">"
+			+ "<textField><reportElement x=\"0\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>$V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "<componentElement><reportElement x=\"0\" y=\"20\" width=\"100\" height=\"20\"/>"
+			+ "<jr:list xmlns:jr=\"http://jasperreports.sourceforge.net/jasperreports/components\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports/components http://jasperreports.sourceforge.net/xsd/components.xsd\">"
+			+ "<datasetRun subDataset=\"sub\">"
+			+ "<dataSourceExpression>new net.sf.jasperreports.engine.JREmptyDataSource(2)</dataSourceExpression>"
+			+ "</datasetRun>"
+			+ "<jr:listContents height=\"20\">"
+			+ "<textField><reportElement style=\"italic\" x=\"0\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>$V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "</jr:listContents></jr:list></componentElement>"
+			+ "</band></detail>"
+			+ "</jasperReport>";
+	
+	private static final String MASTER_REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"master\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\">"
+			+ "<parameter name=\"subreport\" class=\"net.sf.jasperreports.engine.JasperReport\"/>"
+			+ "<title><band height=\"40\">"
+			+ "<staticText><reportElement x=\"0\" y=\"0\" width=\"100\" height=\"20\"/><text>Master</text></staticText>"
+			+ "<subreport><reportElement x=\"0\" y=\"20\" width=\"200\" height=\"20\"/>"
+			+ "<dataSourceExpression>new net.sf.jasperreports.engine.JREmptyDataSource(0)</dataSourceExpression>"
+			+ "<subreportExpression>$P{subreport}</subreportExpression></subreport>"
+			+ "</band></title>"
+			+ "</jasperReport>";
+	
+	@Test
+	public void deferredParts() throws JRException
+	{
+		LazyJasperReport report = new LazyJasperReport(DefaultJasperReportsContext.getInstance(), compile(REPORT));
+		assert report.isBandsDeferred();
+		assert report.isDetailDeferred();
+		assert report.isDatasetsDeferred();
+		assert Arrays.asList(report.getDetailStyleNames()).contains("italic");
+		
+		LazyJasperReport loaded = (LazyJasperReport) roundTrip(report);
+		assert loaded.getName().equals("lazy");
+		assert loaded.getStyles().length == 3;
+		assert loaded.isBandsDeferred();
+		assert loaded.isDetailDeferred();
+		assert loaded.isDatasetsDeferred();
+		
+		JRBand title = loaded.getTitle();
+		assert !loaded.isBandsDeferred();
+		assert loaded.isDetailDeferred();
+		assert loaded.isDatasetsDeferred();
+		
+		JRElement element = title.getElements()[0];
+		assert element.getStyle() == loaded.getStyles()[1];
+		assert element.getDefaultStyleProvider() == loaded;
+		assert loaded.getDetailSection().getBands().length == 1;
+		assert !loaded.isDetailDeferred();
+		
+		assert loaded.getDataset("sub").getName().equals("sub");
+		assert !loaded.isDatasetDeferred("sub");
+		assert loaded.isDatasetDeferred("unused");
+		assert loaded.isDatasetsDeferred();
+		
+		assert loaded.getDatasets().length == 2;
+		assert loaded.getDatasets()[0] == loaded.getDataset("sub");
+		assert loaded.getDatasets()[1].getName().equals("unused");
+		assert !loaded.isDatasetsDeferred();
+	}
+	
+	@Test
+	public void fillLazyReport() throws JRException
+	{
+		LazyJasperReport report = (LazyJasperReport) roundTrip(
+				new LazyJasperReport(DefaultJasperReportsContext.getInstance(), compile(REPORT)));
+		JasperPrint print = JasperFillManager.fillReport(report, new HashMap<>(), new JREmptyDataSource(3));
+		assert !report.isDetailDeferred();
+		assert !report.isDatasetDeferred("sub");
+		assert report.isDatasetDeferred("unused");
+		
+		JasperPrint expectedPrint = JasperFillManager.fillReport(compile(REPORT), new HashMap<>(), new JREmptyDataSource(3));
+		assert print.getPages().size() == 1;
+		assert print.getPages().get(0).getElements().size() == expectedPrint.getPages().get(0).getElements().size();
+		assert print.getStylesMap().keySet().equals(expectedPrint.getStylesMap().keySet());
+		assert print.getStylesMap().containsKey("italic");
+		assert print.getDefaultStyle().getName().equals("base");
+	}
+	
+	@Test
+	public void fillEmptySubreport() throws JRException
+	{
+		LazyJasperReport subreport = (LazyJasperReport) roundTrip(
+				new LazyJasperReport(DefaultJasperReportsContext.getInstance(), compile(REPORT)));
+		Map<String, Object> parameters = new HashMap<>();
+		parameters.put("subreport", subreport);
+		JasperPrint print = JasperFillManager.fillReport(compile(MASTER_REPORT), parameters, new JREmptyDataSource(1));
+		assert print.getPages().size() == 1;
+		
+		// the subreport filler has been created, but had no records to fill
+		assert !subreport.isBandsDeferred();
+		assert subreport.isDetailDeferred();
+		assert subreport.isDatasetDeferred("sub");
+		assert subreport.isDatasetDeferred("unused");
+	}
+	
+	private static JasperReport compile(String report) throws JRException
+	{
+		return JasperCompileManager.compileReport(new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	private static JasperReport roundTrip(JasperReport report) throws JRException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JRSaver.saveObject(report, out);
+		return (JasperReport) JRLoader.loadObject(new ByteArrayInputStream(out.toByteArray()));
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.design;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.compilers.ReportExpressionEvaluationData;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JRTextField;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+import net.sf.jasperreports.functions.FunctionsBundle;
+
+public class JRJavaxToolsCompilerTest
+{
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"%s\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\">"
+			+ "<subDataset name=\"sub\">"
+			+ "<variable name=\"text\" class=\"java.lang.String\"><variableExpression>String.format(\"%%03d\", $V{REPORT_COUNT})</variableExpression></variable>"
+			+ "</subDataset>"
+			+ "<detail><band height=\"20\">"
+			+ "<textField><reportElement x=\"0\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>%s</textFieldExpression></textField>"
+			+ "</band></detail>"
+			+ "</jasperReport>";
+	
+	private static String report(String name, String expression)
+	{
+		return String.format(REPORT, name, expression);
+	}
+	
+	@Test
+	public void compileUnitsInParallel() throws JRException
+	{
+		if (!JRJavaxToolsCompiler.isAvailable())
+		{
+			return;
+		}
+		
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		context.setProperty(JRCompiler.COMPILER_UNIT_THREADS, "2");
+		//making sure that expressions are compiled
+		context.setProperty(JRCompiler.COMPILER_EXPRESSION_INTERPRETER, "false");
+		
+		JasperDesign design = JRXmlLoader.load(context, new ByteArrayInputStream(
+				report("javaxTools", "new java.text.DecimalFormat(\"#\").format($V{REPORT_COUNT} * 10)")
+				.getBytes(StandardCharsets.UTF_8)));
+		JasperReport report = new JRJavaxToolsCompiler(context).compileReport(design);
+		
+		JRReportCompileData compileData = (JRReportCompileData) report.getCompileData();
+		assert compileData.getMainDatasetCompileData() != null;
+		assert compileData.getDatasetCompileData(report.getDatasets()[0]) != null;
+		
+		JasperPrint print = JasperFillManager.getInstance(context).fill(report, new HashMap<>(), new JREmptyDataSource(3));
+		JRPrintText text = (JRPrintText) print.getPages().get(0).getElements().get(2);
+		assert "30".equals(text.getFullText());
+	}
+	
+	public static class TestFunctions
+	{
+		public static String REPEAT(String text, Integer count)
+		{
+			StringBuilder repeated = new StringBuilder();
+			for (int i = 0; i < count; i++)
+			{
+				repeated.append(text);
+			}
+			return repeated.toString();
+		}
+	}
+	
+	@Test
+	public void compileFunctions() throws JRException
+	{
+		compileFunctions("1");
+	}
+	
+	@Test
+	public void compileFunctionsInParallel() throws JRException
+	{
+		compileFunctions("2");
+	}
+	
+	private void compileFunctions(String unitThreads) throws JRException
+	{
+		if (!JRJavaxToolsCompiler.isAvailable())
+		{
+			return;
+		}
+		
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		context.setProperty(JRCompiler.COMPILER_UNIT_THREADS, unitThreads);
+		FunctionsBundle functions = new FunctionsBundle();
+		functions.addFunctionClass(TestFunctions.class);
+		context.setExtensions(FunctionsBundle.class, Collections.singletonList(functions));
+		
+		//the function is only found after the first compilation of the unit fails
+		JasperDesign design = JRXmlLoader.load(context, new ByteArrayInputStream(
+				report("functions" + unitThreads, "REPEAT(\"ab\", $V{REPORT_COUNT})")
+				.getBytes(StandardCharsets.UTF_8)));
+		JasperReport report = new JRJavaxToolsCompiler(context).compileReport(design);
+		
+		//the recreated unit keeps the expressions that were not interpreted
+		JRTextField textField = (JRTextField) report.getDetailSection().getBands()[0].getElements()[0];
+		JRReportCompileData compileData = (JRReportCompileData) report.getCompileData();
+		ReportExpressionEvaluationData datasetData = (ReportExpressionEvaluationData) compileData.getMainDatasetCompileData();
+		assert datasetData.getInterpreterFallbacks().containsKey(textField.getExpression().getId());
+		
+		JasperPrint print = JasperFillManager.getInstance(context).fill(report, new HashMap<>(), new JREmptyDataSource(3));
+		JRPrintText text = (JRPrintText) print.getPages().get(0).getElements().get(2);
+		assert "ababab".equals(text.getFullText());
+	}
+	
+	@Test
+	public void compileDirectory() throws JRException, IOException
+	{
+		File sourceDir = Files.createTempDirectory("jrxml").toFile();
+		File destDir = Files.createTempDirectory("jasper").toFile();
+		try
+		{
+			new File(sourceDir, "nested").mkdir();
+			Files.write(new File(sourceDir, "first.jrxml").toPath(), 
+					report("first", "\"first \" + $V{REPORT_COUNT}").getBytes(StandardCharsets.UTF_8));
+			Files.write(new File(sourceDir, "nested/second.jrxml").toPath(), 
+					report("second", "$V{REPORT_COUNT}.intValue() + 1").getBytes(StandardCharsets.UTF_8));
+			Files.write(new File(sourceDir, "broken.jrxml").toPath(), 
+					report("broken", "$V{REPORT_COUNT}.missingMethod()").getBytes(StandardCharsets.UTF_8));
+			
+			Map<String, JRException> errors = JasperCompileManager.getInstance(DefaultJasperReportsContext.getInstance())
+					.compileToFiles(sourceDir.getPath(), destDir.getPath(), 2);
+			
+			assert errors.size() == 1;
+			assert errors.containsKey(new File(sourceDir, "broken.jrxml").getPath());
+			assert new File(destDir, "first.jasper").isFile();
+			assert new File(destDir, "nested/second.jasper").isFile();
+			assert !new File(destDir, "broken.jasper").exists();
+		}
+		finally
+		{
+			delete(sourceDir);
+			delete(destDir);
+		}
+	}
+	
+	private static void delete(File dir) throws IOException
+	{
+		try (Stream<File> files = Files.walk(dir.toPath()).sorted(Comparator.reverseOrder()).map(path -> path.toFile()))
+		{
+			files.forEach(File::delete);
+		}
+	}
+
+}
@@ -0,0 +1,222 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.DigestUtils;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleHtmlExporterConfiguration;
+import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
+
+public class HtmlExporterTest
+{
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"html\" pageWidth=\"400\" pageHeight=\"3000\" columnWidth=\"360\" leftMargin=\"20\" rightMargin=\"20\" topMargin=\"20\" bottomMargin=\"20\">"
+			+ "<style name=\"default\" isDefault=\"true\" fontName=\"DejaVu Sans\" fontSize=\"9\"/>"
+			+ "<style name=\"row\" mode=\"Opaque\" backcolor=\"#EEEEEE\">"
+			+ "<conditionalStyle><conditionExpression>$V{REPORT_COUNT} % 2 == 0</conditionExpression>"
+			+ "<style backcolor=\"#DDDDFF\"/></conditionalStyle>"
+			// a style that first appears after the start of the first page has been written
+			+ "<conditionalStyle><conditionExpression>$V{REPORT_COUNT} == 151</conditionExpression>"
+			+ "<style backcolor=\"#FF0000\"/></conditionalStyle>"
+			+ "</style>"
+			+ "<detail><band height=\"15\">"
+			+ "<textField><reportElement style=\"row\" x=\"0\" y=\"0\" width=\"100\" height=\"15\"/>"
+			+ "<textFieldExpression>$V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "<textField><reportElement x=\"100\" y=\"0\" width=\"200\" height=\"15\"/>"
+			+ "<box><bottomPen lineWidth=\"1\"/></box>"
+			+ "<textFieldExpression>\"row \" + $V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "</band></detail>"
+			+ "</jasperReport>";
+	
+	private static final Pattern STYLE_RULE = Pattern.compile("  \\.(jrc[0-9a-f]+) \\{([^}]*)\\}\n");
+	private static final Pattern STYLE_CLASS = Pattern.compile(" class=\"(jrc[0-9a-f]+)\"");
+	private static final Pattern STYLE_SHEET = Pattern.compile("<style type=\"text/css\">\n(  \\.jrc[^\n]*\n)*</style>\n");
+	
+	@Test
+	public void flushedChunks() throws JRException
+	{
+		JasperPrint print = fill();
+		
+		SimpleHtmlExporterConfiguration configuration = new SimpleHtmlExporterConfiguration();
+		configuration.setFlushRowCount(20);
+		RecordingWriter writer = export(print, configuration);
+		
+		RecordingWriter unflushedWriter = export(print, new SimpleHtmlExporterConfiguration());
+		assert writer.toString().equals(unflushedWriter.toString());
+		
+		// one flush every 20 rows of a page, one after each page and the final flush
+		assert print.getPages().size() > 1;
+		assert writer.flushes.size() >= 300 / 20 + 1;
+		for (int i = 1; i < writer.flushes.size() - 1; i++)
+		{
+			assert writer.flushes.get(i) > writer.flushes.get(i - 1);
+		}
+	}
+	
+	@DataProvider
+	public Object[][] flushRowCounts()
+	{
+		return new Object[][] {{0}, {20}};
+	}
+	
+	@Test(dataProvider = "flushRowCounts")
+	public void cellStyleClasses(int flushRowCount) throws JRException
+	{
+		JasperPrint print = fill();
+		
+		SimpleHtmlExporterConfiguration configuration = new SimpleHtmlExporterConfiguration();
+		configuration.setFlushRowCount(flushRowCount);
+		configuration.setCellStyleClasses(true);
+		String html = export(print, configuration).toString();
+		
+		Map<String, String> styles = new HashMap<>();
+		Map<String, Integer> definitions = new HashMap<>();
+		Matcher ruleMatcher = STYLE_RULE.matcher(html);
+		while (ruleMatcher.find())
+		{
+			String className = ruleMatcher.group(1);
+			String style = ruleMatcher.group(2);
+			// class names only depend on the style
+			assert className.equals("jrc" + Long.toHexString(DigestUtils.instance().md5(style).getLow()));
+			String previousStyle = styles.put(className, style);
+			assert previousStyle == null : className;
+			definitions.put(className, ruleMatcher.start());
+		}
+		assert styles.size() > 1;
+		
+		Matcher sheetMatcher = STYLE_SHEET.matcher(html);
+		int sheetCount = 0;
+		while (sheetMatcher.find())
+		{
+			++sheetCount;
+			String preceding = html.substring(0, sheetMatcher.start());
+			// style sheets are not written between table rows
+			assert count(preceding, "<table") - count(preceding, "</table>")
+					== count(preceding, "<td") - count(preceding, "</td>");
+		}
+		assert sheetCount > 0;
+		
+		StringBuffer inlineHtml = new StringBuffer();
+		Matcher classMatcher = STYLE_CLASS.matcher(html);
+		while (classMatcher.find())
+		{
+			String className = classMatcher.group(1);
+			assert definitions.get(className) < classMatcher.start();
+			classMatcher.appendReplacement(inlineHtml, 
+					Matcher.quoteReplacement(" style=\"" + styles.get(className) + "\""));
+		}
+		classMatcher.appendTail(inlineHtml);
+		
+		// the style first used after the start of the page has been written is inline
+		assert !html.contains(" {background-color: #FF0000");
+		assert html.contains(" style=\"background-color: #FF0000");
+		
+		String expectedHtml = export(print, new SimpleHtmlExporterConfiguration()).toString();
+		assert STYLE_SHEET.matcher(inlineHtml).replaceAll("").equals(expectedHtml);
+	}
+	
+	private static int count(String text, String token)
+	{
+		int count = 0;
+		for (int idx = text.indexOf(token); idx >= 0; idx = text.indexOf(token, idx + token.length()))
+		{
+			++count;
+		}
+		return count;
+	}
+	
+	protected static JasperPrint fill() throws JRException
+	{
+		JasperReport report = JasperCompileManager.compileReport(
+				new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)));
+		return JasperFillManager.fillReport(report, null, new JREmptyDataSource(300));
+	}
+	
+	protected static RecordingWriter export(JasperPrint print, SimpleHtmlExporterConfiguration configuration) 
+			throws JRException
+	{
+		RecordingWriter writer = new RecordingWriter();
+		HtmlExporter exporter = new HtmlExporter();
+		exporter.setExporterInput(new SimpleExporterInput(print));
+		exporter.setExporterOutput(new SimpleHtmlExporterOutput(writer));
+		exporter.setConfiguration(configuration);
+		exporter.exportReport();
+		return writer;
+	}
+	
+	protected static class RecordingWriter extends Writer
+	{
+		private final StringBuilder content = new StringBuilder();
+		final List<Integer> flushes = new ArrayList<>();
+
+		@Override
+		public void write(char[] cbuf, int off, int len)
+		{
+			content.append(cbuf, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException
+		{
+			flushes.add(content.length());
+		}
+
+		@Override
+		public void close()
+		{
+			//NOP
+		}
+		
+		@Override
+		public String toString()
+		{
+			return content.toString();
+		}
+	}
+
+}
@@ -0,0 +1,321 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.Deduplicable;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRLineBox;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.base.JRBasePrintRectangle;
+import net.sf.jasperreports.engine.base.JRBasePrintText;
+import net.sf.jasperreports.engine.type.ModeEnum;
+import net.sf.jasperreports.engine.util.ObjectUtils;
+
+public class JRGridLayoutTest
+{
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"grid\" pageWidth=\"400\" pageHeight=\"300\" columnWidth=\"360\" leftMargin=\"20\" rightMargin=\"20\" topMargin=\"20\" bottomMargin=\"20\">"
+			+ "<style name=\"default\" isDefault=\"true\" fontName=\"DejaVu Sans\" fontSize=\"9\"/>"
+			+ "<columnHeader><band height=\"20\">"
+			+ "<staticText><reportElement x=\"0\" y=\"0\" width=\"100\" height=\"20\"/><text>Number</text></staticText>"
+			+ "<staticText><reportElement x=\"100\" y=\"0\" width=\"200\" height=\"20\"/><text>Text</text></staticText>"
+			+ "</band></columnHeader>"
+			+ "<detail><band height=\"60\">"
+			+ "<textField><reportElement x=\"0\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>$V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "<textField><reportElement mode=\"Opaque\" x=\"100\" y=\"0\" width=\"200\" height=\"20\" backcolor=\"#EEEEEE\"/>"
+			+ "<textFieldExpression>\"row \" + $V{REPORT_COUNT}</textFieldExpression></textField>"
+			// frames on some of the rows
+			+ "<frame><reportElement mode=\"Opaque\" x=\"0\" y=\"20\" width=\"300\" height=\"20\" backcolor=\"#DDDDFF\">"
+			+ "<printWhenExpression>$V{REPORT_COUNT} % 7 == 0</printWhenExpression></reportElement>"
+			+ "<box><pen lineWidth=\"1\"/></box>"
+			+ "<textField><reportElement x=\"0\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>\"frame \" + $V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "</frame>"
+			// the last 20 pixels of the band are left empty
+			+ "</band></detail>"
+			+ "<pageFooter><band height=\"20\">"
+			+ "<textField><reportElement x=\"200\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>$V{PAGE_NUMBER}</textFieldExpression></textField>"
+			+ "</band></pageFooter>"
+			+ "</jasperReport>";
+	
+	@DataProvider
+	public Object[][] natures()
+	{
+		JasperReportsContext context = DefaultJasperReportsContext.getInstance();
+		return new Object[][] {
+			{new JRXlsExporterNature(context, null, false, true)},
+			{new JRXlsExporterNature(context, null, false, false)},
+			{new JRCsvExporterNature(context, null)},
+		};
+	}
+	
+	@Test(dataProvider = "natures")
+	public void sharedColumnsLayout(ExporterNature nature) throws JRException
+	{
+		JasperPrint print = fill();
+		List<JRPrintPage> pages = print.getPages();
+		assert pages.size() > 3;
+		
+		CountingLayoutCache cache = new CountingLayoutCache();
+		CutsInfo sharedXCuts = JRGridLayout.calculateXCuts(nature, print, 0, pages.size() - 1, 0);
+		cache.setColumnCuts(sharedXCuts);
+		CutsInfo xCuts = JRGridLayout.calculateXCuts(nature, print, 0, pages.size() - 1, 0);
+		
+		boolean hasFrames = false;
+		for (JRPrintPage page : pages)
+		{
+			hasFrames |= hasFrames(page);
+			
+			JRGridLayout fastLayout = layout(nature, print, page, sharedXCuts, cache);
+			JRGridLayout layout = layout(nature, print, page, xCuts, null);
+			assertSameLayout(fastLayout, layout);
+		}
+		assert hasFrames;
+		// pages without frames are laid out on the shared columns
+		assert cache.storedLayouts > 0;
+	}
+	
+	@DataProvider
+	public Object[][] xlsNatures()
+	{
+		JasperReportsContext context = DefaultJasperReportsContext.getInstance();
+		return new Object[][] {
+			{new JRXlsExporterNature(context, null, false, true)},
+			{new JRXlsExporterNature(context, null, false, false)},
+		};
+	}
+	
+	@Test(dataProvider = "xlsNatures")
+	public void cachedPageLayout(ExporterNature nature)
+	{
+		JasperPrint print = new JasperPrint();
+		print.setPageWidth(400);
+		print.setPageHeight(300);
+		// same geometry on all pages, different element types and styles
+		print.addPage(page(text(print, 0, 0, 100, 20, "a", null, 0), text(print, 100, 20, 200, 40, "b", Color.YELLOW, 0)));
+		print.addPage(page(text(print, 0, 0, 100, 20, "c", Color.RED, 1), text(print, 100, 20, 200, 40, "d", null, 0)));
+		print.addPage(page(rectangle(print, 0, 0, 100, 20, Color.BLUE), text(print, 100, 20, 200, 40, "e", null, 2)));
+		
+		CountingLayoutCache cache = new CountingLayoutCache();
+		CutsInfo sharedXCuts = JRGridLayout.calculateXCuts(nature, print, 0, 2, 0);
+		cache.setColumnCuts(sharedXCuts);
+		CutsInfo xCuts = JRGridLayout.calculateXCuts(nature, print, 0, 2, 0);
+		
+		for (JRPrintPage page : print.getPages())
+		{
+			assertSameLayout(layout(nature, print, page, sharedXCuts, cache), 
+					layout(nature, print, page, xCuts, null));
+		}
+		assert cache.storedLayouts == 1;
+		assert cache.layoutHits == 2;
+	}
+	
+	@Test(dataProvider = "xlsNatures")
+	public void pageLayoutGeometry(ExporterNature nature)
+	{
+		JasperPrint print = new JasperPrint();
+		print.setPageWidth(400);
+		print.setPageHeight(300);
+		print.addPage(page(text(print, 0, 0, 100, 20, "a", null, 0), text(print, 100, 20, 200, 40, "b", null, 0)));
+		// same element sizes, different positions
+		print.addPage(page(text(print, 0, 20, 100, 20, "c", null, 0), text(print, 100, 0, 200, 40, "d", null, 0)));
+		// same positions, different sizes
+		print.addPage(page(text(print, 0, 0, 100, 40, "e", null, 0), text(print, 100, 20, 200, 20, "f", null, 0)));
+		// same elements, different order
+		print.addPage(page(text(print, 100, 20, 200, 40, "g", null, 0), text(print, 0, 0, 100, 20, "h", null, 0)));
+		
+		CountingLayoutCache cache = new CountingLayoutCache();
+		CutsInfo sharedXCuts = JRGridLayout.calculateXCuts(nature, print, 0, 3, 0);
+		cache.setColumnCuts(sharedXCuts);
+		CutsInfo xCuts = JRGridLayout.calculateXCuts(nature, print, 0, 3, 0);
+		
+		for (JRPrintPage page : print.getPages())
+		{
+			assertSameLayout(layout(nature, print, page, sharedXCuts, cache), 
+					layout(nature, print, page, xCuts, null));
+		}
+		assert cache.storedLayouts == 4;
+		assert cache.layoutHits == 0;
+	}
+	
+	private static JRPrintPage page(JRPrintElement... elements)
+	{
+		JRBasePrintPage page = new JRBasePrintPage();
+		for (JRPrintElement element : elements)
+		{
+			page.addElement(element);
+		}
+		return page;
+	}
+	
+	private static JRPrintElement text(JasperPrint print, int x, int y, int width, int height, 
+			String text, Color backcolor, int borderWidth)
+	{
+		JRBasePrintText element = new JRBasePrintText(print.getDefaultStyleProvider());
+		element.setX(x);
+		element.setY(y);
+		element.setWidth(width);
+		element.setHeight(height);
+		element.setText(text);
+		if (backcolor != null)
+		{
+			element.setMode(ModeEnum.OPAQUE);
+			element.setBackcolor(backcolor);
+		}
+		if (borderWidth > 0)
+		{
+			element.getLineBox().getPen().setLineWidth((float) borderWidth);
+		}
+		return element;
+	}
+	
+	private static JRPrintElement rectangle(JasperPrint print, int x, int y, int width, int height, 
+			Color backcolor)
+	{
+		JRBasePrintRectangle element = new JRBasePrintRectangle(print.getDefaultStyleProvider());
+		element.setX(x);
+		element.setY(y);
+		element.setWidth(width);
+		element.setHeight(height);
+		element.setMode(ModeEnum.OPAQUE);
+		element.setBackcolor(backcolor);
+		return element;
+	}
+	
+	protected static JasperPrint fill() throws JRException
+	{
+		JasperReport report = JasperCompileManager.compileReport(
+				new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)));
+		return JasperFillManager.fillReport(report, null, new JREmptyDataSource(40));
+	}
+	
+	protected static JRGridLayout layout(ExporterNature nature, JasperPrint print, JRPrintPage page, 
+			CutsInfo xCuts, GridLayoutCache cache)
+	{
+		return new JRGridLayout(nature, page.getElements(), 
+				print.getPageWidth(), print.getPageHeight(), 0, 0, xCuts, cache);
+	}
+	
+	private static boolean hasFrames(JRPrintPage page)
+	{
+		for (JRPrintElement element : page.getElements())
+		{
+			if (element instanceof JRPrintFrame)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	protected static void assertSameLayout(JRGridLayout layout, JRGridLayout expectedLayout)
+	{
+		CutsInfo yCuts = layout.getYCuts();
+		CutsInfo expectedYCuts = expectedLayout.getYCuts();
+		assert yCuts.size() == expectedYCuts.size();
+		for (int i = 0; i < yCuts.size(); i++)
+		{
+			assert yCuts.getCutOffset(i) == expectedYCuts.getCutOffset(i) : i;
+			assert yCuts.getCut(i).getUsage() == expectedYCuts.getCut(i).getUsage() : i;
+		}
+		assert layout.getWidth() == expectedLayout.getWidth();
+		
+		Grid grid = layout.getGrid();
+		Grid expectedGrid = expectedLayout.getGrid();
+		assert grid.getRowCount() == expectedGrid.getRowCount();
+		assert grid.getColumnCount() == expectedGrid.getColumnCount();
+		for (int row = 0; row < grid.getRowCount(); row++)
+		{
+			for (int col = 0; col < grid.getColumnCount(); col++)
+			{
+				JRExporterGridCell cell = grid.get(row, col);
+				JRExporterGridCell expectedCell = expectedGrid.get(row, col);
+				String position = row + "," + col;
+				assert cell.getType() == expectedCell.getType() : position;
+				assert cell.getSize().equals(expectedCell.getSize()) : position;
+				assert ObjectUtils.equals(cell.getBackcolor(), expectedCell.getBackcolor()) : position;
+				assert ObjectUtils.equals(cell.getForecolor(), expectedCell.getForecolor()) : position;
+				assert isIdentical(cell.getBox(), expectedCell.getBox()) : position;
+				assert cell.getElement() == expectedCell.getElement() : position;
+				assert ObjectUtils.equals(cell.getElementAddress(), expectedCell.getElementAddress()) : position;
+			}
+		}
+	}
+	
+	protected static class CountingLayoutCache extends GridLayoutCache
+	{
+		int storedLayouts;
+		int layoutHits;
+		
+		@Override
+		protected PageLayout getPageLayout(PageGeometry geometry)
+		{
+			PageLayout layout = super.getPageLayout(geometry);
+			if (layout != null)
+			{
+				++layoutHits;
+			}
+			return layout;
+		}
+		
+		@Override
+		protected void putPageLayout(PageGeometry geometry, PageLayout layout)
+		{
+			++storedLayouts;
+			super.putPageLayout(geometry, layout);
+		}
+	}
+	
+	private static boolean isIdentical(JRLineBox box, JRLineBox expectedBox)
+	{
+		// the boxes of frame cells are created per layout
+		return box == null ? expectedBox == null 
+				: (expectedBox != null && ((Deduplicable) box).isIdentical(expectedBox));
+	}
+
+}
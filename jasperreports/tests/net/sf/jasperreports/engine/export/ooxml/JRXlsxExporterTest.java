@@ -0,0 +1,216 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export.ooxml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimpleXlsxExporterConfiguration;
+
+public class JRXlsxExporterTest
+{
+	
+	private static final String[] COLORS = {"#FF0000", "#00FF00", "#0000FF", "#FFFF00", "#00FFFF", "#FF00FF"};
+	
+	private static final Pattern CELL_PATTERN = Pattern.compile("<c r=\"([A-Z]+[0-9]+)\" s=\"([0-9]+)\"");
+	private static final Pattern FILL_PATTERN = Pattern.compile("<fill>.*?</fill>");
+	private static final Pattern XF_PATTERN = Pattern.compile("<xf [^>]*/>|<xf [^>]*>.*?</xf>");
+	private static final Pattern FILL_ID_PATTERN = Pattern.compile("fillId=\"([0-9]+)\"");
+	
+	@Test
+	public void streamingSheets() throws JRException, IOException
+	{
+		JasperPrint print = fill();
+		DefaultJasperReportsContext context = DefaultJasperReportsContext.getInstance();
+		Map<String, String> buffered = readEntries(export(context, print, false));
+		Map<String, String> streamed = readEntries(export(context, print, true));
+		
+		// the creation time is different
+		buffered.remove("docProps/core.xml");
+		streamed.remove("docProps/core.xml");
+		
+		assert buffered.keySet().equals(streamed.keySet()) : streamed.keySet();
+		assert buffered.containsKey("xl/worksheets/sheet1.xml");
+		for (Map.Entry<String, String> entry : buffered.entrySet())
+		{
+			assert entry.getValue().equals(streamed.get(entry.getKey())) : entry.getKey();
+		}
+	}
+	
+	@Test
+	public void styleCache() throws JRException, IOException
+	{
+		JasperPrint print = fill();
+		
+		Map<String, String> unlimited = readEntries(export(DefaultJasperReportsContext.getInstance(), print, false));
+		
+		SimpleJasperReportsContext limitedContext = new SimpleJasperReportsContext();
+		limitedContext.setProperty(XlsxStyleHelper.PROPERTY_STYLE_CACHE_SIZE, "2");
+		Map<String, String> limited = readEntries(export(limitedContext, print, false));
+		
+		// the unlimited cache writes each distinct style once
+		List<String> unlimitedXfs = cellXfs(unlimited);
+		assert unlimitedXfs.size() > COLORS.length;
+		assert new HashSet<>(unlimitedXfs).size() == unlimitedXfs.size();
+		List<String> limitedXfs = cellXfs(limited);
+		assert limitedXfs.size() > unlimitedXfs.size();
+		assert new HashSet<>(limitedXfs).equals(new HashSet<>(unlimitedXfs));
+		
+		// but the cells are formatted the same
+		List<String> unlimitedFormats = cellFormats(unlimited);
+		assert unlimitedFormats.size() > COLORS.length;
+		assert unlimitedFormats.equals(cellFormats(limited));
+	}
+	
+	private static JasperPrint fill() throws JRException
+	{
+		StringBuilder elements = new StringBuilder();
+		for (int i = 0; i < COLORS.length; i++)
+		{
+			elements.append("<staticText><reportElement mode=\"Opaque\" x=\"").append(i * 50)
+				.append("\" y=\"0\" width=\"50\" height=\"20\" backcolor=\"").append(COLORS[i])
+				.append("\"/><text>").append(i).append("</text></staticText>");
+		}
+		String xml = "<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+				+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+				+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+				+ " name=\"xlsx\" pageWidth=\"595\" pageHeight=\"200\" columnWidth=\"555\">"
+				+ "<style name=\"default\" isDefault=\"true\" fontName=\"DejaVu Sans\" fontSize=\"9\"/>"
+				+ "<detail><band height=\"20\">" + elements + "</band></detail>"
+				+ "</jasperReport>";
+		JasperReport report = JasperCompileManager.compileReport(
+				new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+		return JasperFillManager.fillReport(report, null, new JREmptyDataSource(20));
+	}
+	
+	private static byte[] export(JasperReportsContext context, 
+			JasperPrint print, boolean streaming) throws JRException
+	{
+		JRXlsxExporter exporter = new JRXlsxExporter(context);
+		exporter.setExporterInput(new SimpleExporterInput(print));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(out));
+		SimpleXlsxExporterConfiguration configuration = new SimpleXlsxExporterConfiguration();
+		configuration.setStreamingSheets(streaming);
+		exporter.setConfiguration(configuration);
+		exporter.exportReport();
+		return out.toByteArray();
+	}
+	
+	private static List<String> cellFormats(Map<String, String> entries)
+	{
+		List<String> xfs = cellXfs(entries);
+		
+		List<String> formats = new ArrayList<>();
+		Matcher cellMatcher = CELL_PATTERN.matcher(entries.get("xl/worksheets/sheet1.xml"));
+		while (cellMatcher.find())
+		{
+			formats.add(cellMatcher.group(1) + ":" + xfs.get(Integer.parseInt(cellMatcher.group(2))));
+		}
+		return formats;
+	}
+	
+	private static List<String> cellXfs(Map<String, String> entries)
+	{
+		String styles = entries.get("xl/styles.xml");
+		List<String> fills = find(FILL_PATTERN, section(styles, "fills"));
+		
+		List<String> xfs = new ArrayList<>();
+		for (String xf : find(XF_PATTERN, section(styles, "cellXfs")))
+		{
+			// the fill index is specific to each style, replacing it by the fill
+			Matcher fillIdMatcher = FILL_ID_PATTERN.matcher(xf);
+			boolean found = fillIdMatcher.find();
+			assert found : xf;
+			String fill = fills.get(Integer.parseInt(fillIdMatcher.group(1)));
+			xfs.add(fillIdMatcher.replaceFirst(Matcher.quoteReplacement(fill)));
+		}
+		return xfs;
+	}
+	
+	private static String section(String xml, String element)
+	{
+		int start = xml.indexOf("<" + element + ">");
+		int end = xml.indexOf("</" + element + ">", start);
+		assert start >= 0 && end > start : element;
+		return xml.substring(start, end);
+	}
+	
+	private static List<String> find(Pattern pattern, String text)
+	{
+		List<String> matches = new ArrayList<>();
+		Matcher matcher = pattern.matcher(text);
+		while (matcher.find())
+		{
+			matches.add(matcher.group());
+		}
+		return matches;
+	}
+	
+	private static Map<String, String> readEntries(byte[] data) throws IOException
+	{
+		Map<String, String> entries = new LinkedHashMap<>();
+		try (ZipInputStream zipInput = new ZipInputStream(new ByteArrayInputStream(data)))
+		{
+			ZipEntry entry;
+			byte[] buffer = new byte[4096];
+			while ((entry = zipInput.getNextEntry()) != null)
+			{
+				ByteArrayOutputStream content = new ByteArrayOutputStream();
+				int read;
+				while ((read = zipInput.read(buffer)) > 0)
+				{
+					content.write(buffer, 0, read);
+				}
+				entries.put(entry.getName(), new String(content.toByteArray(), StandardCharsets.UTF_8));
+			}
+		}
+		return entries;
+	}
+
+}
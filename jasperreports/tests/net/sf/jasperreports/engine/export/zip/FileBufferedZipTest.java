@@ -0,0 +1,308 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.export.zip;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRRuntimeException;
+
+public class FileBufferedZipTest
+{
+	
+	@DataProvider
+	public Object[][] deflateThreads()
+	{
+		return new Object[][] {{0}, {2}};
+	}
+	
+	@Test(dataProvider = "deflateThreads")
+	public void streamingEntries(int threads) throws IOException
+	{
+		FileBufferedZip zip = new FileBufferedZip();
+		zip.setDeflateThreads(threads);
+		try
+		{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			ExportZipEntry buffered = zip.createEntry("buffered.xml");
+			zip.startStreaming(out);
+			assert zip.isStreaming();
+			
+			ExportZipEntry streamed = zip.createStreamingEntry("streamed1.xml");
+			assert streamed instanceof StreamingZipEntry;
+			// a second streaming entry cannot be open at the same time, it gets buffered
+			ExportZipEntry concurrent = zip.createStreamingEntry("concurrent.xml");
+			assert !(concurrent instanceof StreamingZipEntry);
+			
+			write(streamed.getWriter(), "streamed1", 5000);
+			write(concurrent.getWriter(), "concurrent", 100);
+			streamed.getWriter().close();
+			
+			ExportZipEntry streamed2 = zip.createStreamingEntry("streamed2.xml");
+			assert streamed2 instanceof StreamingZipEntry;
+			write(streamed2.getWriter(), "streamed2", 10);
+			write(buffered.getWriter(), "buffered", 10);
+			buffered.getWriter().close();
+			concurrent.getWriter().close();
+			
+			try
+			{
+				streamed.writeData(new ByteArrayOutputStream());
+				assert false;
+			}
+			catch (JRRuntimeException e)
+			{
+				// expected
+			}
+			
+			// the open streaming entry is closed when the zip is written
+			zip.zipEntries(out);
+			
+			Map<String, String> entries = readEntries(out.toByteArray());
+			assert entries.size() == 4 : entries.keySet();
+			assert entries.get("streamed1.xml").equals(content("streamed1", 5000));
+			assert entries.get("streamed2.xml").equals(content("streamed2", 10));
+			assert entries.get("concurrent.xml").equals(content("concurrent", 100));
+			assert entries.get("buffered.xml").equals(content("buffered", 10));
+		}
+		finally
+		{
+			zip.dispose();
+		}
+	}
+	
+	@Test
+	public void sharedDeflateExecutor()
+	{
+		FileBufferedZip zip1 = new FileBufferedZip();
+		FileBufferedZip zip2 = new FileBufferedZip();
+		try
+		{
+			zip1.setDeflateThreads(2);
+			zip2.setDeflateThreads(1);
+			assert zip1.getDeflateExecutor() != null;
+			assert zip1.getDeflateExecutor() == zip2.getDeflateExecutor();
+			
+			zip1.dispose();
+			assert !zip2.getDeflateExecutor().isShutdown();
+			
+			zip2.setDeflateThreads(0);
+			assert zip2.getDeflateExecutor() == null;
+		}
+		finally
+		{
+			zip1.dispose();
+			zip2.dispose();
+		}
+	}
+	
+	@Test
+	public void dataDescriptorLocalHeader() throws IOException
+	{
+		String content = content("entry", 1000);
+		byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ZipArchiveOutput archiveOutput = new ZipArchiveOutput(out, null);
+		OutputStream entryOutput = archiveOutput.startEntry("entry.xml");
+		entryOutput.write(contentBytes);
+		archiveOutput.finish();
+		
+		byte[] data = out.toByteArray();
+		ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+		
+		// the local header is standard
+		assert buffer.getInt(0) == 0x04034b50;
+		assert buffer.getShort(4) == 20;
+		assert (buffer.getShort(6) & 0x08) != 0;
+		assert buffer.getInt(18) == 0;
+		assert buffer.getInt(22) == 0;
+		int nameLength = buffer.getShort(26);
+		assert buffer.getShort(28) == 0;
+		
+		// the data descriptor contains 4 byte sizes
+		int directoryOffset = buffer.getInt(data.length - 6);
+		int descriptorOffset = directoryOffset - 16;
+		assert buffer.getInt(descriptorOffset) == 0x08074b50;
+		assert buffer.getInt(descriptorOffset + 8) == descriptorOffset - (30 + nameLength);
+		assert buffer.getInt(descriptorOffset + 12) == contentBytes.length;
+		
+		Map<String, String> entries = readEntries(data);
+		assert entries.size() == 1;
+		assert entries.get("entry.xml").equals(content);
+	}
+	
+	@Test
+	public void zip64StreamingEntryLocalHeader() throws IOException
+	{
+		String content = content("entry", 1000);
+		byte[] contentBytes = content.getBytes(StandardCharsets.UTF_8);
+		
+		FileBufferedZip zip = new FileBufferedZip();
+		try
+		{
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			zip.setZip64StreamingEntries(true);
+			zip.startStreaming(out);
+			ExportZipEntry streamed = zip.createStreamingEntry("entry.xml");
+			streamed.getOutputStream().write(contentBytes);
+			zip.zipEntries(out);
+			
+			byte[] data = out.toByteArray();
+			ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+			
+			// the local header declares zip64 sizes in an extra field
+			assert buffer.getInt(0) == 0x04034b50;
+			assert buffer.getShort(4) == 45;
+			assert (buffer.getShort(6) & 0x08) != 0;
+			assert buffer.getInt(18) == 0xFFFFFFFF;
+			assert buffer.getInt(22) == 0xFFFFFFFF;
+			int nameLength = buffer.getShort(26);
+			assert buffer.getShort(28) == 20;
+			assert buffer.getShort(30 + nameLength) == 0x0001;
+			assert buffer.getShort(32 + nameLength) == 16;
+			
+			// the data descriptor contains zip64 sizes
+			int directoryOffset = buffer.getInt(data.length - 6);
+			int descriptorOffset = directoryOffset - 24;
+			assert buffer.getInt(descriptorOffset) == 0x08074b50;
+			assert buffer.getLong(descriptorOffset + 8) == descriptorOffset - (30 + nameLength + 20);
+			assert buffer.getLong(descriptorOffset + 16) == contentBytes.length;
+			
+			Map<String, String> entries = readZipFileEntries(data);
+			assert entries.size() == 1;
+			assert entries.get("entry.xml").equals(content);
+		}
+		finally
+		{
+			zip.dispose();
+		}
+	}
+	
+	@Test(expectedExceptions = JRRuntimeException.class)
+	public void streamingOutputMismatch() throws IOException
+	{
+		FileBufferedZip zip = new FileBufferedZip();
+		try
+		{
+			zip.startStreaming(new ByteArrayOutputStream());
+			zip.zipEntries(new ByteArrayOutputStream());
+		}
+		finally
+		{
+			zip.dispose();
+		}
+	}
+	
+	private static void write(Writer writer, String text, int count) throws IOException
+	{
+		writer.write(content(text, count));
+		writer.flush();
+	}
+	
+	private static String content(String text, int count)
+	{
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < count; i++)
+		{
+			content.append('<').append(text).append(" i=\"").append(i).append("\"/>\n");
+		}
+		return content.toString();
+	}
+	
+	protected static Map<String, String> readEntries(byte[] data) throws IOException
+	{
+		Map<String, String> entries = new LinkedHashMap<>();
+		try (ZipInputStream zipInput = new ZipInputStream(new ByteArrayInputStream(data)))
+		{
+			ZipEntry entry;
+			byte[] buffer = new byte[4096];
+			while ((entry = zipInput.getNextEntry()) != null)
+			{
+				ByteArrayOutputStream content = new ByteArrayOutputStream();
+				int read;
+				while ((read = zipInput.read(buffer)) > 0)
+				{
+					content.write(buffer, 0, read);
+				}
+				entries.put(entry.getName(), new String(content.toByteArray(), StandardCharsets.UTF_8));
+			}
+		}
+		return entries;
+	}
+	
+	protected static Map<String, String> readZipFileEntries(byte[] data) throws IOException
+	{
+		// ZipInputStream does not read zip64 data descriptors of small entries before Java 21
+		File file = File.createTempFile("zip", ".zip");
+		try
+		{
+			Files.write(file.toPath(), data);
+			
+			Map<String, String> entries = new LinkedHashMap<>();
+			try (ZipFile zipFile = new ZipFile(file))
+			{
+				byte[] buffer = new byte[4096];
+				for (Enumeration<? extends ZipEntry> it = zipFile.entries(); it.hasMoreElements();)
+				{
+					ZipEntry entry = it.nextElement();
+					ByteArrayOutputStream content = new ByteArrayOutputStream();
+					try (InputStream entryInput = zipFile.getInputStream(entry))
+					{
+						int read;
+						while ((read = entryInput.read(buffer)) > 0)
+						{
+							content.write(buffer, 0, read);
+						}
+					}
+					entries.put(entry.getName(), new String(content.toByteArray(), StandardCharsets.UTF_8));
+				}
+			}
+			return entries;
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+}
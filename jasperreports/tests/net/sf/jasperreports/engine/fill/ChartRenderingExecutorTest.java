@@ -0,0 +1,134 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRChart;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintImage;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.renderers.DataRenderable;
+import net.sf.jasperreports.renderers.FutureDataRenderer;
+import net.sf.jasperreports.renderers.Renderable;
+
+public class ChartRenderingExecutorTest
+{
+	
+	private static final String CHART = 
+			"<xyLineChart><chart evaluationTime=\"%s\" renderType=\"image\"><reportElement x=\"0\" y=\"0\" width=\"300\" height=\"150\"/></chart>"
+			+ "<xyDataset><xySeries><seriesExpression>\"series\"</seriesExpression>"
+			+ "<xValueExpression>$V{REPORT_COUNT}</xValueExpression>"
+			+ "<yValueExpression>$V{REPORT_COUNT} * $V{REPORT_COUNT}</yValueExpression></xySeries></xyDataset>"
+			+ "<linePlot><plot/></linePlot></xyLineChart>";
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"charts\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\">"
+			+ "<title><band height=\"150\">" + String.format(CHART, "Report") + "</band></title>"
+			+ "<summary><band height=\"150\">" + String.format(CHART, "Now") + "</band></summary>"
+			+ "</jasperReport>";
+	
+	@Test
+	public void asyncRendering() throws JRException, IOException, ClassNotFoundException
+	{
+		JasperReport report = JasperCompileManager.compileReport(
+				new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)));
+		List<JRPrintImage> charts = charts(fill(report, 2));
+		List<JRPrintImage> expectedCharts = charts(fill(report, 0));
+		assert charts.size() == 2;
+		assert expectedCharts.size() == 2;
+		
+		// the chart evaluated at report level is rendered asynchronously, the other one can still change
+		assert charts.get(0).getRenderer() instanceof FutureDataRenderer;
+		assert !(charts.get(1).getRenderer() instanceof FutureDataRenderer);
+		assert !(expectedCharts.get(0).getRenderer() instanceof FutureDataRenderer);
+		
+		for (int i = 0; i < charts.size(); i++)
+		{
+			assert Arrays.equals(data(charts.get(i).getRenderer()), data(expectedCharts.get(i).getRenderer()));
+		}
+		
+		// serialized reports contain the rendered chart
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+		{
+			out.writeObject(charts.get(0).getRenderer());
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+		{
+			Renderable renderer = (Renderable) in.readObject();
+			assert !(renderer instanceof FutureDataRenderer);
+			assert Arrays.equals(data(renderer), data(expectedCharts.get(0).getRenderer()));
+		}
+	}
+	
+	private static JasperPrint fill(JasperReport report, int threads) throws JRException
+	{
+		report.setProperty(JRChart.PROPERTY_CHART_RENDER_THREADS, String.valueOf(threads));
+		return JasperFillManager.fillReport(report, new HashMap<>(), new JREmptyDataSource(20));
+	}
+	
+	private static List<JRPrintImage> charts(JasperPrint print)
+	{
+		List<JRPrintImage> charts = new ArrayList<>();
+		for (JRPrintPage page : print.getPages())
+		{
+			for (JRPrintElement element : page.getElements())
+			{
+				if (element instanceof JRPrintImage)
+				{
+					charts.add((JRPrintImage) element);
+				}
+			}
+		}
+		return charts;
+	}
+	
+	private static byte[] data(Renderable renderer) throws JRException
+	{
+		return ((DataRenderable) renderer).getData(DefaultJasperReportsContext.getInstance());
+	}
+
+}
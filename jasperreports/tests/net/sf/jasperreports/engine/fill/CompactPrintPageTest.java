@@ -0,0 +1,130 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperExportManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+
+public class CompactPrintPageTest
+{
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"compact\" pageWidth=\"595\" pageHeight=\"200\" columnWidth=\"555\">"
+			+ "<style name=\"default\" isDefault=\"true\" fontName=\"DejaVu Sans\" fontSize=\"9\"/>"
+			+ "<detail><band height=\"20\">"
+			+ "<rectangle><reportElement x=\"0\" y=\"0\" width=\"300\" height=\"20\"/></rectangle>"
+			+ "<staticText><reportElement x=\"0\" y=\"0\" width=\"100\" height=\"20\"/><text>Label</text></staticText>"
+			+ "<textField><reportElement x=\"100\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>$V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "<textField evaluationTime=\"Report\"><reportElement x=\"200\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>$V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "<line><reportElement x=\"0\" y=\"19\" width=\"300\" height=\"1\"/></line>"
+			+ "</band></detail>"
+			+ "</jasperReport>";
+	
+	@Test
+	public void compactPages() throws JRException
+	{
+		JasperReport report = compile();
+		JasperPrint print = fill(report, true);
+		JasperPrint expectedPrint = fill(report, false);
+		
+		List<JRPrintPage> pages = print.getPages();
+		assert pages.size() > 2;
+		assert pages.size() == expectedPrint.getPages().size();
+		for (int i = 0; i < pages.size(); i++)
+		{
+			assert pages.get(i) instanceof CompactPrintPage;
+			assert expectedPrint.getPages().get(i) instanceof JRBasePrintPage;
+			
+			List<JRPrintElement> elements = pages.get(i).getElements();
+			List<JRPrintElement> expectedElements = expectedPrint.getPages().get(i).getElements();
+			assert elements.size() == expectedElements.size();
+			for (int j = 0; j < elements.size(); j++)
+			{
+				JRPrintElement element = elements.get(j);
+				JRPrintElement expectedElement = expectedElements.get(j);
+				assert element.getClass() == expectedElement.getClass();
+				assert element.getX() == expectedElement.getX();
+				assert element.getY() == expectedElement.getY();
+				assert element.getWidth() == expectedElement.getWidth();
+				assert element.getHeight() == expectedElement.getHeight();
+				assert element.getUUID().equals(expectedElement.getUUID());
+				assert element.getSourceElementId() == expectedElement.getSourceElementId();
+				assert element.getPrintElementId() == expectedElement.getPrintElementId();
+				if (element instanceof JRPrintText)
+				{
+					assert ((JRPrintText) element).getFullText().equals(((JRPrintText) expectedElement).getFullText());
+					assert ((JRPrintText) element).getTextHeight() == ((JRPrintText) expectedElement).getTextHeight();
+				}
+			}
+		}
+		
+		assert JasperExportManager.exportReportToXml(print).equals(JasperExportManager.exportReportToXml(expectedPrint));
+	}
+	
+	@Test
+	public void addElement() throws JRException
+	{
+		JRPrintPage page = fill(compile(), true).getPages().get(0);
+		int count = page.getElements().size();
+		JRPrintElement element = page.getElements().get(1);
+		
+		page.addElement(element);
+		assert page.getElements().size() == count + 1;
+		assert page.getElements().get(count) == element;
+		assert page.getElements().get(1) == element;
+	}
+	
+	private static JasperReport compile() throws JRException
+	{
+		return JasperCompileManager.compileReport(new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	private static JasperPrint fill(JasperReport report, boolean compact) throws JRException
+	{
+		report.setProperty(CompactPrintPage.PROPERTY_COMPACT_PAGES, String.valueOf(compact));
+		return JasperFillManager.fillReport(report, new HashMap<>(), new JREmptyDataSource(30));
+	}
+
+}
@@ -0,0 +1,170 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.SimpleReportContext;
+
+public class FillProfilerTest
+{
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"profiled\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\">"
+			+ "<title><band height=\"20\">"
+			+ "<staticText><reportElement x=\"0\" y=\"0\" width=\"100\" height=\"20\"/><text>Title</text></staticText>"
+			+ "</band></title>"
+			+ "<detail><band height=\"20\">"
+			+ "<textField textAdjust=\"StretchHeight\"><reportElement key=\"count\" x=\"0\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>$V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "</band></detail>"
+			+ "</jasperReport>";
+	
+	@Test
+	public void profileFill() throws JRException, IOException
+	{
+		FillProfiler profiler = new FillProfiler();
+		SimpleReportContext reportContext = new SimpleReportContext();
+		reportContext.setParameterValue(FillProfiler.PARAMETER_FILL_PROFILER, profiler);
+		Map<String, Object> params = new HashMap<>();
+		params.put(JRParameter.REPORT_CONTEXT, reportContext);
+		
+		JasperFillManager.getInstance(DefaultJasperReportsContext.getInstance()).fill(compile(), params, new JREmptyDataSource(5));
+		
+		FillProfileNode report = child(profiler.getRoot(), FillProfileCategory.REPORT, "profiled");
+		assert report.getCount() == 1;
+		assert report.getWallTime() > 0;
+		
+		FillProfileNode dataset = child(report, FillProfileCategory.DATASET, "profiled");
+		assert dataset.getCount() == 6;
+		
+		FillProfileNode detail = child(report, FillProfileCategory.BAND_FILL, "detail");
+		assert detail.getCount() == 5;
+		FillProfileNode stretch = child(detail, FillProfileCategory.ELEMENT_STRETCH, "count");
+		assert stretch.getCount() == 5;
+		assert child(stretch, FillProfileCategory.TEXT_MEASUREMENT, "count").getCount() == 5;
+		
+		FillProfileNode evaluation = child(report, FillProfileCategory.BAND_EVALUATION, "detail");
+		FillProfileNode element = child(evaluation, FillProfileCategory.ELEMENT_EVALUATION, "count");
+		assert element.getCount() == 5;
+		assert element.getChildren().get(0).getCategory() == FillProfileCategory.EXPRESSION;
+		
+		StringWriter json = new StringWriter();
+		profiler.writeJson(json);
+		JsonNode root = new ObjectMapper().readTree(json.toString());
+		assert root.get("children").get(0).get("name").asText().equals("profiled");
+		
+		StringWriter stacks = new StringWriter();
+		profiler.writeCollapsedStacks(stacks);
+		for (String line : stacks.toString().split("\n"))
+		{
+			assert line.startsWith("report profiled");
+			assert line.matches(".* \\d+");
+		}
+	}
+	
+	@Test
+	public void profileOutputDirectory() throws JRException, IOException
+	{
+		File dir = Files.createTempDirectory("fill-profile").toFile();
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		context.setProperty(FillProfiler.PROPERTY_ENABLED, "true");
+		context.setProperty(FillProfiler.PROPERTY_OUTPUT_DIRECTORY, dir.getAbsolutePath());
+		
+		JasperFillManager.getInstance(context).fill(compile(), new HashMap<>(), new JREmptyDataSource(5));
+		
+		File[] files = dir.listFiles();
+		assert files != null && files.length == 2;
+		for (File file : files)
+		{
+			assert file.getName().startsWith("profiled-");
+			assert file.length() > 0;
+			file.delete();
+		}
+		dir.delete();
+	}
+	
+	@Test
+	public void profileOutputError() throws JRException, IOException
+	{
+		// a file in place of the output directory
+		File file = File.createTempFile("fill-profile", ".txt");
+		try
+		{
+			SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+			context.setProperty(FillProfiler.PROPERTY_ENABLED, "true");
+			context.setProperty(FillProfiler.PROPERTY_OUTPUT_DIRECTORY, file.getAbsolutePath());
+			
+			// the profile is not written, but the fill succeeds
+			JasperPrint print = JasperFillManager.getInstance(context).fill(compile(), new HashMap<>(), new JREmptyDataSource(5));
+			assert print.getPages().size() == 1;
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+	
+	private static FillProfileNode child(FillProfileNode node, FillProfileCategory category, String name)
+	{
+		for (FillProfileNode child : node.getChildren())
+		{
+			if (child.getCategory() == category && child.getName().equals(name))
+			{
+				return child;
+			}
+		}
+		throw new AssertionError("no " + category + " " + name + " under " + node.getName());
+	}
+	
+	private static JasperReport compile() throws JRException
+	{
+		return JasperCompileManager.compileReport(new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)));
+	}
+
+}
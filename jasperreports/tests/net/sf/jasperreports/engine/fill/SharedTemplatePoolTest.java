@@ -0,0 +1,114 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.fill;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+
+public class SharedTemplatePoolTest
+{
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"shared\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\">"
+			+ "%s"
+			+ "<style name=\"default\" isDefault=\"true\" fontName=\"DejaVu Sans\" fontSize=\"9\"/>"
+			+ "<style name=\"parent\" isBold=\"true\"/>"
+			+ "<style name=\"child\" style=\"parent\" forecolor=\"#0000FF\"><box padding=\"2\"/></style>"
+			+ "<detail><band height=\"20\">"
+			+ "<staticText><reportElement style=\"child\" x=\"0\" y=\"0\" width=\"100\" height=\"20\"/><text>Label</text></staticText>"
+			+ "<textField><reportElement x=\"100\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>$V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "</band></detail>"
+			+ "</jasperReport>";
+	
+	@Test
+	public void sharedTemplates() throws JRException
+	{
+		JasperReport report = compile("<property name=\"" + SharedTemplatePool.PROPERTY_SHARED_TEMPLATES + "\" value=\"true\"/>");
+		List<JRPrintElement> elements1 = fill(report).getPages().get(0).getElements();
+		List<JRPrintElement> elements2 = fill(report).getPages().get(0).getElements();
+		
+		for (int i = 0; i < 2; i++)
+		{
+			JRTemplateElement template1 = ((JRTemplatePrintElement) elements1.get(i)).getTemplate();
+			JRTemplateElement template2 = ((JRTemplatePrintElement) elements2.get(i)).getTemplate();
+			assert template1 == template2;
+			assert template1.getId().equals(template2.getId());
+		}
+		
+		JRPrintText label = (JRPrintText) elements2.get(0);
+		assert label.isBold();
+		assert "DejaVu Sans".equals(label.getFontName());
+		assert label.getLineBox().getLeftPadding() == 2;
+		assert label.getStyle().getName().equals("child");
+		
+		JRPrintText count = (JRPrintText) elements2.get(1);
+		assert count.getFontsize() == 9f;
+		assert !count.isBold();
+	}
+	
+	@Test
+	public void disabledSharedTemplates() throws JRException
+	{
+		// disabled by default
+		JasperReport report = compile("");
+		JasperPrint print1 = fill(report);
+		JasperPrint print2 = fill(report);
+		JRPrintElement element1 = print1.getPages().get(0).getElements().get(0);
+		JRPrintElement element2 = print2.getPages().get(0).getElements().get(0);
+		assert ((JRTemplatePrintElement) element1).getTemplate() != ((JRTemplatePrintElement) element2).getTemplate();
+		
+		// the elements use the styles of the document
+		assert element2.getStyle() == print2.getStylesMap().get("child");
+		assert element2.getDefaultStyleProvider() == print2.getDefaultStyleProvider();
+	}
+	
+	private static JasperReport compile(String properties) throws JRException
+	{
+		String jrxml = String.format(REPORT, properties);
+		return JasperCompileManager.compileReport(new ByteArrayInputStream(jrxml.getBytes(StandardCharsets.UTF_8)));
+	}
+	
+	private static JasperPrint fill(JasperReport report) throws JRException
+	{
+		return JasperFillManager.fillReport(report, new HashMap<>(), new JREmptyDataSource(3));
+	}
+
+}
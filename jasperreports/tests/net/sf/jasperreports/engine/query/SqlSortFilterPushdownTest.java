@@ -0,0 +1,207 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.components.sort.FieldFilter;
+import net.sf.jasperreports.engine.CompositeDatasetFilter;
+import net.sf.jasperreports.engine.EvaluationType;
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRResultSetDataSource;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.engine.design.JRDesignSortField;
+import net.sf.jasperreports.engine.fill.DatasetFillContext;
+import net.sf.jasperreports.engine.query.JRAbstractQueryExecuter.ValuedQueryParameter;
+import net.sf.jasperreports.engine.type.SortFieldTypeEnum;
+import net.sf.jasperreports.engine.type.SortOrderEnum;
+
+public class SqlSortFilterPushdownTest
+{
+	
+	private static final DatasetFillContext FILL_CONTEXT = new DatasetFillContext()
+	{
+		@Override
+		public Object getParameterValue(String parameter)
+		{
+			return null;
+		}
+		
+		@Override
+		public Object getFieldValue(String field, EvaluationType evaluation)
+		{
+			return null;
+		}
+		
+		@Override
+		public Object getVariableValue(String variable, EvaluationType evaluation)
+		{
+			return null;
+		}
+		
+		@Override
+		public Locale getLocale()
+		{
+			return Locale.US;
+		}
+	};
+	
+	protected SqlSortFilterPushdown createPushdown()
+	{
+		JRDesignField name = field("NAME", String.class);
+		JRDesignField amount = field("AMOUNT", Integer.class);
+		JRDesignField price = field("PRICE", Double.class);
+		JRDesignField labeled = field("labeled", String.class);
+		labeled.getPropertiesMap().setProperty(JRResultSetDataSource.PROPERTY_FIELD_COLUMN_LABEL, "CUSTOMER_NAME");
+		JRDesignField indexed = field("indexed", String.class);
+		indexed.getPropertiesMap().setProperty(JRResultSetDataSource.PROPERTY_FIELD_COLUMN_INDEX, "2");
+		JRDesignField quoted = field("Customer Name", String.class);
+		return new SqlSortFilterPushdown(new JRField[]{name, amount, price, labeled, indexed, quoted});
+	}
+	
+	protected JRDesignField field(String name, Class<?> valueClass)
+	{
+		JRDesignField field = new JRDesignField();
+		field.setName(name);
+		field.setValueClass(valueClass);
+		return field;
+	}
+	
+	protected FieldFilter filter(String field, String type, String operator, String start, String end)
+	{
+		FieldFilter filter = new FieldFilter(field, start, end, type, operator);
+		filter.setLocaleCode("en_US");
+		if ("Numeric".equals(type))
+		{
+			filter.setFilterPattern("#,##0.##");
+		}
+		filter.init(FILL_CONTEXT);
+		return filter;
+	}
+	
+	@Test
+	public void columns()
+	{
+		SqlSortFilterPushdown pushdown = createPushdown();
+		assert "NAME".equals(pushdown.getColumn("NAME"));
+		assert "CUSTOMER_NAME".equals(pushdown.getColumn("labeled"));
+		assert pushdown.getColumn("indexed") == null;
+		assert pushdown.getColumn("Customer Name") == null;
+		assert pushdown.getColumn("missing") == null;
+	}
+	
+	@Test
+	public void orderBy()
+	{
+		SqlSortFilterPushdown pushdown = createPushdown();
+		String orderBy = pushdown.createOrderByClause(Arrays.asList(
+				new JRDesignSortField("NAME", SortFieldTypeEnum.FIELD, SortOrderEnum.ASCENDING),
+				new JRDesignSortField("AMOUNT", SortFieldTypeEnum.FIELD, SortOrderEnum.DESCENDING)));
+		assert "NAME ASC, AMOUNT DESC".equals(orderBy) : orderBy;
+		
+		assert pushdown.createOrderByClause(Arrays.asList(
+				new JRDesignSortField("NAME", SortFieldTypeEnum.FIELD, SortOrderEnum.ASCENDING),
+				new JRDesignSortField("REPORT_COUNT", SortFieldTypeEnum.VARIABLE, SortOrderEnum.ASCENDING))) == null;
+		assert pushdown.createOrderByClause(Arrays.asList(
+				new JRDesignSortField("indexed", SortFieldTypeEnum.FIELD, SortOrderEnum.ASCENDING))) == null;
+	}
+	
+	@Test
+	public void textFilter()
+	{
+		SqlSortFilterPushdown pushdown = createPushdown();
+		List<ValuedQueryParameter> parameters = new ArrayList<>();
+		String where = pushdown.createWhereClause(filter("NAME", "Text", "CONTAINS", "A_b%", null), parameters);
+		assert "LOWER(NAME) LIKE ? ESCAPE '!'".equals(where) : where;
+		assert parameters.size() == 1;
+		assert "%a!_b!%%".equals(parameters.get(0).getValue()) : parameters.get(0).getValue();
+		
+		parameters.clear();
+		where = pushdown.createWhereClause(filter("NAME", "Text", "IS_NOT_EQUAL_TO", "X", null), parameters);
+		assert "(NAME IS NULL OR LOWER(NAME) <> ?)".equals(where) : where;
+		assert "x".equals(parameters.get(0).getValue());
+		
+		parameters.clear();
+		where = pushdown.createWhereClause(filter("NAME", "Text", "EQUALS", null, null), parameters);
+		assert "".equals(where) : where;
+		assert parameters.isEmpty();
+	}
+	
+	@Test
+	public void numericFilter()
+	{
+		SqlSortFilterPushdown pushdown = createPushdown();
+		List<ValuedQueryParameter> parameters = new ArrayList<>();
+		String where = pushdown.createWhereClause(filter("AMOUNT", "Numeric", "IS_NOT_BETWEEN", "10", "1,000"), parameters);
+		assert "(AMOUNT IS NULL OR AMOUNT < ? OR AMOUNT > ?)".equals(where) : where;
+		assert parameters.size() == 2;
+		assert Integer.valueOf(10).equals(parameters.get(0).getValue());
+		assert Integer.valueOf(1000).equals(parameters.get(1).getValue());
+		
+		// decimal values are rounded by the filter pattern
+		assert pushdown.createWhereClause(filter("PRICE", "Numeric", "GREATER_THAN", "10", null), parameters) == null;
+		
+		parameters.clear();
+		where = pushdown.createWhereClause(filter("PRICE", "Numeric", "IS_NULL", null, null), parameters);
+		assert "PRICE IS NULL".equals(where) : where;
+		assert parameters.isEmpty();
+	}
+	
+	@Test
+	public void compositeFilter()
+	{
+		SqlSortFilterPushdown pushdown = createPushdown();
+		List<ValuedQueryParameter> parameters = new ArrayList<>();
+		String where = pushdown.createWhereClause(new CompositeDatasetFilter(
+				filter("labeled", "Text", "STARTS_WITH", "Jo", null),
+				filter("AMOUNT", "Numeric", "GREATER_THAN_EQUAL_TO", "5", null)), parameters);
+		assert "LOWER(CUSTOMER_NAME) LIKE ? ESCAPE '!' AND AMOUNT >= ?".equals(where) : where;
+		assert parameters.size() == 2;
+		
+		// all or nothing
+		parameters.clear();
+		where = pushdown.createWhereClause(new CompositeDatasetFilter(
+				filter("NAME", "Text", "STARTS_WITH", "Jo", null),
+				filter("indexed", "Text", "EQUALS", "x", null)), parameters);
+		assert where == null;
+		assert parameters.isEmpty();
+	}
+	
+	@Test
+	public void wrapQuery()
+	{
+		assert SqlSortFilterPushdown.isWrappable("  select a from t");
+		assert !SqlSortFilterPushdown.isWrappable("{call proc(?)}");
+		assert !SqlSortFilterPushdown.isWrappable("with x as (select 1) select * from x");
+		
+		String wrapped = SqlSortFilterPushdown.wrapQuery("select a from t where b = ?;", "a > ?", "a DESC");
+		assert "SELECT * FROM (\nselect a from t where b = ?\n) jr_pushdown WHERE a > ? ORDER BY a DESC".equals(wrapped) : wrapped;
+	}
+	
+}
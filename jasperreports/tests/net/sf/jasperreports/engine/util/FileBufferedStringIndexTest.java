@@ -0,0 +1,109 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class FileBufferedStringIndexTest
+{
+	@Test(dataProvider = "thresholds")
+	public void exactIndexes(int memoryThreshold, int count)
+	{
+		FileBufferedStringIndex index = new FileBufferedStringIndex(memoryThreshold);
+		try
+		{
+			for (int i = 0; i < count; i++)
+			{
+				String value = value(i);
+				assert index.indexOf(value) == -1;
+				int added = index.add(value);
+				assert added == i;
+				assert index.indexOf(value) == i;
+			}
+			
+			assert index.size() == count;
+			assert index.isFileBuffered() == (memoryThreshold >= 0 && count >= memoryThreshold);
+			
+			for (int i = 0; i < count; i++)
+			{
+				assert index.indexOf(value(i)) == i;
+			}
+			assert index.indexOf("missing") == -1;
+			assert index.indexOf(value(0) + "x") == -1;
+		}
+		finally
+		{
+			index.dispose();
+		}
+	}
+	
+	@Test
+	public void largeValues()
+	{
+		FileBufferedStringIndex index = new FileBufferedStringIndex(0);
+		try
+		{
+			StringBuilder builder = new StringBuilder();
+			for (int i = 0; i < 100000; i++)
+			{
+				builder.append((char) ('a' + i % 26));
+			}
+			String large = builder.toString();
+			
+			int smallIndex = index.add("small");
+			int largeIndex = index.add(large);
+			int accentedIndex = index.add("ăîșț");
+			assert smallIndex == 0;
+			assert largeIndex == 1;
+			assert accentedIndex == 2;
+			
+			assert index.indexOf(large) == 1;
+			assert index.indexOf(large.substring(1)) == -1;
+			assert index.indexOf("small") == 0;
+			assert index.indexOf("ăîșț") == 2;
+		}
+		finally
+		{
+			index.dispose();
+		}
+	}
+	
+	private static String value(int i)
+	{
+		return "value " + i;
+	}
+
+	@DataProvider
+	public Object[][] thresholds()
+	{
+		return new Object[][] {
+			{-1, 1000},
+			{0, 1000},
+			{100, 1000},
+			{1000, 1000},
+			{10, 200000},
+		};
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JROrigin;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.base.JRBasePrintRectangle;
+import net.sf.jasperreports.engine.design.JRDesignStyle;
+import net.sf.jasperreports.engine.export.JRXmlExporter;
+import net.sf.jasperreports.engine.type.BandTypeEnum;
+import net.sf.jasperreports.export.ExporterInput;
+import net.sf.jasperreports.export.SimpleXmlExporterOutput;
+
+public class IndexedPrintReaderTest
+{
+	
+	private static final int PAGE_COUNT = 50;
+	
+	@Test
+	public void randomAccess() throws JRException, IOException
+	{
+		JasperPrint print = createPrint();
+		File file = File.createTempFile("indexed", ".jrpx");
+		try
+		{
+			IndexedPrintWriter.save(print, file);
+			
+			try (IndexedPrintReader reader = IndexedPrintReader.open(file))
+			{
+				JasperPrint loaded = reader.getJasperPrint();
+				assert reader.getPageCount() == PAGE_COUNT;
+				assert loaded.getPages().size() == PAGE_COUNT;
+				assert loaded.getName().equals(print.getName());
+				assert loaded.getStylesList().size() == 1;
+				assert loaded.getOriginsList().size() == 1;
+				
+				for (int pageIndex : new int[]{37, 2, PAGE_COUNT - 1, 0})
+				{
+					JRPrintPage page = loaded.getPages().get(pageIndex);
+					assert page.getElements().size() == 2;
+					
+					JRPrintElement element = page.getElements().get(1);
+					assert element.getX() == pageIndex;
+					// shared objects are resolved to the header instances
+					assert element.getStyle() == loaded.getStylesList().get(0);
+					assert element.getOrigin() == loaded.getOriginsList().get(0);
+					assert element.getDefaultStyleProvider() == loaded.getDefaultStyleProvider();
+				}
+				
+				assert loaded.getPages().get(37) == loaded.getPages().get(37);
+				assert reader.readPage(37) != loaded.getPages().get(37);
+			}
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+	
+	@Test
+	public void exportPageRange() throws JRException, IOException
+	{
+		File file = File.createTempFile("indexed", ".jrpx");
+		try
+		{
+			IndexedPrintWriter.save(createPrint(), file);
+			
+			try (IndexedPrintReader reader = IndexedPrintReader.open(file))
+			{
+				ExporterInput input = reader.createExporterInput(10, 12);
+				
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				JRXmlExporter exporter = new JRXmlExporter();
+				exporter.setExporterInput(input);
+				exporter.setExporterOutput(new SimpleXmlExporterOutput(out));
+				exporter.exportReport();
+				
+				String xml = out.toString("UTF-8");
+				int pages = xml.split("<page>", -1).length - 1;
+				assert pages == 3 : pages;
+			}
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+	
+	@Test(expectedExceptions = JRException.class)
+	public void invalidFile() throws JRException, IOException
+	{
+		File file = File.createTempFile("indexed", ".jrpx");
+		try
+		{
+			Files.write(file.toPath(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20});
+			IndexedPrintReader.open(file).close();
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+	
+	private static JasperPrint createPrint() throws JRException
+	{
+		JasperPrint print = new JasperPrint();
+		print.setName("indexed");
+		print.setPageWidth(595);
+		print.setPageHeight(842);
+		
+		JRDesignStyle style = new JRDesignStyle();
+		style.setName("shared");
+		style.setFontSize(12f);
+		print.addStyle(style);
+		
+		JROrigin origin = new JROrigin(BandTypeEnum.DETAIL);
+		print.addOrigin(origin);
+		
+		for (int i = 0; i < PAGE_COUNT; i++)
+		{
+			JRBasePrintPage page = new JRBasePrintPage();
+			for (int j = 0; j < 2; j++)
+			{
+				JRBasePrintRectangle rectangle = new JRBasePrintRectangle(print.getDefaultStyleProvider());
+				rectangle.setX(i);
+				rectangle.setY(j * 10);
+				rectangle.setWidth(100);
+				rectangle.setHeight(10);
+				rectangle.setStyle(style);
+				rectangle.setOrigin(origin);
+				page.addElement(rectangle);
+			}
+			print.addPage(page);
+		}
+		return print;
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.util;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRLineBox;
+import net.sf.jasperreports.engine.JRParagraph;
+import net.sf.jasperreports.engine.JRPen;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import net.sf.jasperreports.engine.xml.JRXmlLoader;
+
+public class StyleResolverTest
+{
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"styles\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\">"
+			+ "<style name=\"default\" isDefault=\"true\" fontName=\"DejaVu Sans\" fontSize=\"9\" forecolor=\"#FF0000\">"
+			+ "<pen lineWidth=\"2\"/><box padding=\"3\"/><paragraph lineSpacing=\"Double\"/></style>"
+			+ "<style name=\"parent\" isBold=\"true\" backcolor=\"#00FF00\" pattern=\"#,##0\">"
+			+ "<box leftPadding=\"5\"/><paragraph leftIndent=\"4\"/></style>"
+			+ "<style name=\"child\" style=\"parent\" fontSize=\"12\" forecolor=\"#0000FF\" markup=\"html\">"
+			+ "<pen lineStyle=\"Dashed\"/><box padding=\"1\"/><paragraph spacingBefore=\"2\"/></style>"
+			+ "</jasperReport>";
+	
+	@Test
+	public void flattenedStyles() throws JRException
+	{
+		JasperDesign design = JRXmlLoader.load(DefaultJasperReportsContext.getInstance(), 
+				new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)));
+		JasperReport report = JasperCompileManager.compileReport(design);
+		StyleResolver resolver = report.getStyleResolver();
+		StyleResolver walkingResolver = walkingResolver();
+		
+		for (JRStyle designStyle : design.getStyles())
+		{
+			// design styles are resolved by walking the inheritance chain
+			assert resolver.getFlattenedStyle(designStyle) == null;
+			
+			JRStyle style = style(report, designStyle.getName());
+			FlattenedStyle flattenedStyle = resolver.getFlattenedStyle(style);
+			assert flattenedStyle != null;
+			assert flattenedStyle == resolver.getFlattenedStyle(style);
+			
+			assertSameAttributes(style, walkingResolver);
+		}
+		
+		JRStyle child = style(report, "child");
+		assert "DejaVu Sans".equals(child.getFontName());
+		assert child.getFontsize() == 12f;
+		assert child.isBold();
+		assert child.getLinePen().getLineWidth() == 2f;
+		assert child.getLineBox().getLeftPadding() == 1;
+		assert child.getParagraph().getLeftIndent() == 4;
+		
+		JRStyle parent = style(report, "parent");
+		assert parent.getLineBox().getLeftPadding() == 5;
+		assert parent.getLineBox().getTopPadding() == 3;
+		assert parent.getLinePen().getLineColor().equals(parent.getForecolor());
+	}
+	
+	@Test
+	public void changedStyles() throws JRException
+	{
+		JasperDesign design = JRXmlLoader.load(DefaultJasperReportsContext.getInstance(), 
+				new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)));
+		JasperReport report = JasperCompileManager.compileReport(design);
+		JRStyle defaultStyle = style(report, "default");
+		JRStyle parent = style(report, "parent");
+		JRStyle child = style(report, "child");
+		
+		assert Color.BLUE.equals(child.getForecolor());
+		assert Color.GREEN.equals(child.getBackcolor());
+		assert "DejaVu Sans".equals(child.getFontName());
+		assert child.getLinePen().getLineWidth() == 2f;
+		assert parent.getLineBox().getLeftPadding() == 5;
+		assert child.getParagraph().getLeftIndent() == 4;
+		
+		// the cached attributes follow the changes of the styles and of their parent and default styles
+		child.setForecolor(Color.ORANGE);
+		parent.setBackcolor(Color.YELLOW);
+		defaultStyle.setFontName("Serif");
+		child.getLinePen().setLineWidth(5f);
+		parent.getLineBox().setLeftPadding(7);
+		parent.getParagraph().setLeftIndent(8);
+		
+		assert Color.ORANGE.equals(child.getForecolor());
+		assert Color.YELLOW.equals(child.getBackcolor());
+		assert "Serif".equals(child.getFontName());
+		assert "Serif".equals(parent.getFontName());
+		assert child.getLinePen().getLineWidth() == 5f;
+		assert parent.getLineBox().getLeftPadding() == 7;
+		assert child.getParagraph().getLeftIndent() == 8;
+		
+		for (JRStyle style : report.getStyles())
+		{
+			assertSameAttributes(style, walkingResolver());
+		}
+	}
+	
+	private static StyleResolver walkingResolver()
+	{
+		return new StyleResolver(DefaultJasperReportsContext.getInstance())
+		{
+			@Override
+			public FlattenedStyle getFlattenedStyle(JRStyle style)
+			{
+				return null;
+			}
+		};
+	}
+	
+	private static JRStyle style(JasperReport report, String name)
+	{
+		for (JRStyle style : report.getStyles())
+		{
+			if (name.equals(style.getName()))
+			{
+				return style;
+			}
+		}
+		throw new IllegalArgumentException(name);
+	}
+	
+	private static void assertSameAttributes(JRStyle style, StyleResolver walkingResolver)
+	{
+		String name = style.getName();
+		assert ObjectUtils.equals(style.getModeValue(), walkingResolver.getModeValue(style)) : name;
+		assert ObjectUtils.equals(style.getForecolor(), walkingResolver.getForecolor(style)) : name;
+		assert ObjectUtils.equals(style.getBackcolor(), walkingResolver.getBackcolor(style)) : name;
+		assert ObjectUtils.equals(style.getMarkup(), walkingResolver.getMarkup(style)) : name;
+		assert ObjectUtils.equals(style.getPattern(), walkingResolver.getPattern(style)) : name;
+		assert ObjectUtils.equals(style.getFontName(), walkingResolver.getFontName(style)) : name;
+		assert ObjectUtils.equals(style.getFontsize(), walkingResolver.getFontsize(style)) : name;
+		assert ObjectUtils.equals(style.isBold(), walkingResolver.isBold(style)) : name;
+		assert ObjectUtils.equals(style.isItalic(), walkingResolver.isItalic(style)) : name;
+		assert ObjectUtils.equals(style.getPdfFontName(), walkingResolver.getPdfFontName(style)) : name;
+		JRPen pen = style.getLinePen();
+		assert ObjectUtils.equals(pen.getLineWidth(), walkingResolver.getLineWidth(pen, style.getDefaultLineWidth())) : name;
+		assert ObjectUtils.equals(pen.getLineStyleValue(), walkingResolver.getLineStyleValue(pen)) : name;
+		assert ObjectUtils.equals(pen.getLineColor(), walkingResolver.getLineColor(pen, style.getForecolor())) : name;
+		JRParagraph paragraph = style.getParagraph();
+		assert ObjectUtils.equals(paragraph.getLineSpacing(), walkingResolver.getLineSpacing(paragraph)) : name;
+		assert ObjectUtils.equals(paragraph.getLeftIndent(), walkingResolver.getLeftIndent(paragraph)) : name;
+		assert ObjectUtils.equals(paragraph.getSpacingBefore(), walkingResolver.getSpacingBefore(paragraph)) : name;
+		assert ObjectUtils.equals(paragraph.getTabStopWidth(), walkingResolver.getTabStopWidth(paragraph)) : name;
+		JRLineBox box = style.getLineBox();
+		assert ObjectUtils.equals(box.getPadding(), walkingResolver.getPadding(box)) : name;
+		assert ObjectUtils.equals(box.getTopPadding(), walkingResolver.getTopPadding(box)) : name;
+		assert ObjectUtils.equals(box.getLeftPadding(), walkingResolver.getLeftPadding(box)) : name;
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.base.JRBasePrintRectangle;
+import net.sf.jasperreports.engine.base.JRVirtualPrintPage;
+import net.sf.jasperreports.engine.export.JRXmlExporter;
+import net.sf.jasperreports.engine.fill.AsynchronousFilllListener;
+import net.sf.jasperreports.engine.fill.FillListener;
+import net.sf.jasperreports.engine.fill.JRGzipVirtualizer;
+import net.sf.jasperreports.engine.fill.JRVirtualizationContext;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleXmlExporterOutput;
+
+public class JRPrintXmlLoaderTest
+{
+	
+	private static final int PAGE_COUNT = 10;
+	private static final int ELEMENT_COUNT = 5;
+	
+	@Test
+	public void loadIntoVirtualizer() throws JRException
+	{
+		byte[] xml = exportXml();
+		
+		JRGzipVirtualizer virtualizer = new JRGzipVirtualizer(2);
+		try
+		{
+			JasperPrint print = JRPrintXmlLoader.load(DefaultJasperReportsContext.getInstance(), 
+					new ByteArrayInputStream(xml), virtualizer);
+			
+			assert JRVirtualizationContext.getRegistered(print) != null;
+			assert print.getPages().size() == PAGE_COUNT;
+			for (int i = 0; i < PAGE_COUNT; i++)
+			{
+				JRPrintPage page = print.getPages().get(i);
+				assert page instanceof JRVirtualPrintPage;
+				verifyPage(page, i);
+			}
+		}
+		finally
+		{
+			virtualizer.cleanup();
+		}
+	}
+	
+	@Test
+	public void asynchronousLoad() throws Exception
+	{
+		byte[] xml = exportXml();
+		
+		JRGzipVirtualizer virtualizer = new JRGzipVirtualizer(2);
+		try
+		{
+			AsynchronousPrintXmlLoadHandle handle = new AsynchronousPrintXmlLoadHandle(
+					DefaultJasperReportsContext.getInstance(), new ByteArrayInputStream(xml), virtualizer);
+			
+			List<Integer> generatedPages = new ArrayList<>();
+			handle.addFillListener(new FillListener()
+			{
+				@Override
+				public void pageGenerated(JasperPrint jasperPrint, int pageIndex)
+				{
+					// the page is available as soon as it is reported
+					verifyPage(jasperPrint.getPages().get(pageIndex), pageIndex);
+					generatedPages.add(pageIndex);
+				}
+				
+				@Override
+				public void pageUpdated(JasperPrint jasperPrint, int pageIndex)
+				{
+				}
+			});
+			
+			CountDownLatch done = new CountDownLatch(1);
+			AtomicReference<Object> result = new AtomicReference<>();
+			handle.addListener(new AsynchronousFilllListener()
+			{
+				@Override
+				public void reportFinished(JasperPrint jasperPrint)
+				{
+					result.set(jasperPrint);
+					done.countDown();
+				}
+				
+				@Override
+				public void reportFillError(Throwable t)
+				{
+					result.set(t);
+					done.countDown();
+				}
+				
+				@Override
+				public void reportCancelled()
+				{
+					done.countDown();
+				}
+			});
+			
+			handle.startFill();
+			boolean completed = done.await(30, TimeUnit.SECONDS);
+			assert completed;
+			
+			assert result.get() instanceof JasperPrint : result.get();
+			assert ((JasperPrint) result.get()).getPages().size() == PAGE_COUNT;
+			assert generatedPages.size() == PAGE_COUNT;
+			for (int i = 0; i < PAGE_COUNT; i++)
+			{
+				assert generatedPages.get(i) == i;
+			}
+		}
+		finally
+		{
+			virtualizer.cleanup();
+		}
+	}
+	
+	private static byte[] exportXml() throws JRException
+	{
+		JasperPrint print = new JasperPrint();
+		print.setName("loader");
+		print.setPageWidth(595);
+		print.setPageHeight(842);
+		for (int i = 0; i < PAGE_COUNT; i++)
+		{
+			JRBasePrintPage page = new JRBasePrintPage();
+			for (int j = 0; j < ELEMENT_COUNT; j++)
+			{
+				JRBasePrintRectangle rectangle = new JRBasePrintRectangle(print.getDefaultStyleProvider());
+				rectangle.setX(i);
+				rectangle.setY(j * 10);
+				rectangle.setWidth(100);
+				rectangle.setHeight(10);
+				page.addElement(rectangle);
+			}
+			print.addPage(page);
+		}
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		JRXmlExporter exporter = new JRXmlExporter();
+		exporter.setExporterInput(new SimpleExporterInput(print));
+		exporter.setExporterOutput(new SimpleXmlExporterOutput(out));
+		exporter.exportReport();
+		return out.toByteArray();
+	}
+	
+	private static void verifyPage(JRPrintPage page, int pageIndex)
+	{
+		List<JRPrintElement> elements = page.getElements();
+		assert elements.size() == ELEMENT_COUNT;
+		for (int j = 0; j < ELEMENT_COUNT; j++)
+		{
+			assert elements.get(j).getX() == pageIndex;
+			assert elements.get(j).getY() == j * 10;
+		}
+	}
+
+}
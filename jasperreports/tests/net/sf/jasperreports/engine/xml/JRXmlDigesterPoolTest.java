@@ -0,0 +1,131 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.engine.xml;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.design.JasperDesign;
+
+public class JRXmlDigesterPoolTest
+{
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"%s\" pageWidth=\"595\" pageHeight=\"842\" columnWidth=\"555\">"
+			+ "<field name=\"%s\" class=\"java.lang.String\"/>"
+			+ "</jasperReport>";
+	
+	@Test
+	public void reuseReportDigester() throws JRException
+	{
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		JRXmlDigesterPool pool = JRXmlDigesterPool.getInstance(context, JRXmlDigesterPool.REPORT_DIGESTER_POOL);
+		JRXmlDigester pooled = pool.getDigester();
+		assert pooled == null;
+		
+		JasperDesign first = load(context, "first", "a");
+		JRXmlDigester digester = pool.getDigester();
+		assert digester != null;
+		assert digester.getRoot() == null;
+		pool.returnDigester(digester);
+		
+		JasperDesign second = load(context, "second", "b");
+		pooled = pool.getDigester();
+		assert pooled == digester;
+		
+		assert first.getName().equals("first");
+		assert first.getFieldsMap().keySet().equals(Collections.singleton("a"));
+		assert second.getName().equals("second");
+		assert second.getFieldsMap().keySet().equals(Collections.singleton("b"));
+	}
+	
+	@Test
+	public void failedParseNotReused() throws JRException
+	{
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		JRXmlDigesterPool pool = JRXmlDigesterPool.getInstance(context, JRXmlDigesterPool.REPORT_DIGESTER_POOL);
+		
+		try
+		{
+			JRXmlLoader.load(context, new ByteArrayInputStream("<jasperReport".getBytes(StandardCharsets.UTF_8)));
+			assert false;
+		}
+		catch (JRException e)
+		{
+			// expected
+		}
+		JRXmlDigester pooled = pool.getDigester();
+		assert pooled == null;
+		
+		JasperDesign design = load(context, "valid", "a");
+		assert design.getName().equals("valid");
+	}
+	
+	@Test
+	public void childContextPool() throws JRException
+	{
+		SimpleJasperReportsContext parent = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		SimpleJasperReportsContext child = new SimpleJasperReportsContext(parent);
+		JRXmlDigesterPool parentPool = JRXmlDigesterPool.getInstance(parent, JRXmlDigesterPool.REPORT_DIGESTER_POOL);
+		JRXmlDigesterPool childPool = JRXmlDigesterPool.getInstance(child, JRXmlDigesterPool.REPORT_DIGESTER_POOL);
+		assert childPool != parentPool;
+		JRXmlDigesterPool sameChildPool = JRXmlDigesterPool.getInstance(child, JRXmlDigesterPool.REPORT_DIGESTER_POOL);
+		assert childPool == sameChildPool;
+		
+		// digesters created for the parent are not used for the child
+		load(parent, "parent", "a");
+		JRXmlDigester parentDigester = parentPool.getDigester();
+		assert parentDigester != null;
+		load(child, "child", "b");
+		JRXmlDigester childDigester = childPool.getDigester();
+		assert childDigester != null;
+	}
+	
+	@Test
+	public void poolDisabled() throws JRException
+	{
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		context.setProperty(JRXmlDigesterPool.PROPERTY_POOL_SIZE, "0");
+		
+		load(context, "report", "a");
+		JRXmlDigester pooled = JRXmlDigesterPool.getInstance(context, JRXmlDigesterPool.REPORT_DIGESTER_POOL).getDigester();
+		assert pooled == null;
+	}
+	
+	private static JasperDesign load(SimpleJasperReportsContext context, String name, String field) throws JRException
+	{
+		String xml = String.format(REPORT, name, field);
+		return JRXmlLoader.load(context, new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+	}
+
+}
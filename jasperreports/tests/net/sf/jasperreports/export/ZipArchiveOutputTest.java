@@ -0,0 +1,176 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.export.zip.DeflatedZipEntry;
+import net.sf.jasperreports.engine.export.zip.ZipArchiveOutput;
+
+public class ZipArchiveOutputTest
+{
+	@DataProvider
+	public Object[][] threads()
+	{
+		return new Object[][] {{0}, {1}, {4}};
+	}
+	
+	@Test(dataProvider = "threads")
+	public void deflatedAndStreamedEntries(int threads) throws IOException
+	{
+		ExecutorService executor = threads == 0 ? null : Executors.newFixedThreadPool(threads);
+		try
+		{
+			Map<String, byte[]> contents = new LinkedHashMap<>();
+			contents.put("empty.xml", new byte[0]);
+			contents.put("small.xml", "<small/>".getBytes("UTF-8"));
+			contents.put("text/large.xml", text(1_000_000));
+			contents.put("random.bin", random(400_000));
+			contents.put("ăîșț.xml", text(200_000));
+			
+			ByteArrayOutputStream zipData = new ByteArrayOutputStream();
+			ZipArchiveOutput output = new ZipArchiveOutput(zipData, executor);
+			boolean streamed = false;
+			for (Map.Entry<String, byte[]> content : contents.entrySet())
+			{
+				if (streamed)
+				{
+					OutputStream entryStream = output.startEntry(content.getKey());
+					write(entryStream, content.getValue());
+				}
+				else
+				{
+					DeflatedZipEntry entry = new DeflatedZipEntry(content.getKey(), null, executor);
+					try
+					{
+						write(entry.getOutputStream(), content.getValue());
+						output.writeDeflatedEntry(entry);
+					}
+					finally
+					{
+						entry.dispose();
+					}
+				}
+				streamed = !streamed;
+			}
+			output.finish();
+			
+			Map<String, byte[]> readContents = new LinkedHashMap<>();
+			try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zipData.toByteArray())))
+			{
+				ZipEntry zipEntry;
+				while ((zipEntry = zis.getNextEntry()) != null)
+				{
+					ByteArrayOutputStream entryData = new ByteArrayOutputStream();
+					byte[] buffer = new byte[4096];
+					int read;
+					while ((read = zis.read(buffer)) > 0)
+					{
+						entryData.write(buffer, 0, read);
+					}
+					readContents.put(zipEntry.getName(), entryData.toByteArray());
+				}
+			}
+			
+			assert readContents.keySet().equals(contents.keySet());
+			for (Map.Entry<String, byte[]> content : contents.entrySet())
+			{
+				assert Arrays.equals(readContents.get(content.getKey()), content.getValue()) : content.getKey();
+			}
+		}
+		finally
+		{
+			if (executor != null)
+			{
+				executor.shutdownNow();
+			}
+		}
+	}
+	
+	@Test
+	public void uncompressedData() throws IOException
+	{
+		byte[] content = text(300_000);
+		DeflatedZipEntry entry = new DeflatedZipEntry("entry.xml", 0, null);
+		try
+		{
+			write(entry.getOutputStream(), content);
+			
+			ByteArrayOutputStream data = new ByteArrayOutputStream();
+			entry.writeData(data);
+			assert Arrays.equals(data.toByteArray(), content);
+			assert entry.getSize() == content.length;
+			assert entry.getCompressedSize() < content.length;
+		}
+		finally
+		{
+			entry.dispose();
+		}
+	}
+	
+	protected void write(OutputStream os, byte[] content) throws IOException
+	{
+		// writing in uneven chunks to cross block boundaries
+		int offset = 0;
+		int chunk = 1;
+		while (offset < content.length)
+		{
+			int length = Math.min(chunk, content.length - offset);
+			os.write(content, offset, length);
+			offset += length;
+			chunk = chunk * 3 + 1;
+		}
+	}
+	
+	protected byte[] text(int length) throws IOException
+	{
+		StringBuilder text = new StringBuilder(length);
+		for (int i = 0; text.length() < length; i++)
+		{
+			text.append("<row r=\"").append(i).append("\"><c t=\"s\"><v>").append(i % 97).append("</v></c></row>\n");
+		}
+		return text.substring(0, length).getBytes("UTF-8");
+	}
+	
+	protected byte[] random(int length)
+	{
+		byte[] data = new byte[length];
+		new Random(length).nextBytes(data);
+		return data;
+	}
+}
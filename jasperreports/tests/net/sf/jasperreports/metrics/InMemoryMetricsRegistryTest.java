@@ -0,0 +1,121 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.export.JRCsvExporter;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.export.SimpleCsvReportConfiguration;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleWriterExporterOutput;
+
+public class InMemoryMetricsRegistryTest
+{
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"metrics\" pageWidth=\"595\" pageHeight=\"200\" columnWidth=\"555\">"
+			+ "<detail><band height=\"20\">"
+			+ "<textField><reportElement x=\"0\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>$V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "</band></detail>"
+			+ "</jasperReport>";
+	
+	@Test
+	public void fillAndExportMetrics() throws JRException
+	{
+		InMemoryMetricsRegistry registry = new InMemoryMetricsRegistry();
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext(DefaultJasperReportsContext.getInstance());
+		context.setExtensions(MetricsRegistry.class, Collections.singletonList(registry));
+		assert EngineMetrics.getRegistry(context) == registry;
+		
+		JasperReport report = JasperCompileManager.compileReport(
+				new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)));
+		
+		JRSwapFile swapFile = new JRSwapFile(context, System.getProperty("java.io.tmpdir"), 1024, 10);
+		JRSwapFileVirtualizer virtualizer = new JRSwapFileVirtualizer(2, swapFile, true);
+		try
+		{
+			Map<String, Object> params = new HashMap<>();
+			params.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+			JasperPrint print = JasperFillManager.getInstance(context).fill(report, params, new JREmptyDataSource(100));
+			int pageCount = print.getPages().size();
+			assert pageCount > 2;
+			
+			assert registry.getCount(EngineMetrics.FILL_REPORTS) == 1;
+			assert registry.getCount(EngineMetrics.FILL_PAGES) == pageCount;
+			assert registry.getTimerCount(EngineMetrics.FILL_TIME) == 1;
+			assert registry.getTimerTotal(EngineMetrics.FILL_TIME) > 0;
+			assert registry.getCount(EngineMetrics.VIRTUALIZER_PAGE_OUT) > 0;
+			assert registry.getCount(EngineMetrics.VIRTUALIZER_PAGE_OUT_BYTES) > 0;
+			assert registry.getCount(EngineMetrics.SWAP_FILE_SIZE) > 0;
+			assert registry.getCount(EngineMetrics.FONT_INFO_CACHE_HITS) > 0;
+			
+			JRCsvExporter exporter = new JRCsvExporter(context);
+			exporter.setExporterInput(new SimpleExporterInput(print));
+			exporter.setExporterOutput(new SimpleWriterExporterOutput(new StringWriter()));
+			SimpleCsvReportConfiguration configuration = new SimpleCsvReportConfiguration();
+			configuration.setStartPageIndex(1);
+			exporter.setConfiguration(configuration);
+			exporter.exportReport();
+			
+			assert registry.getCount(EngineMetrics.EXPORT_PAGES) == pageCount - 1;
+			assert registry.getTimerCount(EngineMetrics.EXPORT_TIME) == 1;
+			assert registry.getTimerCount(EngineMetrics.EXPORT_TIME_PREFIX + "csv") == 1;
+			assert registry.getCount(EngineMetrics.VIRTUALIZER_PAGE_IN) > 0;
+			assert registry.getCount(EngineMetrics.VIRTUALIZER_PAGE_IN_BYTES) > 0;
+			assert registry.getRate(EngineMetrics.FILL_PAGES) > 0;
+		}
+		finally
+		{
+			virtualizer.cleanup();
+		}
+		
+		assert registry.getCount(EngineMetrics.SWAP_FILE_SIZE) == 0;
+		
+		registry.reset();
+		assert registry.getCounterNames().isEmpty();
+	}
+
+}
@@ -0,0 +1,169 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.renderers;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.SimpleJasperReportsContext;
+import net.sf.jasperreports.engine.fonts.FontFamily;
+import net.sf.jasperreports.engine.fonts.SimpleFontFamily;
+import net.sf.jasperreports.engine.type.ImageTypeEnum;
+import net.sf.jasperreports.engine.util.JRTypeSniffer;
+import net.sf.jasperreports.metrics.EngineMetrics;
+import net.sf.jasperreports.metrics.InMemoryMetricsRegistry;
+import net.sf.jasperreports.metrics.MetricsRegistry;
+import net.sf.jasperreports.renderers.util.RendererUtil;
+
+public class RasterizedImageCacheTest
+{
+	
+	private static final String SVG = 
+			"<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"40\" height=\"20\">"
+			+ "<rect x=\"2\" y=\"2\" width=\"30\" height=\"16\" fill=\"#%06X\"/></svg>";
+	
+	@Test
+	public void cachedRasterization() throws JRException
+	{
+		RasterizedImageCache.getInstance().clear();
+		
+		InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext();
+		context.setExtensions(MetricsRegistry.class, Collections.singletonList(metrics));
+		
+		SimpleJasperReportsContext uncachedContext = new SimpleJasperReportsContext();
+		uncachedContext.setProperty(RasterizedImageCache.PROPERTY_MAX_SIZE, "0");
+		
+		Dimension dimension = new Dimension(80, 40);
+		byte[] expected = rasterize(uncachedContext, svg(0xFF0000), dimension, null);
+		assert JRTypeSniffer.getImageTypeValue(expected) == ImageTypeEnum.PNG;
+		assert RasterizedImageCache.getInstance().getSize() == 0;
+		
+		// renderers with distinct IDs and identical data share the image
+		byte[] data = rasterize(context, svg(0xFF0000), dimension, null);
+		assert Arrays.equals(data, expected);
+		byte[] cachedData = rasterize(context, svg(0xFF0000), dimension, null);
+		assert cachedData == data;
+		assert metrics.getCount(EngineMetrics.RASTERIZED_IMAGES_CACHE_MISSES) == 1;
+		assert metrics.getCount(EngineMetrics.RASTERIZED_IMAGES_CACHE_HITS) == 1;
+		
+		// different data, dimension and background produce different images
+		byte[] otherData = rasterize(context, svg(0x00FF00), dimension, null);
+		byte[] otherDimensionData = rasterize(context, svg(0xFF0000), new Dimension(40, 20), null);
+		byte[] otherBackcolorData = rasterize(context, svg(0xFF0000), dimension, Color.BLUE);
+		assert otherData != data;
+		assert otherDimensionData != data;
+		assert otherBackcolorData != data;
+		assert metrics.getCount(EngineMetrics.RASTERIZED_IMAGES_CACHE_MISSES) == 4;
+		assert metrics.getCount(EngineMetrics.RASTERIZED_IMAGES_CACHE_HITS) == 1;
+	}
+	
+	@Test
+	public void fontExtensions() throws JRException
+	{
+		RasterizedImageCache.getInstance().clear();
+		
+		InMemoryMetricsRegistry metrics = new InMemoryMetricsRegistry();
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext();
+		context.setExtensions(MetricsRegistry.class, Collections.singletonList(metrics));
+		context.setExtensions(FontFamily.class, Collections.singletonList(new SimpleFontFamily()));
+		
+		// a context such as the ones created for fills, which uses the same fonts
+		SimpleJasperReportsContext childContext = new SimpleJasperReportsContext(context);
+		
+		SimpleJasperReportsContext otherFontsContext = new SimpleJasperReportsContext();
+		otherFontsContext.setExtensions(MetricsRegistry.class, Collections.singletonList(metrics));
+		otherFontsContext.setExtensions(FontFamily.class, Collections.singletonList(new SimpleFontFamily()));
+		
+		Dimension dimension = new Dimension(80, 40);
+		byte[] data = rasterize(context, svg(0xFF0000), dimension, null);
+		byte[] childData = rasterize(childContext, svg(0xFF0000), dimension, null);
+		assert childData == data;
+		assert metrics.getCount(EngineMetrics.RASTERIZED_IMAGES_CACHE_HITS) == 1;
+		
+		// the fonts of SVG text could be different
+		byte[] otherFontsData = rasterize(otherFontsContext, svg(0xFF0000), dimension, null);
+		assert otherFontsData != data;
+		assert metrics.getCount(EngineMetrics.RASTERIZED_IMAGES_CACHE_MISSES) == 2;
+		
+		RasterizedImageCache.getInstance().clear();
+	}
+	
+	@Test
+	public void eviction()
+	{
+		RasterizedImageCache cache = RasterizedImageCache.getInstance();
+		cache.clear();
+		
+		SimpleJasperReportsContext context = new SimpleJasperReportsContext();
+		Dimension dimension = new Dimension(10, 10);
+		RasterizedImageCache.Key key1 = cache.createKey(context, svgData(1), SimpleDataRenderer.class, dimension, 72, null);
+		RasterizedImageCache.Key key2 = cache.createKey(context, svgData(2), SimpleDataRenderer.class, dimension, 72, null);
+		RasterizedImageCache.Key key3 = cache.createKey(context, svgData(3), SimpleDataRenderer.class, dimension, 72, null);
+		assert key1.equals(cache.createKey(context, svgData(1), SimpleDataRenderer.class, dimension, 72, null));
+		assert !key1.equals(cache.createKey(context, svgData(1), SimpleDataRenderer.class, dimension, 144, null));
+		
+		cache.put(key1, new byte[40], 100);
+		cache.put(key2, new byte[40], 100);
+		assert cache.get(key1) != null;
+		cache.put(key3, new byte[40], 100);
+		
+		// the least recently used image is evicted
+		assert cache.getSize() == 80;
+		assert cache.get(key2) == null;
+		assert cache.get(key1) != null;
+		assert cache.get(key3) != null;
+		
+		cache.put(key2, new byte[200], 100);
+		assert cache.get(key2) == null;
+		assert cache.getSize() == 80;
+		
+		cache.clear();
+	}
+	
+	private static byte[] svgData(int color)
+	{
+		return String.format(SVG, color).getBytes(StandardCharsets.UTF_8);
+	}
+	
+	private static SimpleRenderToImageAwareDataRenderer svg(int color)
+	{
+		return SimpleRenderToImageAwareDataRenderer.getInstance(svgData(color));
+	}
+	
+	private static byte[] rasterize(SimpleJasperReportsContext context, SimpleRenderToImageAwareDataRenderer renderer, 
+			Dimension dimension, Color backcolor) throws JRException
+	{
+		DataRenderable imageRenderer = RendererUtil.getInstance(context).getImageDataRenderable(
+				new RenderersCache(context), renderer, dimension, backcolor);
+		return imageRenderer.getData(context);
+	}
+
+}
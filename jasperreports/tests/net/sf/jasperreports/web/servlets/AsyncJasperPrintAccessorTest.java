@@ -0,0 +1,152 @@
+/*
+ * JasperReports - Free Java Reporting Library.
+ * Copyright (C) 2001 - 2023 Cloud Software Group, Inc. All rights reserved.
+ * http://www.jaspersoft.com
+ *
+ * Unless you have purchased a commercial license agreement from Jaspersoft,
+ * the following license terms apply:
+ *
+ * This program is part of JasperReports.
+ *
+ * JasperReports is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * JasperReports is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with JasperReports. If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.jasperreports.web.servlets;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.PrintElementId;
+import net.sf.jasperreports.engine.fill.AsynchronousFillHandle;
+import net.sf.jasperreports.engine.fill.FillListener;
+
+public class AsyncJasperPrintAccessorTest
+{
+	
+	private static final String REPORT = 
+			"<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\""
+			+ " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+			+ " xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\""
+			+ " name=\"updates\" pageWidth=\"595\" pageHeight=\"200\" columnWidth=\"555\">"
+			+ "<style name=\"default\" isDefault=\"true\" fontName=\"DejaVu Sans\" fontSize=\"9\"/>"
+			+ "<detail><band height=\"20\">"
+			+ "<textField><reportElement x=\"0\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>$V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "<textField evaluationTime=\"Report\"><reportElement key=\"delayed\" x=\"100\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>$V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "<frame><reportElement x=\"200\" y=\"0\" width=\"200\" height=\"20\"/>"
+			+ "<textField evaluationTime=\"Report\"><reportElement key=\"delayed\" x=\"0\" y=\"0\" width=\"100\" height=\"20\"/>"
+			+ "<textFieldExpression>$V{REPORT_COUNT}</textFieldExpression></textField>"
+			+ "</frame>"
+			+ "</band></detail>"
+			+ "</jasperReport>";
+	
+	@Test
+	public void elementUpdates() throws JRException
+	{
+		JasperReport report = JasperCompileManager.compileReport(
+				new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)));
+		AsynchronousFillHandle fillHandle = AsynchronousFillHandle.createHandle(DefaultJasperReportsContext.getInstance(), 
+				report, new HashMap<>(), new JREmptyDataSource(30));
+		final AsyncJasperPrintAccessor accessor = new AsyncJasperPrintAccessor(fillHandle);
+		
+		// request the first page as soon as it's generated, as a viewer would do
+		final List<ReportPageStatus> firstPageStatus = new ArrayList<>();
+		fillHandle.addFillListener(new FillListener()
+		{
+			@Override
+			public void pageGenerated(JasperPrint jasperPrint, int pageIndex)
+			{
+				if (pageIndex == 0)
+				{
+					firstPageStatus.add(accessor.pageStatus(0, null));
+				}
+			}
+			
+			@Override
+			public void pageUpdated(JasperPrint jasperPrint, int pageIndex)
+			{
+				//NOP
+			}
+		});
+		fillHandle.startFill();
+		JasperPrint print = accessor.getFinalJasperPrint();
+		assert print.getPages().size() > 2;
+		
+		assert firstPageStatus.size() == 1;
+		ReportPageStatus status = firstPageStatus.get(0);
+		assert status.pageExists() && !status.isPageFinal();
+		long timestamp = status.getTimestamp();
+		
+		Set<PrintElementId> delayedIds = new HashSet<>();
+		collectDelayedIds(print.getPages().get(0).getElements(), delayedIds);
+		assert delayedIds.size() > 2;
+		
+		ReportPageUpdates updates = accessor.pageUpdates(0, timestamp);
+		assert updates.getStatus().isPageFinal();
+		assert !updates.isFullPage();
+		assert updates.getElementIds().equals(delayedIds);
+		
+		List<JRPrintElement> elements = updates.getElements(print.getPages().get(0));
+		assert elements.size() == delayedIds.size();
+		for (JRPrintElement element : elements)
+		{
+			assert "30".equals(((JRPrintText) element).getFullText());
+		}
+		
+		// the log of the page has been dropped once the final status has been delivered
+		ReportPageUpdates repeatedUpdates = accessor.pageUpdates(0, timestamp);
+		assert repeatedUpdates.getStatus().isPageFinal();
+		assert repeatedUpdates.isFullPage();
+		
+		ReportPageUpdates noClientPageUpdates = accessor.pageUpdates(0, null);
+		assert noClientPageUpdates.isFullPage();
+		// pages that were not requested before being final need to be fully delivered
+		ReportPageUpdates unrequestedPageUpdates = accessor.pageUpdates(1, timestamp);
+		assert unrequestedPageUpdates.isFullPage();
+		ReportPageUpdates missingPageUpdates = accessor.pageUpdates(print.getPages().size(), timestamp);
+		assert !missingPageUpdates.getStatus().pageExists();
+	}
+	
+	private static void collectDelayedIds(List<JRPrintElement> elements, Set<PrintElementId> ids)
+	{
+		for (JRPrintElement element : elements)
+		{
+			if ("delayed".equals(element.getKey()))
+			{
+				ids.add(PrintElementId.forElement(element));
+			}
+			else if (element instanceof JRPrintFrame)
+			{
+				collectDelayedIds(((JRPrintFrame) element).getElements(), ids);
+			}
+		}
+	}
+
+}